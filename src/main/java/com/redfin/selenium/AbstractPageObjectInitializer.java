@@ -1,16 +1,25 @@
 package com.redfin.selenium;
 
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
 import static com.redfin.validity.Validity.validate;
 
@@ -61,6 +70,7 @@ public abstract class AbstractPageObjectInitializer<D extends WebDriver,
      * <li>For each field that is null check if it is an element, an element locator, or a widget</li>
      * <li>If it is one of those types create the object and set it as the value for the field.</li>
      * <li>If it was a widget, then recursively initialize the widget.</li>
+     * <li>If it is a list of widgets, create a {@link WidgetList} that builds each widget when it is first accessed</li>
      * <li>If the field was not-null check if it is a widget</li>
      * <li>If it is a widget create an element for the field and set that as the base then recursively initialize the widget</li>
      * <li>If the field was not-null and not a widget check if it is a page object</li>
@@ -81,17 +91,21 @@ public abstract class AbstractPageObjectInitializer<D extends WebDriver,
         validate().withMessage("Cannot initialize a null page object")
                   .that(page)
                   .isNotNull();
+        PatientListener listener = driver.getListener();
+        listener.beforeInitialization(page.getClass());
         try {
             page.setDriver(driver);
             initializeHelper(page, driver);
+        } catch (PageObjectInitializationException e) {
+            // Simply propagate an exception
+            listener.afterInitialization(page.getClass(), e);
+            throw e;
         } catch (RuntimeException e) {
-            if (e instanceof PageObjectInitializationException) {
-                // Simply propagate an exception
-                throw e;
-            } else {
-                throw new PageObjectInitializationException("Unexpected exception caught during initialization", e);
-            }
+            PageObjectInitializationException failure = new PageObjectInitializationException("Unexpected exception caught during initialization", e);
+            listener.afterInitialization(page.getClass(), failure);
+            throw failure;
         }
+        listener.afterInitialization(page.getClass(), null);
     }
 
     /**
@@ -104,6 +118,7 @@ public abstract class AbstractPageObjectInitializer<D extends WebDriver,
      * <li>For each field that is null check if it is an element, an element locator, or a widget</li>
      * <li>If it is one of those types create the object and set it as the value for the field.</li>
      * <li>If it was a widget, then recursively initialize the widget.</li>
+     * <li>If it is a list of widgets, create a {@link WidgetList} that builds each widget when it is first accessed</li>
      * <li>If the field was not-null check if it is a widget</li>
      * <li>If it is a widget create an element for the field and set that as the base then recursively initialize the widget</li>
      * <li>If the field was not-null and not a widget check if it is a page object</li>
@@ -129,17 +144,92 @@ public abstract class AbstractPageObjectInitializer<D extends WebDriver,
                   .isNotNull();
         validate().withMessage("Cannot initialize a widget with a null element.")
                   .that(widgetElement).isNotNull();
+        PatientListener listener = driver.getListener();
+        listener.beforeInitialization(widget.getClass());
         try {
             widget.setWidgetElement(widgetElement);
             initializeHelper(widget, widgetElement);
+        } catch (PageObjectInitializationException e) {
+            // Simply propagate an exception
+            listener.afterInitialization(widget.getClass(), e);
+            throw e;
         } catch (RuntimeException e) {
-            if (e instanceof PageObjectInitializationException) {
-                // Simply propagate an exception
-                throw e;
-            } else {
-                throw new PageObjectInitializationException("Unexpected exception caught during initialization", e);
+            PageObjectInitializationException failure = new PageObjectInitializationException("Unexpected exception caught during initialization", e);
+            listener.afterInitialization(widget.getClass(), failure);
+            throw failure;
+        }
+        listener.afterInitialization(widget.getClass(), null);
+    }
+
+    /**
+     * Read the given properties of every element field of the given, already initialized, widget
+     * at once. Each element field whose {@link org.openqa.selenium.By} is a standard locator (id, name,
+     * class name, css selector, xpath or tag name) relative to the widget element, and whose element locator
+     * has one of the {@link ElementFilters}, is located, filtered and read with a single script call.
+     * Any other element field (or every field if the web driver cannot execute JavaScript) is read with
+     * {@link AbstractPatientElement#snapshot(ElementProperty...)}. As a side effect the cache of each
+     * element that is found is set to the located element so later actions don't need a lookup.
+     *
+     * @param widget     the {@link AbstractBaseWidgetObject} whose element fields should be read.
+     *                   May not be null and must have been initialized.
+     * @param properties the {@link ElementProperty} instances to read for each element field.
+     *                   May not be null, empty or contain a null property.
+     *
+     * @return a map of the field name to the {@link ElementSnapshot} of each element field, in field
+     * name order. Fields whose element could not be found are not included.
+     *
+     * @throws IllegalArgumentException          if widget is null or if properties is null, empty or
+     *                                           contains a null property.
+     * @throws PageObjectInitializationException if the widget hasn't been initialized.
+     */
+    public final Map<String, ElementSnapshot> hydrateWidget(AbstractBaseWidgetObject<W, C, L, E> widget,
+                                                            ElementProperty... properties) {
+        validate().withMessage("Cannot hydrate a null widget object")
+                  .that(widget)
+                  .isNotNull();
+        validate().withMessage("Cannot hydrate a widget with null or empty properties")
+                  .that(properties)
+                  .isNotEmpty();
+        for (ElementProperty property : properties) {
+            validate().withMessage("Cannot hydrate a widget with a null property")
+                      .that(property)
+                      .isNotNull();
+        }
+        E widgetElement = widget.getWidgetElement();
+        Map<String, E> children = getChildElements(widget);
+        Map<String, List<String>> queries = new LinkedHashMap<>();
+        children.forEach((name, child) -> {
+            AbstractPatientElementLocator<W, ?, ?, ?> locator = child.getLocator();
+            // A filter the script can't evaluate would cost a command per matched element
+            if (null != locator && locator.getParentElement() == widgetElement && ElementFilters.isScriptEvaluable(locator.getFilter())) {
+                Scripts.toQuery(locator.getBy()).ifPresent(query -> queries.put(name, query));
+            }
+        });
+        Map<String, ElementSnapshot> snapshots = new LinkedHashMap<>();
+        Map<String, ElementSnapshot> hydrated = null;
+        if (!queries.isEmpty()) {
+            try {
+                hydrated = hydrateWithScript(widgetElement, children, queries, properties);
+            } catch (NoSuchElementException e) {
+                // Without the widget element none of its children can be found
+                return snapshots;
             }
         }
+        Map<String, ElementSnapshot> scriptSnapshots = hydrated;
+        children.forEach((name, child) -> {
+            if (null != scriptSnapshots && scriptSnapshots.containsKey(name)) {
+                if (null != scriptSnapshots.get(name)) {
+                    snapshots.put(name, scriptSnapshots.get(name));
+                }
+            } else {
+                try {
+                    snapshots.put(name, child.snapshot(properties));
+                } catch (NoSuchElementException ignore) {
+                    // Leave the missing element out of the result
+                }
+            }
+        });
+        return snapshots;
     }
 
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -213,6 +303,133 @@ public abstract class AbstractPageObjectInitializer<D extends WebDriver,
     // Private instance methods
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 
+    /*
+     * Find the non-null element fields of the given widget keyed by field name
+     * in name order.
+     */
+
+    @SuppressWarnings("unchecked")
+    private Map<String, E> getChildElements(Object widget) {
+        List<Field> fields = new ArrayList<>(getAllDeclaredFields(widget));
+        fields.sort(Comparator.comparing(Field::getName));
+        Map<String, E> children = new LinkedHashMap<>();
+        for (Field field : fields) {
+            if (getElementClass().equals(field.getType())) {
+                field.setAccessible(true);
+                try {
+                    Object value = field.get(widget);
+                    if (null != value) {
+                        children.putIfAbsent(field.getName(), (E) value);
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new PageObjectInitializationException("Unable to get the current value of the field: " + field, e);
+                }
+            }
+        }
+        return children;
+    }
+
+    /*
+     * Locate and read every queried child relative to the located widget element
+     * with a single script. The result has an entry for each queried child which
+     * is null if no element matched the child's locator and filter. Null is returned
+     * instead if the script can't be used so that every child is read natively. The
+     * widget element's own retry logic handles a stale widget element.
+     */
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ElementSnapshot> hydrateWithScript(E widgetElement,
+                                                           Map<String, E> children,
+                                                           Map<String, List<String>> queries,
+                                                           ElementProperty[] properties) {
+        // The displayed property is read last to evaluate the filter of each child
+        List<List<String>> propertyArguments = new ArrayList<>(properties.length + 1);
+        for (ElementProperty property : properties) {
+            propertyArguments.add(property.toScriptArgument());
+        }
+        propertyArguments.add(ElementProperty.displayed().toScriptArgument());
+        return widgetElement.applyInternally(root -> {
+            Optional<JavascriptExecutor> executor = widgetElement.getJavascriptExecutor(root);
+            if (!executor.isPresent()) {
+                return null;
+            }
+            List<?> results;
+            try {
+                results = (List<?>) executor.get().executeScript(Scripts.HYDRATE_CHILDREN, root, new ArrayList<>(queries.values()), propertyArguments);
+            } catch (StaleElementReferenceException e) {
+                throw e;
+            } catch (RuntimeException ignore) {
+                return null;
+            }
+            Map<String, ElementSnapshot> hydrated = new LinkedHashMap<>();
+            int queryIndex = 0;
+            for (String name : queries.keySet()) {
+                E child = children.get(name);
+                List<?> result = (List<?>) results.get(queryIndex++);
+                List<W> matches = (List<W>) result.get(0);
+                List<?> values = (List<?>) result.get(1);
+                Predicate<W> filter = child.getLocator().getFilter();
+                int remaining = child.getIndex();
+                ElementSnapshot snapshot = null;
+                for (int i = 0; i < matches.size() && null == snapshot; i++) {
+                    List<?> row = (List<?>) values.get(i);
+                    if (ElementFilters.testScriptValue(filter, row.get(properties.length)) && remaining-- == 0) {
+                        child.setCachedElement(matches.get(i));
+                        Map<ElementProperty, Object> snapshotValues = new LinkedHashMap<>();
+                        for (int p = 0; p < properties.length; p++) {
+                            snapshotValues.put(properties[p], properties[p].fromScriptValue(row.get(p)));
+                        }
+                        snapshot = new ElementSnapshot(snapshotValues);
+                    }
+                }
+                hydrated.put(name, snapshot);
+            }
+            return hydrated;
+        });
+    }
+
+    /*
+     * Return the widget type of the given field if it is declared as a List, or a
+     * super type of WidgetList, with a widget type argument.
+     */
+
+    @SuppressWarnings("unchecked")
+    private Optional<Class<AbstractBaseWidgetObject<W, C, L, E>>> getWidgetListType(Field field) {
+        if (field.getType().isAssignableFrom(WidgetList.class) && field.getGenericType() instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) field.getGenericType()).getActualTypeArguments();
+            if (arguments.length == 1 && arguments[0] instanceof Class<?> && AbstractBaseWidgetObject.class.isAssignableFrom((Class<?>) arguments[0])) {
+                return Optional.of((Class<AbstractBaseWidgetObject<W, C, L, E>>) arguments[0]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /*
+     * Build a list of widgets whose elements all come from a single locator built
+     * for the field. Each widget is only built and initialized when its index is
+     * first accessed.
+     */
+
+    private WidgetList<AbstractBaseWidgetObject<W, C, L, E>> buildWidgetList(Field field,
+                                                                             FindsElements<W, C, L, E> findsElements,
+                                                                             Class<AbstractBaseWidgetObject<W, C, L, E>> widgetClass) {
+        AbstractPatientElementLocator<W, C, L, E> locator = buildElementLocator(field, findsElements);
+        if (null == locator) {
+            return null;
+        }
+        return new WidgetList<>(locator::locateAll, locator::get, element -> {
+            AbstractBaseWidgetObject<W, C, L, E> widget = buildWidget(widgetClass);
+            if (null == widget) {
+                throw new PageObjectInitializationException(String.format("Received a null value from the buildWidget method with the field: %s", field));
+            }
+            if (widget.isWidgetElementSet()) {
+                throw new PageObjectInitializationException(String.format("Received a widget from buildWidget with a non-null base element for field: %s", field));
+            }
+            initializeWidget(widget, element);
+            return widget;
+        });
+    }
+
     private void initializeHelper(Object object,
                                   FindsElements<W, C, L, E> findsElements) {
         // Only continue with the given object if it hasn't been initialized
@@ -271,6 +488,7 @@ public abstract class AbstractPageObjectInitializer<D extends WebDriver,
             Optional<?> builtValue = Optional.empty();
             AtomicBoolean isWidget = new AtomicBoolean(false);
             String buildMethodNameString = null;
+            Optional<Class<AbstractBaseWidgetObject<W, C, L, E>>> widgetListType = getWidgetListType(field);
             if (getElementClass().equals(field.getType())) {
                 // An element, build it
                 builtValue = Optional.ofNullable(buildElement(field, findsElements));
@@ -279,6 +497,10 @@ public abstract class AbstractPageObjectInitializer<D extends WebDriver,
                 // An element locator, build it
                 builtValue = Optional.ofNullable(buildElementLocator(field, findsElements));
                 buildMethodNameString = "buildElementLocator";
+            } else if (widgetListType.isPresent()) {
+                // A list of widgets, build it with a shared locator
+                builtValue = Optional.ofNullable(buildWidgetList(field, findsElements, widgetListType.get()));
+                buildMethodNameString = "buildElementLocator";
             } else if (AbstractBaseWidgetObject.class.isAssignableFrom(field.getType())) {
                 // A widget, build it and set the boolean so we can re-initialize it
                 builtValue = Optional.ofNullable(buildWidget((Class<AbstractBaseWidgetObject<W, C, L, E>>) field.getType()));
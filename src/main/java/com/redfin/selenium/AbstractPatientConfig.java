@@ -6,6 +6,9 @@ import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -24,9 +27,13 @@ public abstract class AbstractPatientConfig<W extends WebElement> {
     private final int maxElementActionAttempts;
     private final Set<Class<? extends RuntimeException>> actionIgnoredExceptions;
     private final Set<Class<? extends RuntimeException>> lookupIgnoredExceptions;
+    private final boolean cachedElementValidation;
+    private final List<PatientListener> listeners;
+    private final PatientListener listener;
 
     /**
-     * Create a new {@link AbstractPatientConfig} instance.
+     * Create a new {@link AbstractPatientConfig} instance with cached element
+     * validation disabled.
      *
      * @param defaultFilter            the {@link Predicate} default element filter.
      *                                 May not be null.
@@ -54,6 +61,94 @@ public abstract class AbstractPatientConfig<W extends WebElement> {
                                  int maxElementActionAttempts,
                                  Set<Class<? extends RuntimeException>> actionIgnoredExceptions,
                                  Set<Class<? extends RuntimeException>> lookupIgnoredExceptions) {
+        this(defaultFilter,
+             defaultWait,
+             defaultTimeout,
+             maxElementActionAttempts,
+             actionIgnoredExceptions,
+             lookupIgnoredExceptions,
+             false);
+    }
+
+    /**
+     * Create a new {@link AbstractPatientConfig} instance.
+     *
+     * @param defaultFilter            the {@link Predicate} default element filter.
+     *                                 May not be null.
+     * @param defaultWait              the {@link PatientWait} default wait.
+     *                                 May not be null
+     * @param defaultTimeout           the {@link Duration} default timeout.
+     *                                 May not be null or negative.
+     * @param maxElementActionAttempts the int max number of element action attempts.
+     *                                 May not be less than 1.
+     * @param actionIgnoredExceptions  the set of class objects that are the types of exception to be ignored
+     *                                 for element action attempts.
+     *                                 May not be null. May not include {@link NoSuchElementException},
+     *                                 {@link StaleElementReferenceException} or a subclass of either of those.
+     * @param lookupIgnoredExceptions  the set of class object that are the types of exception to be ignored
+     *                                 for element lookup attempts.
+     *                                 May not be null. May not include {@link NoSuchElementException},
+     *                                 {@link StaleElementReferenceException} or a subclass of either of those.
+     * @param cachedElementValidation  true if an element presence check should first validate the element
+     *                                 already in the cache of an element before performing a new look-up.
+     *
+     * @throws IllegalArgumentException if any argument is null, if timeout is negative, if maxElementActionAttempts
+     *                                  is less than 1, or if either set of classes contains one of the invalid class types.
+     */
+    public AbstractPatientConfig(Predicate<W> defaultFilter,
+                                 PatientWait defaultWait,
+                                 Duration defaultTimeout,
+                                 int maxElementActionAttempts,
+                                 Set<Class<? extends RuntimeException>> actionIgnoredExceptions,
+                                 Set<Class<? extends RuntimeException>> lookupIgnoredExceptions,
+                                 boolean cachedElementValidation) {
+        this(defaultFilter,
+             defaultWait,
+             defaultTimeout,
+             maxElementActionAttempts,
+             actionIgnoredExceptions,
+             lookupIgnoredExceptions,
+             cachedElementValidation,
+             Collections.emptyList());
+    }
+
+    /**
+     * Create a new {@link AbstractPatientConfig} instance.
+     *
+     * @param defaultFilter            the {@link Predicate} default element filter.
+     *                                 May not be null.
+     * @param defaultWait              the {@link PatientWait} default wait.
+     *                                 May not be null
+     * @param defaultTimeout           the {@link Duration} default timeout.
+     *                                 May not be null or negative.
+     * @param maxElementActionAttempts the int max number of element action attempts.
+     *                                 May not be less than 1.
+     * @param actionIgnoredExceptions  the set of class objects that are the types of exception to be ignored
+     *                                 for element action attempts.
+     *                                 May not be null. May not include {@link NoSuchElementException},
+     *                                 {@link StaleElementReferenceException} or a subclass of either of those.
+     * @param lookupIgnoredExceptions  the set of class object that are the types of exception to be ignored
+     *                                 for element lookup attempts.
+     *                                 May not be null. May not include {@link NoSuchElementException},
+     *                                 {@link StaleElementReferenceException} or a subclass of either of those.
+     * @param cachedElementValidation  true if an element presence check should first validate the element
+     *                                 already in the cache of an element before performing a new look-up.
+     * @param listeners                the list of {@link PatientListener}s to call, in order, for the look-ups,
+     *                                 waits and actions of the elements and element locators using this config.
+     *                                 May not be null or contain a null listener, may be empty.
+     *
+     * @throws IllegalArgumentException if any argument is null, if timeout is negative, if maxElementActionAttempts
+     *                                  is less than 1, if either set of classes contains one of the invalid class types
+     *                                  or if listeners contains a null listener.
+     */
+    public AbstractPatientConfig(Predicate<W> defaultFilter,
+                                 PatientWait defaultWait,
+                                 Duration defaultTimeout,
+                                 int maxElementActionAttempts,
+                                 Set<Class<? extends RuntimeException>> actionIgnoredExceptions,
+                                 Set<Class<? extends RuntimeException>> lookupIgnoredExceptions,
+                                 boolean cachedElementValidation,
+                                 List<PatientListener> listeners) {
         this.defaultFilter = validate().withMessage("Cannot create config with a null element filter")
                                        .that(defaultFilter)
                                        .isNotNull();
@@ -84,6 +179,23 @@ public abstract class AbstractPatientConfig<W extends WebElement> {
         if (lookupIgnoredExceptions.stream().anyMatch(StaleElementReferenceException.class::equals)) {
             throw new IllegalArgumentException("Cannot have element look-ups ignore org.openqa.selenium.StaleElementReferenceException as that exception type is handled explicitly");
         }
+        this.cachedElementValidation = cachedElementValidation;
+        validate().withMessage("Cannot create config with a null listener list")
+                  .that(listeners)
+                  .isNotNull();
+        if (listeners.stream().anyMatch(l -> null == l)) {
+            throw new IllegalArgumentException("Cannot create config with a null listener");
+        }
+        this.listeners = Collections.unmodifiableList(new ArrayList<>(listeners));
+        // Resolve the listener to dispatch to once so that a config without
+        // listeners only ever pays for a call to the no-op listener
+        if (listeners.isEmpty()) {
+            this.listener = PatientListener.noOp();
+        } else if (listeners.size() == 1) {
+            this.listener = listeners.get(0);
+        } else {
+            this.listener = new CompositePatientListener(listeners.toArray(new PatientListener[0]));
+        }
     }
 
     /**
@@ -114,6 +226,29 @@ public abstract class AbstractPatientConfig<W extends WebElement> {
         return maxElementActionAttempts;
     }
 
+    /**
+     * @return true if {@link AbstractPatientElement#isPresent()} should first validate
+     * the element already in the cache of an element before performing a new look-up.
+     */
+    public final boolean isCachedElementValidationEnabled() {
+        return cachedElementValidation;
+    }
+
+    /**
+     * @return the unmodifiable list of the registered {@link PatientListener}s, in the order they are called.
+     */
+    public final List<PatientListener> getListeners() {
+        return listeners;
+    }
+
+    /**
+     * @return the {@link PatientListener} that calls every registered listener in order, or
+     * {@link PatientListener#noOp()} if there are none.
+     */
+    public final PatientListener getListener() {
+        return listener;
+    }
+
     /**
      * @param clazz the Class to check if is either an instance of or a super class of
      *              an ignored type.
@@ -1,11 +1,34 @@
 package com.redfin.selenium;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchFrameException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -29,11 +52,29 @@ public abstract class AbstractPatientDriver<D extends WebDriver,
                                             E extends AbstractPatientElement<W, C, L, E>>
               extends AbstractBaseObject<W, C>
            implements FindsElements<W, C, L, E>,
-                      WrappedExecutor<D> {
+                      WrappedExecutor<D>,
+                      AsyncWrappedExecutor<D> {
 
     private final Supplier<D> webDriverSupplier;
 
     private D driver = null;
+    private CompletableFuture<D> pendingDriver = null;
+    private volatile CommandQueue<D, W> commandQueue = null;
+    private Duration implicitWait = Duration.ZERO;
+    private Duration sessionImplicitWait = Duration.ZERO;
+    private BrowsingContext browsingContext = BrowsingContext.topLevel();
+    private boolean switchedContext = false;
+    private ElementIdentity.Registry elementIdentities = null;
+    private volatile WaitScheduler waitScheduler = null;
+    private final CancellationToken cancellationToken = new CancellationToken();
+    private volatile PatientMetrics metrics = PatientMetrics.noOp();
+    private volatile PatientTracer tracer = PatientTracer.noOp();
+    private final List<CommandScope> commandScopes = new CopyOnWriteArrayList<>();
+    private final PatientListener commandCounter = new CommandCountingListener();
+    private volatile PatientListener instrumentation = buildInstrumentation();
+    private volatile CombinedListener combinedListener = null;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<Object, Map<LocatorKey, WeakReference<AbstractPatientElementLocator<W, ?, ?, ?>>>> internedLocators = null;
 
     /**
      * Create a new instance of {@link AbstractPatientDriver}.
@@ -56,6 +97,37 @@ public abstract class AbstractPatientDriver<D extends WebDriver,
                                            .isNotNull();
     }
 
+    /**
+     * Create a new instance of {@link AbstractPatientDriver} that immediately starts creating its
+     * {@link WebDriver} on the given executor. The first use of the web driver (e.g. the first
+     * call to accept, apply or a look-up) only blocks for whatever time the creation has left,
+     * so setting up a test (e.g. seeding data or initializing page objects) overlaps with the
+     * browser starting up. If the creation fails then the exception thrown by the web driver
+     * supplier is thrown by that first use. Only the first web driver is created on the executor,
+     * one that is needed after the cached driver has been cleared is created on the calling thread.
+     *
+     * @param config            the {@link C} to use for this driver and all objects it creates.
+     *                          May not be null.
+     * @param description       the String description fo this driver.
+     *                          May not be null or empty.
+     * @param webDriverSupplier the {@link Supplier} of {@link WebDriver} for this patient driver.
+     *                          May not be null. Should never return null.
+     * @param executor          the {@link Executor} to create the first web driver on.
+     *                          May not be null.
+     *
+     * @throws IllegalArgumentException if any argument is null or if the description is empty.
+     */
+    public AbstractPatientDriver(C config,
+                                 String description,
+                                 Supplier<D> webDriverSupplier,
+                                 Executor executor) {
+        this(config, description, webDriverSupplier);
+        validate().withMessage("Cannot create a patient driver with a null executor")
+                  .that(executor)
+                  .isNotNull();
+        this.pendingDriver = CompletableFuture.supplyAsync(webDriverSupplier, executor);
+    }
+
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Public instance methods
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -65,7 +137,7 @@ public abstract class AbstractPatientDriver<D extends WebDriver,
         validate().withMessage("Cannot execute with a null consumer")
                   .that(consumer)
                   .isNotNull();
-        execute(d -> {
+        route(d -> {
             consumer.accept(d);
             return null;
         });
@@ -76,7 +148,42 @@ public abstract class AbstractPatientDriver<D extends WebDriver,
         validate().withMessage("Cannot execute with a null function")
                   .that(function)
                   .isNotNull();
-        return execute(function);
+        return route(function);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The consumer is executed by the running command queue of this driver, which has to be
+     * started first with {@link #startCommandQueue()} or {@link #startCommandQueue(Executor)}.
+     *
+     * @throws IllegalStateException if no command queue is running.
+     */
+    @Override
+    public final CompletableFuture<Void> acceptAsync(Consumer<D> consumer) {
+        validate().withMessage("Cannot execute with a null consumer")
+                  .that(consumer)
+                  .isNotNull();
+        return requireCommandQueue().submit(d -> {
+            consumer.accept(d);
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The function is executed by the running command queue of this driver, which has to be
+     * started first with {@link #startCommandQueue()} or {@link #startCommandQueue(Executor)}.
+     *
+     * @throws IllegalStateException if no command queue is running.
+     */
+    @Override
+    public final <R> CompletableFuture<R> applyAsync(Function<D, R> function) {
+        validate().withMessage("Cannot execute with a null function")
+                  .that(function)
+                  .isNotNull();
+        return requireCommandQueue().submit(function);
     }
 
     @Override
@@ -84,7 +191,409 @@ public abstract class AbstractPatientDriver<D extends WebDriver,
         validate().withMessage("Cannot locate elements with a null By locator")
                   .that(by)
                   .isNotNull();
-        return buildElementLocator(getLocatorDescription(by), () -> findElements(by));
+        String description = getLocatorDescription(by);
+        L locator = buildElementLocator(description, () -> findElements(by, description));
+        locator.setPatientDriver(this);
+        locator.setLookupMetadata(by, null);
+        return intern(this, locator);
+    }
+
+    /**
+     * Create a new, empty, {@link ElementActionBatch} that queues actions against elements
+     * and executes each of them with its web element, see {@link ElementActionBatch.Mode#WEB_DRIVER}.
+     * The elements given to the batch should have been located via this driver.
+     *
+     * @return a new {@link ElementActionBatch} instance.
+     */
+    public final ElementActionBatch<W> batch() {
+        return batch(ElementActionBatch.Mode.WEB_DRIVER);
+    }
+
+    /**
+     * Create a new, empty, {@link ElementActionBatch} that queues actions against elements
+     * and executes them with the given mode. Use {@link ElementActionBatch.Mode#SCRIPT} to
+     * send the actions to the browser with as few round trips as possible, if the differences
+     * between the script and web driver versions of the actions are acceptable. The elements
+     * given to the batch should have been located via this driver.
+     *
+     * @param mode the {@link ElementActionBatch.Mode} the batch executes its actions with.
+     *             May not be null.
+     *
+     * @return a new {@link ElementActionBatch} instance.
+     *
+     * @throws IllegalArgumentException if mode is null.
+     */
+    public final ElementActionBatch<W> batch(ElementActionBatch.Mode mode) {
+        return new ElementActionBatch<>(this, mode);
+    }
+
+    /**
+     * @return the {@link Duration} implicit wait that the wrapped {@link WebDriver} is expected
+     * to have whenever it is handed to {@link #accept(Consumer)} or {@link #apply(Function)}.
+     */
+    public final Duration getImplicitWait() {
+        return implicitWait;
+    }
+
+    /**
+     * Declare the implicit wait for the wrapped {@link WebDriver}. Element look-ups performed by
+     * this driver, and by any element locator or element that descends from it, are done with the
+     * implicit wait set to zero since waiting is handled by the {@link com.redfin.patience.PatientWait}
+     * of the locator or element. The declared implicit wait is restored before the web driver is
+     * handed to {@link #accept(Consumer)} or {@link #apply(Function)}. The state of the web driver
+     * is tracked so that a timeouts command is only sent when the value actually needs to change.
+     * A newly created web driver is assumed to already have the declared implicit wait, so the
+     * web driver supplier should configure the same value. For sessions leased from a
+     * {@link WebDriverPool} that is the implicit wait the pool resets its sessions to.
+     *
+     * @param implicitWait the {@link Duration} implicit wait for the wrapped web driver.
+     *                     May not be null or negative.
+     *
+     * @throws IllegalArgumentException if implicitWait is null or negative.
+     */
+    public final void setImplicitWait(Duration implicitWait) {
+        this.implicitWait = validate().withMessage("Cannot set a null or negative implicit wait")
+                                      .that(implicitWait)
+                                      .isGreaterThanOrEqualToZero();
+    }
+
+    /**
+     * The browsing context the wrapped {@link WebDriver} is known to be in. It starts as the top
+     * level document of the current window when a web driver is created and is updated as element
+     * locators scoped to a context, and the elements they build, switch to their context. A web
+     * driver is only switched when the context it is known to be in differs from the one needed,
+     * and only as far as needed (e.g. a context nested within the current one only switches into
+     * the remaining frames). Since the web driver handed to {@link #accept(Consumer)} or
+     * {@link #apply(Function)} may be switched by the caller, the context is unknown afterwards
+     * and the next scoped look-up or action switches from the top level document.
+     *
+     * @return an optional containing the {@link BrowsingContext} the wrapped web driver is known
+     * to be in or an empty optional if it isn't known.
+     *
+     * @see AbstractPatientElementLocator#within(BrowsingContext)
+     */
+    public final Optional<BrowsingContext> getBrowsingContext() {
+        return Optional.ofNullable(browsingContext);
+    }
+
+    /**
+     * Start a {@link CommandQueue}, with a thread of its own, that lets several threads share this
+     * driver, or return the one already running. From then on calls to {@link #accept(Consumer)},
+     * {@link #apply(Function)} and the session state methods from any other thread are executed by
+     * the queue and waited for. Element locators and elements still use the web driver on the calling
+     * thread, see {@link CommandQueue} for how to use them while a queue is running. Closing the queue
+     * returns this driver to single threaded use.
+     *
+     * @return the running {@link CommandQueue} of this driver.
+     */
+    public final CommandQueue<D, W> startCommandQueue() {
+        lock.lock();
+        try {
+            if (null == commandQueue) {
+                commandQueue = new CommandQueue<>(this,
+                                                  Executors.newSingleThreadExecutor(runnable -> {
+                                                      Thread thread = new Thread(runnable, String.format("command-queue[%s]", this));
+                                                      thread.setDaemon(true);
+                                                      return thread;
+                                                  }),
+                                                  true);
+            }
+            return commandQueue;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Start a {@link CommandQueue} that runs its commands, one at a time, on the threads of the given
+     * executor, or return the one already running. This lets the queues of many drivers share a
+     * small pool of threads since a queue only uses a thread while it has commands to run. See
+     * {@link #startCommandQueue()} for what a running queue means for this driver.
+     *
+     * @param executor the {@link Executor} to run the commands of the queue on. It isn't shut
+     *                 down when the queue is closed.
+     *                 May not be null.
+     *
+     * @return the running {@link CommandQueue} of this driver.
+     *
+     * @throws IllegalArgumentException if executor is null.
+     */
+    public final CommandQueue<D, W> startCommandQueue(Executor executor) {
+        validate().withMessage("Cannot start a command queue with a null executor")
+                  .that(executor)
+                  .isNotNull();
+        lock.lock();
+        try {
+            if (null == commandQueue) {
+                commandQueue = new CommandQueue<>(this, executor, false);
+            }
+            return commandQueue;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return an optional containing the running {@link CommandQueue} of this driver or an
+     * empty optional if there is none.
+     */
+    public final Optional<CommandQueue<D, W>> getCommandQueue() {
+        return Optional.ofNullable(commandQueue);
+    }
+
+    /**
+     * Capture the cookies visible to the top level document of the current window of the
+     * wrapped {@link WebDriver}, along with the local and session storage of its origin. The
+     * storage is only captured if the web driver can execute JavaScript, otherwise it is empty.
+     *
+     * @return the captured {@link SessionState}.
+     *
+     * @throws IllegalStateException if the top level document doesn't have an http or https origin.
+     */
+    public final SessionState captureSessionState() {
+        return route(this::captureSessionStateDirectly);
+    }
+
+    /**
+     * Replace the cookies and storage of the wrapped {@link WebDriver} session with the given state.
+     * If the top level document of the current window isn't on the origin of the state then the
+     * web driver first navigates to the origin, since cookies and storage can only be set for the
+     * origin of the current document. Expired cookies of the state are skipped. The restored state
+     * is only seen by the site once the next page is loaded, so this is expected to be followed by
+     * a navigation to the page the test starts on.
+     *
+     * @param state the {@link SessionState} to restore.
+     *              May not be null.
+     *
+     * @throws IllegalArgumentException if state is null.
+     * @throws IllegalStateException    if the state has storage values and the web driver can't
+     *                                  execute JavaScript.
+     */
+    public final void restoreSessionState(SessionState state) {
+        validate().withMessage("Cannot restore a null session state")
+                  .that(state)
+                  .isNotNull();
+        route(() -> {
+            restoreSessionStateDirectly(state);
+            return null;
+        });
+    }
+
+    /**
+     * Capture the session state, see {@link #captureSessionState()}, and save it in the given
+     * store with the given identity.
+     *
+     * @param store    the {@link SessionStateStore} to save the state in.
+     *                 May not be null.
+     * @param identity the String identity to save the state with.
+     *                 May not be null or empty.
+     *
+     * @return the captured {@link SessionState}.
+     *
+     * @throws IllegalArgumentException if store is null or if identity is null or empty.
+     * @throws IllegalStateException    if the top level document doesn't have an http or https origin.
+     */
+    public final SessionState saveSessionState(SessionStateStore store,
+                                               String identity) {
+        validate().withMessage("Cannot save a session state to a null store")
+                  .that(store)
+                  .isNotNull();
+        validate().withMessage("Cannot save a session state with a null or empty identity")
+                  .that(identity)
+                  .isNotEmpty();
+        SessionState state = captureSessionState();
+        store.save(identity, state);
+        return state;
+    }
+
+    /**
+     * Restore the session state saved in the given store with the given identity, if any.
+     * See {@link #restoreSessionState(SessionState)}.
+     *
+     * @param store    the {@link SessionStateStore} to load the state from.
+     *                 May not be null.
+     * @param identity the String identity the state was saved with.
+     *                 May not be null or empty.
+     *
+     * @return true if a state was found and restored, false if there was no state saved
+     * with the given identity, in which case the web driver is left untouched.
+     *
+     * @throws IllegalArgumentException if store is null or if identity is null or empty.
+     */
+    public final boolean restoreSessionState(SessionStateStore store,
+                                             String identity) {
+        validate().withMessage("Cannot restore a session state from a null store")
+                  .that(store)
+                  .isNotNull();
+        validate().withMessage("Cannot restore a session state with a null or empty identity")
+                  .that(identity)
+                  .isNotEmpty();
+        Optional<SessionState> state = store.load(identity);
+        state.ifPresent(this::restoreSessionState);
+        return state.isPresent();
+    }
+
+    /**
+     * @return true if element locators descending from this driver are interned.
+     */
+    public final boolean isLocatorInterningEnabled() {
+        return null != internedLocators;
+    }
+
+    /**
+     * Enable or disable the interning of element locators. While enabled, a call to find(By),
+     * on this driver or on an element descending from it, or to one of the clone methods of an
+     * element locator returns the existing element locator if an equivalent one is still in use.
+     * Element locators are equivalent if they have the same parent driver or element instance,
+     * an equal {@link By} and an equal wait, timeout and filter. Equivalent element locators
+     * therefore share the elements they build along with the cached web elements of those
+     * elements. The registry only holds weak references so it never keeps a locator, or the
+     * parent of a locator, in memory. Disabling interning clears the registry.
+     *
+     * @param enabled true to intern element locators.
+     */
+    public final void setLocatorInterningEnabled(boolean enabled) {
+        this.internedLocators = enabled ? new WeakHashMap<>() : null;
+    }
+
+    /**
+     * @return true if elements descending from this driver share stale element signals
+     * by remote element id.
+     */
+    public final boolean isElementIdentityTrackingEnabled() {
+        return null != elementIdentities;
+    }
+
+    /**
+     * Enable or disable element identity tracking. While enabled, every element descending from
+     * this driver whose cached web element has the same remote element id shares an identity.
+     * As soon as one of them finds its web element to be stale, the others drop their cached
+     * web element and locate a new one on their next action instead of sending a command that
+     * would fail. Only web elements that expose their remote id (e.g. remote web elements) are
+     * tracked. Identities are only weakly held so tracking never keeps an element in memory.
+     * Disabling tracking discards every identity.
+     *
+     * @param enabled true to track element identities.
+     */
+    public final void setElementIdentityTrackingEnabled(boolean enabled) {
+        this.elementIdentities = enabled ? new ElementIdentity.Registry() : null;
+    }
+
+    /**
+     * @return the {@link WaitScheduler} that the asynchronous waits of elements descending from
+     * this driver spend the time between their polls on. Unless one was set this is the
+     * {@link WaitScheduler#shared()} scheduler. The synchronous waits don't use it, they
+     * sleep the calling thread between polls.
+     */
+    public final WaitScheduler getWaitScheduler() {
+        WaitScheduler scheduler = waitScheduler;
+        return null == scheduler ? WaitScheduler.shared() : scheduler;
+    }
+
+    /**
+     * @param waitScheduler the {@link WaitScheduler} for the asynchronous waits of elements
+     *                      descending from this driver, e.g. one with a finer tick.
+     *                      May not be null.
+     *
+     * @throws IllegalArgumentException if waitScheduler is null.
+     */
+    public final void setWaitScheduler(WaitScheduler waitScheduler) {
+        this.waitScheduler = validate().withMessage("Cannot use a null wait scheduler")
+                                       .that(waitScheduler)
+                                       .isNotNull();
+    }
+
+    /**
+     * @return the {@link CancellationToken} of this driver. Cancelling it aborts every wait of the
+     * elements and element locators descending from this driver with a {@link WaitCancelledException}.
+     */
+    public final CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * @return the {@link PatientMetrics} that this driver, and the elements and element locators
+     * descending from it, report to. Unless other metrics were set this is {@link PatientMetrics#noOp()}.
+     */
+    public final PatientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @param metrics the {@link PatientMetrics} for this driver, and the elements and element
+     *                locators descending from it, to report to, e.g. an {@link InMemoryPatientMetrics}
+     *                shared by every driver of a test run.
+     *                May not be null.
+     *
+     * @throws IllegalArgumentException if metrics is null.
+     */
+    public final void setMetrics(PatientMetrics metrics) {
+        this.metrics = validate().withMessage("Cannot use null metrics")
+                                 .that(metrics)
+                                 .isNotNull();
+        this.instrumentation = buildInstrumentation();
+    }
+
+    /**
+     * @return the {@link PatientTracer} that this driver, and the elements and element locators
+     * descending from it, open spans with. Unless another tracer was set this is {@link PatientTracer#noOp()}.
+     */
+    public final PatientTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * @param tracer the {@link PatientTracer} for this driver, and the elements and element
+     *               locators descending from it, to open spans with, e.g. a {@link ChromeTraceRecorder}.
+     *               May not be null.
+     *
+     * @throws IllegalArgumentException if tracer is null.
+     */
+    public final void setTracer(PatientTracer tracer) {
+        this.tracer = validate().withMessage("Cannot use a null tracer")
+                                .that(tracer)
+                                .isNotNull();
+        this.instrumentation = buildInstrumentation();
+    }
+
+    /**
+     * Open a scope that counts the commands sent to the browser through this driver, without a budget.
+     *
+     * @param name the String name of the scope, e.g. the name of a test.
+     *             May not be null or empty.
+     *
+     * @return the opened {@link CommandScope}. Close it to stop counting.
+     *
+     * @throws IllegalArgumentException if name is null or empty.
+     */
+    public final CommandScope openCommandScope(String name) {
+        return openCommandScope(name, Integer.MAX_VALUE, CommandScope.fail());
+    }
+
+    /**
+     * Open a scope that counts the commands sent to the browser through this driver, the elements and
+     * element locators descending from it, until it is closed. Scopes can be nested and used with
+     * try-with-resources, every open scope counts every command.
+     *
+     * @param name            the String name of the scope, e.g. the name of a test.
+     *                        May not be null or empty.
+     * @param budget          the int number of commands the scope may count.
+     *                        May not be negative.
+     * @param exceededHandler the {@link Consumer} called with the scope when it is closed, if it
+     *                        counted more commands than its budget, e.g. {@link CommandScope#fail()}
+     *                        or {@link CommandScope#warn(Consumer)}.
+     *                        May not be null.
+     *
+     * @return the opened {@link CommandScope}. Close it to stop counting.
+     *
+     * @throws IllegalArgumentException if name is null or empty, budget is negative or exceededHandler is null.
+     */
+    public final CommandScope openCommandScope(String name,
+                                               int budget,
+                                               Consumer<CommandScope> exceededHandler) {
+        CommandScope scope = new CommandScope(name, budget, exceededHandler, commandScopes::remove);
+        commandScopes.add(scope);
+        return scope;
     }
 
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -93,15 +602,19 @@ public abstract class AbstractPatientDriver<D extends WebDriver,
 
     /**
      * Check if the cached driver is null. If so, get the driver from
-     * the web driver supplier and set it.
+     * the web driver supplier and set it. If the first driver is still being
+     * created on the executor given to the constructor then wait for it instead.
      *
      * @throws IllegalStateException if the returned driver from the supplier is null.
      */
     protected final void initializeDriver() {
         if (null == driver) {
             driver = expect().withMessage("Received a null web driver from the driver supplier")
-                             .that(webDriverSupplier.get())
+                             .that(null == pendingDriver ? webDriverSupplier.get() : joinPendingDriver())
                              .isNotNull();
+            sessionImplicitWait = implicitWait;
+            browsingContext = BrowsingContext.topLevel();
+            switchedContext = false;
         }
     }
 
@@ -121,12 +634,22 @@ public abstract class AbstractPatientDriver<D extends WebDriver,
 
     /**
      * Set the given newValue as the current value in the cache, replacing anything previously there.
+     * If the first web driver is still being created on the executor given to the constructor then
+     * it is quit once created.
      *
      * @param newValue the {@link WebDriver} to set as the new cached value.
      *                 May be null.
      */
     protected final void setCachedDriver(D newValue) {
+        if (null != pendingDriver) {
+            // The driver being created is no longer wanted, don't leak its session
+            pendingDriver.thenAccept(WebDriver::quit);
+            pendingDriver = null;
+        }
         this.driver = newValue;
+        this.sessionImplicitWait = implicitWait;
+        this.browsingContext = BrowsingContext.topLevel();
+        this.switchedContext = false;
     }
 
     /**
@@ -149,24 +672,467 @@ public abstract class AbstractPatientDriver<D extends WebDriver,
     protected abstract L buildElementLocator(String locatorDescription,
                                              Supplier<List<W>> elementListSupplier);
 
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private methods intended for use by locators and elements
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Make sure the wrapped driver has a zero implicit wait before an
+     * element look-up is performed. The value is left in place afterwards
+     * so that repeated polls of a patient wait only send a single timeouts
+     * command, it is restored lazily by the next accept or apply call.
+     */
+
+    final void neutralizeImplicitWait() {
+        updateImplicitWait(Duration.ZERO);
+    }
+
+    /*
+     * Make sure the wrapped driver has the declared implicit wait again
+     * before user code is handed a web element, since the element may be
+     * used to locate other elements itself.
+     */
+
+    final void restoreImplicitWait() {
+        updateImplicitWait(implicitWait);
+    }
+
+    /*
+     * Return the wrapped driver as a JavascriptExecutor, initializing
+     * it if necessary, or an empty optional if it can't execute scripts.
+     */
+
+    final Optional<JavascriptExecutor> getJavascriptExecutor() {
+        initializeDriver();
+        return Scripts.getExecutor(driver);
+    }
+
+    /*
+     * Switch the wrapped driver to the given context unless it is already known
+     * to be in it. Return false, leaving the current context unknown, if a frame
+     * or window of the context can't be found so that callers can treat it like
+     * an element that hasn't been found. Frames are located with a zero implicit
+     * wait since waiting is done by the caller. The switches and look-ups are
+     * sent as commands of the given description.
+     */
+
+    final boolean enterBrowsingContext(BrowsingContext target,
+                                       String description) {
+        initializeDriver();
+        String windowHandle = target.getWindowHandle().orElse(null == browsingContext ? null : browsingContext.getWindowHandle().orElse(null));
+        BrowsingContext resolved = new BrowsingContext(windowHandle, target.getFrames());
+        if (resolved.equals(browsingContext)) {
+            return true;
+        }
+        BrowsingContext current = browsingContext;
+        List<By> frames = target.getFrames();
+        // The context is unknown until every switch has succeeded
+        browsingContext = null;
+        switchedContext = true;
+        PatientListener listener = getListener();
+        try {
+            int start;
+            if (target.getWindowHandle().isPresent() && (null == current || !target.getWindowHandle().equals(current.getWindowHandle()))) {
+                // Switching windows lands on the top level document of the window
+                CommandScope.send(listener, description, CommandScope.CommandType.SWITCH, () -> driver.switchTo().window(windowHandle));
+                start = 0;
+            } else if (null != current && isPrefix(current.getFrames(), frames)) {
+                start = current.getFrames().size();
+            } else if (null != current && current.getFrames().size() == frames.size() + 1 && isPrefix(frames, current.getFrames())) {
+                CommandScope.send(listener, description, CommandScope.CommandType.SWITCH, () -> driver.switchTo().parentFrame());
+                start = frames.size();
+            } else {
+                CommandScope.send(listener, description, CommandScope.CommandType.SWITCH, () -> driver.switchTo().defaultContent());
+                start = 0;
+            }
+            if (start < frames.size()) {
+                neutralizeImplicitWait();
+            }
+            for (int i = start; i < frames.size(); i++) {
+                By frame = frames.get(i);
+                List<WebElement> frameElements = CommandScope.send(listener, description, CommandScope.CommandType.LOOKUP, () -> driver.findElements(frame));
+                if (frameElements.isEmpty()) {
+                    return false;
+                }
+                CommandScope.send(listener, description, CommandScope.CommandType.SWITCH, () -> driver.switchTo().frame(frameElements.get(0)));
+            }
+        } catch (NoSuchFrameException | NoSuchWindowException | StaleElementReferenceException e) {
+            return false;
+        } catch (RuntimeException e) {
+            if (getConfig().isIgnoredLookupException(e.getClass())) {
+                return false;
+            }
+            throw e;
+        }
+        browsingContext = resolved;
+        return true;
+    }
+
+    /*
+     * Switch the wrapped driver back to the top level document of the current
+     * window for an unscoped look-up, but only if a scoped look-up moved it since
+     * user code last had the driver. A context entered by user code in an accept
+     * or apply call is left alone so that unscoped look-ups search where the
+     * user switched to.
+     */
+
+    final boolean leaveSwitchedContext(String description) {
+        initializeDriver();
+        return !switchedContext || enterBrowsingContext(BrowsingContext.topLevel(), description);
+    }
+
+    /*
+     * Used by the command queue, on its own thread, to execute commands
+     * without routing them back to itself.
+     */
+
+    final <R> R applyDirectly(Function<D, R> function) {
+        return execute(function);
+    }
+
+    final List<W> findElementsDirectly(By by) {
+        initializeDriver();
+        return findElements(by, getLocatorDescription(by));
+    }
+
+    /*
+     * Return the listener for the elements, element locators and page objects
+     * descending from this driver: the given listener of their config followed
+     * by the metrics, tracer, command scopes and flight recorder events of this
+     * driver. The combination is kept for as long as neither side changes, so
+     * the call sites of the listener don't allocate.
+     */
+
+    final PatientListener getListener(PatientListener configured) {
+        CombinedListener combined = combinedListener;
+        PatientListener current = instrumentation;
+        if (null == combined || combined.configured != configured || combined.instrumentation != current) {
+            combined = new CombinedListener(configured, current);
+            combinedListener = combined;
+        }
+        return combined.listener;
+    }
+
+    final PatientListener getListener() {
+        return getListener(getConfig().getListener());
+    }
+
+    /*
+     * Return the running command queue for an asynchronous method. A queue is
+     * never started implicitly since it adds a thread and routes every later
+     * call of the driver through it.
+     */
+
+    final CommandQueue<D, W> requireCommandQueue() {
+        return expect().withMessage("Cannot execute asynchronously without a running command queue, start one with startCommandQueue()")
+                       .that(commandQueue)
+                       .isNotNull();
+    }
+
+    final void detachCommandQueue(CommandQueue<D, W> queue) {
+        lock.lock();
+        try {
+            if (commandQueue == queue) {
+                commandQueue = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Return the identity shared by every element caching the same remote
+     * element as the given one, or an empty optional if tracking is disabled
+     * or the element doesn't expose a remote id.
+     */
+
+    final Optional<ElementIdentity> getElementIdentity(W element) {
+        if (null == elementIdentities) {
+            return Optional.empty();
+        }
+        return elementIdentities.get(element);
+    }
+
+    /*
+     * If interning is enabled return the registered locator that is equivalent
+     * to the given one, registering the given locator if there isn't one. The
+     * parent is the driver or element the locator locates relative to. Locators
+     * without a By, e.g. ones built directly, are never interned.
+     */
+
+    @SuppressWarnings("unchecked")
+    final <T extends AbstractPatientElementLocator<W, ?, ?, ?>> T intern(Object parent,
+                                                                         T locator) {
+        if (null == internedLocators || null == locator.getBy()) {
+            return locator;
+        }
+        LocatorKey key = new LocatorKey(locator.getBy(), locator.getBrowsingContext().orElse(null), locator.getWait(), locator.getTimeout(), locator.getFilter());
+        // Locators may be built by a thread running queued commands as well as by the owner
+        lock.lock();
+        try {
+            Map<LocatorKey, WeakReference<AbstractPatientElementLocator<W, ?, ?, ?>>> locators = internedLocators.computeIfAbsent(parent, p -> new HashMap<>());
+            WeakReference<AbstractPatientElementLocator<W, ?, ?, ?>> reference = locators.get(key);
+            AbstractPatientElementLocator<W, ?, ?, ?> existing = null == reference ? null : reference.get();
+            if (null != existing && existing.getClass().equals(locator.getClass())) {
+                return (T) existing;
+            }
+            locators.put(key, new WeakReference<>(locator));
+            return locator;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Private instance methods
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 
+    /*
+     * Capture the session state on the thread allowed to use the web driver.
+     */
+
+    private SessionState captureSessionStateDirectly() {
+        enterBrowsingContext(BrowsingContext.topLevel(), getDescription());
+        String origin = expect().withMessage("Cannot capture the session state of a document without an http or https origin")
+                                .that(getOrigin(driver.getCurrentUrl()).orElse(null))
+                                .isNotNull();
+        List<Cookie> cookies = new ArrayList<>(driver.manage().getCookies());
+        Map<String, String> localStorage = new LinkedHashMap<>();
+        Map<String, String> sessionStorage = new LinkedHashMap<>();
+        Scripts.getExecutor(driver).ifPresent(executor -> {
+            List<?> storage = (List<?>) CommandScope.send(getListener(), getDescription(), CommandScope.CommandType.SCRIPT,
+                                                          () -> executor.executeScript(Scripts.READ_STORAGE));
+            copyStorage(storage.get(1), localStorage);
+            copyStorage(storage.get(2), sessionStorage);
+        });
+        return new SessionState(origin, cookies, localStorage, sessionStorage);
+    }
+
+    /*
+     * Restore the session state on the thread allowed to use the web driver.
+     */
+
+    private void restoreSessionStateDirectly(SessionState state) {
+        enterBrowsingContext(BrowsingContext.topLevel(), getDescription());
+        if (!getOrigin(driver.getCurrentUrl()).filter(state.getOrigin()::equals).isPresent()) {
+            driver.get(state.getOrigin());
+        }
+        driver.manage().deleteAllCookies();
+        for (Cookie cookie : state.getCookies(new Date())) {
+            driver.manage().addCookie(cookie);
+        }
+        Optional<JavascriptExecutor> executor = Scripts.getExecutor(driver);
+        if (executor.isPresent()) {
+            JavascriptExecutor javascriptExecutor = executor.get();
+            CommandScope.send(getListener(), getDescription(), CommandScope.CommandType.SCRIPT,
+                              () -> javascriptExecutor.executeScript(Scripts.WRITE_STORAGE, state.getLocalStorage(), state.getSessionStorage()));
+        } else {
+            expect().withMessage("Cannot restore the storage of a session state with a web driver that can't execute JavaScript")
+                    .that(state.getLocalStorage().isEmpty() && state.getSessionStorage().isEmpty())
+                    .isTrue();
+        }
+    }
+
+    /*
+     * Hand the function to the command queue, if one is running and this isn't
+     * its thread, so that the web driver is only ever used by a single thread.
+     */
+
+    private <R> R route(Function<D, R> function) {
+        return route(() -> execute(function));
+    }
+
+    private <R> R route(Supplier<R> command) {
+        CommandQueue<D, W> queue = commandQueue;
+        if (null == queue || queue.isOwnerThread()) {
+            return command.get();
+        }
+        return CommandQueue.join(queue.schedule(command));
+    }
+
     private <R> R execute(Function<D, R> function) {
         initializeDriver();
-        return function.apply(driver);
+        updateImplicitWait(implicitWait);
+        try {
+            return CommandScope.send(getListener(), getDescription(), CommandScope.CommandType.ACTION, () -> function.apply(driver));
+        } finally {
+            // The caller may have switched the web driver to another context
+            browsingContext = null;
+            switchedContext = false;
+        }
+    }
+
+    /*
+     * Wait for the driver being created on the executor and rethrow the
+     * exception of the web driver supplier, rather than the completion
+     * exception wrapping it, if the creation failed.
+     */
+
+    private D joinPendingDriver() {
+        CompletableFuture<D> pending = pendingDriver;
+        pendingDriver = null;
+        return CommandQueue.join(pending);
+    }
+
+    private void updateImplicitWait(Duration target) {
+        initializeDriver();
+        if (!target.equals(sessionImplicitWait)) {
+            CommandScope.send(getListener(), getDescription(), CommandScope.CommandType.TIMEOUT,
+                              () -> driver.manage().timeouts().implicitlyWait(target.toMillis(), TimeUnit.MILLISECONDS));
+            sessionImplicitWait = target;
+        }
+    }
+
+    /*
+     * Return the scheme, host and port of the given url if it is an http or https
+     * url, or an empty optional otherwise (e.g. about:blank).
+     */
+
+    private static Optional<String> getOrigin(String url) {
+        try {
+            URI uri = new URI(null == url ? "" : url);
+            String scheme = uri.getScheme();
+            if (null == uri.getHost() || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                return Optional.empty();
+            }
+            String port = -1 == uri.getPort() ? "" : ":" + uri.getPort();
+            return Optional.of(scheme.toLowerCase() + "://" + uri.getHost().toLowerCase() + port);
+        } catch (URISyntaxException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void copyStorage(Object storage,
+                                    Map<String, String> values) {
+        if (storage instanceof Map) {
+            ((Map<?, ?>) storage).forEach((key, value) -> values.put(String.valueOf(key), null == value ? null : String.valueOf(value)));
+        }
+    }
+
+    private static boolean isPrefix(List<By> prefix,
+                                    List<By> frames) {
+        return prefix.size() <= frames.size() && prefix.equals(frames.subList(0, prefix.size()));
+    }
+
+    /*
+     * The listener a driver always reports to: its command scopes, the metrics
+     * and tracer it was given when they aren't the no-op ones and the flight
+     * recorder events when the runtime has them.
+     */
+
+    private PatientListener buildInstrumentation() {
+        List<PatientListener> listeners = new ArrayList<>(4);
+        listeners.add(commandCounter);
+        if (PatientMetrics.noOp() != metrics) {
+            listeners.add(new MetricsPatientListener(metrics));
+        }
+        if (PatientTracer.noOp() != tracer) {
+            listeners.add(new TracingPatientListener(tracer));
+        }
+        if (PatientListener.noOp() != PatientEvents.listener()) {
+            listeners.add(PatientEvents.listener());
+        }
+        return 1 == listeners.size() ? listeners.get(0) : new CompositePatientListener(listeners.toArray(new PatientListener[0]));
     }
 
     @SuppressWarnings("unchecked")
-    private List<W> findElements(By by) {
+    private List<W> findElements(By by,
+                                 String description) {
+        PatientListener listener = getListener();
         try {
-            return execute(d -> (List<W>) d.findElements(by));
+            neutralizeImplicitWait();
+            return CommandScope.send(listener, description, CommandScope.CommandType.LOOKUP, () -> (List<W>) driver.findElements(by));
         } catch (RuntimeException e) {
             if (getConfig().isIgnoredLookupException(e.getClass())) {
+                listener.onIgnoredLookupException(description, e);
                 return Collections.emptyList();
             }
             throw e;
         }
     }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Counts the commands reported to it in the open command scopes.
+     */
+
+    private final class CommandCountingListener
+              implements PatientListener {
+
+        @Override
+        public void beforeCommand(String description,
+                                  CommandScope.CommandType type) {
+            // Checked first so that no iterator is allocated without scopes
+            if (commandScopes.isEmpty()) {
+                return;
+            }
+            for (CommandScope scope : commandScopes) {
+                scope.record(type, description);
+            }
+        }
+    }
+
+    /*
+     * The listener of a config combined with the instrumentation of the driver
+     * at the time, kept together so that a change to either is noticed.
+     */
+
+    private static final class CombinedListener {
+
+        private final PatientListener configured;
+        private final PatientListener instrumentation;
+        private final PatientListener listener;
+
+        private CombinedListener(PatientListener configured,
+                                 PatientListener instrumentation) {
+            this.configured = configured;
+            this.instrumentation = instrumentation;
+            this.listener = CompositePatientListener.of(configured, instrumentation);
+        }
+    }
+
+    private static final class LocatorKey {
+
+        private final By by;
+        private final BrowsingContext context;
+        private final Object wait;
+        private final Duration timeout;
+        private final Object filter;
+
+        private LocatorKey(By by,
+                           BrowsingContext context,
+                           Object wait,
+                           Duration timeout,
+                           Object filter) {
+            this.by = by;
+            this.context = context;
+            this.wait = wait;
+            this.timeout = timeout;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof LocatorKey)) {
+                return false;
+            }
+            LocatorKey other = (LocatorKey) obj;
+            return by.equals(other.by) &&
+                   Objects.equals(context, other.context) &&
+                   Objects.equals(wait, other.wait) &&
+                   Objects.equals(timeout, other.timeout) &&
+                   Objects.equals(filter, other.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(by, context, wait, timeout, filter);
+        }
+    }
 }
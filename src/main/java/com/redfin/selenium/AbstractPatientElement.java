@@ -3,17 +3,24 @@ package com.redfin.selenium;
 import com.redfin.patience.PatientWait;
 import com.redfin.patience.exceptions.PatientTimeoutException;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import static com.redfin.validity.Validity.expect;
@@ -33,13 +40,23 @@ public abstract class AbstractPatientElement<W extends WebElement,
                                              THIS extends AbstractPatientElement<W, C, L, THIS>>
               extends AbstractBaseObject<W, C>
            implements FindsElements<W, C, L, THIS>,
-                      WrappedExecutor<W> {
+                      WrappedExecutor<W>,
+                      AsyncWrappedExecutor<W> {
+
+    private static final Duration MIN_DETACHMENT_WAIT = Duration.ofMillis(50);
 
     private final Supplier<Optional<W>> elementSupplier;
     private final PatientWait wait;
     private final Duration timeout;
 
     private W cachedElement = null;
+    private AbstractPatientDriver<?, W, ?, ?, ?> patientDriver = null;
+    private Predicate<W> filter = null;
+    private ElementIdentity identity = null;
+    private W identityElement = null;
+    private int identityGeneration = 0;
+    private AbstractPatientElementLocator<W, ?, ?, ?> locator = null;
+    private int index = 0;
 
     /**
      * Create a new, lazily located, instance of {@link AbstractPatientElement}.
@@ -72,16 +89,30 @@ public abstract class AbstractPatientElement<W extends WebElement,
 
     /**
      * Wait for a selenium element to be found with the matching locator and
-     * predicate filter. This method does NOT use any previously cached element
-     * but rather triggers a new element lookup. Return true as soon as a matching
+     * predicate filter. By default this method does NOT use any previously cached
+     * element but rather triggers a new element lookup. Return true as soon as a matching
      * element is located and place that element in the internal cache. If no
      * element is found within the set timeout then the internal cache will be
      * cleared and false will be returned.
+     * <p>
+     * If cached element validation is enabled in the config and this element was built
+     * as the first element of an element locator, then an element already in the internal
+     * cache is first probed with a single command and checked against the filter of the
+     * element locator. If it is still attached and matches the filter then true is returned
+     * without a new look-up, otherwise the cache is cleared and a new look-up is performed.
+     * Elements built for any other index are always looked up again, since the position of
+     * the cached element among the matches can't be checked without a look-up.
      *
      * @return true if there is a currently matching element or false otherwise.
+     *
+     * @see AbstractPatientConfig#isCachedElementValidationEnabled()
      */
     public boolean isPresent() {
-        // Always start by clearing the cache to trigger a new lookup
+        dropInvalidatedCache();
+        if (getConfig().isCachedElementValidationEnabled() && isCachedElementValid()) {
+            return true;
+        }
+        // Clear the cache to trigger a new lookup
         cachedElement = null;
         return getElementPatiently().isPresent();
     }
@@ -94,6 +125,16 @@ public abstract class AbstractPatientElement<W extends WebElement,
      * a lookup results in no matching element then return false. If the timeout
      * is reached and false will be returned the last matching element located will
      * be set in the internal cache.
+     * <p>
+     * A single look-up is performed first, if it finds no element then true is returned
+     * immediately and if the timeout is zero the result of that look-up is the answer.
+     * Otherwise, if the located element belongs to a web driver that can execute JavaScript,
+     * the browser is asked to wait for that specific element to be detached or to stop being
+     * rendered, for up to one poll interval of the wait of this element at a time, rather than
+     * only re-running the locator for every poll. Between those in-browser waits the locator is
+     * run once, so an element that still exists but no longer matches is reported as absent, and
+     * the cancellation token of the patient driver is checked. Once the element is gone any time
+     * remaining is spent patiently polling as usual to confirm the result.
      *
      * @param timeout the Duration timeout for waiting for no element.
      *                May not be null or negative.
@@ -108,20 +149,21 @@ public abstract class AbstractPatientElement<W extends WebElement,
                   .isGreaterThanOrEqualToZero();
         // Always start by clearing the cache to trigger a new lookup
         cachedElement = null;
-        // Check patiently if the element disappears
-        AtomicReference<W> lastElement = new AtomicReference<>(null);
+        // The probes, the waits in the browser and the patient polls are reported as a single wait
+        PatientListener listener = getListener();
+        int[] polls = {0};
+        long start = System.nanoTime();
+        boolean timedOut = false;
+        listener.beforeWait(getDescription(), timeout);
         try {
-            wait.from(() -> {
-                Optional<W> element = elementSupplier.get();
-                element.ifPresent(lastElement::set);
-                return !element.isPresent();
-            }).get(timeout);
-            // It exited without an exception so the element is no longer present
-            return true;
-        } catch (PatientTimeoutException e) {
-            // It timed out so there was still an element present
-            cachedElement = lastElement.get();
-            return false;
+            boolean absent = probeForAbsence(timeout, start, listener, polls);
+            if (!absent) {
+                timedOut = true;
+                listener.onWaitTimeout(getDescription(), polls[0], timeout);
+            }
+            return absent;
+        } finally {
+            listener.afterWait(getDescription(), polls[0], Duration.ofNanos(System.nanoTime() - start), timedOut);
         }
     }
 
@@ -133,7 +175,7 @@ public abstract class AbstractPatientElement<W extends WebElement,
         execute(e -> {
             consumer.accept(e);
             return null;
-        });
+        }, true);
     }
 
     @Override
@@ -141,7 +183,134 @@ public abstract class AbstractPatientElement<W extends WebElement,
         validate().withMessage("Cannot execute with a null function")
                   .that(function)
                   .isNotNull();
-        return execute(function);
+        return execute(function, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The consumer is executed, as by {@link #accept(Consumer)}, by the running command queue
+     * of the patient driver this element descends from. See {@link AbstractPatientDriver#startCommandQueue()}.
+     *
+     * @throws IllegalStateException if this element doesn't descend from a patient driver or if
+     *                               that driver has no running command queue.
+     */
+    @Override
+    public final CompletableFuture<Void> acceptAsync(Consumer<W> consumer) {
+        validate().withMessage("Cannot execute with a null consumer")
+                  .that(consumer)
+                  .isNotNull();
+        return schedule(() -> {
+            accept(consumer);
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The function is executed, as by {@link #apply(Function)}, by the running command queue
+     * of the patient driver this element descends from. See {@link AbstractPatientDriver#startCommandQueue()}.
+     *
+     * @throws IllegalStateException if this element doesn't descend from a patient driver or if
+     *                               that driver has no running command queue.
+     */
+    @Override
+    public final <R> CompletableFuture<R> applyAsync(Function<W, R> function) {
+        validate().withMessage("Cannot execute with a null function")
+                  .that(function)
+                  .isNotNull();
+        return schedule(() -> apply(function));
+    }
+
+    /**
+     * Asynchronous version of {@link #isPresent()}. Each look-up is executed by the command queue
+     * of the patient driver this element descends from while the time between them is spent on
+     * the {@link WaitScheduler} of that driver, so no thread is blocked while waiting.
+     *
+     * @return a {@link CompletableFuture} of the result of {@link #isPresent()}.
+     *
+     * @throws IllegalStateException if this element doesn't descend from a patient driver or if
+     *                               that driver has no running command queue.
+     */
+    public final CompletableFuture<Boolean> isPresentAsync() {
+        return track(schedule(() -> {
+            dropInvalidatedCache();
+            return getConfig().isCachedElementValidationEnabled() && isCachedElementValid();
+        }).thenCompose(valid -> valid ? CompletableFuture.completedFuture(true) : poll(timeout, () -> {
+            cachedElement = elementSupplier.get().orElse(null);
+            return null != cachedElement;
+        })));
+    }
+
+    /**
+     * Asynchronous version of {@link #isAbsent(Duration)}. The first look-up, and the wait in the
+     * browser for a located element to be detached, are executed by the command queue of the
+     * patient driver this element descends from. Any further look-ups are executed by the queue
+     * while the time between them is spent on the {@link WaitScheduler} of that driver, so no
+     * thread is blocked while waiting.
+     *
+     * @param timeout the Duration timeout for waiting for no element.
+     *                May not be null or negative.
+     *
+     * @return a {@link CompletableFuture} of the result of {@link #isAbsent(Duration)}.
+     *
+     * @throws IllegalArgumentException if timeout is null or negative.
+     * @throws IllegalStateException    if this element doesn't descend from a patient driver or if
+     *                                  that driver has no running command queue.
+     */
+    public final CompletableFuture<Boolean> isAbsentAsync(Duration timeout) {
+        validate().withMessage("Cannot check if an element is absent with a null or negative timeout")
+                  .that(timeout)
+                  .isGreaterThanOrEqualToZero();
+        long start = System.nanoTime();
+        return track(schedule(() -> {
+            cachedElement = elementSupplier.get().orElse(null);
+            if (null != cachedElement && !timeout.isZero()) {
+                // Only a single poll interval is spent in the browser so that the queue isn't held for the whole timeout
+                throwIfCancelled();
+                waitForDetachment(cachedElement, getDetachmentWait(wait.getDelaySupplierFactory().create(), timeout.toNanos()));
+            }
+            return null == cachedElement;
+        }).thenCompose(absent -> {
+            if (absent || timeout.isZero()) {
+                return CompletableFuture.completedFuture(absent);
+            }
+            Duration remaining = timeout.minusNanos(System.nanoTime() - start);
+            return poll(remaining.isNegative() ? Duration.ZERO : remaining, () -> {
+                // The last element located is left in the cache if the timeout is reached
+                cachedElement = elementSupplier.get().orElse(null);
+                return null == cachedElement;
+            });
+        }));
+    }
+
+    /**
+     * Read all of the given properties of the wrapped element at once. If the web driver
+     * can execute JavaScript then every property is read with a single script call, otherwise
+     * each property is read with the matching {@link WebElement} method. Either way the
+     * properties are read with the same element caching, re-location and retry logic as
+     * {@link #apply(Function)}. See {@link ElementProperty} for how the script values may
+     * differ from the web driver values.
+     *
+     * @param properties the {@link ElementProperty} instances to read.
+     *                   May not be null, empty or contain a null property.
+     *
+     * @return an {@link ElementSnapshot} of the given properties.
+     *
+     * @throws IllegalArgumentException if properties is null, empty or contains a null property.
+     * @throws NoSuchElementException   if the element cannot be located.
+     */
+    public final ElementSnapshot snapshot(ElementProperty... properties) {
+        validate().withMessage("Cannot take a snapshot of null or empty properties")
+                  .that(properties)
+                  .isNotEmpty();
+        for (ElementProperty property : properties) {
+            validate().withMessage("Cannot take a snapshot of a null property")
+                      .that(property)
+                      .isNotNull();
+        }
+        return execute(e -> readSnapshot(e, properties), false);
     }
 
     @Override
@@ -149,7 +318,11 @@ public abstract class AbstractPatientElement<W extends WebElement,
         validate().withMessage("Cannot locate elements with a null By locator")
                   .that(by)
                   .isNotNull();
-        return buildElementLocator(getLocatorDescription(by), () -> findChildElements(by));
+        L locator = buildElementLocator(getLocatorDescription(by), () -> findChildElements(by));
+        locator.setPatientDriver(patientDriver);
+        locator.setLookupMetadata(by, this);
+        locator.setBrowsingContext(null == this.locator ? null : this.locator.getBrowsingContext().orElse(null));
+        return null == patientDriver ? locator : patientDriver.intern(this, locator);
     }
 
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -218,27 +391,162 @@ public abstract class AbstractPatientElement<W extends WebElement,
     protected abstract L buildElementLocator(String locatorDescription,
                                              Supplier<List<W>> elementListSupplier);
 
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private methods intended for use by element locators, initializers and batches
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Return the cached element, patiently locating a new one if the cache is
+     * empty or no longer usable, without executing anything against it. This
+     * is not an element action so it isn't counted or reported as one.
+     */
+
+    final W resolveElement() {
+        dropInvalidatedCache();
+        if (null != cachedElement && !enterBrowsingContext()) {
+            // The context of the cached element is gone, so is the element
+            cachedElement = null;
+        }
+        if (null != cachedElement) {
+            getListener().onCacheHit(getDescription());
+        } else {
+            getListener().onCacheMiss(getDescription());
+            cachedElement = this.getElementPatiently()
+                                .orElseThrow(() -> new NoSuchElementException(String.format("Unable to find the element for [%s] after a timeout of [%s]",
+                                                                                            this,
+                                                                                            timeout)));
+        }
+        bindIdentity();
+        return cachedElement;
+    }
+
+    /*
+     * The patient driver that is the root of the locator tree this element
+     * was built from. May be null if the element was built directly rather
+     * than by an element locator.
+     */
+
+    final AbstractPatientDriver<?, W, ?, ?, ?> getPatientDriver() {
+        return patientDriver;
+    }
+
+    final void setPatientDriver(AbstractPatientDriver<?, W, ?, ?, ?> patientDriver) {
+        this.patientDriver = patientDriver;
+    }
+
+    /*
+     * The filter of the element locator that built this element. May be
+     * null if the element was built directly rather than by a locator.
+     */
+
+    final void setFilter(Predicate<W> filter) {
+        this.filter = filter;
+    }
+
+    /*
+     * The element locator that built this element and the index of this
+     * element within that locator. The locator may be null if the element
+     * was built directly rather than by a locator.
+     */
+
+    final AbstractPatientElementLocator<W, ?, ?, ?> getLocator() {
+        return locator;
+    }
+
+    final int getIndex() {
+        return index;
+    }
+
+    final void setLocator(AbstractPatientElementLocator<W, ?, ?, ?> locator,
+                          int index) {
+        this.locator = locator;
+        this.index = index;
+    }
+
+    /*
+     * Prefer the web driver that owns the given element and fall back to the
+     * patient driver this element was located from, if any.
+     */
+
+    final Optional<JavascriptExecutor> getJavascriptExecutor(W element) {
+        Optional<JavascriptExecutor> executor = Scripts.getExecutor(element);
+        if (!executor.isPresent() && null != patientDriver) {
+            executor = patientDriver.getJavascriptExecutor();
+        }
+        return executor;
+    }
+
+    /*
+     * Apply a function of the library itself with the same caching, re-location
+     * and retry logic as apply. The implicit wait isn't restored first since the
+     * function doesn't locate elements through the web element it is given.
+     */
+
+    final <R> R applyInternally(Function<W, R> function) {
+        return execute(function, false);
+    }
+
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Private instance methods
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 
-    private <R> R execute(Function<W, R> function) {
+    private <R> R execute(Function<W, R> function,
+                          boolean restoreImplicitWait) {
+        PatientListener listener = getListener();
+        listener.beforeAction(getDescription());
+        R result;
+        try {
+            result = executeAttempts(function, restoreImplicitWait, listener);
+        } catch (RuntimeException e) {
+            listener.afterAction(getDescription(), e);
+            throw e;
+        }
+        listener.afterAction(getDescription(), null);
+        return result;
+    }
+
+    /*
+     * Attempt the given function until it succeeds, fails with an exception
+     * that isn't ignored or the maximum number of attempts is reached. Each
+     * attempt is reported to the given listener of the action. The implicit
+     * wait is only restored for user functions, which may use the element to
+     * locate others, since the look-up of an attempt leaves it at zero.
+     */
+
+    private <R> R executeAttempts(Function<W, R> function,
+                                  boolean restoreImplicitWait,
+                                  PatientListener listener) {
         RuntimeException caught = null;
+        boolean wentStale = false;
         for (int i = 0; i < getConfig().getMaxElementActionAttempts(); i++) {
+            throwIfCancelled();
+            if (i > 0) {
+                listener.onRetry(getDescription(), i + 1, caught);
+            }
+            listener.beforeAttempt(getDescription(), i + 1);
+            RuntimeException failure = null;
             try {
-                if (null == cachedElement) {
-                    cachedElement = this.getElementPatiently()
-                                        .orElseThrow(() -> new NoSuchElementException(String.format("Unable to find the element for [%s] after a timeout of [%s]",
-                                                                                                    this,
-                                                                                                    timeout)));
+                resolveElement();
+                if (restoreImplicitWait && null != patientDriver) {
+                    patientDriver.restoreImplicitWait();
+                }
+                R result = CommandScope.send(listener, getDescription(), CommandScope.CommandType.ACTION, () -> function.apply(cachedElement));
+                if (wentStale) {
+                    listener.onStaleElementRecovered(getDescription(), i + 1);
                 }
-                return function.apply(cachedElement);
-            } catch (NoSuchElementException e) {
+                return result;
+            } catch (NoSuchElementException | WaitCancelledException e) {
+                failure = e;
                 // Clear the cache on any exception
                 cachedElement = null;
-                // Just threw this, propagate it
+                // Just threw this, or the waits have been cancelled, propagate it
                 throw e;
             } catch (RuntimeException e) {
+                failure = e;
+                // Let any element sharing the identity of a stale element know about it
+                if (e instanceof StaleElementReferenceException) {
+                    invalidateIdentity();
+                }
                 // Clear the cache on any exception
                 cachedElement = null;
                 // Check if this is an ignored action type for actions
@@ -246,11 +554,16 @@ public abstract class AbstractPatientElement<W extends WebElement,
                     // Do nothing here, we have already cleared the cache, stale
                     // exceptions can't be an ignored action type since they are
                     // always ignored
+                    wentStale = true;
                 } else if (!getConfig().isIgnoredActionException(e.getClass())) {
                     // Not an ignored type, propagate the exception
                     throw e;
+                } else {
+                    listener.onIgnoredActionException(getDescription(), e);
                 }
                 caught = e;
+            } finally {
+                listener.afterAttempt(getDescription(), i + 1, failure);
             }
         }
         throw expect().withMessage("Should not have reached this point without a non-null caught exception")
@@ -258,6 +571,269 @@ public abstract class AbstractPatientElement<W extends WebElement,
                       .isNotNull();
     }
 
+    /*
+     * Run the given command on the command queue of the patient driver so that
+     * this element, like the web driver, is only used by one thread at a time.
+     */
+
+    private <R> CompletableFuture<R> schedule(Supplier<R> command) {
+        expect().withMessage("Cannot execute asynchronously with an element that doesn't descend from a patient driver")
+                .that(patientDriver)
+                .isNotNull();
+        return patientDriver.requireCommandQueue().schedule(command);
+    }
+
+    /*
+     * Patiently poll with the given attempt, as the wait of this element would, on
+     * the command queue of the patient driver with the delays between the attempts
+     * spent on the wait scheduler of the driver rather than sleeping a thread.
+     */
+
+    private CompletableFuture<Boolean> poll(Duration timeout,
+                                            BooleanSupplier attempt) {
+        return track(patientDriver.getWaitScheduler()
+                                  .poll(wait, timeout, patientDriver.requireCommandQueue().getExecutor(), attempt));
+    }
+
+    /*
+     * Make the given future of an asynchronous wait complete with a cancelled
+     * exception as soon as the cancellation token of the patient driver is
+     * cancelled. Only called once the driver is known to be non-null.
+     */
+
+    private <R> CompletableFuture<R> track(CompletableFuture<R> future) {
+        return patientDriver.getCancellationToken().track(future);
+    }
+
+    /*
+     * The wait of this element made to abort as soon as the cancellation token
+     * of the patient driver is cancelled, or the wait itself if this element
+     * doesn't descend from a patient driver.
+     */
+
+    private PatientWait getCancellableWait() {
+        return null == patientDriver ? wait : patientDriver.getCancellationToken().wrap(wait);
+    }
+
+    private void throwIfCancelled() {
+        if (null != patientDriver) {
+            patientDriver.getCancellationToken().throwIfCancelled();
+        }
+    }
+
+    /*
+     * Elements are tagged with the browsing context of the locator that built
+     * them. Switch the patient driver back to that context so that the cached
+     * element can be used rather than located again.
+     */
+
+    private boolean enterBrowsingContext() {
+        return null == locator || locator.enterBrowsingContext();
+    }
+
+    /*
+     * If element identity tracking is enabled on the patient driver, find the
+     * identity shared by every element caching the same remote element as this
+     * one. This is only done when the cached element has changed since the last
+     * time and it doesn't send any commands to the web driver.
+     */
+
+    private void bindIdentity() {
+        if (null == patientDriver || null == cachedElement || cachedElement == identityElement) {
+            return;
+        }
+        identityElement = cachedElement;
+        identity = patientDriver.getElementIdentity(cachedElement).orElse(null);
+        identityGeneration = null == identity ? 0 : identity.getGeneration();
+    }
+
+    /*
+     * Drop the cached element if another element sharing its identity has found
+     * it to be stale since it was bound.
+     */
+
+    private void dropInvalidatedCache() {
+        if (null != cachedElement &&
+            cachedElement == identityElement &&
+            null != identity &&
+            identity.getGeneration() != identityGeneration) {
+            cachedElement = null;
+        }
+    }
+
+    private void invalidateIdentity() {
+        if (null != cachedElement && cachedElement == identityElement && null != identity) {
+            identity.invalidate();
+        }
+    }
+
+    /*
+     * Read the given properties with a single script if possible. Stale element
+     * references are propagated so that the caller can re-locate the element, any
+     * other script failure falls back to reading each property from the element.
+     * The script is the element action itself, so it isn't sent as a command of
+     * its own.
+     */
+
+    private ElementSnapshot readSnapshot(W element,
+                                         ElementProperty[] properties) {
+        Map<ElementProperty, Object> values = new LinkedHashMap<>();
+        Optional<JavascriptExecutor> executor = getJavascriptExecutor(element);
+        if (executor.isPresent()) {
+            List<List<String>> arguments = new ArrayList<>(properties.length);
+            for (ElementProperty property : properties) {
+                arguments.add(property.toScriptArgument());
+            }
+            try {
+                List<?> scriptValues = (List<?>) executor.get().executeScript(Scripts.READ_PROPERTIES, element, arguments);
+                for (int i = 0; i < properties.length; i++) {
+                    values.put(properties[i], properties[i].fromScriptValue(scriptValues.get(i)));
+                }
+                return new ElementSnapshot(values);
+            } catch (StaleElementReferenceException e) {
+                throw e;
+            } catch (RuntimeException ignore) {
+                // Fall back to reading each property from the element
+                values.clear();
+            }
+        }
+        for (ElementProperty property : properties) {
+            values.put(property, property.readNatively(element));
+        }
+        return new ElementSnapshot(values);
+    }
+
+    /*
+     * If the given element belongs to a web driver that can execute JavaScript
+     * then wait inside the browser, for up to the given timeout, for the element
+     * to be detached or stop being rendered and return whether it was. This is a
+     * best effort optimization so an empty optional is returned if the script
+     * can't be run or fails (e.g. a script timeout shorter than the given timeout)
+     * to leave the waiting to the patient polling done by the caller.
+     */
+
+    private Optional<Boolean> waitForDetachment(W element,
+                                                Duration timeout) {
+        Optional<JavascriptExecutor> executor = getJavascriptExecutor(element);
+        if (!executor.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Boolean.TRUE.equals(CommandScope.send(getListener(), getDescription(), CommandScope.CommandType.SCRIPT,
+                                                                     () -> executor.get().executeAsyncScript(Scripts.WAIT_FOR_DETACHMENT, element, timeout.toMillis()))));
+        } catch (RuntimeException ignore) {
+            return Optional.empty();
+        }
+    }
+
+    /*
+     * The time to wait in the browser for an element to be detached: the next
+     * poll interval of the wait of this element, but never less than the interval
+     * the script checks the element at, and never more than the remaining time.
+     */
+
+    private static Duration getDetachmentWait(Supplier<Duration> delays,
+                                              long remainingNanos) {
+        long interval = Math.max(delays.get().toNanos(), MIN_DETACHMENT_WAIT.toNanos());
+        return Duration.ofNanos(Math.min(interval, remainingNanos));
+    }
+
+    /*
+     * A single probe is all that is needed if there is no element or no time
+     * to wait. Otherwise let the browser wait for the found element to go away,
+     * one poll interval at a time, then confirm patiently. If the timeout is
+     * reached then the last element located is placed in the cache. Each run of
+     * the locator is reported as a poll of the given listener.
+     */
+
+    private boolean probeForAbsence(Duration timeout,
+                                    long start,
+                                    PatientListener listener,
+                                    int[] polls) {
+        W element = probe(listener, polls);
+        if (null == element) {
+            return true;
+        }
+        if (timeout.isZero()) {
+            cachedElement = element;
+            return false;
+        }
+        long deadline = start + timeout.toNanos();
+        Supplier<Duration> delays = wait.getDelaySupplierFactory().create();
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            throwIfCancelled();
+            Optional<Boolean> detached = waitForDetachment(element, getDetachmentWait(delays, remaining));
+            if (!detached.isPresent() || detached.get()) {
+                break;
+            }
+            // Still attached, but it may no longer match the locator
+            W next = probe(listener, polls);
+            if (null == next) {
+                return true;
+            }
+            element = next;
+        }
+        AtomicReference<W> lastElement = new AtomicReference<>(element);
+        try {
+            getCancellableWait().from(() -> {
+                W next = probe(listener, polls);
+                if (null != next) {
+                    lastElement.set(next);
+                }
+                return null == next;
+            }).get(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+            // It exited without an exception so the element is no longer present
+            return true;
+        } catch (PatientTimeoutException e) {
+            // It timed out so there was still an element present
+            cachedElement = lastElement.get();
+            return false;
+        }
+    }
+
+    /*
+     * Run the element supplier once as a poll of the given listener and return
+     * the element it located, or null if there is none.
+     */
+
+    private W probe(PatientListener listener,
+                    int[] polls) {
+        polls[0]++;
+        listener.beforePoll(getDescription(), polls[0]);
+        boolean successful = false;
+        try {
+            W element = elementSupplier.get().orElse(null);
+            successful = null == element;
+            return element;
+        } finally {
+            listener.onPoll(getDescription(), polls[0], successful);
+        }
+    }
+
+    /*
+     * Probe the currently cached element with a single cheap command
+     * to make sure it is still attached to the page and then make sure
+     * it still matches the filter of the locator that built this element.
+     * Any exception is treated as the cached element no longer being valid
+     * and is left to a full look-up to handle. Only the first match of a
+     * locator is validated, an element for another index could still be
+     * attached and matching while another node has taken its position.
+     */
+
+    private boolean isCachedElementValid() {
+        if (null == cachedElement || null == filter || 0 != index || !enterBrowsingContext()) {
+            return false;
+        }
+        PatientListener listener = getListener();
+        try {
+            CommandScope.send(listener, getDescription(), CommandScope.CommandType.VALIDATION, cachedElement::getTagName);
+            return CommandScope.send(listener, getDescription(), CommandScope.CommandType.FILTER, () -> filter.test(cachedElement));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
     /*
      * Simply use the given supplier and by to find the
      * list of elements and return it, or an empty
@@ -269,12 +845,23 @@ public abstract class AbstractPatientElement<W extends WebElement,
 
     @SuppressWarnings("unchecked")
     private List<W> findChildElements(By by) {
+        PatientListener listener = getListener();
         try {
-            if (null == cachedElement) {
+            if (null != cachedElement && !enterBrowsingContext()) {
+                cachedElement = null;
+            }
+            if (null != cachedElement) {
+                listener.onCacheHit(getDescription());
+            } else {
+                listener.onCacheMiss(getDescription());
                 cachedElement = elementSupplier.get().orElse(null);
             }
             if (null != cachedElement) {
-                return (List<W>) cachedElement.findElements(by);
+                if (null != patientDriver) {
+                    patientDriver.neutralizeImplicitWait();
+                }
+                W parent = cachedElement;
+                return CommandScope.send(listener, getLocatorDescription(by), CommandScope.CommandType.LOOKUP, () -> (List<W>) parent.findElements(by));
             }
         } catch (StaleElementReferenceException e) {
             // If the element is stale, clear the cache and return an empty list
@@ -285,6 +872,7 @@ public abstract class AbstractPatientElement<W extends WebElement,
             if (!getConfig().isIgnoredLookupException(e.getClass())) {
                 throw e;
             }
+            listener.onIgnoredLookupException(getDescription(), e);
         }
         return Collections.emptyList();
     }
@@ -300,14 +888,44 @@ public abstract class AbstractPatientElement<W extends WebElement,
      */
 
     private Optional<W> getElementPatiently() {
+        PatientListener listener = getListener();
+        int[] polls = {0};
+        long start = System.nanoTime();
+        boolean timedOut = false;
+        listener.beforeWait(getDescription(), timeout);
         try {
-            cachedElement = wait.from(elementSupplier::get)
-                                .withFilter(Optional::isPresent)
-                                .get(timeout)
-                                .orElse(null);
+            cachedElement = getCancellableWait().from(() -> {
+                polls[0]++;
+                listener.beforePoll(getDescription(), polls[0]);
+                boolean successful = false;
+                try {
+                    Optional<W> element = elementSupplier.get();
+                    successful = element.isPresent();
+                    return element;
+                } finally {
+                    listener.onPoll(getDescription(), polls[0], successful);
+                }
+            }).withFilter(Optional::isPresent)
+              .get(timeout)
+              .orElse(null);
         } catch (PatientTimeoutException ignore) {
-            // Do nothing
+            timedOut = true;
+            listener.onWaitTimeout(getDescription(), polls[0], timeout);
+        } finally {
+            listener.afterWait(getDescription(), polls[0], Duration.ofNanos(System.nanoTime() - start), timedOut);
         }
         return Optional.ofNullable(cachedElement);
     }
+
+    /*
+     * The listener of the config combined with the instrumentation of the
+     * patient driver. Without a driver there are only the flight recorder
+     * events to add, which is done on each call since it is only the case
+     * for elements built directly.
+     */
+
+    private PatientListener getListener() {
+        PatientListener configured = getConfig().getListener();
+        return null == patientDriver ? CompositePatientListener.of(configured, PatientEvents.listener()) : patientDriver.getListener(configured);
+    }
 }
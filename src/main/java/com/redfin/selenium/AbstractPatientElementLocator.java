@@ -2,6 +2,9 @@ package com.redfin.selenium;
 
 import com.redfin.patience.PatientWait;
 import com.redfin.patience.exceptions.PatientTimeoutException;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
 
 import java.time.Duration;
@@ -15,6 +18,7 @@ import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.redfin.validity.Validity.expect;
 import static com.redfin.validity.Validity.validate;
 
 /**
@@ -31,12 +35,23 @@ public abstract class AbstractPatientElementLocator<W extends WebElement,
                                                     E extends AbstractPatientElement<W, C, THIS, E>>
               extends AbstractBaseObject<W, C> {
 
+    /**
+     * The maximum number of elements whose values are read with a single script call
+     * by {@link #extract(ElementColumn...)}, which keeps the size of each response bounded.
+     */
+    public static final int EXTRACTION_CHUNK_SIZE = 500;
+
     private final Supplier<List<W>> elementListSupplier;
     private final PatientWait wait;
     private final Duration timeout;
     private final Predicate<W> filter;
     private final Map<Integer, E> builtElementMap = new HashMap<>();
 
+    private AbstractPatientDriver<?, W, ?, ?, ?> patientDriver = null;
+    private By by = null;
+    private AbstractPatientElement<W, ?, ?, ?> parentElement = null;
+    private BrowsingContext browsingContext = null;
+
     /**
      * Create a new {@link AbstractPatientElementLocator} instance.
      *
@@ -102,7 +117,7 @@ public abstract class AbstractPatientElementLocator<W extends WebElement,
         validate().withMessage("Cannot get an element with a negative index")
                   .that(index)
                   .isAtLeast(0);
-        return builtElementMap.computeIfAbsent(index, i -> buildElement(getElementDescription(i), () -> this.findElement(i)));
+        return builtElementMap.computeIfAbsent(index, this::buildIndexedElement);
     }
 
     /**
@@ -118,13 +133,90 @@ public abstract class AbstractPatientElementLocator<W extends WebElement,
         List<W> foundElements = getListPatiently();
         List<E> builtElements = new ArrayList<>(foundElements.size());
         for (int index = 0; index < foundElements.size(); index++) {
-            E element = builtElementMap.computeIfAbsent(index, i -> buildElement(getElementDescription(i), () -> findElement(i)));
+            E element = builtElementMap.computeIfAbsent(index, this::buildIndexedElement);
             element.setCachedElement(foundElements.get(index));
             builtElements.add(element);
         }
         return builtElements;
     }
 
+    /**
+     * Extract the given columns of values from every element that {@link #getAll()} would
+     * return, without building an element instance for each of them. This performs a single
+     * selenium lookup and, if the web driver can execute JavaScript, reads every column of
+     * up to {@value #EXTRACTION_CHUNK_SIZE} elements with each script call. Otherwise each
+     * value is read with the matching {@link WebElement} method. If any element reference
+     * becomes stale during the extraction the elements are looked up again and the whole
+     * extraction is retried, up to the max element action attempts of the config.
+     *
+     * @param columns the {@link ElementColumn}s to extract.
+     *                May not be null, empty or contain a null column.
+     *
+     * @return the {@link ElementColumns} holding one row per located element. May be empty.
+     *
+     * @throws IllegalArgumentException if columns is null, empty or contains a null column.
+     */
+    public final ElementColumns extract(ElementColumn... columns) {
+        validate().withMessage("Cannot extract null or empty columns")
+                  .that(columns)
+                  .isNotEmpty();
+        for (ElementColumn column : columns) {
+            validate().withMessage("Cannot extract a null column")
+                      .that(column)
+                      .isNotNull();
+        }
+        RuntimeException caught = null;
+        for (int i = 0; i < getConfig().getMaxElementActionAttempts(); i++) {
+            try {
+                return extractColumns(getListPatiently(), columns);
+            } catch (StaleElementReferenceException e) {
+                // The page changed under the extraction, look the elements up again
+                caught = e;
+            }
+        }
+        throw expect().withMessage("Should not have reached this point without a non-null caught exception")
+                      .that(caught)
+                      .isNotNull();
+    }
+
+    /**
+     * Create and return a new element locator instance scoped to the given browsing context with the
+     * other values copied from the current instance. Before every look-up of the new element locator,
+     * and before every action on an element it builds, the patient driver is switched to the given
+     * context if it isn't already known to be in it. Elements remember the context they were located
+     * in, so their cached web elements remain usable after the driver has been switched elsewhere
+     * rather than being located again. Element locators found via an element of a scoped element
+     * locator share its context. A frame or window of the context that can't be found is treated
+     * like a look-up that didn't find any elements. Unscoped element locators found via a patient
+     * driver use the top level context of the current window. Element locators that weren't found
+     * via a patient driver never switch contexts.
+     *
+     * @param context the {@link BrowsingContext} for the new instance.
+     *                May not be null.
+     *
+     * @return a new element locator instance.
+     *
+     * @throws IllegalArgumentException if context is null.
+     * @throws IllegalStateException    if this element locator locates elements relative to an element.
+     */
+    public final THIS within(BrowsingContext context) {
+        validate().withMessage("Cannot scope an element locator to a null browsing context")
+                  .that(context)
+                  .isNotNull();
+        expect().withMessage("Cannot scope an element locator that locates elements relative to an element")
+                .that(parentElement)
+                .isNull();
+        return copyMetadata(clone(getWait(), getTimeout(), getFilter()), context);
+    }
+
+    /**
+     * @return an optional containing the {@link BrowsingContext} this element locator is
+     * scoped to or an empty optional if it uses whichever context the driver is in.
+     */
+    public final Optional<BrowsingContext> getBrowsingContext() {
+        return Optional.ofNullable(browsingContext);
+    }
+
     /**
      * Create and return a new element locator instance with the given wait and the other values copied
      * from the current instance. Note that the new element locator will have a completely reset cache of
@@ -143,7 +235,7 @@ public abstract class AbstractPatientElementLocator<W extends WebElement,
         validate().withMessage("Cannot clone with a null wait")
                   .that(wait)
                   .isNotNull();
-        return clone(wait, getTimeout(), getFilter());
+        return copyMetadata(clone(wait, getTimeout(), getFilter()), browsingContext);
     }
 
     /**
@@ -164,7 +256,7 @@ public abstract class AbstractPatientElementLocator<W extends WebElement,
         validate().withMessage("Cannot clone with a null or negative timeout")
                   .that(timeout)
                   .isGreaterThanOrEqualToZero();
-        return clone(getWait(), timeout, getFilter());
+        return copyMetadata(clone(getWait(), timeout, getFilter()), browsingContext);
     }
 
     /**
@@ -185,7 +277,7 @@ public abstract class AbstractPatientElementLocator<W extends WebElement,
         validate().withMessage("Cannot clone with a null filter")
                   .that(filter)
                   .isNotNull();
-        return clone(getWait(), getTimeout(), filter);
+        return copyMetadata(clone(getWait(), getTimeout(), filter), browsingContext);
     }
 
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -258,10 +350,160 @@ public abstract class AbstractPatientElementLocator<W extends WebElement,
     protected abstract E buildElement(String elementDescription,
                                       Supplier<Optional<W>> elementSupplier);
 
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private methods intended for use by drivers and elements
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * The patient driver is the root of the locator and element tree. It is
+     * set by the driver or element that built this locator and is handed down
+     * to every element built by it. It may be null if this locator was built
+     * directly rather than via a find(By) call.
+     */
+
+    final AbstractPatientDriver<?, W, ?, ?, ?> getPatientDriver() {
+        return patientDriver;
+    }
+
+    final void setPatientDriver(AbstractPatientDriver<?, W, ?, ?, ?> patientDriver) {
+        this.patientDriver = patientDriver;
+    }
+
+    /*
+     * The By locator this locator was built with and the element it locates
+     * relative to. The parent element is null if this was built by a driver,
+     * and both are null if this locator was built directly.
+     */
+
+    final By getBy() {
+        return by;
+    }
+
+    final AbstractPatientElement<W, ?, ?, ?> getParentElement() {
+        return parentElement;
+    }
+
+    /*
+     * Perform the same patient lookup as getAll() without building
+     * any elements.
+     */
+
+    final List<W> locateAll() {
+        return getListPatiently();
+    }
+
+    final void setLookupMetadata(By by,
+                                 AbstractPatientElement<W, ?, ?, ?> parentElement) {
+        this.by = by;
+        this.parentElement = parentElement;
+    }
+
+    final void setBrowsingContext(BrowsingContext browsingContext) {
+        this.browsingContext = browsingContext;
+    }
+
+    /*
+     * Switch the patient driver to the browsing context of this locator and
+     * return false if that isn't possible. An unscoped locator found via the
+     * driver searches the context user code left the driver in, only going back
+     * to the top level document when a scoped look-up moved the driver away from
+     * it. Locators found via an element rely on the element entering its own
+     * context.
+     */
+
+    final boolean enterBrowsingContext() {
+        if (null == patientDriver || (null == browsingContext && null != parentElement)) {
+            return true;
+        }
+        if (null == browsingContext) {
+            return patientDriver.leaveSwitchedContext(getDescription());
+        }
+        return patientDriver.enterBrowsingContext(browsingContext, getDescription());
+    }
+
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Private instance methods
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 
+    private E buildIndexedElement(int index) {
+        E element = buildElement(getElementDescription(index), () -> findElement(index));
+        element.setPatientDriver(patientDriver);
+        element.setFilter(filter);
+        element.setLocator(this, index);
+        return element;
+    }
+
+    private THIS copyMetadata(THIS clone,
+                              BrowsingContext browsingContext) {
+        clone.setPatientDriver(patientDriver);
+        clone.setLookupMetadata(by, parentElement);
+        clone.setBrowsingContext(browsingContext);
+        if (null == patientDriver) {
+            return clone;
+        }
+        return patientDriver.intern(null == parentElement ? patientDriver : parentElement, clone);
+    }
+
+    private ElementColumns extractColumns(List<W> elements,
+                                          ElementColumn[] columns) {
+        Object[] values = new Object[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            values[c] = columns[c].newValues(elements.size());
+        }
+        if (!elements.isEmpty() && !extractColumnsWithScript(elements, columns, values)) {
+            for (int row = 0; row < elements.size(); row++) {
+                for (int c = 0; c < columns.length; c++) {
+                    columns[c].setValue(values[c], row, columns[c].getProperty().readNatively(elements.get(row)));
+                }
+            }
+        }
+        return new ElementColumns(columns, values, elements.size());
+    }
+
+    /*
+     * Read the columns of the given elements in chunks with one script call per
+     * chunk and return true if every chunk was read. Stale element references are
+     * propagated so the caller can look the elements up again, any other script
+     * failure returns false so the values are read natively instead.
+     */
+
+    private boolean extractColumnsWithScript(List<W> elements,
+                                             ElementColumn[] columns,
+                                             Object[] values) {
+        Optional<JavascriptExecutor> executor = Scripts.getExecutor(elements.get(0));
+        if (!executor.isPresent() && null != patientDriver) {
+            executor = patientDriver.getJavascriptExecutor();
+        }
+        if (!executor.isPresent()) {
+            return false;
+        }
+        JavascriptExecutor javascriptExecutor = executor.get();
+        List<List<String>> properties = new ArrayList<>(columns.length);
+        for (ElementColumn column : columns) {
+            properties.add(column.getProperty().toScriptArgument());
+        }
+        PatientListener listener = getListener();
+        try {
+            for (int start = 0; start < elements.size(); start += EXTRACTION_CHUNK_SIZE) {
+                List<W> chunk = elements.subList(start, Math.min(start + EXTRACTION_CHUNK_SIZE, elements.size()));
+                List<?> chunkColumns = (List<?>) CommandScope.send(listener, getDescription(), CommandScope.CommandType.SCRIPT,
+                                                                   () -> javascriptExecutor.executeScript(Scripts.READ_COLUMNS, chunk, properties));
+                for (int c = 0; c < columns.length; c++) {
+                    List<?> chunkValues = (List<?>) chunkColumns.get(c);
+                    ElementProperty property = columns[c].getProperty();
+                    for (int row = 0; row < chunk.size(); row++) {
+                        columns[c].setValue(values[c], start + row, property.fromScriptValue(chunkValues.get(row)));
+                    }
+                }
+            }
+            return true;
+        } catch (StaleElementReferenceException e) {
+            throw e;
+        } catch (RuntimeException ignore) {
+            return false;
+        }
+    }
+
     /*
      * Simply use the given supplier and filter to find the
      * n-th element and return it or an empty optional if none.
@@ -273,11 +515,13 @@ public abstract class AbstractPatientElementLocator<W extends WebElement,
 
     private Optional<W> findElement(int index) {
         try {
-            List<W> foundElements = elementListSupplier.get()
-                                                       .stream()
-                                                       .filter(filter)
-                                                       .limit(index + 1)
-                                                       .collect(Collectors.toList());
+            if (!enterBrowsingContext()) {
+                return Optional.empty();
+            }
+            List<W> foundElements = lookup().stream()
+                                            .filter(this::testFilter)
+                                            .limit(index + 1)
+                                            .collect(Collectors.toList());
             if (foundElements.size() > index) {
                 return Optional.of(foundElements.get(index));
             }
@@ -285,6 +529,7 @@ public abstract class AbstractPatientElementLocator<W extends WebElement,
             if (!getConfig().isIgnoredLookupException(e.getClass())) {
                 throw e;
             }
+            getListener().onIgnoredLookupException(getDescription(), e);
         }
         return Optional.empty();
     }
@@ -296,23 +541,85 @@ public abstract class AbstractPatientElementLocator<W extends WebElement,
      * list is found simply return it. If the timeout is
      * reached before a non-empty list is found then
      * return an empty list. Unhandled and non-ignored
-     * exceptions will be thrown.
+     * exceptions will be thrown. The calling thread sleeps
+     * between polls, only the asynchronous waits of
+     * elements are run on the wait scheduler.
      */
 
     private List<W> getListPatiently() {
+        // Abort as soon as the cancellation token of the patient driver is cancelled
+        PatientWait cancellableWait = null == patientDriver ? wait : patientDriver.getCancellationToken().wrap(wait);
+        PatientListener listener = getListener();
+        int[] polls = {0};
+        long start = System.nanoTime();
+        List<W> foundElements;
+        boolean timedOut = false;
+        listener.beforeWait(getDescription(), timeout);
         try {
-            return wait.from(() -> {
+            foundElements = cancellableWait.from(() -> {
+                polls[0]++;
+                listener.beforePoll(getDescription(), polls[0]);
+                boolean successful = false;
                 try {
-                    return elementListSupplier.get();
+                    List<W> elements = enterBrowsingContext() ? lookup() : Collections.<W>emptyList();
+                    successful = !elements.isEmpty();
+                    return elements;
                 } catch (RuntimeException e) {
                     if (getConfig().isIgnoredLookupException(e.getClass())) {
+                        listener.onIgnoredLookupException(getDescription(), e);
                         return null;
                     }
                     throw e;
+                } finally {
+                    listener.onPoll(getDescription(), polls[0], successful);
                 }
             }).withFilter(list -> !list.isEmpty()).get(timeout);
         } catch (PatientTimeoutException ignore) {
-            return Collections.emptyList();
+            timedOut = true;
+            foundElements = Collections.emptyList();
+            listener.onWaitTimeout(getDescription(), polls[0], timeout);
+        } finally {
+            listener.afterWait(getDescription(), polls[0], Duration.ofNanos(System.nanoTime() - start), timedOut);
+        }
+        return foundElements;
+    }
+
+    /*
+     * Test the given element against the filter, counting the test as a
+     * command since filters usually ask the browser about the element.
+     */
+
+    private boolean testFilter(W element) {
+        return CommandScope.send(getListener(), getDescription(), CommandScope.CommandType.FILTER, () -> filter.test(element));
+    }
+
+    /*
+     * A single request for elements sent to the web driver.
+     */
+
+    private List<W> lookup() {
+        PatientListener listener = getListener();
+        listener.beforeLookup(getDescription());
+        List<W> elements;
+        try {
+            elements = elementListSupplier.get();
+        } catch (RuntimeException e) {
+            listener.afterLookup(getDescription(), 0, e);
+            throw e;
         }
+        listener.afterLookup(getDescription(), elements.size(), null);
+        return elements;
+    }
+
+    /*
+     * The listener of the config combined with the instrumentation of the
+     * patient driver. Without a driver there are only the flight recorder
+     * events to add, which is done on each call since it is only the case
+     * for locators built directly.
+     */
+
+    private PatientListener getListener() {
+        PatientListener configured = getConfig().getListener();
+        return null == patientDriver ? CompositePatientListener.of(configured, PatientEvents.listener()) : patientDriver.getListener(configured);
     }
 }
@@ -0,0 +1,46 @@
+package com.redfin.selenium;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * An AsyncWrappedExecutor is the asynchronous counterpart of a {@link WrappedExecutor}. The
+ * wrapped object is given to the consumer or function later, on an executor chosen by the
+ * implementation, and the result is handed back as a {@link CompletableFuture}.
+ *
+ * @param <T> the type of object that is wrapped.
+ */
+public interface AsyncWrappedExecutor<T> {
+
+    /**
+     * Give the wrapped object to the given consumer's
+     * {@link Consumer#accept(Object)} method asynchronously.
+     *
+     * @param consumer the {@link Consumer} to execute
+     *                 with the wrapped object.
+     *                 May not be null.
+     *
+     * @return a {@link CompletableFuture} that is completed once the consumer has
+     * been executed, or completed exceptionally with the exception it threw.
+     *
+     * @throws IllegalArgumentException if consumer is null.
+     */
+    CompletableFuture<Void> acceptAsync(Consumer<T> consumer);
+
+    /**
+     * Give the wrapped object to the given function's
+     * {@link Function#apply(Object)} method asynchronously.
+     *
+     * @param function the {@link Function} to execute
+     *                 with the wrapped object.
+     *                 May not be null.
+     * @param <R>      the type returned by the given function.
+     *
+     * @return a {@link CompletableFuture} of the result of applying the wrapped object
+     * to the function, or completed exceptionally with the exception it threw.
+     *
+     * @throws IllegalArgumentException if function is null.
+     */
+    <R> CompletableFuture<R> applyAsync(Function<T, R> function);
+}
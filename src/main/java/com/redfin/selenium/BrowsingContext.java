@@ -0,0 +1,128 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A BrowsingContext describes where on a web driver an element locator looks for elements.
+ * It is an optional window handle followed by the path of frames, from the top level document
+ * of that window, to the document the elements are in. A context without a window handle is
+ * relative to whichever window the web driver is currently on. Each frame is the first element
+ * matched by its {@link By} locator within the document of the previous frame.
+ * <p>
+ * Instances are immutable, the {@link #frame(By)} method returns a new context.
+ */
+public final class BrowsingContext {
+
+    private static final BrowsingContext TOP_LEVEL = new BrowsingContext(null, Collections.emptyList());
+
+    private final String windowHandle;
+    private final List<By> frames;
+
+    /*
+     * Only intended to be created by the static factory methods and the
+     * tracking done by the patient driver so make the visibility package private.
+     */
+
+    BrowsingContext(String windowHandle,
+                    List<By> frames) {
+        this.windowHandle = windowHandle;
+        this.frames = Collections.unmodifiableList(new ArrayList<>(frames));
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Static factory methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return the context of the top level document of the current window.
+     */
+    public static BrowsingContext topLevel() {
+        return TOP_LEVEL;
+    }
+
+    /**
+     * @param windowHandle the String handle of the window.
+     *                     May not be null or empty.
+     *
+     * @return the context of the top level document of the window with the given handle.
+     *
+     * @throws IllegalArgumentException if windowHandle is null or empty.
+     */
+    public static BrowsingContext window(String windowHandle) {
+        validate().withMessage("Cannot create a browsing context with a null or empty window handle")
+                  .that(windowHandle)
+                  .isNotEmpty();
+        return new BrowsingContext(windowHandle, Collections.emptyList());
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @param frame the {@link By} locator of the frame element within this context.
+     *              May not be null.
+     *
+     * @return a new context for the document of the first frame element matching the
+     * given locator within this context.
+     *
+     * @throws IllegalArgumentException if frame is null.
+     */
+    public BrowsingContext frame(By frame) {
+        validate().withMessage("Cannot create a browsing context with a null frame locator")
+                  .that(frame)
+                  .isNotNull();
+        List<By> childFrames = new ArrayList<>(frames);
+        childFrames.add(frame);
+        return new BrowsingContext(windowHandle, childFrames);
+    }
+
+    /**
+     * @return an optional containing the String handle of the window of this context
+     * or an empty optional if this context is relative to the current window.
+     */
+    public Optional<String> getWindowHandle() {
+        return Optional.ofNullable(windowHandle);
+    }
+
+    /**
+     * @return the unmodifiable list of {@link By} locators of the frames, from the top level
+     * document of the window, of this context. Empty for a top level context.
+     */
+    public List<By> getFrames() {
+        return frames;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof BrowsingContext)) {
+            return false;
+        }
+        BrowsingContext other = (BrowsingContext) obj;
+        return Objects.equals(windowHandle, other.windowHandle) &&
+               frames.equals(other.frames);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(windowHandle, frames);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BrowsingContext(window: %s, frames: %s)",
+                             null == windowHandle ? "current" : windowHandle,
+                             frames);
+    }
+}
@@ -0,0 +1,213 @@
+package com.redfin.selenium;
+
+import com.redfin.patience.PatientSleep;
+import com.redfin.patience.PatientWait;
+import com.redfin.patience.exceptions.PatientInterruptedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A CancellationToken lets the waits of a patient driver be aborted from another thread, e.g.
+ * when a test is aborted by a suite timeout or a fail fast policy, rather than each of them
+ * polling until its own timeout is reached while the session it holds could be given back.
+ * <p>
+ * Every patient driver has a token of its own, see {@link AbstractPatientDriver#getCancellationToken()}.
+ * Once it is cancelled the waits of the elements and element locators descending from the driver,
+ * including those of the asynchronous methods, and the retries of element actions throw a
+ * {@link WaitCancelledException} instead of polling again. A thread sleeping between two polls is
+ * woken up immediately while a call to the browser that is already in progress is left to finish.
+ * The web driver itself can still be used, e.g. to take a screenshot or to quit it. A token can't
+ * be un-cancelled.
+ */
+public final class CancellationToken {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Thread> sleepingThreads = new HashSet<>();
+    private final Set<CompletableFuture<?>> pendingFutures = new HashSet<>();
+
+    private volatile String reason = null;
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * Cancel this token with a generic reason. See {@link #cancel(String)}.
+     */
+    public void cancel() {
+        cancel("The waits of the patient driver have been cancelled");
+    }
+
+    /**
+     * Cancel this token, aborting every wait that is in progress or started from now on.
+     * Only the first call has any effect.
+     *
+     * @param reason the String reason for the cancellation, used as the message of the
+     *               thrown {@link WaitCancelledException}s.
+     *               May not be null or empty.
+     *
+     * @throws IllegalArgumentException if reason is null or empty.
+     */
+    public void cancel(String reason) {
+        validate().withMessage("Cannot cancel with a null or empty reason")
+                  .that(reason)
+                  .isNotEmpty();
+        List<CompletableFuture<?>> futures;
+        lock.lock();
+        try {
+            if (null != this.reason) {
+                return;
+            }
+            this.reason = reason;
+            // Only threads sleeping between polls are interrupted, never one talking to the browser
+            sleepingThreads.forEach(Thread::interrupt);
+            futures = new ArrayList<>(pendingFutures);
+            pendingFutures.clear();
+        } finally {
+            lock.unlock();
+        }
+        // Complete outside of the lock since completing runs the dependent stages
+        futures.forEach(future -> future.completeExceptionally(new WaitCancelledException(reason)));
+    }
+
+    /**
+     * @return true if this token has been cancelled, false otherwise.
+     */
+    public boolean isCancelled() {
+        return null != reason;
+    }
+
+    /**
+     * @throws WaitCancelledException if this token has been cancelled.
+     */
+    public void throwIfCancelled() {
+        String cancelledReason = reason;
+        if (null != cancelledReason) {
+            throw new WaitCancelledException(cancelledReason);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CancellationToken(cancelled: %s)", isCancelled());
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Returns a copy of the given wait whose sleep, which patience calls before
+     * every attempt, throws a cancelled exception if this token is cancelled
+     * before or while sleeping. The sleep of the given wait is still used to
+     * do the actual sleeping.
+     */
+
+    PatientWait wrap(PatientWait wait) {
+        return new PatientWait(new CancellableSleep(wait.getSleep()),
+                               wait.getInitialDelay(),
+                               wait.getDefaultTimeout(),
+                               wait.getExecutionHandler(),
+                               wait.getDelaySupplierFactory());
+    }
+
+    /*
+     * Complete the given future exceptionally with a cancelled exception as soon
+     * as this token is cancelled, unless it completes first.
+     */
+
+    <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        lock.lock();
+        try {
+            if (null == reason) {
+                pendingFutures.add(future);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (null != reason) {
+            future.completeExceptionally(new WaitCancelledException(reason));
+        } else {
+            future.whenComplete((result, throwable) -> untrack(future));
+        }
+        return future;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private void untrack(CompletableFuture<?> future) {
+        lock.lock();
+        try {
+            pendingFutures.remove(future);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * The sleeping thread is registered, under the lock, so that cancel only ever
+     * interrupts it while it sleeps. If the interrupt lands after the sleep ended
+     * but before the thread is unregistered the flag is cleared again below.
+     */
+
+    private final class CancellableSleep
+                implements PatientSleep {
+
+        private final PatientSleep sleep;
+
+        private CancellableSleep(PatientSleep sleep) {
+            this.sleep = sleep;
+        }
+
+        @Override
+        public void sleepFor(long millis,
+                             int nanos) throws InterruptedException {
+            sleep.sleepFor(millis, nanos);
+        }
+
+        @Override
+        public void sleepFor(Duration duration) {
+            Thread thread = Thread.currentThread();
+            lock.lock();
+            try {
+                throwIfCancelled();
+                sleepingThreads.add(thread);
+            } finally {
+                lock.unlock();
+            }
+            try {
+                sleep.sleepFor(duration);
+            } catch (PatientInterruptedException e) {
+                if (!isCancelled()) {
+                    throw e;
+                }
+            } finally {
+                lock.lock();
+                try {
+                    sleepingThreads.remove(thread);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (isCancelled()) {
+                // Clear the interrupt used to wake this thread up
+                Thread.interrupted();
+                throwIfCancelled();
+            }
+        }
+    }
+}
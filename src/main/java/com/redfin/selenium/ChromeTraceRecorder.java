@@ -0,0 +1,216 @@
+package com.redfin.selenium;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A ChromeTraceRecorder is a {@link PatientTracer} that keeps every closed span in memory and
+ * exports them in the Chrome trace event format, as complete ("X") events with their description
+ * and attributes as arguments. The exported file can be opened in chrome://tracing, Perfetto or
+ * any other viewer of the format, where the spans of each thread are shown nested by time.
+ * <p>
+ * It is safe to share between the patient drivers of a whole test run. Spans are timed relative
+ * to the creation of the recorder.
+ */
+public final class ChromeTraceRecorder
+        implements PatientTracer {
+
+    private static final String CATEGORY = "patient-selenium";
+
+    private final long originNanos = System.nanoTime();
+    private final Queue<RecordedSpan> spans = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<Long, String> threadNames = new ConcurrentHashMap<>();
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if name is null or empty or if description is null.
+     */
+    @Override
+    public PatientTracer.Span startSpan(String name,
+                                        String description) {
+        validate().withMessage("Cannot start a span with a null or empty name")
+                  .that(name)
+                  .isNotEmpty();
+        validate().withMessage("Cannot start a span with a null description")
+                  .that(description)
+                  .isNotNull();
+        return new RecordedSpan(name, description);
+    }
+
+    /**
+     * @return the int number of spans that have been closed and not cleared.
+     */
+    public int getSpanCount() {
+        return spans.size();
+    }
+
+    /**
+     * Forget every span closed so far, e.g. once they have been exported.
+     */
+    public void clear() {
+        spans.clear();
+    }
+
+    /**
+     * @return the String JSON object, in the Chrome trace event format, of the spans closed so far.
+     */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        List<String> events = new ArrayList<>();
+        threadNames.forEach((threadId, threadName) -> events.add(String.format("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":%d,\"args\":{\"name\":%s}}",
+                                                                                threadId,
+                                                                                quote(threadName))));
+        for (RecordedSpan span : spans) {
+            events.add(span.toJson());
+        }
+        builder.append(String.join(",", events));
+        return builder.append("]}").toString();
+    }
+
+    /**
+     * Write the spans closed so far to the given file, replacing it if it exists.
+     *
+     * @param file the {@link Path} of the file to write.
+     *             May not be null.
+     *
+     * @throws IllegalArgumentException if file is null.
+     * @throws UncheckedIOException     if the file can't be written.
+     */
+    public void writeTo(Path file) {
+        validate().withMessage("Cannot write a trace to a null file")
+                  .that(file)
+                  .isNotNull();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to write the trace to [%s]", file), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ChromeTraceRecorder(spans: %d)", getSpanCount());
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private static methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private static String quote(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private static String toJsonValue(Object value) {
+        if (value instanceof Boolean || value instanceof Integer || value instanceof Long) {
+            return value.toString();
+        }
+        return quote(String.valueOf(value));
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * A span is only ever used by the thread that opened it so it isn't
+     * synchronized, it is published to the recorder when closed.
+     */
+
+    private final class RecordedSpan
+                implements PatientTracer.Span {
+
+        private final String name;
+        private final String description;
+        private final long threadId;
+        private final long startNanos;
+        private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+        private long endNanos = -1;
+
+        private RecordedSpan(String name,
+                             String description) {
+            Thread thread = Thread.currentThread();
+            this.name = name;
+            this.description = description;
+            this.threadId = thread.getId();
+            this.startNanos = System.nanoTime();
+            threadNames.putIfAbsent(threadId, thread.getName());
+        }
+
+        @Override
+        public PatientTracer.Span setAttribute(String name,
+                                               Object value) {
+            validate().withMessage("Cannot set an attribute with a null or empty name")
+                      .that(name)
+                      .isNotEmpty();
+            attributes.put(name, value);
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (endNanos < 0) {
+                endNanos = System.nanoTime();
+                spans.add(this);
+            }
+        }
+
+        private String toJson() {
+            StringBuilder args = new StringBuilder("{\"description\":").append(quote(description));
+            attributes.forEach((key, value) -> args.append(',').append(quote(key)).append(':').append(toJsonValue(value)));
+            return String.format("{\"name\":%s,\"cat\":\"%s\",\"ph\":\"X\",\"ts\":%d,\"dur\":%d,\"pid\":1,\"tid\":%d,\"args\":%s}}",
+                                 quote(name),
+                                 CATEGORY,
+                                 TimeUnit.NANOSECONDS.toMicros(startNanos - originNanos),
+                                 TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos),
+                                 threadId,
+                                 args);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.redfin.selenium;
+
+/**
+ * A {@link RuntimeException} that is thrown when a {@link CommandScope} whose budget
+ * was exceeded is closed, see {@link CommandScope#fail()}.
+ */
+public final class CommandBudgetExceededException
+           extends RuntimeException {
+
+    static final long serialVersionUID = 0L;
+
+    /**
+     * Create a new {@link CommandBudgetExceededException} with a null
+     * message and cause.
+     */
+    public CommandBudgetExceededException() {
+        super();
+    }
+
+    /**
+     * Create a new {@link CommandBudgetExceededException} with the given message
+     * and a null cause.
+     *
+     * @param message the String message for the exception.
+     *                May be null.
+     */
+    public CommandBudgetExceededException(String message) {
+        super(message);
+    }
+
+    /**
+     * Create a new {@link CommandBudgetExceededException} with the given cause
+     * and a null message.
+     *
+     * @param cause the {@link Throwable} cause of the exception.
+     *              May be null.
+     */
+    public CommandBudgetExceededException(Throwable cause) {
+        super(cause);
+    }
+
+    /**
+     * Create a new {@link CommandBudgetExceededException} with the given
+     * message and cause.
+     *
+     * @param message the String message for the exception.
+     *                May be null.
+     * @param cause   the {@link Throwable} cause of the exception.
+     *                May be null.
+     */
+    public CommandBudgetExceededException(String message,
+                                          Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,387 @@
+package com.redfin.selenium;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.redfin.selenium.TabSeparatedValues.escape;
+import static com.redfin.selenium.TabSeparatedValues.unescape;
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A CommandProfile is a compact, persistable, summary of what a single test spent on each element
+ * and element locator: the number of commands sent to the browser, the total time spent waiting and
+ * the number of retried element actions, per description. A profile is captured from the
+ * {@link CommandScope} the test ran in and the {@link InMemoryPatientMetrics} of its driver, written
+ * to a file as the baseline of the test and compared with the profile of later runs, e.g. in CI,
+ * to catch the page objects whose round trips or waits grew.
+ * <p>
+ * Profiles are written as plain text, one line per description, so that baselines can be checked in
+ * and reviewed. Instances are immutable and safe to share between threads.
+ */
+public final class CommandProfile {
+
+    private static final String HEADER = "# patient-selenium command profile v1";
+    private static final String COLUMNS = "# commands\twait ms\tretries\tdescription";
+
+    private final String name;
+    private final Map<String, Entry> entries;
+
+    private CommandProfile(String name,
+                           Map<String, Entry> entries) {
+        this.name = name;
+        this.entries = Collections.unmodifiableMap(entries);
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Static factory methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * Capture the profile of a test from the commands counted by the given scope and the waits and
+     * retries recorded by the given metrics. The metrics should only hold the events of the test,
+     * e.g. by being {@link InMemoryPatientMetrics#reset()} when the scope is opened.
+     *
+     * @param scope   the {@link CommandScope} the test ran in, its name is the name of the profile.
+     *                May not be null.
+     * @param metrics the {@link InMemoryPatientMetrics} the driver of the test reported to.
+     *                May not be null.
+     *
+     * @return the captured profile.
+     *
+     * @throws IllegalArgumentException if either argument is null.
+     */
+    public static CommandProfile capture(CommandScope scope,
+                                         InMemoryPatientMetrics metrics) {
+        validate().withMessage("Cannot capture a profile from a null command scope")
+                  .that(scope)
+                  .isNotNull();
+        validate().withMessage("Cannot capture a profile from null metrics")
+                  .that(metrics)
+                  .isNotNull();
+        Set<String> descriptions = new TreeSet<>(scope.getCounts().keySet());
+        descriptions.addAll(metrics.getCounts().keySet());
+        Map<String, Entry> entries = new TreeMap<>();
+        for (String description : descriptions) {
+            long waitMillis = metrics.getWaitDurations(description)
+                                     .map(InMemoryPatientMetrics.Histogram::getSum)
+                                     .orElse(0L);
+            entries.put(description, new Entry(scope.getCommandCount(description),
+                                               waitMillis,
+                                               metrics.getCount(InMemoryPatientMetrics.RETRIES, description)));
+        }
+        return new CommandProfile(scope.getName(), entries);
+    }
+
+    /**
+     * @param file the {@link Path} of a profile written by {@link #writeTo(Path)}.
+     *             May not be null.
+     *
+     * @return an optional containing the profile read from the given file or an empty optional if
+     * the file doesn't exist, e.g. for a test that doesn't have a baseline yet.
+     *
+     * @throws IllegalArgumentException if file is null.
+     * @throws UncheckedIOException     if the file exists but can't be read or isn't a profile.
+     */
+    public static Optional<CommandProfile> readFrom(Path file) {
+        validate().withMessage("Cannot read a profile from a null file")
+                  .that(file)
+                  .isNotNull();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            String nameLine = reader.readLine();
+            if (!HEADER.equals(header) || null == nameLine || !nameLine.startsWith("# name: ")) {
+                throw new IOException("Not a command profile");
+            }
+            Map<String, Entry> entries = new TreeMap<>();
+            String line;
+            while (null != (line = reader.readLine())) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", 4);
+                if (fields.length != 4) {
+                    throw new IOException("Malformed command profile line: " + line);
+                }
+                entries.put(unescape(fields[3]), new Entry(Long.parseLong(fields[0]),
+                                                           Long.parseLong(fields[1]),
+                                                           Long.parseLong(fields[2])));
+            }
+            return Optional.of(new CommandProfile(unescape(nameLine.substring("# name: ".length())), entries));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | NumberFormatException e) {
+            throw new UncheckedIOException(String.format("Unable to read the command profile at [%s]", file),
+                                           e instanceof IOException ? (IOException) e : new IOException(e));
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return the String name of this profile, the name of the scope it was captured from.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the map, sorted by description, of the entry of every description of this profile.
+     */
+    public Map<String, Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @param description the String description of an element or element locator.
+     *                    May not be null.
+     *
+     * @return an optional containing the entry of the given description or an empty optional if none.
+     *
+     * @throws IllegalArgumentException if description is null.
+     */
+    public Optional<Entry> getEntry(String description) {
+        validate().withMessage("Cannot get the entry of a null description")
+                  .that(description)
+                  .isNotNull();
+        return Optional.ofNullable(entries.get(description));
+    }
+
+    /**
+     * Compare this profile with the given baseline and return the values that grew beyond the given
+     * tolerance. A value grew beyond the tolerance if it is more than the baseline value times one plus the
+     * tolerance, e.g. a tolerance of 0.25 allows 25% more, and for wait times also more than the baseline value
+     * plus the given slack, since wait times vary between runs. Descriptions missing from the baseline
+     * are compared against zero and descriptions missing from this profile are never regressions.
+     *
+     * @param baseline  the {@link CommandProfile} to compare with, e.g. read from a stored baseline.
+     *                  May not be null.
+     * @param tolerance the double relative growth allowed.
+     *                  May not be negative.
+     * @param waitSlack the Duration of growth of the wait time of a description that is always allowed.
+     *                  May not be null or negative.
+     *
+     * @return the list of {@link Regression}s found, sorted by description. Empty if there are none.
+     *
+     * @throws IllegalArgumentException if baseline or waitSlack are null or if tolerance or waitSlack are negative.
+     */
+    public List<Regression> compareTo(CommandProfile baseline,
+                                      double tolerance,
+                                      Duration waitSlack) {
+        validate().withMessage("Cannot compare with a null baseline")
+                  .that(baseline)
+                  .isNotNull();
+        validate().withMessage("Cannot compare with a negative tolerance")
+                  .that(tolerance)
+                  .isGreaterThanOrEqualTo(0.0);
+        validate().withMessage("Cannot compare with a null or negative wait slack")
+                  .that(waitSlack)
+                  .isGreaterThanOrEqualToZero();
+        List<Regression> regressions = new ArrayList<>();
+        entries.forEach((description, entry) -> {
+            Entry base = baseline.entries.getOrDefault(description, Entry.EMPTY);
+            if (entry.commands > allowed(base.commands, tolerance, 0)) {
+                regressions.add(new Regression(description, Metric.COMMANDS, base.commands, entry.commands));
+            }
+            if (entry.waitMillis > allowed(base.waitMillis, tolerance, waitSlack.toMillis())) {
+                regressions.add(new Regression(description, Metric.WAIT_MILLIS, base.waitMillis, entry.waitMillis));
+            }
+            if (entry.retries > allowed(base.retries, tolerance, 0)) {
+                regressions.add(new Regression(description, Metric.RETRIES, base.retries, entry.retries));
+            }
+        });
+        return regressions;
+    }
+
+    /**
+     * Write this profile to the given file, replacing it if it exists and creating its directory if needed.
+     *
+     * @param file the {@link Path} of the file to write to.
+     *             May not be null.
+     *
+     * @throws IllegalArgumentException if file is null.
+     * @throws UncheckedIOException     if the file can't be written.
+     */
+    public void writeTo(Path file) {
+        validate().withMessage("Cannot write a profile to a null file")
+                  .that(file)
+                  .isNotNull();
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            if (null != directory) {
+                Files.createDirectories(directory);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(toString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to write the command profile to [%s]", file), e);
+        }
+    }
+
+    /**
+     * @return the String form of this profile, as written by {@link #writeTo(Path)}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(HEADER).append('\n')
+                                                         .append("# name: ").append(escape(name)).append('\n')
+                                                         .append(COLUMNS).append('\n');
+        entries.forEach((description, entry) -> builder.append(entry.commands).append('\t')
+                                                       .append(entry.waitMillis).append('\t')
+                                                       .append(entry.retries).append('\t')
+                                                       .append(escape(description)).append('\n'));
+        return builder.toString();
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private static methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private static double allowed(long baseline,
+                                  double tolerance,
+                                  long slack) {
+        return Math.max(baseline * (1 + tolerance), baseline + slack);
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * The values a profile compares.
+     */
+    public enum Metric {
+
+        /**
+         * The number of commands sent to the browser.
+         */
+        COMMANDS,
+
+        /**
+         * The total time spent waiting, in milliseconds.
+         */
+        WAIT_MILLIS,
+
+        /**
+         * The number of retried element actions.
+         */
+        RETRIES
+    }
+
+    /**
+     * The values of a single description of a profile.
+     */
+    public static final class Entry {
+
+        private static final Entry EMPTY = new Entry(0, 0, 0);
+
+        private final long commands;
+        private final long waitMillis;
+        private final long retries;
+
+        private Entry(long commands,
+                      long waitMillis,
+                      long retries) {
+            this.commands = commands;
+            this.waitMillis = waitMillis;
+            this.retries = retries;
+        }
+
+        /**
+         * @return the long number of commands sent to the browser.
+         */
+        public long getCommands() {
+            return commands;
+        }
+
+        /**
+         * @return the long total time spent waiting, in milliseconds.
+         */
+        public long getWaitMillis() {
+            return waitMillis;
+        }
+
+        /**
+         * @return the long number of retried element actions.
+         */
+        public long getRetries() {
+            return retries;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Entry(commands: %d, wait ms: %d, retries: %d)", commands, waitMillis, retries);
+        }
+    }
+
+    /**
+     * A value of a description that grew beyond the tolerance of a comparison with a baseline.
+     */
+    public static final class Regression {
+
+        private final String description;
+        private final Metric metric;
+        private final long baseline;
+        private final long actual;
+
+        private Regression(String description,
+                           Metric metric,
+                           long baseline,
+                           long actual) {
+            this.description = description;
+            this.metric = metric;
+            this.baseline = baseline;
+            this.actual = actual;
+        }
+
+        /**
+         * @return the String description of the element or element locator that regressed.
+         */
+        public String getDescription() {
+            return description;
+        }
+
+        /**
+         * @return the {@link Metric} that grew.
+         */
+        public Metric getMetric() {
+            return metric;
+        }
+
+        /**
+         * @return the long value of the baseline.
+         */
+        public long getBaseline() {
+            return baseline;
+        }
+
+        /**
+         * @return the long value of the compared profile.
+         */
+        public long getActual() {
+            return actual;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s grew from %d to %d", description, metric.name().toLowerCase(), baseline, actual);
+        }
+    }
+}
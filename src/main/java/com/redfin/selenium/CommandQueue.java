@@ -0,0 +1,432 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.redfin.validity.Validity.expect;
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A CommandQueue lets several threads share a single patient driver. It executes every submitted
+ * command, one after the other, on a single thread at a time. Commands are submitted from any thread
+ * and hand back a {@link CompletableFuture} of their result so callers can overlap their own work with
+ * the queue.
+ * <p>
+ * While a queue is running, the methods of the patient driver itself that use the web driver
+ * ({@link AbstractPatientDriver#accept(java.util.function.Consumer)}, {@link AbstractPatientDriver#apply(Function)},
+ * {@link AbstractPatientDriver#captureSessionState()} and {@link AbstractPatientDriver#restoreSessionState(SessionState)})
+ * are submitted to the queue and waited for when called from another thread, so they are serialized
+ * as well. Element locators and elements are not routed: their look-ups and actions use the web driver
+ * on the calling thread and they aren't thread safe. The web driver is therefore only used by one
+ * thread at a time as long as element locators and elements are only used inside submitted commands,
+ * through {@link #find(By, Function)} or through the asynchronous methods of elements.
+ * <p>
+ * Identical look-ups (the same {@link By} from the same parent) that are waiting in the queue at the
+ * same time are coalesced into a single remote call whose result is handed to every reader.
+ *
+ * @param <D> the type of {@link WebDriver} of the shared patient driver.
+ * @param <W> the type of {@link WebElement} the shared patient driver locates.
+ */
+public final class CommandQueue<D extends WebDriver, W extends WebElement>
+        implements AutoCloseable {
+
+    private final AbstractPatientDriver<D, W, ?, ?, ?> driver;
+    private final SerialExecutor executor;
+    private final Map<LookupKey, PendingLookup<W>> pendingLookups = new HashMap<>();
+    private final ReentrantLock lookupLock = new ReentrantLock();
+
+    /*
+     * Only intended to be created by the patient driver so make the
+     * visibility package private. If the queue owns the given executor
+     * then it is shut down once the queue is closed and drained.
+     */
+
+    CommandQueue(AbstractPatientDriver<D, W, ?, ?, ?> driver,
+                 Executor executor,
+                 boolean ownsExecutor) {
+        this.driver = driver;
+        this.executor = new SerialExecutor(executor, ownsExecutor);
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * Submit the given function to be applied to the web driver by the thread of this queue.
+     *
+     * @param function the {@link Function} to apply to the web driver.
+     *                 May not be null.
+     * @param <R>      the type returned by the given function.
+     *
+     * @return a {@link CompletableFuture} of the result of the function. If the function throws
+     * an exception the future is completed exceptionally with it.
+     *
+     * @throws IllegalArgumentException if function is null.
+     * @throws IllegalStateException    if this queue has been closed.
+     */
+    public <R> CompletableFuture<R> submit(Function<D, R> function) {
+        validate().withMessage("Cannot submit a null function")
+                  .that(function)
+                  .isNotNull();
+        return schedule(() -> driver.applyDirectly(function));
+    }
+
+    /**
+     * Submit a look-up of the elements matching the given locator, from the top level of the
+     * web driver, whose result is handed to the given reader by the thread of this queue. The
+     * look-up is done without waiting, if no elements match the reader is given an empty list.
+     *
+     * @param by     the {@link By} locator of the elements.
+     *               May not be null.
+     * @param reader the {@link Function} that reads the located elements.
+     *               May not be null.
+     * @param <R>    the type returned by the reader.
+     *
+     * @return a {@link CompletableFuture} of the result of the reader.
+     *
+     * @throws IllegalArgumentException if by or reader is null.
+     * @throws IllegalStateException    if this queue has been closed.
+     */
+    public <R> CompletableFuture<R> find(By by,
+                                         Function<List<W>, R> reader) {
+        return find(null, by, reader);
+    }
+
+    /**
+     * Submit a look-up of the elements matching the given locator, relative to the given parent
+     * element, whose result is handed to the given reader by the thread of this queue. The parent
+     * element is located as usual, the look-up of its children is done without waiting.
+     *
+     * @param parent the {@link AbstractPatientElement} to locate relative to. It should descend from
+     *               the patient driver of this queue.
+     *               May be null to locate from the top level of the web driver.
+     * @param by     the {@link By} locator of the elements.
+     *               May not be null.
+     * @param reader the {@link Function} that reads the located elements.
+     *               May not be null.
+     * @param <R>    the type returned by the reader.
+     *
+     * @return a {@link CompletableFuture} of the result of the reader.
+     *
+     * @throws IllegalArgumentException if by or reader is null.
+     * @throws IllegalStateException    if this queue has been closed.
+     */
+    public <R> CompletableFuture<R> find(AbstractPatientElement<W, ?, ?, ?> parent,
+                                         By by,
+                                         Function<List<W>, R> reader) {
+        validate().withMessage("Cannot find elements with a null By locator")
+                  .that(by)
+                  .isNotNull();
+        validate().withMessage("Cannot read elements with a null reader")
+                  .that(reader)
+                  .isNotNull();
+        LookupKey key = new LookupKey(parent, by);
+        lookupLock.lock();
+        try {
+            PendingLookup<W> pending = pendingLookups.get(key);
+            if (null != pending) {
+                return pending.add(reader);
+            }
+            // Register the look-up before scheduling it, an executor may run it right away
+            pending = new PendingLookup<>();
+            pendingLookups.put(key, pending);
+            CompletableFuture<R> future = pending.add(reader);
+            try {
+                schedule(() -> {
+                    performLookup(key);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                pendingLookups.remove(key);
+                throw e;
+            }
+            return future;
+        } finally {
+            lookupLock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the current thread is executing a command of this queue.
+     */
+    public boolean isOwnerThread() {
+        return executor.isRunningOn(Thread.currentThread());
+    }
+
+    /**
+     * Stop accepting commands. Commands already submitted are still executed before the queue
+     * stops, after which a thread owned by the queue is stopped as well. Once closed, the patient
+     * driver is only safe to use from one thread again.
+     */
+    @Override
+    public void close() {
+        driver.detachCommandQueue(this);
+        executor.shutdown();
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Wait for the given future and rethrow the exception it was completed
+     * with, rather than the completion exception wrapping it.
+     */
+
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = null == e.getCause() ? e : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /*
+     * Used by the asynchronous methods of elements to run a command, that
+     * uses the element rather than the web driver directly, on this queue.
+     */
+
+    <R> CompletableFuture<R> schedule(Supplier<R> command) {
+        expect().withMessage("Cannot submit a command to a closed command queue")
+                .that(executor.isShutdown())
+                .isFalse();
+        try {
+            return CompletableFuture.supplyAsync(command, executor);
+        } catch (RejectedExecutionException e) {
+            // Closed by another thread since the check above
+            throw new IllegalStateException("Cannot submit a command to a closed command queue", e);
+        }
+    }
+
+    /*
+     * Used by the asynchronous waits of elements to run each of their attempts on
+     * this queue while the delays between attempts are spent on a wait scheduler.
+     */
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * The pending look-up is removed before the remote call so that readers
+     * submitted while it is in flight get a look-up of their own rather than
+     * a result that may already be out of date.
+     */
+
+    @SuppressWarnings("unchecked")
+    private void performLookup(LookupKey key) {
+        PendingLookup<W> pending;
+        lookupLock.lock();
+        try {
+            pending = pendingLookups.remove(key);
+        } finally {
+            lookupLock.unlock();
+        }
+        List<W> elements;
+        try {
+            if (null == key.parent) {
+                elements = driver.findElementsDirectly(key.by);
+            } else {
+                elements = ((AbstractPatientElement<W, ?, ?, ?>) key.parent).apply(e -> (List<W>) e.findElements(key.by));
+            }
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            return;
+        }
+        pending.complete(elements);
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Runs the tasks given to it one at a time, in order, on the threads of a
+     * backing executor, so that many queues can share a small pool of threads.
+     */
+
+    private static final class SerialExecutor
+                    implements Executor {
+
+        private final Executor backing;
+        private final boolean ownsBacking;
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Runnable active = null;
+        private boolean shutdown = false;
+        private volatile Thread runner = null;
+
+        private SerialExecutor(Executor backing,
+                               boolean ownsBacking) {
+            this.backing = backing;
+            this.ownsBacking = ownsBacking;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            lock.lock();
+            try {
+                if (shutdown) {
+                    throw new RejectedExecutionException("The command queue has been closed");
+                }
+                tasks.addLast(() -> {
+                    runner = Thread.currentThread();
+                    try {
+                        task.run();
+                    } finally {
+                        runner = null;
+                        scheduleNext();
+                    }
+                });
+                if (null == active) {
+                    scheduleNext();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void scheduleNext() {
+            lock.lock();
+            try {
+                active = tasks.pollFirst();
+                if (null != active) {
+                    try {
+                        backing.execute(active);
+                    } catch (RejectedExecutionException e) {
+                        // The backing executor has been shut down, nothing queued can run anymore
+                        active = null;
+                        tasks.clear();
+                        shutdown = true;
+                        throw e;
+                    }
+                } else if (shutdown) {
+                    shutdownBacking();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isShutdown() {
+            lock.lock();
+            try {
+                return shutdown;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void shutdown() {
+            lock.lock();
+            try {
+                shutdown = true;
+                if (null == active) {
+                    shutdownBacking();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isRunningOn(Thread thread) {
+            return thread == runner;
+        }
+
+        private void shutdownBacking() {
+            if (ownsBacking && backing instanceof ExecutorService) {
+                ((ExecutorService) backing).shutdown();
+            }
+        }
+    }
+
+    private static final class LookupKey {
+
+        private final Object parent;
+        private final By by;
+
+        private LookupKey(Object parent,
+                          By by) {
+            this.parent = parent;
+            this.by = by;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof LookupKey)) {
+                return false;
+            }
+            LookupKey other = (LookupKey) obj;
+            // Parents are compared by identity, as they are for interned locators
+            return parent == other.parent && by.equals(other.by);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(parent), by);
+        }
+    }
+
+    private static final class PendingLookup<W> {
+
+        private final List<Function<List<W>, ?>> readers = new ArrayList<>();
+        private final List<CompletableFuture<Object>> futures = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        private <R> CompletableFuture<R> add(Function<List<W>, R> reader) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            readers.add(reader);
+            futures.add(future);
+            return (CompletableFuture<R>) future;
+        }
+
+        private void complete(List<W> elements) {
+            for (int i = 0; i < readers.size(); i++) {
+                try {
+                    futures.get(i).complete(readers.get(i).apply(elements));
+                } catch (RuntimeException e) {
+                    futures.get(i).completeExceptionally(e);
+                }
+            }
+        }
+
+        private void completeExceptionally(RuntimeException exception) {
+            for (CompletableFuture<Object> future : futures) {
+                future.completeExceptionally(exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.redfin.selenium;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A CommandScope counts the commands the patient types send to the browser, through the patient
+ * driver that opened it, from when it is opened until it is closed, e.g. for a test or a single page
+ * action. See {@link AbstractPatientDriver#openCommandScope(String, int, Consumer)}.
+ * <p>
+ * The commands are counted per {@link CommandType} and per description of the element, element locator
+ * or patient driver that sent them: the look-ups of element locators and of the frames of a browsing
+ * context, each evaluation of the filter of an element locator (which usually asks the browser whether
+ * the element is displayed or enabled), each attempt of an element action, each call of accept or apply
+ * on the patient driver, each validation of a cached element, each script run by the library (including
+ * the scripts of an {@link ElementActionBatch} and of a session state), each switch to another window
+ * or frame and each update of the implicit wait.
+ * <p>
+ * An element action or a call of accept or apply is counted as a single command whatever the given
+ * function does with the web element or web driver, e.g. hydrating a widget with a single script is
+ * the one action of the widget element. The commands of capturing or restoring a session state other
+ * than its storage script, of resetting a pooled session and commands sent directly to the web driver
+ * by a test are not counted. Scopes can be nested, a command is counted by every scope of the driver
+ * that is open.
+ * <p>
+ * A scope can be given a budget of commands and a handler that is called once, when the scope is closed,
+ * if the budget was exceeded. Use {@link #fail()} to throw a {@link CommandBudgetExceededException} or
+ * {@link #warn(Consumer)} to only report it.
+ */
+public final class CommandScope
+        implements AutoCloseable {
+
+    /**
+     * The kinds of commands a scope counts.
+     */
+    public enum CommandType {
+
+        /**
+         * A request for elements sent to the web driver or to a parent web element.
+         */
+        LOOKUP,
+
+        /**
+         * An evaluation of the filter of an element locator on a web element.
+         */
+        FILTER,
+
+        /**
+         * An attempt of an element action, or a call of accept or apply on a patient driver.
+         */
+        ACTION,
+
+        /**
+         * A check that a cached web element is still attached to the page.
+         */
+        VALIDATION,
+
+        /**
+         * A script executed by the library, e.g. to read a snapshot of an element.
+         */
+        SCRIPT,
+
+        /**
+         * A switch of the web driver to another window or frame to enter a browsing context.
+         */
+        SWITCH,
+
+        /**
+         * An update of the implicit wait of the web driver.
+         */
+        TIMEOUT
+    }
+
+    private static final CommandType[] TYPES = CommandType.values();
+
+    private final String name;
+    private final int budget;
+    private final Consumer<CommandScope> exceededHandler;
+    private final Consumer<CommandScope> onClose;
+    private final AtomicLong total = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLongArray> counts = new ConcurrentHashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /*
+     * Only built by a patient driver, which is given back the scope once it
+     * is closed so that it stops counting into it.
+     */
+
+    CommandScope(String name,
+                 int budget,
+                 Consumer<CommandScope> exceededHandler,
+                 Consumer<CommandScope> onClose) {
+        this.name = validate().withMessage("Cannot open a command scope with a null or empty name")
+                              .that(name)
+                              .isNotEmpty();
+        this.budget = validate().withMessage("Cannot open a command scope with a negative budget")
+                                .that(budget)
+                                .isAtLeast(0);
+        this.exceededHandler = validate().withMessage("Cannot open a command scope with a null exceeded handler")
+                                         .that(exceededHandler)
+                                         .isNotNull();
+        this.onClose = onClose;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Static factory methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return the handler that throws a {@link CommandBudgetExceededException}, with the
+     * report of the scope as its message, when the budget of a scope is exceeded.
+     */
+    public static Consumer<CommandScope> fail() {
+        return scope -> {
+            throw new CommandBudgetExceededException(scope.report());
+        };
+    }
+
+    /**
+     * @param log the {@link Consumer} of the report of a scope whose budget is exceeded,
+     *            e.g. a method reference to a logger.
+     *            May not be null.
+     *
+     * @return the handler that gives the report of a scope whose budget is exceeded to the given log.
+     *
+     * @throws IllegalArgumentException if log is null.
+     */
+    public static Consumer<CommandScope> warn(Consumer<String> log) {
+        validate().withMessage("Cannot warn to a null log")
+                  .that(log)
+                  .isNotNull();
+        return scope -> log.accept(scope.report());
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return the String name of this scope.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the int budget of commands of this scope, {@link Integer#MAX_VALUE} if it has none.
+     */
+    public int getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return true if more commands than the budget have been counted, false otherwise.
+     */
+    public boolean isOverBudget() {
+        return total.get() > budget;
+    }
+
+    /**
+     * @return true if this scope has been closed and no longer counts commands.
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * @return the long number of commands counted by this scope.
+     */
+    public long getCommandCount() {
+        return total.get();
+    }
+
+    /**
+     * @param type the {@link CommandType} to count.
+     *             May not be null.
+     *
+     * @return the long number of commands of the given type counted by this scope.
+     *
+     * @throws IllegalArgumentException if type is null.
+     */
+    public long getCommandCount(CommandType type) {
+        validate().withMessage("Cannot get a count for a null command type")
+                  .that(type)
+                  .isNotNull();
+        long count = 0;
+        for (AtomicLongArray typeCounts : counts.values()) {
+            count += typeCounts.get(type.ordinal());
+        }
+        return count;
+    }
+
+    /**
+     * @param description the String description of an element, element locator or patient driver.
+     *                    May not be null.
+     *
+     * @return the long number of commands sent for the given description counted by this scope.
+     *
+     * @throws IllegalArgumentException if description is null.
+     */
+    public long getCommandCount(String description) {
+        validate().withMessage("Cannot get a count for a null description")
+                  .that(description)
+                  .isNotNull();
+        AtomicLongArray typeCounts = counts.get(description);
+        return null == typeCounts ? 0 : sum(typeCounts);
+    }
+
+    /**
+     * @return a snapshot of the counts of commands of each type per description, with the
+     * descriptions that sent the most commands first and only the types that were counted.
+     */
+    public Map<String, Map<CommandType, Long>> getCounts() {
+        List<Map.Entry<String, AtomicLongArray>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> {
+            int compared = Long.compare(sum(b.getValue()), sum(a.getValue()));
+            return 0 != compared ? compared : a.getKey().compareTo(b.getKey());
+        });
+        Map<String, Map<CommandType, Long>> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, AtomicLongArray> entry : entries) {
+            Map<CommandType, Long> typeCounts = new EnumMap<>(CommandType.class);
+            for (CommandType type : TYPES) {
+                long count = entry.getValue().get(type.ordinal());
+                if (count > 0) {
+                    typeCounts.put(type, count);
+                }
+            }
+            snapshot.put(entry.getKey(), Collections.unmodifiableMap(typeCounts));
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * @return a String report of the commands counted by this scope, with one line per
+     * description, the descriptions that sent the most commands first.
+     */
+    public String report() {
+        StringBuilder builder = new StringBuilder(name).append(": ")
+                                                       .append(getCommandCount())
+                                                       .append(" commands");
+        if (budget != Integer.MAX_VALUE) {
+            builder.append(" (budget: ").append(budget).append(')');
+        }
+        getCounts().forEach((description, typeCounts) -> {
+            builder.append(System.lineSeparator())
+                   .append("  ")
+                   .append(description)
+                   .append(": ");
+            List<String> parts = new ArrayList<>();
+            typeCounts.forEach((type, count) -> parts.add(type.name().toLowerCase() + " " + count));
+            builder.append(String.join(", ", parts));
+        });
+        return builder.toString();
+    }
+
+    /**
+     * Stop counting commands and, if the budget was exceeded, call the exceeded handler of
+     * this scope. Only the first call has any effect.
+     *
+     * @throws CommandBudgetExceededException if the budget was exceeded and the handler is {@link #fail()}.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            if (null != onClose) {
+                onClose.accept(this);
+            }
+            if (isOverBudget()) {
+                exceededHandler.accept(this);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CommandScope(name: %s, commands: %d, budget: %d)", name, getCommandCount(), budget);
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    void record(CommandType type,
+                String description) {
+        if (!closed.get()) {
+            counts.computeIfAbsent(description, key -> new AtomicLongArray(TYPES.length))
+                  .incrementAndGet(type.ordinal());
+            total.incrementAndGet();
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private static methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Send a command to the browser between the before and after command
+     * callbacks of the given listener, which is how command scopes, among
+     * others, learn about it.
+     */
+
+    static <R> R send(PatientListener listener,
+                      String description,
+                      CommandType type,
+                      Supplier<R> command) {
+        listener.beforeCommand(description, type);
+        R result;
+        try {
+            result = command.get();
+        } catch (RuntimeException e) {
+            listener.afterCommand(description, type, e);
+            throw e;
+        }
+        listener.afterCommand(description, type, null);
+        return result;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private static methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private static long sum(AtomicLongArray typeCounts) {
+        long sum = 0;
+        for (int i = 0; i < typeCounts.length(); i++) {
+            sum += typeCounts.get(i);
+        }
+        return sum;
+    }
+}
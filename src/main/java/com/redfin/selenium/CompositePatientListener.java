@@ -0,0 +1,322 @@
+package com.redfin.selenium;
+
+import java.time.Duration;
+
+/**
+ * The {@link PatientListener} a config with more than one listener, or a patient driver adding
+ * its own instrumentation to the listener of a config, dispatches to. It calls each listener in
+ * registration order, iterating over an array so that nothing is allocated.
+ * <p>
+ * A before callback stops at the first listener that throws, so the listeners after it never
+ * see the callback nor its matching after callback. Every other callback is given to every
+ * listener and the first exception thrown, if any, is rethrown once they have all been called.
+ * This keeps listeners that track state between a before and an after callback, like the span
+ * of a tracer, balanced whatever a listener registered before them does.
+ */
+final class CompositePatientListener
+ implements PatientListener {
+
+    private final PatientListener[] listeners;
+
+    CompositePatientListener(PatientListener[] listeners) {
+        this.listeners = listeners;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private static methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Return a listener calling the given listeners in order, skipping the
+     * no-op listener so that the common cases don't add a composite.
+     */
+
+    static PatientListener of(PatientListener first,
+                              PatientListener second) {
+        if (PatientListener.noOp() == first) {
+            return second;
+        }
+        if (PatientListener.noOp() == second) {
+            return first;
+        }
+        return new CompositePatientListener(new PatientListener[]{first, second});
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Override
+    public void beforeLookup(String description) {
+        for (PatientListener listener : listeners) {
+            listener.beforeLookup(description);
+        }
+    }
+
+    @Override
+    public void afterLookup(String description,
+                            int found,
+                            RuntimeException failure) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.afterLookup(description, found, failure);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void beforeWait(String description,
+                           Duration timeout) {
+        for (PatientListener listener : listeners) {
+            listener.beforeWait(description, timeout);
+        }
+    }
+
+    @Override
+    public void beforePoll(String description,
+                           int attempt) {
+        for (PatientListener listener : listeners) {
+            listener.beforePoll(description, attempt);
+        }
+    }
+
+    @Override
+    public void onPoll(String description,
+                       int attempt,
+                       boolean successful) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.onPoll(description, attempt, successful);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void onWaitTimeout(String description,
+                              int polls,
+                              Duration timeout) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.onWaitTimeout(description, polls, timeout);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void afterWait(String description,
+                          int polls,
+                          Duration elapsed,
+                          boolean timedOut) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.afterWait(description, polls, elapsed, timedOut);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void beforeAction(String description) {
+        for (PatientListener listener : listeners) {
+            listener.beforeAction(description);
+        }
+    }
+
+    @Override
+    public void afterAction(String description,
+                            RuntimeException failure) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.afterAction(description, failure);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void onRetry(String description,
+                        int attempt,
+                        RuntimeException cause) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.onRetry(description, attempt, cause);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void beforeAttempt(String description,
+                              int attempt) {
+        for (PatientListener listener : listeners) {
+            listener.beforeAttempt(description, attempt);
+        }
+    }
+
+    @Override
+    public void afterAttempt(String description,
+                             int attempt,
+                             RuntimeException failure) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.afterAttempt(description, attempt, failure);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void onStaleElementRecovered(String description,
+                                        int attempts) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.onStaleElementRecovered(description, attempts);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void onIgnoredLookupException(String description,
+                                         RuntimeException exception) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.onIgnoredLookupException(description, exception);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void onIgnoredActionException(String description,
+                                         RuntimeException exception) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.onIgnoredActionException(description, exception);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void onCacheHit(String description) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.onCacheHit(description);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void onCacheMiss(String description) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.onCacheMiss(description);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void beforeCommand(String description,
+                              CommandScope.CommandType type) {
+        for (PatientListener listener : listeners) {
+            listener.beforeCommand(description, type);
+        }
+    }
+
+    @Override
+    public void afterCommand(String description,
+                             CommandScope.CommandType type,
+                             RuntimeException failure) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.afterCommand(description, type, failure);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    @Override
+    public void beforeInitialization(Class<?> pageObjectClass) {
+        for (PatientListener listener : listeners) {
+            listener.beforeInitialization(pageObjectClass);
+        }
+    }
+
+    @Override
+    public void afterInitialization(Class<?> pageObjectClass,
+                                    RuntimeException failure) {
+        RuntimeException thrown = null;
+        for (PatientListener listener : listeners) {
+            try {
+                listener.afterInitialization(pageObjectClass, failure);
+            } catch (RuntimeException e) {
+                thrown = keep(thrown, e);
+            }
+        }
+        rethrow(thrown);
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private static methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private static RuntimeException keep(RuntimeException thrown,
+                                         RuntimeException e) {
+        if (null == thrown) {
+            return e;
+        }
+        thrown.addSuppressed(e);
+        return thrown;
+    }
+
+    private static void rethrow(RuntimeException thrown) {
+        if (null != thrown) {
+            throw thrown;
+        }
+    }
+}
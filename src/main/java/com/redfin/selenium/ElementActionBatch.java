@@ -0,0 +1,378 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.redfin.validity.Validity.expect;
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * An ElementActionBatch queues simple actions against any number of
+ * {@link AbstractPatientElement} instances and then executes them, in order,
+ * when {@link #flush()} is called.
+ * <p>
+ * By default, see {@link Mode#WEB_DRIVER}, every action is executed through the regular
+ * {@link AbstractPatientElement#accept(java.util.function.Consumer)} and
+ * {@link AbstractPatientElement#apply(Function)} methods, so each action behaves exactly as
+ * it would outside of a batch. With {@link Mode#SCRIPT}, and a web driver that can execute
+ * JavaScript, the queued actions are instead sent to the browser as a single script. The
+ * script stops at the first action that fails (e.g. its element has been detached) and that
+ * action, along with every action queued after it, is then executed through the regular
+ * element methods so that the usual element re-location and retry logic applies. A click
+ * always ends a script, since it may navigate away from the page, and the actions queued
+ * after it are sent as a new script. A script also only holds the actions of elements in the
+ * same browsing context, see {@link AbstractPatientElementLocator#within(BrowsingContext)},
+ * so a new script is started wherever the context changes. An action whose element can't be
+ * found fails without a script and the actions after it are sent as a new script.
+ *
+ * @param <W> the type of {@link WebElement} the queued elements wrap.
+ */
+public final class ElementActionBatch<W extends WebElement> {
+
+    private static final String SCRIPT = "var actions = arguments[0], results = [];" +
+                                         "for (var i = 0; i < actions.length; i++) {" +
+                                         "  var element = actions[i][0], type = actions[i][1], argument = actions[i][2];" +
+                                         "  if (!element.ownerDocument.documentElement.contains(element)) { break; }" +
+                                         "  try {" +
+                                         "    if (type === 'click') {" +
+                                         "      element.click();" +
+                                         "      results.push(null);" +
+                                         "      break;" +
+                                         "    } else if (type === 'setValue') {" +
+                                         "      element.focus();" +
+                                         "      element.value = argument;" +
+                                         "      element.dispatchEvent(new Event('input', {bubbles: true}));" +
+                                         "      element.dispatchEvent(new Event('change', {bubbles: true}));" +
+                                         "      results.push(null);" +
+                                         "    } else if (type === 'getAttribute') {" +
+                                         "      results.push(element.getAttribute(argument));" +
+                                         "    } else {" +
+                                         "      break;" +
+                                         "    }" +
+                                         "  } catch (e) {" +
+                                         "    break;" +
+                                         "  }" +
+                                         "}" +
+                                         "return results;";
+
+    private final AbstractPatientDriver<?, W, ?, ?, ?> driver;
+    private final Mode mode;
+    private final List<Action<W, ?>> actions = new ArrayList<>();
+
+    /*
+     * Only intended to be created by the AbstractPatientDriver so make
+     * the visibility package private.
+     */
+
+    ElementActionBatch(AbstractPatientDriver<?, W, ?, ?, ?> driver,
+                       Mode mode) {
+        this.driver = validate().that(driver).isNotNull();
+        this.mode = validate().withMessage("Cannot create a batch with a null mode")
+                              .that(mode)
+                              .isNotNull();
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * Queue a click on the given element.
+     *
+     * @param element the {@link AbstractPatientElement} to click.
+     *                May not be null.
+     *
+     * @return the {@link Result} of the queued action.
+     *
+     * @throws IllegalArgumentException if element is null.
+     */
+    public Result<Void> click(AbstractPatientElement<W, ?, ?, ?> element) {
+        return queue(element, "click", null, e -> e.applyInternally(w -> {
+            w.click();
+            return null;
+        }));
+    }
+
+    /**
+     * Queue setting the value of the given element.
+     *
+     * @param element the {@link AbstractPatientElement} to set the value of.
+     *                May not be null.
+     * @param value   the String value to set.
+     *                May not be null.
+     *
+     * @return the {@link Result} of the queued action.
+     *
+     * @throws IllegalArgumentException if element or value is null.
+     */
+    public Result<Void> setValue(AbstractPatientElement<W, ?, ?, ?> element,
+                                 String value) {
+        validate().withMessage("Cannot set a null value")
+                  .that(value)
+                  .isNotNull();
+        return queue(element, "setValue", value, e -> e.applyInternally(w -> {
+            w.clear();
+            w.sendKeys(value);
+            return null;
+        }));
+    }
+
+    /**
+     * Queue reading an attribute of the given element.
+     *
+     * @param element the {@link AbstractPatientElement} to read the attribute of.
+     *                May not be null.
+     * @param name    the String name of the attribute.
+     *                May not be null or empty.
+     *
+     * @return the {@link Result} of the queued action.
+     *
+     * @throws IllegalArgumentException if element is null or if name is null or empty.
+     */
+    public Result<String> getAttribute(AbstractPatientElement<W, ?, ?, ?> element,
+                                       String name) {
+        validate().withMessage("Cannot read an attribute with a null or empty name")
+                  .that(name)
+                  .isNotEmpty();
+        return queue(element, "getAttribute", name, e -> e.applyInternally(w -> w.getAttribute(name)));
+    }
+
+    /**
+     * @return the {@link Mode} this batch executes its actions with.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the number of actions currently queued.
+     */
+    public int size() {
+        return actions.size();
+    }
+
+    /**
+     * Execute every queued action, in order, and complete the {@link Result} of each.
+     * An exception thrown by an individual action does not stop the later actions from
+     * being executed, it is instead available from the {@link Result} of that action.
+     * Once flushed the batch is empty and may be re-used.
+     */
+    public void flush() {
+        if (actions.isEmpty()) {
+            return;
+        }
+        List<Action<W, ?>> pending = new ArrayList<>(actions);
+        actions.clear();
+        int completed = 0;
+        Optional<JavascriptExecutor> executor = Mode.SCRIPT == mode ? driver.getJavascriptExecutor() : Optional.empty();
+        if (executor.isPresent()) {
+            int sent;
+            while (completed < pending.size() && (sent = executeScript(executor.get(), pending.subList(completed, pending.size()))) > 0) {
+                completed += sent;
+            }
+        }
+        for (Action<W, ?> action : pending.subList(completed, pending.size())) {
+            action.executeNatively();
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private <R> Result<R> queue(AbstractPatientElement<W, ?, ?, ?> element,
+                                String type,
+                                String argument,
+                                Function<AbstractPatientElement<W, ?, ?, ?>, R> nativeAction) {
+        validate().withMessage("Cannot queue an action for a null element")
+                  .that(element)
+                  .isNotNull();
+        Action<W, R> action = new Action<>(element, type, argument, nativeAction);
+        actions.add(action);
+        return action.result;
+    }
+
+    /*
+     * Send as many of the pending actions as possible to the browser as
+     * a single script and return the number of actions, from the start of
+     * the list, that were completed. The script stops before the first action
+     * in another browsing context than the first one, since resolving its
+     * element switches the driver to that context. The script is retried with
+     * freshly located elements if any of the element references were stale.
+     */
+
+    private int executeScript(JavascriptExecutor executor,
+                              List<Action<W, ?>> pending) {
+        BrowsingContext context = pending.get(0).getBrowsingContext();
+        for (int attempt = 0; attempt < driver.getConfig().getMaxElementActionAttempts(); attempt++) {
+            List<List<Object>> arguments = new ArrayList<>(pending.size());
+            for (Action<W, ?> action : pending) {
+                if (action.result.isDone() || !Objects.equals(context, action.getBrowsingContext())) {
+                    break;
+                }
+                try {
+                    arguments.add(action.toScriptArgument());
+                } catch (NoSuchElementException e) {
+                    // The element was waited for and not found, a native attempt would do the same
+                    action.result.fail(e);
+                    break;
+                }
+            }
+            if (arguments.isEmpty()) {
+                // The first action has failed, carry on with a new script after it
+                return 1;
+            }
+            try {
+                List<?> values = (List<?>) CommandScope.send(driver.getListener(), driver.getDescription(), CommandScope.CommandType.SCRIPT,
+                                                             () -> executor.executeScript(SCRIPT, arguments));
+                int completed = Math.min(values.size(), arguments.size());
+                for (int i = 0; i < completed; i++) {
+                    pending.get(i).complete(values.get(i));
+                }
+                return completed;
+            } catch (StaleElementReferenceException e) {
+                // Clear the caches so the elements are located again on the next attempt
+                pending.forEach(action -> action.element.setCachedElement(null));
+            } catch (RuntimeException e) {
+                // Leave it to the native actions to decide how the exception is handled
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * How the actions of an {@link ElementActionBatch} are executed.
+     */
+    public enum Mode {
+
+        /**
+         * Execute each action with the web element, as the element would outside of a batch.
+         */
+        WEB_DRIVER,
+
+        /**
+         * Send the actions to the browser as scripts when the web driver can execute JavaScript.
+         * The script versions of the actions are not identical to their web driver counterparts:
+         * a click is a DOM click, which skips the checks that the element is visible and not
+         * covered by another element, setting a value assigns the value and fires input and
+         * change events rather than typing each key, and reading an attribute only reads the
+         * attribute rather than falling back to the property. Only use this mode for elements
+         * where those differences don't matter.
+         */
+        SCRIPT
+    }
+
+    /**
+     * The result of a single action queued on an {@link ElementActionBatch}.
+     *
+     * @param <R> the type of the value produced by the action.
+     */
+    public static final class Result<R> {
+
+        private boolean done = false;
+        private R value = null;
+        private RuntimeException exception = null;
+
+        private Result() {
+        }
+
+        /**
+         * @return true if the batch this action was queued on has been flushed.
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * @return the value produced by the action. May be null.
+         *
+         * @throws IllegalStateException if the batch has not been flushed yet.
+         * @throws RuntimeException      the exception thrown by the action if it failed.
+         */
+        public R get() {
+            expect().withMessage("Cannot get the result of an action before the batch is flushed")
+                    .that(done)
+                    .isTrue();
+            if (null != exception) {
+                throw exception;
+            }
+            return value;
+        }
+
+        private void succeed(R newValue) {
+            this.value = newValue;
+            this.done = true;
+        }
+
+        private void fail(RuntimeException newException) {
+            this.exception = newException;
+            this.done = true;
+        }
+    }
+
+    private static final class Action<W extends WebElement, R> {
+
+        private final AbstractPatientElement<W, ?, ?, ?> element;
+        private final String type;
+        private final String argument;
+        private final Function<AbstractPatientElement<W, ?, ?, ?>, R> nativeAction;
+        private final Result<R> result = new Result<>();
+
+        private Action(AbstractPatientElement<W, ?, ?, ?> element,
+                       String type,
+                       String argument,
+                       Function<AbstractPatientElement<W, ?, ?, ?>, R> nativeAction) {
+            this.element = element;
+            this.type = type;
+            this.argument = argument;
+            this.nativeAction = nativeAction;
+        }
+
+        /*
+         * The browsing context the element is located in, null if it's located
+         * in whatever context the driver is in.
+         */
+
+        private BrowsingContext getBrowsingContext() {
+            AbstractPatientElementLocator<W, ?, ?, ?> locator = element.getLocator();
+            return null == locator ? null : locator.getBrowsingContext().orElse(null);
+        }
+
+        private List<Object> toScriptArgument() {
+            List<Object> scriptArgument = new ArrayList<>(3);
+            scriptArgument.add(element.resolveElement());
+            scriptArgument.add(type);
+            scriptArgument.add(argument);
+            return scriptArgument;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object scriptValue) {
+            result.succeed((R) scriptValue);
+        }
+
+        private void executeNatively() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.succeed(nativeAction.apply(element));
+            } catch (RuntimeException e) {
+                result.fail(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.redfin.selenium;
+
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * An ElementColumn describes a single column of values to be extracted from every element
+ * matched by an {@link AbstractPatientElementLocator}. Each column reads one {@link ElementProperty}
+ * and stores the values as either Strings, longs or doubles.
+ * <p>
+ * Values are converted to numbers leniently so that one odd row doesn't fail a large extraction.
+ * A null or unparseable value is stored as 0 in a long column and as {@link Double#NaN}
+ * in a double column.
+ *
+ * @see AbstractPatientElementLocator#extract(ElementColumn...)
+ */
+public final class ElementColumn {
+
+    private final ElementProperty property;
+    private final Type type;
+
+    private ElementColumn(ElementProperty property,
+                          Type type) {
+        this.property = validate().withMessage("Cannot create a column with a null property")
+                                  .that(property)
+                                  .isNotNull();
+        this.type = type;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Static factory methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @param property the {@link ElementProperty} to read.
+     *                 May not be null.
+     *
+     * @return a new column that stores the String values of the given property.
+     *
+     * @throws IllegalArgumentException if property is null.
+     */
+    public static ElementColumn ofStrings(ElementProperty property) {
+        return new ElementColumn(property, Type.STRING);
+    }
+
+    /**
+     * @param property the {@link ElementProperty} to read.
+     *                 May not be null.
+     *
+     * @return a new column that stores the values of the given property as longs.
+     *
+     * @throws IllegalArgumentException if property is null.
+     */
+    public static ElementColumn ofLongs(ElementProperty property) {
+        return new ElementColumn(property, Type.LONG);
+    }
+
+    /**
+     * @param property the {@link ElementProperty} to read.
+     *                 May not be null.
+     *
+     * @return a new column that stores the values of the given property as doubles.
+     *
+     * @throws IllegalArgumentException if property is null.
+     */
+    public static ElementColumn ofDoubles(ElementProperty property) {
+        return new ElementColumn(property, Type.DOUBLE);
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return the {@link ElementProperty} read for this column.
+     */
+    public ElementProperty getProperty() {
+        return property;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s]", property, type.name().toLowerCase());
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private methods intended for use when extracting columns
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    boolean isStrings() {
+        return type == Type.STRING;
+    }
+
+    boolean isLongs() {
+        return type == Type.LONG;
+    }
+
+    boolean isDoubles() {
+        return type == Type.DOUBLE;
+    }
+
+    /*
+     * Create the empty array that holds the values of this column for the given
+     * number of rows.
+     */
+
+    Object newValues(int size) {
+        switch (type) {
+            case LONG:
+                return new long[size];
+            case DOUBLE:
+                return new double[size];
+            default:
+                return new String[size];
+        }
+    }
+
+    /*
+     * Store the given value, as read from the web driver or converted from a script
+     * value by the property, at the given row of the given array.
+     */
+
+    void setValue(Object values,
+                  int row,
+                  Object value) {
+        switch (type) {
+            case LONG:
+                ((long[]) values)[row] = toLong(value);
+                break;
+            case DOUBLE:
+                ((double[]) values)[row] = toDouble(value);
+                break;
+            default:
+                ((String[]) values)[row] = null == value ? null : value.toString();
+                break;
+        }
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        if (null != value) {
+            try {
+                return Long.parseLong(value.toString().trim());
+            } catch (NumberFormatException ignore) {
+                // Fall through to the default
+            }
+        }
+        return 0;
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        if (null != value) {
+            try {
+                return Double.parseDouble(value.toString().trim());
+            } catch (NumberFormatException ignore) {
+                // Fall through to the default
+            }
+        }
+        return Double.NaN;
+    }
+
+    private enum Type {
+        STRING,
+        LONG,
+        DOUBLE
+    }
+}
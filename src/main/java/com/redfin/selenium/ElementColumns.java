@@ -0,0 +1,114 @@
+package com.redfin.selenium;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static com.redfin.validity.Validity.expect;
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * An ElementColumns holds the values extracted by {@link AbstractPatientElementLocator#extract(ElementColumn...)}.
+ * There is one row for each matched element, in document order, and one array of values for each
+ * requested {@link ElementColumn}. The arrays returned by the getters are copies so the
+ * instance is immutable.
+ */
+public final class ElementColumns {
+
+    private final List<ElementColumn> columns;
+    private final Object[] values;
+    private final int size;
+
+    /*
+     * Only intended to be created by element locators so make the
+     * visibility package private. The values array holds the value
+     * array of each column in the same order as the columns.
+     */
+
+    ElementColumns(ElementColumn[] columns,
+                   Object[] values,
+                   int size) {
+        this.columns = Collections.unmodifiableList(Arrays.asList(columns.clone()));
+        this.values = values;
+        this.size = size;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return the int number of rows, one per matched element.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return an unmodifiable list of the extracted {@link ElementColumn}s in the order
+     * they were requested.
+     */
+    public List<ElementColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @param column the {@link ElementColumn} created with {@link ElementColumn#ofStrings(ElementProperty)}.
+     *               May not be null.
+     *
+     * @return a copy of the String values of the given column.
+     *
+     * @throws IllegalArgumentException if column is null.
+     * @throws IllegalStateException    if the column wasn't extracted or doesn't hold Strings.
+     */
+    public String[] getStrings(ElementColumn column) {
+        expectType(column, ElementColumn::isStrings);
+        return ((String[]) values[columns.indexOf(column)]).clone();
+    }
+
+    /**
+     * @param column the {@link ElementColumn} created with {@link ElementColumn#ofLongs(ElementProperty)}.
+     *               May not be null.
+     *
+     * @return a copy of the long values of the given column.
+     *
+     * @throws IllegalArgumentException if column is null.
+     * @throws IllegalStateException    if the column wasn't extracted or doesn't hold longs.
+     */
+    public long[] getLongs(ElementColumn column) {
+        expectType(column, ElementColumn::isLongs);
+        return ((long[]) values[columns.indexOf(column)]).clone();
+    }
+
+    /**
+     * @param column the {@link ElementColumn} created with {@link ElementColumn#ofDoubles(ElementProperty)}.
+     *               May not be null.
+     *
+     * @return a copy of the double values of the given column.
+     *
+     * @throws IllegalArgumentException if column is null.
+     * @throws IllegalStateException    if the column wasn't extracted or doesn't hold doubles.
+     */
+    public double[] getDoubles(ElementColumn column) {
+        expectType(column, ElementColumn::isDoubles);
+        return ((double[]) values[columns.indexOf(column)]).clone();
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private void expectType(ElementColumn column,
+                            Predicate<ElementColumn> isExpectedType) {
+        validate().withMessage("Cannot get the values of a null column")
+                  .that(column)
+                  .isNotNull();
+        expect().withMessage("The column " + column + " was not extracted")
+                .that(columns.contains(column))
+                .isTrue();
+        expect().withMessage("The column " + column + " does not hold values of the requested type")
+                .that(isExpectedType.test(column))
+                .isTrue();
+    }
+}
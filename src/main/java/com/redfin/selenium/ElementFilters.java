@@ -0,0 +1,71 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.WebElement;
+
+import java.util.function.Predicate;
+
+/**
+ * ElementFilters holds the element filters the library recognizes, for use as the default filter
+ * of a config or the filter of an element locator. They behave as the equivalent lambdas but, since
+ * their meaning is known, {@link AbstractPageObjectInitializer#hydrateWidget(AbstractBaseWidgetObject, ElementProperty...)}
+ * can evaluate them in the browser along with the rest of a widget instead of sending a command for each
+ * matched element. Children of a widget with any other filter are read natively, one at a time.
+ */
+public final class ElementFilters {
+
+    private static final Predicate<WebElement> ANY = element -> true;
+    private static final Predicate<WebElement> DISPLAYED = WebElement::isDisplayed;
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Static factory methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @param <W> the type of the wrapped web element.
+     *
+     * @return the filter that accepts every element.
+     */
+    @SuppressWarnings("unchecked")
+    public static <W extends WebElement> Predicate<W> any() {
+        return (Predicate<W>) ANY;
+    }
+
+    /**
+     * @param <W> the type of the wrapped web element.
+     *
+     * @return the filter that only accepts displayed elements. When evaluated in the browser
+     * an element is displayed if it has a layout box and isn't hidden or fully transparent,
+     * the same check as {@link ElementProperty#displayed()}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <W extends WebElement> Predicate<W> displayed() {
+        return (Predicate<W>) DISPLAYED;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private static methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Return true if the given filter is one of the filters that can be
+     * evaluated from the displayed property read by a script.
+     */
+
+    static boolean isScriptEvaluable(Predicate<?> filter) {
+        return ANY == filter || DISPLAYED == filter;
+    }
+
+    /*
+     * Evaluate a filter for which isScriptEvaluable returned true from the
+     * displayed property of the element as read by a script.
+     */
+
+    static boolean testScriptValue(Predicate<?> filter,
+                                   Object displayed) {
+        return ANY == filter || Boolean.TRUE.equals(displayed);
+    }
+
+    private ElementFilters() {
+        throw new AssertionError("Cannot instantiate a static class");
+    }
+}
@@ -0,0 +1,169 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An ElementIdentity is shared by every {@link AbstractPatientElement} whose cached web element
+ * has the same remote element id. It carries a generation that is advanced whenever one of those
+ * elements finds its web element to be stale, which tells the other elements to drop their cache
+ * instead of finding out with a failed command of their own.
+ */
+final class ElementIdentity {
+
+    private static final ClassValue<Optional<Method>> ID_GETTERS = new ClassValue<Optional<Method>>() {
+        @Override
+        protected Optional<Method> computeValue(Class<?> type) {
+            try {
+                Method method = type.getMethod("getId");
+                if (String.class != method.getReturnType() || Modifier.isStatic(method.getModifiers())) {
+                    return Optional.empty();
+                }
+                method.setAccessible(true);
+                return Optional.of(method);
+            } catch (NoSuchMethodException | RuntimeException ignore) {
+                return Optional.empty();
+            }
+        }
+    };
+
+    private final String id;
+
+    private int generation = 0;
+
+    private ElementIdentity(String id) {
+        this.id = id;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    String getId() {
+        return id;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
+    void invalidate() {
+        generation++;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ElementIdentity(%s, generation %d)", id, generation);
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * A registry of the element identities in use for a single driver. Identities
+     * are only weakly held, an identity is discarded once no element refers to it.
+     * It is guarded by a lock since elements may be resolved by the thread of a
+     * command queue as well as by the thread that owns the driver.
+     */
+    static final class Registry {
+
+        private final Map<String, IdentityReference> identities = new HashMap<>();
+        private final ReferenceQueue<ElementIdentity> queue = new ReferenceQueue<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * @param element the {@link WebElement} to get the identity of.
+         *                May be null.
+         *
+         * @return an optional containing the identity shared by every web element with
+         * the same remote id as the given element or an empty optional if the element
+         * doesn't expose a remote id.
+         */
+        Optional<ElementIdentity> get(WebElement element) {
+            Optional<String> id = getRemoteId(element);
+            if (!id.isPresent()) {
+                return Optional.empty();
+            }
+            lock.lock();
+            try {
+                purge();
+                IdentityReference reference = identities.get(id.get());
+                ElementIdentity identity = null == reference ? null : reference.get();
+                if (null == identity) {
+                    identity = new ElementIdentity(id.get());
+                    identities.put(id.get(), new IdentityReference(identity, queue));
+                }
+                return Optional.of(identity);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return the number of identities currently registered.
+         */
+        int size() {
+            lock.lock();
+            try {
+                purge();
+                return identities.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void purge() {
+            IdentityReference reference;
+            while (null != (reference = (IdentityReference) queue.poll())) {
+                // Only remove the entry if it hasn't been replaced by a newer identity
+                identities.remove(reference.id, reference);
+            }
+        }
+
+        /*
+         * The remote id is read from the public getId() of the unwrapped element, as
+         * declared by RemoteWebElement. It is looked up reflectively because the library
+         * only depends on the Selenium API and not on the remote driver.
+         */
+
+        private static Optional<String> getRemoteId(WebElement element) {
+            WebElement unwrapped = element;
+            while (unwrapped instanceof WrapsElement && !ID_GETTERS.get(unwrapped.getClass()).isPresent()) {
+                unwrapped = ((WrapsElement) unwrapped).getWrappedElement();
+            }
+            if (null == unwrapped) {
+                return Optional.empty();
+            }
+            Optional<Method> getter = ID_GETTERS.get(unwrapped.getClass());
+            if (!getter.isPresent()) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.ofNullable((String) getter.get().invoke(unwrapped));
+            } catch (ReflectiveOperationException | RuntimeException ignore) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static final class IdentityReference extends WeakReference<ElementIdentity> {
+
+        private final String id;
+
+        private IdentityReference(ElementIdentity identity,
+                                  ReferenceQueue<ElementIdentity> queue) {
+            super(identity, queue);
+            this.id = identity.getId();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * An ElementProperty describes a single value that can be read from a {@link WebElement}
+ * as part of an {@link ElementSnapshot}. When a snapshot is read with a single script the
+ * values are computed in the browser and are close, but not always identical, to the values
+ * the matching {@link WebElement} methods return:
+ * <ul>
+ * <li>text is the trimmed rendered text of the element.</li>
+ * <li>an attribute prefers a primitive property of the same name, like the web driver does.</li>
+ * <li>displayed is true if the element has a layout box, isn't hidden and isn't fully transparent.</li>
+ * <li>enabled is true unless the element has a true disabled property.</li>
+ * </ul>
+ */
+public final class ElementProperty {
+
+    private static final ElementProperty TEXT = new ElementProperty(Type.TEXT, null);
+    private static final ElementProperty TAG_NAME = new ElementProperty(Type.TAG_NAME, null);
+    private static final ElementProperty DISPLAYED = new ElementProperty(Type.DISPLAYED, null);
+    private static final ElementProperty ENABLED = new ElementProperty(Type.ENABLED, null);
+    private static final ElementProperty SELECTED = new ElementProperty(Type.SELECTED, null);
+    private static final ElementProperty RECT = new ElementProperty(Type.RECT, null);
+
+    private final Type type;
+    private final String name;
+
+    private ElementProperty(Type type,
+                            String name) {
+        this.type = type;
+        this.name = name;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Static factory methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return the property for the String text of an element.
+     */
+    public static ElementProperty text() {
+        return TEXT;
+    }
+
+    /**
+     * @return the property for the String tag name of an element.
+     */
+    public static ElementProperty tagName() {
+        return TAG_NAME;
+    }
+
+    /**
+     * @param name the String name of the attribute.
+     *             May not be null or empty.
+     *
+     * @return the property for the String value of the named attribute of an element.
+     *
+     * @throws IllegalArgumentException if name is null or empty.
+     */
+    public static ElementProperty attribute(String name) {
+        validate().withMessage("Cannot create an attribute property with a null or empty name")
+                  .that(name)
+                  .isNotEmpty();
+        return new ElementProperty(Type.ATTRIBUTE, name);
+    }
+
+    /**
+     * @return the property for whether or not an element is displayed.
+     */
+    public static ElementProperty displayed() {
+        return DISPLAYED;
+    }
+
+    /**
+     * @return the property for whether or not an element is enabled.
+     */
+    public static ElementProperty enabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return the property for whether or not an element is selected.
+     */
+    public static ElementProperty selected() {
+        return SELECTED;
+    }
+
+    /**
+     * @return the property for the {@link Rectangle} of an element.
+     */
+    public static ElementProperty rect() {
+        return RECT;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Object methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ElementProperty)) {
+            return false;
+        }
+        ElementProperty other = (ElementProperty) obj;
+        return type == other.type && Objects.equals(name, other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, name);
+    }
+
+    @Override
+    public String toString() {
+        return null == name ? type.scriptName : String.format("%s(%s)", type.scriptName, name);
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private methods intended for use when reading snapshots
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    List<String> toScriptArgument() {
+        return Arrays.asList(type.scriptName, name);
+    }
+
+    Object readNatively(WebElement element) {
+        return type.nativeReader.apply(element, name);
+    }
+
+    Object fromScriptValue(Object value) {
+        switch (type) {
+            case DISPLAYED:
+            case ENABLED:
+            case SELECTED:
+                return Boolean.TRUE.equals(value);
+            case RECT:
+                List<?> values = (List<?>) value;
+                return new Rectangle(toInt(values.get(0)),
+                                     toInt(values.get(1)),
+                                     toInt(values.get(3)),
+                                     toInt(values.get(2)));
+            default:
+                return null == value ? null : value.toString();
+        }
+    }
+
+    private static int toInt(Object value) {
+        return (int) Math.round(((Number) value).doubleValue());
+    }
+
+    private enum Type {
+
+        TEXT("text", (e, n) -> e.getText()),
+        TAG_NAME("tagName", (e, n) -> e.getTagName()),
+        ATTRIBUTE("attribute", WebElement::getAttribute),
+        DISPLAYED("displayed", (e, n) -> e.isDisplayed()),
+        ENABLED("enabled", (e, n) -> e.isEnabled()),
+        SELECTED("selected", (e, n) -> e.isSelected()),
+        RECT("rect", (e, n) -> e.getRect());
+
+        private final String scriptName;
+        private final BiFunction<WebElement, String, Object> nativeReader;
+
+        Type(String scriptName,
+             BiFunction<WebElement, String, Object> nativeReader) {
+            this.scriptName = scriptName;
+            this.nativeReader = nativeReader;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.Rectangle;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.redfin.validity.Validity.expect;
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * An ElementSnapshot is an immutable set of {@link ElementProperty} values that were
+ * read from a single element at the same time. Only the properties that were requested
+ * when the snapshot was taken may be read from it.
+ *
+ * @see AbstractPatientElement#snapshot(ElementProperty...)
+ */
+public final class ElementSnapshot {
+
+    private final Map<ElementProperty, Object> values;
+
+    /*
+     * Only intended to be created by the patient selenium types so make
+     * the visibility package private.
+     */
+
+    ElementSnapshot(Map<ElementProperty, Object> values) {
+        validate().withMessage("Cannot use a null values map")
+                  .that(values)
+                  .isNotNull();
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return an unmodifiable set of the {@link ElementProperty} instances in this snapshot.
+     */
+    public Set<ElementProperty> getProperties() {
+        return values.keySet();
+    }
+
+    /**
+     * @param property the {@link ElementProperty} to check.
+     *
+     * @return true if the given property was read as part of this snapshot.
+     */
+    public boolean contains(ElementProperty property) {
+        return values.containsKey(property);
+    }
+
+    /**
+     * @return the String text of the element.
+     *
+     * @throws IllegalStateException if the text wasn't read as part of this snapshot.
+     */
+    public String getText() {
+        return (String) get(ElementProperty.text());
+    }
+
+    /**
+     * @return the String tag name of the element.
+     *
+     * @throws IllegalStateException if the tag name wasn't read as part of this snapshot.
+     */
+    public String getTagName() {
+        return (String) get(ElementProperty.tagName());
+    }
+
+    /**
+     * @param name the String name of the attribute.
+     *             May not be null or empty.
+     *
+     * @return the String value of the named attribute of the element. May be null.
+     *
+     * @throws IllegalArgumentException if name is null or empty.
+     * @throws IllegalStateException    if the attribute wasn't read as part of this snapshot.
+     */
+    public String getAttribute(String name) {
+        return (String) get(ElementProperty.attribute(name));
+    }
+
+    /**
+     * @return true if the element was displayed.
+     *
+     * @throws IllegalStateException if displayed wasn't read as part of this snapshot.
+     */
+    public boolean isDisplayed() {
+        return (Boolean) get(ElementProperty.displayed());
+    }
+
+    /**
+     * @return true if the element was enabled.
+     *
+     * @throws IllegalStateException if enabled wasn't read as part of this snapshot.
+     */
+    public boolean isEnabled() {
+        return (Boolean) get(ElementProperty.enabled());
+    }
+
+    /**
+     * @return true if the element was selected.
+     *
+     * @throws IllegalStateException if selected wasn't read as part of this snapshot.
+     */
+    public boolean isSelected() {
+        return (Boolean) get(ElementProperty.selected());
+    }
+
+    /**
+     * @return the {@link Rectangle} of the element.
+     *
+     * @throws IllegalStateException if the rect wasn't read as part of this snapshot.
+     */
+    public Rectangle getRect() {
+        return (Rectangle) get(ElementProperty.rect());
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Object methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || (obj instanceof ElementSnapshot && values.equals(((ElementSnapshot) obj).values));
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ElementSnapshot" + values;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private Object get(ElementProperty property) {
+        expect().withMessage("The property " + property + " was not read as part of this snapshot")
+                .that(values.containsKey(property))
+                .isTrue();
+        return values.get(property);
+    }
+}
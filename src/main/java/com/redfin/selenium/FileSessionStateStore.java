@@ -0,0 +1,240 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.Cookie;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.redfin.selenium.TabSeparatedValues.escape;
+import static com.redfin.selenium.TabSeparatedValues.unescape;
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A {@link SessionStateStore} that keeps each session state in a plain text file
+ * within a directory, one tab separated line for the origin, each cookie and each
+ * storage entry. Only that format is parsed, a file is never deserialized into
+ * arbitrary objects. Files are written to a temporary file first, which is only
+ * readable by its owner on file systems that support it, and then moved into place
+ * so that a concurrent load never sees a partially written state. The values are
+ * not encrypted, keep the directory out of shared locations.
+ */
+final class FileSessionStateStore
+ implements SessionStateStore {
+
+    private static final String FILE_EXTENSION = ".session";
+    private static final String HEADER = "# patient-selenium session state v1";
+    private static final String ORIGIN = "origin";
+    private static final String COOKIE = "cookie";
+    private static final String LOCAL_STORAGE = "local";
+    private static final String SESSION_STORAGE = "session";
+
+    private final Path directory;
+
+    FileSessionStateStore(Path directory) {
+        this.directory = directory;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the state file exists but can't be read.
+     */
+    @Override
+    public Optional<SessionState> load(String identity) {
+        validate().withMessage("Cannot load a session state with a null or empty identity")
+                  .that(identity)
+                  .isNotEmpty();
+        try (BufferedReader reader = Files.newBufferedReader(getFile(identity), StandardCharsets.UTF_8)) {
+            return Optional.of(read(reader));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to read the session state for [%s]", identity), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the state file can't be written.
+     */
+    @Override
+    public void save(String identity,
+                     SessionState state) {
+        validate().withMessage("Cannot save a session state with a null or empty identity")
+                  .that(identity)
+                  .isNotEmpty();
+        validate().withMessage("Cannot save a null session state")
+                  .that(state)
+                  .isNotNull();
+        Path file = getFile(identity);
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, null, FILE_EXTENSION);
+            try {
+                try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                    write(writer, state);
+                }
+                move(temporary, file);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to write the session state for [%s]", identity), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the state file exists but can't be deleted.
+     */
+    @Override
+    public void remove(String identity) {
+        validate().withMessage("Cannot remove a session state with a null or empty identity")
+                  .that(identity)
+                  .isNotEmpty();
+        try {
+            Files.deleteIfExists(getFile(identity));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to delete the session state for [%s]", identity), e);
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Encode the identity so that any identity maps to a single, valid,
+     * file name within the directory.
+     */
+
+    private Path getFile(String identity) {
+        try {
+            return directory.resolve(URLEncoder.encode(identity, "UTF-8").replace("*", "%2A") + FILE_EXTENSION);
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError("UTF-8 is always supported", e);
+        }
+    }
+
+    private static void write(BufferedWriter writer,
+                              SessionState state) throws IOException {
+        writer.write(HEADER);
+        writer.newLine();
+        writeLine(writer, ORIGIN, state.getOrigin());
+        for (Cookie cookie : state.getCookies()) {
+            writeLine(writer,
+                      COOKIE,
+                      cookie.getName(),
+                      cookie.getValue(),
+                      null == cookie.getDomain() ? "" : cookie.getDomain(),
+                      null == cookie.getPath() ? "" : cookie.getPath(),
+                      null == cookie.getExpiry() ? "" : Long.toString(cookie.getExpiry().getTime()),
+                      Boolean.toString(cookie.isSecure()),
+                      Boolean.toString(cookie.isHttpOnly()));
+        }
+        for (Map.Entry<String, String> entry : state.getLocalStorage().entrySet()) {
+            writeLine(writer, LOCAL_STORAGE, entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, String> entry : state.getSessionStorage().entrySet()) {
+            writeLine(writer, SESSION_STORAGE, entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static void writeLine(BufferedWriter writer,
+                                  String type,
+                                  String... values) throws IOException {
+        writer.write(type);
+        for (String value : values) {
+            writer.write('\t');
+            writer.write(escape(value));
+        }
+        writer.newLine();
+    }
+
+    /*
+     * Parse a state written by write, rejecting anything else (including the
+     * serialized files of earlier versions) with an IOException.
+     */
+
+    private static SessionState read(BufferedReader reader) throws IOException {
+        if (!HEADER.equals(reader.readLine())) {
+            throw new IOException("Not a session state file");
+        }
+        String origin = null;
+        List<Cookie> cookies = new ArrayList<>();
+        Map<String, String> localStorage = new LinkedHashMap<>();
+        Map<String, String> sessionStorage = new LinkedHashMap<>();
+        String line;
+        while (null != (line = reader.readLine())) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            for (int i = 1; i < fields.length; i++) {
+                fields[i] = unescape(fields[i]);
+            }
+            if (ORIGIN.equals(fields[0]) && fields.length == 2 && null == origin) {
+                origin = fields[1];
+            } else if (COOKIE.equals(fields[0]) && fields.length == 8) {
+                cookies.add(readCookie(fields));
+            } else if (LOCAL_STORAGE.equals(fields[0]) && fields.length == 3) {
+                localStorage.put(fields[1], fields[2]);
+            } else if (SESSION_STORAGE.equals(fields[0]) && fields.length == 3) {
+                sessionStorage.put(fields[1], fields[2]);
+            } else {
+                throw new IOException("Malformed session state line of type: " + fields[0]);
+            }
+        }
+        try {
+            return new SessionState(origin, cookies, localStorage, sessionStorage);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Incomplete session state", e);
+        }
+    }
+
+    private static Cookie readCookie(String[] fields) throws IOException {
+        try {
+            return new Cookie(fields[1],
+                              fields[2],
+                              fields[3].isEmpty() ? null : fields[3],
+                              fields[4].isEmpty() ? null : fields[4],
+                              fields[5].isEmpty() ? null : new Date(Long.parseLong(fields[5])),
+                              Boolean.parseBoolean(fields[6]),
+                              Boolean.parseBoolean(fields[7]));
+        } catch (IllegalArgumentException e) {
+            // Also covers the NumberFormatException of a malformed expiry
+            throw new IOException("Malformed session state cookie", e);
+        }
+    }
+
+    private static void move(Path source,
+                             Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
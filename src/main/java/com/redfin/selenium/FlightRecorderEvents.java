@@ -0,0 +1,292 @@
+package com.redfin.selenium;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Static holder of the JDK Flight Recorder events of the patient selenium types. This is the only
+ * type that refers to the jdk.jfr package so it must only be used through {@link PatientEvents},
+ * which makes sure the package is available before loading it.
+ * <p>
+ * The events of a wait (lookups, polls and the wait itself) and of a page object initialization
+ * are begun before and committed after what they time, the others are instant events. Lookups and
+ * polls are disabled by default since a single wait can make many of them. An event is only
+ * allocated if its type is enabled in a running recording, the begin methods return null otherwise.
+ */
+final class FlightRecorderEvents {
+
+    private static final String CATEGORY = "Patient Selenium";
+
+    private static final EventType LOOKUP = EventType.getEventType(LookupEvent.class);
+    private static final EventType POLL = EventType.getEventType(PollEvent.class);
+    private static final EventType WAIT = EventType.getEventType(WaitEvent.class);
+    private static final EventType TIMEOUT = EventType.getEventType(TimeoutEvent.class);
+    private static final EventType RETRY = EventType.getEventType(RetryEvent.class);
+    private static final EventType STALE_ELEMENT_RECOVERY = EventType.getEventType(StaleElementRecoveryEvent.class);
+    private static final EventType PAGE_OBJECT_INITIALIZATION = EventType.getEventType(PageObjectInitializationEvent.class);
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private static methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    static Object beginLookup() {
+        if (!LOOKUP.isEnabled()) {
+            return null;
+        }
+        LookupEvent event = new LookupEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitLookup(Object begun,
+                             String description,
+                             int found) {
+        LookupEvent event = (LookupEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.description = description;
+            event.found = found;
+            event.commit();
+        }
+    }
+
+    static Object beginPoll() {
+        if (!POLL.isEnabled()) {
+            return null;
+        }
+        PollEvent event = new PollEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitPoll(Object begun,
+                           String description,
+                           int attempt) {
+        PollEvent event = (PollEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.description = description;
+            event.attempt = attempt;
+            event.commit();
+        }
+    }
+
+    static Object beginWait(long timeoutNanos) {
+        if (!WAIT.isEnabled()) {
+            return null;
+        }
+        WaitEvent event = new WaitEvent();
+        event.timeout = timeoutNanos;
+        event.begin();
+        return event;
+    }
+
+    static void commitWait(Object begun,
+                           String description,
+                           int polls,
+                           boolean timedOut) {
+        WaitEvent event = (WaitEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.description = description;
+            event.polls = polls;
+            event.timedOut = timedOut;
+            event.commit();
+        }
+    }
+
+    static void commitTimeout(String description,
+                              int polls,
+                              long timeoutNanos) {
+        if (!TIMEOUT.isEnabled()) {
+            return;
+        }
+        TimeoutEvent event = new TimeoutEvent();
+        if (event.shouldCommit()) {
+            event.description = description;
+            event.polls = polls;
+            event.timeout = timeoutNanos;
+            event.commit();
+        }
+    }
+
+    static void commitRetry(String description,
+                            int attempt,
+                            Class<?> cause) {
+        if (!RETRY.isEnabled()) {
+            return;
+        }
+        RetryEvent event = new RetryEvent();
+        if (event.shouldCommit()) {
+            event.description = description;
+            event.attempt = attempt;
+            event.cause = cause;
+            event.commit();
+        }
+    }
+
+    static void commitStaleElementRecovery(String description,
+                                           int attempts) {
+        if (!STALE_ELEMENT_RECOVERY.isEnabled()) {
+            return;
+        }
+        StaleElementRecoveryEvent event = new StaleElementRecoveryEvent();
+        if (event.shouldCommit()) {
+            event.description = description;
+            event.attempts = attempts;
+            event.commit();
+        }
+    }
+
+    static Object beginPageObjectInitialization() {
+        if (!PAGE_OBJECT_INITIALIZATION.isEnabled()) {
+            return null;
+        }
+        PageObjectInitializationEvent event = new PageObjectInitializationEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitPageObjectInitialization(Object begun,
+                                               Class<?> pageObjectClass,
+                                               boolean successful) {
+        PageObjectInitializationEvent event = (PageObjectInitializationEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.pageObjectClass = pageObjectClass;
+            event.successful = successful;
+            event.commit();
+        }
+    }
+
+    private FlightRecorderEvents() {
+        throw new AssertionError("Cannot instantiate a static class");
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Name("com.redfin.selenium.Lookup")
+    @Label("Element Lookup")
+    @Description("A request for elements sent to the web driver by an element locator")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class LookupEvent
+               extends Event {
+
+        @Label("Description")
+        String description;
+
+        @Label("Elements Found")
+        int found;
+    }
+
+    @Name("com.redfin.selenium.Poll")
+    @Label("Wait Poll")
+    @Description("A single attempt of a patient wait for an element or elements")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class PollEvent
+               extends Event {
+
+        @Label("Description")
+        String description;
+
+        @Label("Attempt")
+        int attempt;
+    }
+
+    @Name("com.redfin.selenium.Wait")
+    @Label("Patient Wait")
+    @Description("A patient wait for an element or elements that completed or timed out")
+    @Category(CATEGORY)
+    static final class WaitEvent
+               extends Event {
+
+        @Label("Description")
+        String description;
+
+        @Label("Polls")
+        int polls;
+
+        @Label("Timeout")
+        @Timespan(Timespan.NANOSECONDS)
+        long timeout;
+
+        @Label("Timed Out")
+        boolean timedOut;
+    }
+
+    @Name("com.redfin.selenium.Timeout")
+    @Label("Patient Wait Timeout")
+    @Description("A patient wait for an element or elements that timed out")
+    @Category(CATEGORY)
+    static final class TimeoutEvent
+               extends Event {
+
+        @Label("Description")
+        String description;
+
+        @Label("Polls")
+        int polls;
+
+        @Label("Timeout")
+        @Timespan(Timespan.NANOSECONDS)
+        long timeout;
+    }
+
+    @Name("com.redfin.selenium.Retry")
+    @Label("Element Action Retry")
+    @Description("An element action attempted again after a stale element or an ignored action exception")
+    @Category(CATEGORY)
+    static final class RetryEvent
+               extends Event {
+
+        @Label("Description")
+        String description;
+
+        @Label("Attempt")
+        int attempt;
+
+        @Label("Cause")
+        Class<?> cause;
+    }
+
+    @Name("com.redfin.selenium.StaleElementRecovery")
+    @Label("Stale Element Recovery")
+    @Description("An element action that succeeded after the element went stale")
+    @Category(CATEGORY)
+    static final class StaleElementRecoveryEvent
+               extends Event {
+
+        @Label("Description")
+        String description;
+
+        @Label("Attempts")
+        int attempts;
+    }
+
+    @Name("com.redfin.selenium.PageObjectInitialization")
+    @Label("Page Object Initialization")
+    @Description("The initialization of a page or widget object and the object graph below it")
+    @Category(CATEGORY)
+    static final class PageObjectInitializationEvent
+               extends Event {
+
+        @Label("Page Object Class")
+        Class<?> pageObjectClass;
+
+        @Label("Successful")
+        boolean successful;
+    }
+}
@@ -0,0 +1,424 @@
+package com.redfin.selenium;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * An InMemoryPatientMetrics keeps a count of every event reported to it, and histograms of the
+ * durations and the number of polls of waits, per description in memory. It is safe to share
+ * between the patient drivers of a whole test run and to {@link #dump()} once the run is over.
+ * <p>
+ * Counts are read with {@link #getCount(String, String)} using one of the counter name constants
+ * of this class. Ignored exceptions are counted per exception class under the names returned by
+ * {@link #ignoredLookupException(Class)} and {@link #ignoredActionException(Class)}.
+ */
+public final class InMemoryPatientMetrics
+        implements PatientMetrics {
+
+    /**
+     * The name of the count of requests for elements sent to the web driver.
+     */
+    public static final String LOOKUPS = "lookups";
+
+    /**
+     * The name of the count of completed or timed out patient waits.
+     */
+    public static final String WAITS = "waits";
+
+    /**
+     * The name of the count of patient waits that timed out.
+     */
+    public static final String TIMEOUTS = "timeouts";
+
+    /**
+     * The name of the count of element actions that failed with a stale element reference.
+     */
+    public static final String STALE_ELEMENTS = "stale elements";
+
+    /**
+     * The name of the count of element actions attempted again after a failed attempt.
+     */
+    public static final String RETRIES = "retries";
+
+    /**
+     * The name of the count of element actions that used the cached web element.
+     */
+    public static final String CACHE_HITS = "cache hits";
+
+    /**
+     * The name of the count of element actions that had to locate a web element.
+     */
+    public static final String CACHE_MISSES = "cache misses";
+
+    private final ConcurrentMap<String, Tagged> tags = new ConcurrentHashMap<>();
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Static factory methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @param type the class of the exception.
+     *             May not be null.
+     *
+     * @return the String name of the count of look-up exceptions of the given class that were ignored.
+     *
+     * @throws IllegalArgumentException if type is null.
+     */
+    public static String ignoredLookupException(Class<? extends RuntimeException> type) {
+        validate().withMessage("Cannot name a counter for a null exception class")
+                  .that(type)
+                  .isNotNull();
+        return "ignored lookup exceptions: " + type.getName();
+    }
+
+    /**
+     * @param type the class of the exception.
+     *             May not be null.
+     *
+     * @return the String name of the count of action exceptions of the given class that were ignored.
+     *
+     * @throws IllegalArgumentException if type is null.
+     */
+    public static String ignoredActionException(Class<? extends RuntimeException> type) {
+        validate().withMessage("Cannot name a counter for a null exception class")
+                  .that(type)
+                  .isNotNull();
+        return "ignored action exceptions: " + type.getName();
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Override
+    public void recordLookup(String description) {
+        increment(description, LOOKUPS);
+    }
+
+    @Override
+    public void recordWait(String description,
+                           int polls,
+                           Duration duration,
+                           boolean timedOut) {
+        Tagged tagged = getTagged(description);
+        tagged.increment(WAITS);
+        if (timedOut) {
+            tagged.increment(TIMEOUTS);
+        }
+        tagged.waitDurations.record(duration.toMillis());
+        tagged.pollsPerWait.record(polls);
+    }
+
+    @Override
+    public void recordStaleElement(String description) {
+        increment(description, STALE_ELEMENTS);
+    }
+
+    @Override
+    public void recordIgnoredLookupException(String description,
+                                             Class<? extends RuntimeException> type) {
+        increment(description, ignoredLookupException(type));
+    }
+
+    @Override
+    public void recordIgnoredActionException(String description,
+                                             Class<? extends RuntimeException> type) {
+        increment(description, ignoredActionException(type));
+    }
+
+    @Override
+    public void recordRetry(String description) {
+        increment(description, RETRIES);
+    }
+
+    @Override
+    public void recordCacheHit(String description) {
+        increment(description, CACHE_HITS);
+    }
+
+    @Override
+    public void recordCacheMiss(String description) {
+        increment(description, CACHE_MISSES);
+    }
+
+    /**
+     * @param counter     the String name of the counter.
+     *                    May not be null.
+     * @param description the String description the events were tagged with.
+     *                    May not be null.
+     *
+     * @return the long count of the given counter for the given description.
+     *
+     * @throws IllegalArgumentException if either argument is null.
+     */
+    public long getCount(String counter,
+                         String description) {
+        validate().withMessage("Cannot get the count of a null counter")
+                  .that(counter)
+                  .isNotNull();
+        validate().withMessage("Cannot get a count for a null description")
+                  .that(description)
+                  .isNotNull();
+        Tagged tagged = tags.get(description);
+        if (null == tagged) {
+            return 0;
+        }
+        LongAdder count = tagged.counts.get(counter);
+        return null == count ? 0 : count.sum();
+    }
+
+    /**
+     * @param counter the String name of the counter.
+     *                May not be null.
+     *
+     * @return the long count of the given counter summed over every description.
+     *
+     * @throws IllegalArgumentException if counter is null.
+     */
+    public long getTotalCount(String counter) {
+        validate().withMessage("Cannot get the count of a null counter")
+                  .that(counter)
+                  .isNotNull();
+        long total = 0;
+        for (Tagged tagged : tags.values()) {
+            LongAdder count = tagged.counts.get(counter);
+            if (null != count) {
+                total += count.sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @param description the String description the waits were tagged with.
+     *                    May not be null.
+     *
+     * @return an optional containing the {@link Histogram} of the durations, in milliseconds,
+     * of the waits for the given description or an empty optional if there were none.
+     *
+     * @throws IllegalArgumentException if description is null.
+     */
+    public Optional<Histogram> getWaitDurations(String description) {
+        validate().withMessage("Cannot get a histogram for a null description")
+                  .that(description)
+                  .isNotNull();
+        return Optional.ofNullable(tags.get(description))
+                       .map(tagged -> tagged.waitDurations)
+                       .filter(histogram -> histogram.getCount() > 0);
+    }
+
+    /**
+     * @param description the String description the waits were tagged with.
+     *                    May not be null.
+     *
+     * @return an optional containing the {@link Histogram} of the number of polls of the waits
+     * for the given description or an empty optional if there were none.
+     *
+     * @throws IllegalArgumentException if description is null.
+     */
+    public Optional<Histogram> getPollsPerWait(String description) {
+        validate().withMessage("Cannot get a histogram for a null description")
+                  .that(description)
+                  .isNotNull();
+        return Optional.ofNullable(tags.get(description))
+                       .map(tagged -> tagged.pollsPerWait)
+                       .filter(histogram -> histogram.getCount() > 0);
+    }
+
+    /**
+     * @return a map, sorted by description, of the counts of every description. The counts
+     * of a description are sorted by name. The returned map is a snapshot.
+     */
+    public Map<String, Map<String, Long>> getCounts() {
+        Map<String, Map<String, Long>> counts = new TreeMap<>();
+        tags.forEach((description, tagged) -> {
+            Map<String, Long> tagCounts = new TreeMap<>();
+            tagged.counts.forEach((counter, count) -> tagCounts.put(counter, count.sum()));
+            counts.put(description, Collections.unmodifiableMap(tagCounts));
+        });
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Forget every event recorded so far.
+     */
+    public void reset() {
+        tags.clear();
+    }
+
+    /**
+     * @return a human readable String report of every count and histogram, one description
+     * at a time sorted by description, e.g. to print at the end of a test run.
+     */
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+        new TreeMap<>(tags).forEach((description, tagged) -> {
+            builder.append(description).append(System.lineSeparator());
+            new TreeMap<>(tagged.counts).forEach((counter, count) -> builder.append(String.format("  %s: %d%n", counter, count.sum())));
+            if (tagged.waitDurations.getCount() > 0) {
+                builder.append(String.format("  wait duration (ms): %s%n", tagged.waitDurations));
+                builder.append(String.format("  polls per wait: %s%n", tagged.pollsPerWait));
+            }
+        });
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InMemoryPatientMetrics(descriptions: %d)", tags.size());
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private Tagged getTagged(String description) {
+        return tags.computeIfAbsent(description, ignore -> new Tagged());
+    }
+
+    private void increment(String description,
+                           String counter) {
+        getTagged(description).increment(counter);
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * The counts and histograms of a single description.
+     */
+
+    private static final class Tagged {
+
+        private final ConcurrentMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+        private final Histogram waitDurations = new Histogram();
+        private final Histogram pollsPerWait = new Histogram();
+
+        private void increment(String counter) {
+            counts.computeIfAbsent(counter, ignore -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * A Histogram is a thread safe distribution of non-negative long values. Values are
+     * counted in buckets whose upper bounds follow a 1, 2, 5 sequence (1, 2, 5, 10, 20, 50...)
+     * so percentiles are approximate, they are reported as the upper bound of their bucket.
+     * The count, sum and max are exact.
+     */
+    public static final class Histogram {
+
+        private static final long[] BOUNDS = getBounds();
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        private Histogram() {
+        }
+
+        /**
+         * @return the long number of recorded values.
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return the long sum of the recorded values.
+         */
+        public long getSum() {
+            return sum.sum();
+        }
+
+        /**
+         * @return the largest recorded long value, or 0 if there are none.
+         */
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * @return the double mean of the recorded values, or 0 if there are none.
+         */
+        public double getMean() {
+            long total = getCount();
+            return 0 == total ? 0 : (double) getSum() / total;
+        }
+
+        /**
+         * @param percentile the double percentile, e.g. 0.99 for the 99th percentile.
+         *                   May not be less than 0 or greater than 1.
+         *
+         * @return the upper bound of the bucket of the given percentile, never more than
+         * the max, or 0 if there are no recorded values.
+         *
+         * @throws IllegalArgumentException if percentile is less than 0 or greater than 1.
+         */
+        public long getPercentile(double percentile) {
+            validate().withMessage("Cannot get a percentile less than 0 or greater than 1")
+                      .that(percentile >= 0 && percentile <= 1)
+                      .isTrue();
+            long total = getCount();
+            if (0 == total) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile * total));
+            long seen = 0;
+            for (int i = 0; i < BOUNDS.length; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(BOUNDS[i], getMax());
+                }
+            }
+            return getMax();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count: %d, mean: %.1f, p50: %d, p90: %d, p99: %d, max: %d",
+                                 getCount(),
+                                 getMean(),
+                                 getPercentile(0.5),
+                                 getPercentile(0.9),
+                                 getPercentile(0.99),
+                                 getMax());
+        }
+
+        private void record(long value) {
+            long recorded = Math.max(0, value);
+            int index = 0;
+            while (index < BOUNDS.length && recorded > BOUNDS[index]) {
+                index++;
+            }
+            buckets.incrementAndGet(index);
+            count.increment();
+            sum.add(recorded);
+            max.accumulateAndGet(recorded, Math::max);
+        }
+
+        private static long[] getBounds() {
+            // 1, 2, 5, 10, 20, 50 ... 500000, covers waits of up to a few minutes in milliseconds
+            long[] bounds = new long[18];
+            long scale = 1;
+            for (int i = 0; i < bounds.length; i += 3) {
+                bounds[i] = scale;
+                bounds[i + 1] = 2 * scale;
+                bounds[i + 2] = 5 * scale;
+                scale *= 10;
+            }
+            return bounds;
+        }
+    }
+}
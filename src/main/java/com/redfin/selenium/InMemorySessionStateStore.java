@@ -0,0 +1,48 @@
+package com.redfin.selenium;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A {@link SessionStateStore} that keeps the session states in memory.
+ */
+final class InMemorySessionStateStore
+ implements SessionStateStore {
+
+    private final Map<String, SessionState> states = new ConcurrentHashMap<>();
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Override
+    public Optional<SessionState> load(String identity) {
+        validate().withMessage("Cannot load a session state with a null or empty identity")
+                  .that(identity)
+                  .isNotEmpty();
+        return Optional.ofNullable(states.get(identity));
+    }
+
+    @Override
+    public void save(String identity,
+                     SessionState state) {
+        validate().withMessage("Cannot save a session state with a null or empty identity")
+                  .that(identity)
+                  .isNotEmpty();
+        validate().withMessage("Cannot save a null session state")
+                  .that(state)
+                  .isNotNull();
+        states.put(identity, state);
+    }
+
+    @Override
+    public void remove(String identity) {
+        validate().withMessage("Cannot remove a session state with a null or empty identity")
+                  .that(identity)
+                  .isNotEmpty();
+        states.remove(identity);
+    }
+}
@@ -0,0 +1,70 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.StaleElementReferenceException;
+
+import java.time.Duration;
+
+/**
+ * The {@link PatientListener} a patient driver reports its {@link PatientMetrics} through, so
+ * that the elements and element locators descending from it only have the one listener to call.
+ */
+final class MetricsPatientListener
+ implements PatientListener {
+
+    private final PatientMetrics metrics;
+
+    MetricsPatientListener(PatientMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void beforeLookup(String description) {
+        metrics.recordLookup(description);
+    }
+
+    @Override
+    public void afterWait(String description,
+                          int polls,
+                          Duration elapsed,
+                          boolean timedOut) {
+        metrics.recordWait(description, polls, elapsed, timedOut);
+    }
+
+    @Override
+    public void onRetry(String description,
+                        int attempt,
+                        RuntimeException cause) {
+        metrics.recordRetry(description);
+    }
+
+    @Override
+    public void afterAttempt(String description,
+                             int attempt,
+                             RuntimeException failure) {
+        if (failure instanceof StaleElementReferenceException) {
+            metrics.recordStaleElement(description);
+        }
+    }
+
+    @Override
+    public void onIgnoredLookupException(String description,
+                                         RuntimeException exception) {
+        metrics.recordIgnoredLookupException(description, exception.getClass());
+    }
+
+    @Override
+    public void onIgnoredActionException(String description,
+                                         RuntimeException exception) {
+        metrics.recordIgnoredActionException(description, exception.getClass());
+    }
+
+    @Override
+    public void onCacheHit(String description) {
+        metrics.recordCacheHit(description);
+    }
+
+    @Override
+    public void onCacheMiss(String description) {
+        metrics.recordCacheMiss(description);
+    }
+}
@@ -0,0 +1,9 @@
+package com.redfin.selenium;
+
+/**
+ * The {@link PatientListener} that ignores every callback, see {@link PatientListener#noOp()}.
+ */
+enum NoOpPatientListener implements PatientListener {
+
+    INSTANCE
+}
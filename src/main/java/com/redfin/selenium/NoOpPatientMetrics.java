@@ -0,0 +1,9 @@
+package com.redfin.selenium;
+
+/**
+ * The {@link PatientMetrics} that ignore every event, see {@link PatientMetrics#noOp()}.
+ */
+enum NoOpPatientMetrics implements PatientMetrics {
+
+    INSTANCE
+}
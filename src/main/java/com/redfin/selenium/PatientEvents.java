@@ -0,0 +1,152 @@
+package com.redfin.selenium;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The {@link PatientListener} that emits the JDK Flight Recorder events of the patient selenium
+ * types, see {@link FlightRecorderEvents}. The library targets Java runtimes that may not include
+ * the jdk.jfr package so the events are only touched once the package is known to be available,
+ * otherwise {@link #listener()} is the no-op listener.
+ * <p>
+ * An event begun by a before callback is kept in a stack per thread until the matching after
+ * callback commits it. When its event type isn't enabled in a running recording a shared marker is
+ * pushed instead, so nothing is allocated while no recording is running.
+ */
+final class PatientEvents
+ implements PatientListener {
+
+    private static final boolean AVAILABLE = isFlightRecorderAvailable();
+    private static final PatientEvents INSTANCE = new PatientEvents();
+    private static final Object NOT_RECORDED = new Object();
+
+    private final ThreadLocal<Deque<Object>> begunEvents = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /*
+     * Only intended to be used through the listener method so make the
+     * constructor private.
+     */
+
+    private PatientEvents() {
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private static methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    static PatientListener listener() {
+        return AVAILABLE ? INSTANCE : PatientListener.noOp();
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Override
+    public void beforeLookup(String description) {
+        push(FlightRecorderEvents.beginLookup());
+    }
+
+    @Override
+    public void afterLookup(String description,
+                            int found,
+                            RuntimeException failure) {
+        Object begun = pop();
+        if (NOT_RECORDED != begun) {
+            FlightRecorderEvents.commitLookup(begun, description, found);
+        }
+    }
+
+    @Override
+    public void beforeWait(String description,
+                           Duration timeout) {
+        push(FlightRecorderEvents.beginWait(timeout.toNanos()));
+    }
+
+    @Override
+    public void beforePoll(String description,
+                           int attempt) {
+        push(FlightRecorderEvents.beginPoll());
+    }
+
+    @Override
+    public void onPoll(String description,
+                       int attempt,
+                       boolean successful) {
+        Object begun = pop();
+        if (NOT_RECORDED != begun) {
+            FlightRecorderEvents.commitPoll(begun, description, attempt);
+        }
+    }
+
+    @Override
+    public void onWaitTimeout(String description,
+                              int polls,
+                              Duration timeout) {
+        FlightRecorderEvents.commitTimeout(description, polls, timeout.toNanos());
+    }
+
+    @Override
+    public void afterWait(String description,
+                          int polls,
+                          Duration elapsed,
+                          boolean timedOut) {
+        Object begun = pop();
+        if (NOT_RECORDED != begun) {
+            FlightRecorderEvents.commitWait(begun, description, polls, timedOut);
+        }
+    }
+
+    @Override
+    public void onRetry(String description,
+                        int attempt,
+                        RuntimeException cause) {
+        FlightRecorderEvents.commitRetry(description, attempt, cause.getClass());
+    }
+
+    @Override
+    public void onStaleElementRecovered(String description,
+                                        int attempts) {
+        FlightRecorderEvents.commitStaleElementRecovery(description, attempts);
+    }
+
+    @Override
+    public void beforeInitialization(Class<?> pageObjectClass) {
+        push(FlightRecorderEvents.beginPageObjectInitialization());
+    }
+
+    @Override
+    public void afterInitialization(Class<?> pageObjectClass,
+                                    RuntimeException failure) {
+        Object begun = pop();
+        if (NOT_RECORDED != begun) {
+            FlightRecorderEvents.commitPageObjectInitialization(begun, pageObjectClass, null == failure);
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private void push(Object begun) {
+        begunEvents.get().push(null == begun ? NOT_RECORDED : begun);
+    }
+
+    private Object pop() {
+        return begunEvents.get().pop();
+    }
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, PatientEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
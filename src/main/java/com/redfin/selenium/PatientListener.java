@@ -0,0 +1,272 @@
+package com.redfin.selenium;
+
+import java.time.Duration;
+
+/**
+ * PatientListener is the interface for observing the lifecycle of the look-ups, waits, actions and
+ * commands of the patient types, e.g. to plug in a profiler, a budget checker or diagnostics. Listeners
+ * are registered on an {@link AbstractPatientConfig} and are called for every element and element
+ * locator built with that config. Each method does nothing by default so an implementation only
+ * needs to override the callbacks it is interested in.
+ * <p>
+ * This is also how the library instruments itself: the {@link PatientMetrics}, {@link PatientTracer} and
+ * command scopes of a patient driver and the JDK Flight Recorder events are listeners called after
+ * the registered ones, so every callback reaches all of them.
+ * <p>
+ * Callbacks are given the description of the element or element locator and plain values rather
+ * than event objects so that nothing is allocated to call them. They are called synchronously on
+ * the thread doing the work, so a listener can time a look-up or an action itself between the before
+ * and after callbacks, and any exception a listener throws propagates to the caller of the element.
+ * Every before callback that returned normally is matched by its after callback on the same thread,
+ * even when the work failed, and the after callbacks are given to every listener even if one of them
+ * throws. Listeners shared between drivers must be safe to use from multiple threads.
+ */
+public interface PatientListener {
+
+    /**
+     * Called before a request for elements is sent to the web driver.
+     *
+     * @param description the String description of the element locator.
+     */
+    default void beforeLookup(String description) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called after a request for elements sent to the web driver returned or failed.
+     *
+     * @param description the String description of the element locator.
+     * @param found       the int number of elements returned by the web driver,
+     *                    before any filter is applied, or 0 if the request failed.
+     * @param failure     the exception the request failed with or null if it returned.
+     */
+    default void afterLookup(String description,
+                             int found,
+                             RuntimeException failure) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called before the first attempt of a patient wait.
+     *
+     * @param description the String description of the element or element locator.
+     * @param timeout     the Duration timeout of the wait.
+     */
+    default void beforeWait(String description,
+                            Duration timeout) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called before every attempt of a patient wait.
+     *
+     * @param description the String description of the element or element locator.
+     * @param attempt     the int number of the attempt, starting at 1.
+     */
+    default void beforePoll(String description,
+                            int attempt) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called after every attempt of a patient wait.
+     *
+     * @param description the String description of the element or element locator.
+     * @param attempt     the int number of the attempt, starting at 1.
+     * @param successful  true if the attempt ended the wait, false if another attempt is needed
+     *                    or the attempt failed.
+     */
+    default void onPoll(String description,
+                        int attempt,
+                        boolean successful) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called when a patient wait times out without a successful attempt.
+     *
+     * @param description the String description of the element or element locator.
+     * @param polls       the int number of attempts made by the wait.
+     * @param timeout     the Duration timeout of the wait.
+     */
+    default void onWaitTimeout(String description,
+                               int polls,
+                               Duration timeout) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called once a patient wait has completed, timed out or failed.
+     *
+     * @param description the String description of the element or element locator.
+     * @param polls       the int number of attempts made by the wait.
+     * @param elapsed     the Duration the wait took.
+     * @param timedOut    true if the wait timed out without success.
+     */
+    default void afterWait(String description,
+                           int polls,
+                           Duration elapsed,
+                           boolean timedOut) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called before an element action is attempted for the first time.
+     *
+     * @param description the String description of the element.
+     */
+    default void beforeAction(String description) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called once an element action succeeded or failed for good.
+     *
+     * @param description the String description of the element.
+     * @param failure     the exception the action failed with or null if it succeeded.
+     */
+    default void afterAction(String description,
+                             RuntimeException failure) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called before an element action is attempted again after a failed attempt.
+     *
+     * @param description the String description of the element.
+     * @param attempt     the int number of the attempt about to be made, starting at 2.
+     * @param cause       the exception the previous attempt failed with.
+     */
+    default void onRetry(String description,
+                         int attempt,
+                         RuntimeException cause) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called before every attempt of an element action.
+     *
+     * @param description the String description of the element.
+     * @param attempt     the int number of the attempt, starting at 1.
+     */
+    default void beforeAttempt(String description,
+                               int attempt) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called after every attempt of an element action.
+     *
+     * @param description the String description of the element.
+     * @param attempt     the int number of the attempt, starting at 1.
+     * @param failure     the exception the attempt failed with or null if it succeeded.
+     */
+    default void afterAttempt(String description,
+                              int attempt,
+                              RuntimeException failure) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called when an element action succeeds after at least one attempt failed with a
+     * stale element reference.
+     *
+     * @param description the String description of the element.
+     * @param attempts    the int number of attempts it took.
+     */
+    default void onStaleElementRecovered(String description,
+                                         int attempts) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called when a look-up throws an exception that the config ignores for look-ups.
+     *
+     * @param description the String description of the element or element locator.
+     * @param exception   the ignored exception.
+     */
+    default void onIgnoredLookupException(String description,
+                                          RuntimeException exception) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called when an element action throws an exception that the config ignores for actions.
+     *
+     * @param description the String description of the element.
+     * @param exception   the ignored exception.
+     */
+    default void onIgnoredActionException(String description,
+                                          RuntimeException exception) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called when an element uses its cached web element rather than locating one.
+     *
+     * @param description the String description of the element.
+     */
+    default void onCacheHit(String description) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called when an element has no usable cached web element and has to locate one.
+     *
+     * @param description the String description of the element.
+     */
+    default void onCacheMiss(String description) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called before a command is sent to the browser, see {@link CommandScope}.
+     *
+     * @param description the String description of what the command is sent for.
+     * @param type        the {@link CommandScope.CommandType} of the command.
+     */
+    default void beforeCommand(String description,
+                               CommandScope.CommandType type) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called after a command sent to the browser returned or failed.
+     *
+     * @param description the String description of what the command was sent for.
+     * @param type        the {@link CommandScope.CommandType} of the command.
+     * @param failure     the exception the command failed with or null if it returned.
+     */
+    default void afterCommand(String description,
+                              CommandScope.CommandType type,
+                              RuntimeException failure) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called before a page or widget object is initialized.
+     *
+     * @param pageObjectClass the class of the page or widget object.
+     */
+    default void beforeInitialization(Class<?> pageObjectClass) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called once a page or widget object has been initialized or failed to be.
+     *
+     * @param pageObjectClass the class of the page or widget object.
+     * @param failure         the exception the initialization failed with or null if it succeeded.
+     */
+    default void afterInitialization(Class<?> pageObjectClass,
+                                     RuntimeException failure) {
+        // Do nothing by default
+    }
+
+    /**
+     * @return the listener that ignores every callback. Used by configs without any listeners.
+     */
+    static PatientListener noOp() {
+        return NoOpPatientListener.INSTANCE;
+    }
+}
@@ -0,0 +1,110 @@
+package com.redfin.selenium;
+
+import java.time.Duration;
+
+/**
+ * PatientMetrics is the interface the patient types report what they spend their time on
+ * to, e.g. to find the slow or flaky locators of a test suite. Every event is tagged with the
+ * description of the element or element locator it happened to. Each method does nothing by
+ * default so an implementation only needs to override the events it is interested in.
+ * <p>
+ * A patient driver reports to {@link #noOp()} unless it is given other metrics with
+ * {@link AbstractPatientDriver#setMetrics(PatientMetrics)}, and the elements and element
+ * locators descending from it report to the metrics of the driver through its {@link PatientListener}
+ * callbacks, so the metrics see exactly the calls the listeners do. Methods are called on the
+ * thread using the element, which may be a different thread for every driver, so implementations
+ * shared between drivers must be safe to use from multiple threads. See {@link InMemoryPatientMetrics}
+ * for the provided implementation.
+ */
+public interface PatientMetrics {
+
+    /**
+     * Called for every request for elements sent to the web driver.
+     *
+     * @param description the String description of the element locator.
+     */
+    default void recordLookup(String description) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called once a patient wait for elements has completed or timed out.
+     *
+     * @param description the String description of the element or element locator.
+     * @param polls       the int number of attempts made by the wait.
+     * @param duration    the Duration the wait took.
+     * @param timedOut    true if the wait timed out without success.
+     */
+    default void recordWait(String description,
+                            int polls,
+                            Duration duration,
+                            boolean timedOut) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called when an element action fails with a stale element reference.
+     *
+     * @param description the String description of the element.
+     */
+    default void recordStaleElement(String description) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called when a look-up throws an exception that the config ignores for look-ups.
+     *
+     * @param description the String description of the element locator.
+     * @param type        the class of the ignored exception.
+     */
+    default void recordIgnoredLookupException(String description,
+                                              Class<? extends RuntimeException> type) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called when an element action throws an exception that the config ignores for actions.
+     *
+     * @param description the String description of the element.
+     * @param type        the class of the ignored exception.
+     */
+    default void recordIgnoredActionException(String description,
+                                              Class<? extends RuntimeException> type) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called every time an element action is attempted again after a failed attempt.
+     *
+     * @param description the String description of the element.
+     */
+    default void recordRetry(String description) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called when an element uses its cached web element rather than locating one.
+     *
+     * @param description the String description of the element.
+     */
+    default void recordCacheHit(String description) {
+        // Do nothing by default
+    }
+
+    /**
+     * Called when an element has no usable cached web element and has to locate one.
+     *
+     * @param description the String description of the element.
+     */
+    default void recordCacheMiss(String description) {
+        // Do nothing by default
+    }
+
+    /**
+     * @return the metrics that ignore every event. Used by patient drivers that haven't
+     * been given other metrics.
+     */
+    static PatientMetrics noOp() {
+        return NoOpPatientMetrics.INSTANCE;
+    }
+}
@@ -0,0 +1,60 @@
+package com.redfin.selenium;
+
+/**
+ * PatientTracer is the interface the patient types open trace spans with so that a test can be
+ * looked at as a tree of timed operations: an element action, each attempt of it, the waits and polls
+ * of an attempt, the look-ups of a poll and the commands sent to the browser.
+ * <p>
+ * Spans are opened and closed on the thread doing the work, so a span opened while another one
+ * is open on the same thread is its child. A test can open spans of its own around page actions
+ * with {@link #startSpan(String, String)} to be the roots of the tree. A patient driver uses
+ * {@link #noOp()} unless it is given another tracer with {@link AbstractPatientDriver#setTracer(PatientTracer)},
+ * and the elements and element locators descending from it use the tracer of the driver, whose
+ * spans are opened and closed by the {@link PatientListener} callbacks of the same calls. See
+ * {@link ChromeTraceRecorder} for the provided implementation.
+ */
+public interface PatientTracer {
+
+    /**
+     * Open a new span. The span must be closed on the same thread, preferably with a
+     * try-with-resources statement.
+     *
+     * @param name        the String name of the span, e.g. "action" or "wait".
+     * @param description the String description of what the span is about, e.g. the
+     *                    description of an element.
+     *
+     * @return the opened {@link Span}.
+     */
+    Span startSpan(String name,
+                   String description);
+
+    /**
+     * @return the tracer whose spans do nothing. Used by patient drivers that haven't
+     * been given another tracer.
+     */
+    static PatientTracer noOp() {
+        return NoOpPatientTracer.INSTANCE;
+    }
+
+    /**
+     * A Span is a timed operation opened by a {@link PatientTracer}.
+     */
+    interface Span extends AutoCloseable {
+
+        /**
+         * @param name  the String name of the attribute.
+         * @param value the value of the attribute, numbers and booleans are kept as such
+         *              while anything else is recorded as its String value.
+         *
+         * @return this span, for chaining.
+         */
+        Span setAttribute(String name,
+                          Object value);
+
+        /**
+         * Close this span, ending its timing. Only the first call has any effect.
+         */
+        @Override
+        void close();
+    }
+}
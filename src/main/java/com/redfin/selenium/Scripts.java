@@ -0,0 +1,237 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Static holder of the JavaScript snippets that the patient selenium
+ * types send to the browser in order to save round trips, along with
+ * helpers for finding something that can execute them.
+ */
+final class Scripts {
+
+    /*
+     * Asynchronously wait, inside the browser, for the given element to be detached
+     * from its document or to no longer be rendered. The callback is always called
+     * before the given timeout in milliseconds so that the script itself never
+     * needs to time out. Arguments: element, timeout in milliseconds.
+     */
+
+    static final String WAIT_FOR_DETACHMENT = "var element = arguments[0];" +
+                                              "var deadline = Date.now() + arguments[1];" +
+                                              "var callback = arguments[arguments.length - 1];" +
+                                              "function isGone() {" +
+                                              "  return !element.ownerDocument.documentElement.contains(element) ||" +
+                                              "         element.getClientRects().length === 0;" +
+                                              "}" +
+                                              "(function check() {" +
+                                              "  var gone = isGone();" +
+                                              "  if (gone || Date.now() >= deadline) {" +
+                                              "    callback(gone);" +
+                                              "  } else {" +
+                                              "    setTimeout(check, 50);" +
+                                              "  }" +
+                                              "})();";
+
+    /*
+     * Defines a readProperty(element, type, name) function that reads a single
+     * element property. The rect of an element is returned as a list of x, y,
+     * width and height in page coordinates. See ElementProperty for the types.
+     */
+
+    private static final String PROPERTY_READER = "function readProperty(element, type, name) {" +
+                                                  "  function isDisplayed() {" +
+                                                  "    var style = window.getComputedStyle(element);" +
+                                                  "    return element.getClientRects().length > 0 &&" +
+                                                  "           style.visibility !== 'hidden' && style.visibility !== 'collapse' &&" +
+                                                  "           style.opacity !== '0';" +
+                                                  "  }" +
+                                                  "  if (type === 'text') {" +
+                                                  "    return isDisplayed() ? (element.innerText || '').trim() : '';" +
+                                                  "  } else if (type === 'tagName') {" +
+                                                  "    return element.tagName.toLowerCase();" +
+                                                  "  } else if (type === 'attribute') {" +
+                                                  "    var property = element[name];" +
+                                                  "    if (property !== undefined && property !== null &&" +
+                                                  "        typeof property !== 'object' && typeof property !== 'function') {" +
+                                                  "      return String(property);" +
+                                                  "    }" +
+                                                  "    return element.getAttribute(name);" +
+                                                  "  } else if (type === 'displayed') {" +
+                                                  "    return isDisplayed();" +
+                                                  "  } else if (type === 'enabled') {" +
+                                                  "    return !element.disabled;" +
+                                                  "  } else if (type === 'selected') {" +
+                                                  "    return !!(element.checked || element.selected);" +
+                                                  "  } else if (type === 'rect') {" +
+                                                  "    var r = element.getBoundingClientRect();" +
+                                                  "    return [r.left + window.pageXOffset, r.top + window.pageYOffset, r.width, r.height];" +
+                                                  "  }" +
+                                                  "  return null;" +
+                                                  "}";
+
+    /*
+     * Read any number of properties of the given element and return them as a list
+     * in the same order as they were requested. Each requested property is a pair of
+     * the property type and an optional name (e.g. for attributes).
+     * Arguments: element, list of [type, name] pairs.
+     */
+
+    static final String READ_PROPERTIES = PROPERTY_READER +
+                                          "var element = arguments[0], properties = arguments[1], values = [];" +
+                                          "for (var i = 0; i < properties.length; i++) {" +
+                                          "  values.push(readProperty(element, properties[i][0], properties[i][1]));" +
+                                          "}" +
+                                          "return values;";
+
+    /*
+     * Read any number of properties of each of the given elements and return them
+     * as a list of columns, one per requested property, each holding the values of
+     * that property for every element in order.
+     * Arguments: list of elements, list of [type, name] pairs.
+     */
+
+    static final String READ_COLUMNS = PROPERTY_READER +
+                                       "var elements = arguments[0], properties = arguments[1], columns = [];" +
+                                       "for (var i = 0; i < properties.length; i++) {" +
+                                       "  var column = [];" +
+                                       "  for (var j = 0; j < elements.length; j++) {" +
+                                       "    column.push(readProperty(elements[j], properties[i][0], properties[i][1]));" +
+                                       "  }" +
+                                       "  columns.push(column);" +
+                                       "}" +
+                                       "return columns;";
+
+    /*
+     * Find the elements matching each of the given queries relative to the given
+     * root element and read the given properties of every match. Each query is a
+     * pair of a strategy (see toQuery) and a value. For each query a pair of the
+     * list of matched elements and the list of their property values is returned.
+     * Arguments: root element, list of [strategy, value] pairs, list of [type, name] pairs.
+     */
+
+    static final String HYDRATE_CHILDREN = PROPERTY_READER +
+                                           "var root = arguments[0], queries = arguments[1], properties = arguments[2], results = [];" +
+                                           "function find(strategy, value) {" +
+                                           "  if (strategy === 'xpath') {" +
+                                           "    var snapshot = document.evaluate(value, root, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), found = [];" +
+                                           "    for (var i = 0; i < snapshot.snapshotLength; i++) {" +
+                                           "      if (snapshot.snapshotItem(i).nodeType === 1) { found.push(snapshot.snapshotItem(i)); }" +
+                                           "    }" +
+                                           "    return found;" +
+                                           "  }" +
+                                           "  var selector = value;" +
+                                           "  if (strategy === 'id') { selector = '#' + CSS.escape(value); }" +
+                                           "  else if (strategy === 'name') { selector = '[name=\"' + CSS.escape(value) + '\"]'; }" +
+                                           "  else if (strategy === 'className') { selector = '.' + CSS.escape(value); }" +
+                                           "  return Array.prototype.slice.call(root.querySelectorAll(selector));" +
+                                           "}" +
+                                           "for (var q = 0; q < queries.length; q++) {" +
+                                           "  var elements = find(queries[q][0], queries[q][1]), values = [];" +
+                                           "  for (var e = 0; e < elements.length; e++) {" +
+                                           "    var row = [];" +
+                                           "    for (var p = 0; p < properties.length; p++) {" +
+                                           "      row.push(readProperty(elements[e], properties[p][0], properties[p][1]));" +
+                                           "    }" +
+                                           "    values.push(row);" +
+                                           "  }" +
+                                           "  results.push([elements, values]);" +
+                                           "}" +
+                                           "return results;";
+
+    /*
+     * Read the origin of the current document along with copies of its local and
+     * session storage. A storage that can't be accessed (e.g. in a sandboxed
+     * document) is returned as null. Arguments: none.
+     */
+
+    static final String READ_STORAGE = "function copy(name) {" +
+                                       "  try {" +
+                                       "    var storage = window[name], values = {};" +
+                                       "    for (var i = 0; i < storage.length; i++) {" +
+                                       "      values[storage.key(i)] = storage.getItem(storage.key(i));" +
+                                       "    }" +
+                                       "    return values;" +
+                                       "  } catch (e) {" +
+                                       "    return null;" +
+                                       "  }" +
+                                       "}" +
+                                       "return [window.location.origin, copy('localStorage'), copy('sessionStorage')];";
+
+    /*
+     * Replace the contents of the local and session storage of the current document
+     * with the given values. Arguments: local storage map, session storage map.
+     */
+
+    static final String WRITE_STORAGE = "function write(storage, values) {" +
+                                        "  storage.clear();" +
+                                        "  for (var key in values) {" +
+                                        "    if (Object.prototype.hasOwnProperty.call(values, key)) { storage.setItem(key, values[key]); }" +
+                                        "  }" +
+                                        "}" +
+                                        "write(window.localStorage, arguments[0]);" +
+                                        "write(window.sessionStorage, arguments[1]);";
+
+    private static final String[] QUERY_STRATEGIES = {"id", "name", "className", "cssSelector", "xpath", "tagName"};
+
+    /**
+     * @param element the {@link WebElement} to find an executor for.
+     *                May be null.
+     *
+     * @return an optional containing the {@link JavascriptExecutor} that owns the given
+     * element or an empty optional if the element doesn't expose a web driver that can
+     * execute JavaScript.
+     */
+    static Optional<JavascriptExecutor> getExecutor(WebElement element) {
+        if (element instanceof WrapsDriver) {
+            return getExecutor(((WrapsDriver) element).getWrappedDriver());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param driver the {@link WebDriver} to find an executor for.
+     *               May be null.
+     *
+     * @return an optional containing the given driver as a {@link JavascriptExecutor} or an
+     * empty optional if the driver cannot execute JavaScript.
+     */
+    static Optional<JavascriptExecutor> getExecutor(WebDriver driver) {
+        if (driver instanceof JavascriptExecutor) {
+            return Optional.of((JavascriptExecutor) driver);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param by the {@link By} to convert.
+     *           May be null.
+     *
+     * @return an optional containing the [strategy, value] query for the given By as
+     * understood by {@link #HYDRATE_CHILDREN} or an empty optional if the By isn't one
+     * of the standard locators that can be evaluated in the browser.
+     */
+    static Optional<List<String>> toQuery(By by) {
+        if (null != by) {
+            String description = by.toString();
+            for (String strategy : QUERY_STRATEGIES) {
+                String prefix = "By." + strategy + ": ";
+                if (description.startsWith(prefix) && description.length() > prefix.length()) {
+                    return Optional.of(Arrays.asList(strategy, description.substring(prefix.length())));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Scripts() {
+        throw new AssertionError("Cannot instantiate a static class");
+    }
+}
@@ -0,0 +1,169 @@
+package com.redfin.selenium;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.redfin.validity.Validity.expect;
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * Static factory of the {@link ExecutorService}s used to drive many patient driver sessions in
+ * parallel, whether as the executor a patient driver creates its web driver on or as the shared
+ * executor of the {@link CommandQueue}s of many drivers.
+ * <p>
+ * Most of the time of a session is spent sleeping between the polls of a patient wait or blocked
+ * on a remote call to the browser so, on a Java runtime that has virtual threads (Java 21 or later),
+ * a session per virtual thread lets a single JVM drive thousands of sessions. The state the
+ * patient types share between threads is guarded by {@link java.util.concurrent.locks.ReentrantLock}s
+ * rather than monitors, so a session that blocks while holding one, e.g. a command queue running a
+ * look-up on the calling thread, doesn't pin the carrier thread of its virtual thread. Monitors
+ * held by the wrapped web driver or by user code are out of the library's control. The library
+ * itself still targets Java 8 so virtual threads are looked up reflectively, and
+ * {@link #newSessionExecutor(String)} falls back to platform threads on an older runtime.
+ */
+public final class SessionExecutors {
+
+    private static final Method OF_VIRTUAL = getVirtualThreadMethod("java.lang.Thread", "ofVirtual");
+    private static final Method NAME = getVirtualThreadMethod("java.lang.Thread$Builder", "name", String.class, long.class);
+    private static final Method FACTORY = getVirtualThreadMethod("java.lang.Thread$Builder", "factory");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = getVirtualThreadMethod("java.util.concurrent.Executors", "newThreadPerTaskExecutor", ThreadFactory.class);
+    private static final boolean VIRTUAL_THREADS_SUPPORTED = isVirtualThreadFactoryAvailable();
+
+    /*
+     * Only intended to be used through the static factory methods so make the
+     * constructor private.
+     */
+
+    private SessionExecutors() {
+        throw new AssertionError("Cannot instantiate static factory class");
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Static factory methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return true if the current Java runtime supports virtual threads, false otherwise.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREADS_SUPPORTED;
+    }
+
+    /**
+     * @param name the String prefix of the names of the threads of the executor. Each thread
+     *             is named with the prefix followed by a counter.
+     *             May not be null or empty.
+     *
+     * @return a new {@link ExecutorService} that runs each task on a new virtual thread.
+     *
+     * @throws IllegalArgumentException if name is null or empty.
+     * @throws IllegalStateException    if the current Java runtime doesn't support virtual threads.
+     */
+    public static ExecutorService newVirtualThreadExecutor(String name) {
+        validate().withMessage("Cannot create an executor with a null or empty thread name")
+                  .that(name)
+                  .isNotEmpty();
+        expect().withMessage("Cannot create a virtual thread executor on a Java runtime without virtual threads")
+                .that(VIRTUAL_THREADS_SUPPORTED)
+                .isTrue();
+        return (ExecutorService) invoke(NEW_THREAD_PER_TASK_EXECUTOR, null, getVirtualThreadFactory(name));
+    }
+
+    /**
+     * @param name the String prefix of the names of the threads of the executor. Each thread
+     *             is named with the prefix followed by a counter.
+     *             May not be null or empty.
+     *
+     * @return a new {@link ExecutorService} that runs each task on a new virtual thread if the
+     * current Java runtime supports them, otherwise a cached pool of daemon platform threads.
+     *
+     * @throws IllegalArgumentException if name is null or empty.
+     */
+    public static ExecutorService newSessionExecutor(String name) {
+        validate().withMessage("Cannot create an executor with a null or empty thread name")
+                  .that(name)
+                  .isNotEmpty();
+        if (VIRTUAL_THREADS_SUPPORTED) {
+            return newVirtualThreadExecutor(name);
+        }
+        AtomicLong counter = new AtomicLong();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, name + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private static methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Returns the public method with the given name and parameter types of the class with
+     * the given name or null if either doesn't exist on the current Java runtime.
+     */
+
+    private static Method getVirtualThreadMethod(String className,
+                                                 String methodName,
+                                                 Class<?>... parameterTypes) {
+        try {
+            return Class.forName(className).getMethod(methodName, parameterTypes);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Virtual threads are a preview feature on Java 19 and 20 where creating one throws an
+     * unsupported operation exception unless previews are enabled, so try to create a
+     * thread factory rather than only checking that the methods exist.
+     */
+
+    private static boolean isVirtualThreadFactoryAvailable() {
+        if (null == OF_VIRTUAL || null == NAME || null == FACTORY || null == NEW_THREAD_PER_TASK_EXECUTOR) {
+            return false;
+        }
+        try {
+            getVirtualThreadFactory("probe-");
+            return true;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /*
+     * Equivalent to Thread.ofVirtual().name(name, 0).factory() on Java 21.
+     */
+
+    private static ThreadFactory getVirtualThreadFactory(String name) {
+        Object builder = invoke(NAME, invoke(OF_VIRTUAL, null), name, 0L);
+        return (ThreadFactory) invoke(FACTORY, builder);
+    }
+
+    /*
+     * Invoke the given method, rethrowing any unchecked exception it throws as is.
+     */
+
+    private static Object invoke(Method method,
+                                 Object target,
+                                 Object... arguments) {
+        try {
+            return method.invoke(target, arguments);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Unable to create a virtual thread executor", cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to create a virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.Cookie;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A SessionState is a serializable snapshot of the state a web site keeps in the browser for
+ * a session: the cookies visible to a document along with the local and session storage of
+ * its origin. It is captured with {@link AbstractPatientDriver#captureSessionState()} and
+ * applied to the same, or another, session with
+ * {@link AbstractPatientDriver#restoreSessionState(SessionState)} so that a state such as
+ * being logged in can be reached without replaying the steps that produced it.
+ */
+public final class SessionState
+        implements Serializable {
+
+    static final long serialVersionUID = 0L;
+
+    private final String origin;
+    private final List<Cookie> cookies;
+    private final Map<String, String> localStorage;
+    private final Map<String, String> sessionStorage;
+
+    /**
+     * Create a new {@link SessionState} instance.
+     *
+     * @param origin         the String origin (scheme, host and port) of the document the state belongs to.
+     *                       May not be null or empty.
+     * @param cookies        the list of {@link Cookie}s of the session.
+     *                       May not be null or contain a null cookie.
+     * @param localStorage   the map of local storage keys to values.
+     *                       May not be null.
+     * @param sessionStorage the map of session storage keys to values.
+     *                       May not be null.
+     *
+     * @throws IllegalArgumentException if any argument is null, if origin is empty or if cookies
+     *                                  contains a null cookie.
+     */
+    public SessionState(String origin,
+                        List<Cookie> cookies,
+                        Map<String, String> localStorage,
+                        Map<String, String> sessionStorage) {
+        this.origin = validate().withMessage("Cannot create a session state with a null or empty origin")
+                                .that(origin)
+                                .isNotEmpty();
+        validate().withMessage("Cannot create a session state with null cookies")
+                  .that(cookies)
+                  .isNotNull();
+        for (Cookie cookie : cookies) {
+            validate().withMessage("Cannot create a session state with a null cookie")
+                      .that(cookie)
+                      .isNotNull();
+        }
+        this.cookies = Collections.unmodifiableList(new ArrayList<>(cookies));
+        this.localStorage = Collections.unmodifiableMap(new LinkedHashMap<>(validate().withMessage("Cannot create a session state with a null local storage")
+                                                                                      .that(localStorage)
+                                                                                      .isNotNull()));
+        this.sessionStorage = Collections.unmodifiableMap(new LinkedHashMap<>(validate().withMessage("Cannot create a session state with a null session storage")
+                                                                                        .that(sessionStorage)
+                                                                                        .isNotNull()));
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return the String origin (scheme, host and port) of the document this state was
+     * captured from. The storage of this state belongs to this origin.
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return the unmodifiable list of {@link Cookie}s of this state.
+     */
+    public List<Cookie> getCookies() {
+        return cookies;
+    }
+
+    /**
+     * @param now the {@link Date} to compare the cookie expiry dates with.
+     *            May not be null.
+     *
+     * @return a list of the cookies of this state that haven't expired at the given date.
+     * Cookies without an expiry date are session cookies and never expire.
+     *
+     * @throws IllegalArgumentException if now is null.
+     */
+    public List<Cookie> getCookies(Date now) {
+        validate().withMessage("Cannot filter cookies with a null date")
+                  .that(now)
+                  .isNotNull();
+        List<Cookie> unexpired = new ArrayList<>(cookies.size());
+        for (Cookie cookie : cookies) {
+            if (null == cookie.getExpiry() || cookie.getExpiry().after(now)) {
+                unexpired.add(cookie);
+            }
+        }
+        return unexpired;
+    }
+
+    /**
+     * @return the unmodifiable map of local storage keys to values of this state.
+     */
+    public Map<String, String> getLocalStorage() {
+        return localStorage;
+    }
+
+    /**
+     * @return the unmodifiable map of session storage keys to values of this state.
+     */
+    public Map<String, String> getSessionStorage() {
+        return sessionStorage;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SessionState)) {
+            return false;
+        }
+        SessionState other = (SessionState) obj;
+        return origin.equals(other.origin) &&
+               cookies.equals(other.cookies) &&
+               localStorage.equals(other.localStorage) &&
+               sessionStorage.equals(other.sessionStorage);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(origin, cookies, localStorage, sessionStorage);
+    }
+
+    @Override
+    public String toString() {
+        // Cookie and storage values are often credentials so only describe their size
+        return String.format("SessionState(origin: %s, cookies: %d, local storage: %d, session storage: %d)",
+                             origin,
+                             cookies.size(),
+                             localStorage.size(),
+                             sessionStorage.size());
+    }
+}
@@ -0,0 +1,75 @@
+package com.redfin.selenium;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A SessionStateStore keeps {@link SessionState}s keyed by a user defined identity, e.g. the
+ * name of the test account a state was captured for. See {@link #inMemory()} and
+ * {@link #directory(Path)} for the provided implementations.
+ */
+public interface SessionStateStore {
+
+    /**
+     * @param identity the String identity the state was saved with.
+     *                 May not be null or empty.
+     *
+     * @return an optional containing the state saved with the given identity or an
+     * empty optional if there is none.
+     *
+     * @throws IllegalArgumentException if identity is null or empty.
+     */
+    Optional<SessionState> load(String identity);
+
+    /**
+     * Save the given state with the given identity, replacing any state previously
+     * saved with it.
+     *
+     * @param identity the String identity to save the state with.
+     *                 May not be null or empty.
+     * @param state    the {@link SessionState} to save.
+     *                 May not be null.
+     *
+     * @throws IllegalArgumentException if identity is null or empty or if state is null.
+     */
+    void save(String identity,
+              SessionState state);
+
+    /**
+     * Remove the state saved with the given identity, if any.
+     *
+     * @param identity the String identity the state was saved with.
+     *                 May not be null or empty.
+     *
+     * @throws IllegalArgumentException if identity is null or empty.
+     */
+    void remove(String identity);
+
+    /**
+     * @return a new store that keeps states in memory. It can be shared by every driver
+     * of a test run and is safe to use from multiple threads.
+     */
+    static SessionStateStore inMemory() {
+        return new InMemorySessionStateStore();
+    }
+
+    /**
+     * @param directory the {@link Path} of the directory to keep the state files in.
+     *                  It is created when the first state is saved if it doesn't exist.
+     *                  May not be null.
+     *
+     * @return a new store that keeps each state in a file, within the given directory,
+     * named after its identity. States saved this way outlive the JVM so they can be
+     * reused by later test runs, as long as the cookies haven't expired.
+     *
+     * @throws IllegalArgumentException if directory is null.
+     */
+    static SessionStateStore directory(Path directory) {
+        validate().withMessage("Cannot create a session state store with a null directory")
+                  .that(directory)
+                  .isNotNull();
+        return new FileSessionStateStore(directory);
+    }
+}
@@ -0,0 +1,141 @@
+package com.redfin.selenium;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The {@link PatientListener} a patient driver opens the spans of its {@link PatientTracer} through.
+ * Each before callback opens a span and its after callback closes it. Since both are called on the
+ * same thread the open spans are kept in a stack per thread, whose top is the span the next one is
+ * a child of: an action holds its attempts, an attempt the waits, commands and look-ups it makes, and
+ * so on.
+ */
+final class TracingPatientListener
+ implements PatientListener {
+
+    private final PatientTracer tracer;
+    private final ThreadLocal<Deque<PatientTracer.Span>> openSpans = ThreadLocal.withInitial(ArrayDeque::new);
+
+    TracingPatientListener(PatientTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void beforeLookup(String description) {
+        open("lookup", description);
+    }
+
+    @Override
+    public void afterLookup(String description,
+                            int found,
+                            RuntimeException failure) {
+        pop(failure).setAttribute("found", found)
+                    .close();
+    }
+
+    @Override
+    public void beforeWait(String description,
+                           Duration timeout) {
+        open("wait", description);
+    }
+
+    @Override
+    public void beforePoll(String description,
+                           int attempt) {
+        open("poll", description).setAttribute("attempt", attempt);
+    }
+
+    @Override
+    public void onPoll(String description,
+                       int attempt,
+                       boolean successful) {
+        pop(null).close();
+    }
+
+    @Override
+    public void afterWait(String description,
+                          int polls,
+                          Duration elapsed,
+                          boolean timedOut) {
+        pop(null).setAttribute("polls", polls)
+                 .setAttribute("timedOut", timedOut)
+                 .close();
+    }
+
+    @Override
+    public void beforeAction(String description) {
+        open("action", description);
+    }
+
+    @Override
+    public void afterAction(String description,
+                            RuntimeException failure) {
+        pop(failure).close();
+    }
+
+    @Override
+    public void beforeAttempt(String description,
+                              int attempt) {
+        PatientTracer.Span action = openSpans.get().peek();
+        if (null != action) {
+            action.setAttribute("attempts", attempt);
+        }
+        open("attempt", description).setAttribute("attempt", attempt);
+    }
+
+    @Override
+    public void afterAttempt(String description,
+                             int attempt,
+                             RuntimeException failure) {
+        pop(failure).close();
+    }
+
+    @Override
+    public void beforeCommand(String description,
+                              CommandScope.CommandType type) {
+        open("command", description).setAttribute("type", type.toString());
+    }
+
+    @Override
+    public void afterCommand(String description,
+                             CommandScope.CommandType type,
+                             RuntimeException failure) {
+        pop(failure).close();
+    }
+
+    @Override
+    public void beforeInitialization(Class<?> pageObjectClass) {
+        open("initialization", pageObjectClass.getName());
+    }
+
+    @Override
+    public void afterInitialization(Class<?> pageObjectClass,
+                                    RuntimeException failure) {
+        pop(failure).close();
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private PatientTracer.Span open(String name,
+                                    String description) {
+        PatientTracer.Span span = tracer.startSpan(name, description);
+        openSpans.get().push(span);
+        return span;
+    }
+
+    /*
+     * Remove the innermost open span of the current thread, recording the
+     * failure it ended with if any, for the caller to add to and close.
+     */
+
+    private PatientTracer.Span pop(RuntimeException failure) {
+        PatientTracer.Span span = openSpans.get().pop();
+        if (null != failure) {
+            span.setAttribute("exception", failure.getClass().getName());
+        }
+        return span;
+    }
+}
@@ -0,0 +1,55 @@
+package com.redfin.selenium;
+
+/**
+ * A {@link RuntimeException} that is thrown by a wait, or an element action,
+ * of a patient driver whose {@link CancellationToken} has been cancelled.
+ */
+public final class WaitCancelledException
+           extends RuntimeException {
+
+    static final long serialVersionUID = 0L;
+
+    /**
+     * Create a new {@link WaitCancelledException} with a null
+     * message and cause.
+     */
+    public WaitCancelledException() {
+        super();
+    }
+
+    /**
+     * Create a new {@link WaitCancelledException} with the given message
+     * and a null cause.
+     *
+     * @param message the String message for the exception.
+     *                May be null.
+     */
+    public WaitCancelledException(String message) {
+        super(message);
+    }
+
+    /**
+     * Create a new {@link WaitCancelledException} with the given cause
+     * and a null message.
+     *
+     * @param cause the {@link Throwable} cause of the exception.
+     *              May be null.
+     */
+    public WaitCancelledException(Throwable cause) {
+        super(cause);
+    }
+
+    /**
+     * Create a new {@link WaitCancelledException} with the given
+     * message and cause.
+     *
+     * @param message the String message for the exception.
+     *                May be null.
+     * @param cause   the {@link Throwable} cause of the exception.
+     *                May be null.
+     */
+    public WaitCancelledException(String message,
+                                  Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,500 @@
+package com.redfin.selenium;
+
+import com.redfin.patience.PatientExecutionResult;
+import com.redfin.patience.PatientWait;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static com.redfin.validity.Validity.expect;
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A WaitScheduler is a hashed timer wheel, driven by a single thread, that runs tasks after a
+ * delay. It lets the patient waits of many sessions share that one thread for the time between
+ * their polls rather than each sleeping a thread of its own, see {@link #poll(PatientWait, Duration, Executor, BooleanSupplier)}.
+ * <p>
+ * Time is divided into ticks and the wheel into a fixed number of buckets. A task is put in the
+ * bucket of the tick its delay ends on, along with the number of turns of the wheel left before it
+ * is due, so scheduling and cancelling are constant time no matter how many tasks are pending.
+ * The price is that tasks run up to a tick late, so the tick duration should be small compared
+ * to the delays between polls. Tasks are run on the thread of the wheel and should only hand off
+ * work to another executor.
+ * <p>
+ * Only the asynchronous waits of patient elements, {@code isPresentAsync} and {@code isAbsentAsync},
+ * are run on a scheduler. The synchronous waits, e.g. {@code get()} of an element locator or
+ * {@code isPresent()} of an element, have to block their caller until they have a result anyway,
+ * so they keep sleeping the calling thread between polls as their {@link PatientWait} dictates.
+ * To drive many sessions with synchronous waits run them on virtual threads, see {@link SessionExecutors}.
+ * <p>
+ * Like the {@link WebDriverPool} a scheduler is safe to use from multiple threads. The
+ * {@link #getQueueDepth()} and {@link #getLastLag()}/{@link #getMaxLag()} methods report how many
+ * tasks are pending and how late the wheel is running them.
+ */
+public final class WaitScheduler
+        implements AutoCloseable {
+
+    private static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(10);
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final ReentrantLock SHARED_LOCK = new ReentrantLock();
+
+    private static volatile WaitScheduler shared = null;
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout>[] buckets;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final LongSupplier nanoTime;
+    private final long startNanos;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private final Thread thread;
+
+    private volatile long lastLagNanos = 0;
+    private volatile boolean closed = false;
+    private long tick = 0;
+
+    /**
+     * Create a new {@link WaitScheduler} instance with a thread of its own.
+     *
+     * @param tickDuration the Duration of a tick of the wheel. Tasks run up to this much
+     *                     later than their delay.
+     *                     May not be null, zero or negative.
+     * @param wheelSize    the int number of buckets of the wheel. It is rounded up to a power
+     *                     of two. Delays longer than the wheel size times the tick duration
+     *                     take more than a turn of the wheel.
+     *                     May not be less than 1.
+     *
+     * @throws IllegalArgumentException if tickDuration is null, zero or negative or if wheelSize
+     *                                  is less than 1.
+     */
+    public WaitScheduler(Duration tickDuration,
+                         int wheelSize) {
+        this(tickDuration, wheelSize, System::nanoTime, true);
+    }
+
+    /*
+     * Tests drive the wheel with a fake clock and calls to advance() rather than
+     * a thread, so both are configurable at package private visibility.
+     */
+
+    WaitScheduler(Duration tickDuration,
+                  int wheelSize,
+                  LongSupplier nanoTime,
+                  boolean startThread) {
+        validate().withMessage("Cannot create a wait scheduler with a null, zero or negative tick duration")
+                  .that(tickDuration)
+                  .isStrictlyPositive();
+        validate().withMessage("Cannot create a wait scheduler with a wheel size less than 1")
+                  .that(wheelSize)
+                  .isAtLeast(1);
+        this.tickNanos = tickDuration.toNanos();
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.buckets = newBuckets(size);
+        this.nanoTime = validate().withMessage("Cannot create a wait scheduler with a null clock")
+                                  .that(nanoTime)
+                                  .isNotNull();
+        this.startNanos = nanoTime.getAsLong();
+        if (startThread) {
+            this.thread = new Thread(this::run, "wait-scheduler");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        } else {
+            this.thread = null;
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Static factory methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return the scheduler shared by every patient driver that hasn't been given one of its own.
+     * It is created the first time it is needed with a tick of 10 milliseconds and a wheel of 512
+     * buckets and runs on a daemon thread for the life of the JVM.
+     */
+    public static WaitScheduler shared() {
+        WaitScheduler scheduler = shared;
+        if (null == scheduler) {
+            SHARED_LOCK.lock();
+            try {
+                scheduler = shared;
+                if (null == scheduler) {
+                    scheduler = new WaitScheduler(DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+                    shared = scheduler;
+                }
+            } finally {
+                SHARED_LOCK.unlock();
+            }
+        }
+        return scheduler;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * Run the given task on the thread of this scheduler once the given delay has passed.
+     *
+     * @param task  the Runnable to run. Any exception it throws is ignored.
+     *              May not be null.
+     * @param delay the Duration to wait before running the task.
+     *              May not be null or negative.
+     *
+     * @return the {@link Timeout} of the scheduled task, which can be used to cancel it.
+     *
+     * @throws IllegalArgumentException if task is null or if delay is null or negative.
+     * @throws IllegalStateException    if this scheduler is closed.
+     */
+    public Timeout schedule(Runnable task,
+                            Duration delay) {
+        validate().withMessage("Cannot schedule a null task")
+                  .that(task)
+                  .isNotNull();
+        validate().withMessage("Cannot schedule a task with a null or negative delay")
+                  .that(delay)
+                  .isGreaterThanOrEqualToZero();
+        expect().withMessage("Cannot schedule a task with a closed wait scheduler")
+                .that(closed)
+                .isFalse();
+        Timeout timeout = new Timeout(task, nanoTime.getAsLong() - startNanos + delay.toNanos());
+        queueDepth.incrementAndGet();
+        added.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Patiently poll with the given attempt, like the given {@link PatientWait} would, except that
+     * the time between attempts is spent on this scheduler rather than sleeping a thread. After the
+     * initial delay of the wait each attempt is run on the given executor, through the execution
+     * handler of the wait. As soon as an attempt returns true the returned future completes with
+     * true. Otherwise the next attempt is scheduled after the next delay of the wait, until the
+     * timeout is reached and the future completes with false. There is always at least one attempt.
+     *
+     * @param wait     the {@link PatientWait} whose initial delay, delays between attempts and
+     *                 execution handler to use.
+     *                 May not be null.
+     * @param timeout  the Duration to keep polling for.
+     *                 May not be null or negative.
+     * @param executor the {@link Executor} to run the attempts on, e.g. a serial executor when the
+     *                 attempts use something that must only be used by one thread at a time.
+     *                 May not be null.
+     * @param attempt  the BooleanSupplier attempt.
+     *                 May not be null.
+     *
+     * @return a {@link CompletableFuture} that completes with true if an attempt succeeded before
+     * the timeout, false if none did, or exceptionally if an attempt throws an exception that isn't
+     * ignored by the wait or if the executor rejects an attempt.
+     *
+     * @throws IllegalArgumentException if any argument is null or if timeout is negative.
+     * @throws IllegalStateException    if this scheduler is closed.
+     */
+    public CompletableFuture<Boolean> poll(PatientWait wait,
+                                           Duration timeout,
+                                           Executor executor,
+                                           BooleanSupplier attempt) {
+        validate().withMessage("Cannot poll with a null wait")
+                  .that(wait)
+                  .isNotNull();
+        validate().withMessage("Cannot poll with a null or negative timeout")
+                  .that(timeout)
+                  .isGreaterThanOrEqualToZero();
+        validate().withMessage("Cannot poll with a null executor")
+                  .that(executor)
+                  .isNotNull();
+        validate().withMessage("Cannot poll with a null attempt")
+                  .that(attempt)
+                  .isNotNull();
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        Poll poll = new Poll(wait, nanoTime.getAsLong() + timeout.toNanos(), executor, attempt, future);
+        schedule(poll::runAttempt, wait.getInitialDelay());
+        return future;
+    }
+
+    /**
+     * @return the int number of scheduled tasks that are neither run nor cancelled yet.
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * @return the Duration between when the most recently run task was due and when it was run.
+     */
+    public Duration getLastLag() {
+        return Duration.ofNanos(lastLagNanos);
+    }
+
+    /**
+     * @return the longest Duration between when a task was due and when it was run.
+     */
+    public Duration getMaxLag() {
+        return Duration.ofNanos(maxLagNanos.get());
+    }
+
+    /**
+     * Stop the thread of this scheduler. Pending tasks, including the delays between the attempts
+     * of running polls, are never run so a scheduler should only be closed once its polls have
+     * completed. The {@link #shared()} scheduler can't be closed. Calling this more than once has no further effect.
+     *
+     * @throws IllegalStateException if this is the shared scheduler.
+     */
+    @Override
+    public void close() {
+        expect().withMessage("Cannot close the shared wait scheduler")
+                .that(this == shared)
+                .isFalse();
+        closed = true;
+        if (null != thread) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WaitScheduler(tick: %s, buckets: %d, queue depth: %d)",
+                             Duration.ofNanos(tickNanos),
+                             buckets.length,
+                             getQueueDepth());
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Package private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Process every tick that has ended by the current time, running the tasks
+     * that are due. Only ever called by one thread at a time, the thread of the
+     * wheel or a test.
+     */
+
+    void advance() {
+        long elapsed = nanoTime.getAsLong() - startNanos;
+        while ((tick + 1) * tickNanos <= elapsed) {
+            transferAdded();
+            expireBucket(buckets[(int) (tick & mask)], elapsed);
+            tick++;
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * The body of the wheel thread, sleep until the end of the current tick
+     * and then process it.
+     */
+
+    private void run() {
+        while (!closed) {
+            long sleepNanos = (tick + 1) * tickNanos - (nanoTime.getAsLong() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    // Interrupted by close
+                    return;
+                }
+            }
+            advance();
+        }
+    }
+
+    /*
+     * Newly scheduled tasks are queued by the scheduling threads and only put in
+     * their bucket by the wheel thread so that the buckets need no locking. A task
+     * goes in the bucket of the first tick that ends at or after its deadline, or of
+     * the current tick if that deadline has already passed.
+     */
+
+    private void transferAdded() {
+        Timeout timeout;
+        while (null != (timeout = added.poll())) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long dueTick = Math.max((timeout.deadlineNanos - 1) / tickNanos, tick);
+            timeout.remainingRounds = (dueTick - tick) / buckets.length;
+            buckets[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void expireBucket(Queue<Timeout> bucket,
+                              long elapsed) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.isCancelled()) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                if (timeout.expire()) {
+                    recordLag(Math.max(0, elapsed - timeout.deadlineNanos));
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException ignore) {
+                        // A failing task must not stop the wheel
+                    }
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    private void recordLag(long lagNanos) {
+        lastLagNanos = lagNanos;
+        maxLagNanos.accumulateAndGet(lagNanos, Math::max);
+    }
+
+    /*
+     * An array of a generic type can only be created raw, so the unchecked
+     * conversion is kept to this method.
+     */
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Queue<Timeout>[] newBuckets(int size) {
+        Queue<Timeout>[] buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new LinkedList<>();
+        }
+        return buckets;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * A Timeout is a handle to a task scheduled on a {@link WaitScheduler}.
+     */
+    public final class Timeout {
+
+        private final Runnable task;
+        private final long deadlineNanos;
+        private final AtomicBoolean done = new AtomicBoolean(false);
+
+        private volatile boolean cancelled = false;
+
+        // Only used by the wheel thread
+        private long remainingRounds = 0;
+
+        private Timeout(Runnable task,
+                        long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Cancel the task so that it is never run, unless it has already been run.
+         *
+         * @return true if the task was cancelled or false if it had already been run or cancelled.
+         */
+        public boolean cancel() {
+            if (done.compareAndSet(false, true)) {
+                cancelled = true;
+                queueDepth.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return true if the task has been cancelled, false otherwise.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private boolean expire() {
+            if (done.compareAndSet(false, true)) {
+                queueDepth.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /*
+     * The state of a single call to poll. Attempts run on the given executor and
+     * the delays between them are timeouts on the wheel.
+     */
+
+    private final class Poll {
+
+        private final PatientWait wait;
+        private final long deadlineNanos;
+        private final Executor executor;
+        private final BooleanSupplier attempt;
+        private final CompletableFuture<Boolean> future;
+        private final Supplier<Duration> delays;
+
+        private Poll(PatientWait wait,
+                     long deadlineNanos,
+                     Executor executor,
+                     BooleanSupplier attempt,
+                     CompletableFuture<Boolean> future) {
+            this.wait = wait;
+            this.deadlineNanos = deadlineNanos;
+            this.executor = executor;
+            this.attempt = attempt;
+            this.future = future;
+            this.delays = wait.getDelaySupplierFactory().create();
+        }
+
+        private void runAttempt() {
+            if (future.isDone()) {
+                // Cancelled by the caller
+                return;
+            }
+            try {
+                executor.execute(this::attempt);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void attempt() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                PatientExecutionResult<Boolean> result = wait.getExecutionHandler()
+                                                             .execute(attempt::getAsBoolean, Boolean.TRUE::equals);
+                if (result.isSuccess()) {
+                    future.complete(true);
+                    return;
+                }
+                long remaining = deadlineNanos - nanoTime.getAsLong();
+                if (remaining <= 0) {
+                    future.complete(false);
+                    return;
+                }
+                Duration delay = delays.get();
+                schedule(this::runAttempt, delay.toNanos() < remaining ? delay : Duration.ofNanos(remaining));
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,679 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static com.redfin.validity.Validity.expect;
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A WebDriverPool keeps a bounded number of web driver sessions so that they can be reused
+ * by the patient drivers of many tests instead of each test paying for a browser start up.
+ * Sessions are handed out as {@link Lease}s, which are themselves a {@link Supplier} that can be
+ * given to the constructor of a patient driver. A lease only takes a session from the pool the
+ * first time it is asked for one, matching the lazy initialization of the patient driver, and
+ * gives it back when closed.
+ * <p>
+ * When a session is given back it is reset (by default the storage of the current origin and
+ * the cookies are cleared, every other window is closed, the implicit wait is set back to the one
+ * sessions are started with and it is navigated to a blank page) and health checked (by default
+ * a single cheap command must succeed). A session that fails either is quit rather than reused.
+ * Idle sessions that haven't been used for longer than the max idle duration are quit as well.
+ * <p>
+ * Unlike the rest of the library a pool is safe to use from multiple threads, which is the point
+ * of sharing sessions between parallel tests. Each leased session should still only be used by
+ * one thread at a time.
+ *
+ * @param <D> the type of {@link WebDriver} in the pool.
+ */
+public final class WebDriverPool<D extends WebDriver>
+        implements AutoCloseable {
+
+    private static final String BLANK_PAGE = "about:blank";
+    private static final String CLEAR_STORAGE = "try { window.localStorage.clear(); } catch (e) {}" +
+                                                "try { window.sessionStorage.clear(); } catch (e) {}";
+
+    private final Supplier<D> webDriverSupplier;
+    private final int maxSize;
+    private final int minIdle;
+    private final Duration maxIdle;
+    private final Duration leaseTimeout;
+    private final Duration implicitWait;
+    private final Consumer<D> reset;
+    private final Predicate<D> healthCheck;
+    private final Executor warmUpExecutor;
+    private final LongSupplier nanoTime;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<IdleSession<D>> idleSessions = new ArrayDeque<>();
+
+    private int size = 0;
+    private int starting = 0;
+    private boolean closed = false;
+
+    /*
+     * Only intended to be created by the builder so make the visibility
+     * package private.
+     */
+
+    WebDriverPool(Builder<D> builder) {
+        this.webDriverSupplier = builder.webDriverSupplier;
+        this.maxSize = builder.maxSize;
+        this.minIdle = builder.minIdle;
+        this.maxIdle = builder.maxIdle;
+        this.leaseTimeout = builder.leaseTimeout;
+        this.implicitWait = builder.implicitWait;
+        this.reset = null == builder.reset ? this::resetSession : builder.reset;
+        this.healthCheck = builder.healthCheck;
+        this.warmUpExecutor = builder.warmUpExecutor;
+        this.nanoTime = builder.nanoTime;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Static factory methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @param webDriverSupplier the {@link Supplier} used to start new web driver sessions.
+     *                          May not be null. Should never return null.
+     * @param <D>               the type of {@link WebDriver} in the pool.
+     *
+     * @return a new {@link Builder} for a pool of sessions started by the given supplier.
+     *
+     * @throws IllegalArgumentException if webDriverSupplier is null.
+     */
+    public static <D extends WebDriver> Builder<D> builder(Supplier<D> webDriverSupplier) {
+        return new Builder<>(validate().withMessage("Cannot create a web driver pool with a null web driver supplier")
+                                       .that(webDriverSupplier)
+                                       .isNotNull());
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @return a new, lazy, {@link Lease} on a session of this pool. No session is taken from
+     * the pool until the first call to {@link Lease#get()}.
+     */
+    public Lease<D> newLease() {
+        return new Lease<>(this);
+    }
+
+    /**
+     * Start new sessions, with the warm up executor of this pool, until the number of idle
+     * sessions plus the number of sessions being started reaches the min idle count of this
+     * pool, without exceeding its max size. With the default executor the sessions are started
+     * one after the other by the calling thread. A session that fails to start is skipped.
+     */
+    public void warmUp() {
+        int toStart;
+        lock.lock();
+        try {
+            expect().withMessage("Cannot warm up a closed web driver pool")
+                    .that(closed)
+                    .isFalse();
+            toStart = Math.min(minIdle - idleSessions.size() - starting, maxSize - size);
+            // Reserve the slots now so that concurrent leases don't exceed the max size
+            size += Math.max(0, toStart);
+            starting += Math.max(0, toStart);
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < toStart; i++) {
+            warmUpExecutor.execute(this::startIdleSession);
+        }
+    }
+
+    /**
+     * Quit every idle session that hasn't been used for longer than the max idle duration of
+     * this pool. This is also done whenever a session is leased or given back, so it only needs
+     * to be called by users that want idle sessions quit while the pool isn't being used.
+     */
+    public void evictIdleSessions() {
+        quitAll(removeExpiredIdleSessions());
+    }
+
+    /**
+     * @return the number of sessions currently in this pool, whether idle, leased or being started.
+     */
+    public int getSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of idle sessions currently in this pool.
+     */
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idleSessions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close this pool, quitting every idle session. Sessions that are currently leased are quit
+     * when they are given back. Leasing a session from a closed pool is not allowed.
+     */
+    @Override
+    public void close() {
+        List<D> toQuit = new ArrayList<>();
+        lock.lock();
+        try {
+            closed = true;
+            for (IdleSession<D> idle : idleSessions) {
+                toQuit.add(idle.driver);
+            }
+            size -= idleSessions.size();
+            idleSessions.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        quitAll(toQuit);
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Private instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /*
+     * Take the most recently used idle session, start a new one if the pool
+     * isn't full, or wait for a session to be given back. Sessions are only
+     * started and quit outside of the lock.
+     */
+
+    private D take() {
+        quitAll(removeExpiredIdleSessions());
+        long deadline = nanoTime.getAsLong() + leaseTimeout.toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                expect().withMessage("Cannot lease a session from a closed web driver pool")
+                        .that(closed)
+                        .isFalse();
+                if (!idleSessions.isEmpty()) {
+                    return idleSessions.removeFirst().driver;
+                }
+                if (size < maxSize) {
+                    size++;
+                    break;
+                }
+                long remaining = deadline - nanoTime.getAsLong();
+                if (remaining <= 0) {
+                    throw new IllegalStateException(String.format("Unable to lease a session from a full web driver pool of size [%d] after a timeout of [%s]",
+                                                                  maxSize,
+                                                                  leaseTimeout));
+                }
+                available.await(remaining, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to lease a session", e);
+        } finally {
+            lock.unlock();
+        }
+        return start();
+    }
+
+    /*
+     * Reset and health check the given session and put it back as the most
+     * recently used idle session, or quit it if either fails.
+     */
+
+    private void giveBack(D driver) {
+        boolean healthy;
+        try {
+            reset.accept(driver);
+            healthy = healthCheck.test(driver);
+        } catch (RuntimeException e) {
+            healthy = false;
+        }
+        lock.lock();
+        try {
+            if (healthy && !closed) {
+                idleSessions.addFirst(new IdleSession<>(driver, nanoTime.getAsLong()));
+                available.signal();
+                driver = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (null != driver) {
+            discard(driver);
+        }
+        evictIdleSessions();
+    }
+
+    private void discard(D driver) {
+        lock.lock();
+        try {
+            size--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        quitAll(Collections.singletonList(driver));
+    }
+
+    /*
+     * Start a new session for a slot that has already been counted in
+     * the size of the pool, giving the slot back if the start fails.
+     */
+
+    private D start() {
+        D driver = null;
+        try {
+            driver = expect().withMessage("Received a null web driver from the driver supplier")
+                             .that(webDriverSupplier.get())
+                             .isNotNull();
+            return driver;
+        } finally {
+            if (null == driver) {
+                lock.lock();
+                try {
+                    size--;
+                    available.signal();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void startIdleSession() {
+        D driver = null;
+        try {
+            driver = start();
+        } catch (RuntimeException e) {
+            // The slot has been given back, a later lease will try again
+        }
+        lock.lock();
+        try {
+            starting--;
+            if (null == driver) {
+                return;
+            }
+            if (!closed) {
+                idleSessions.addFirst(new IdleSession<>(driver, nanoTime.getAsLong()));
+                available.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(driver);
+    }
+
+    /*
+     * Idle sessions are kept most recently used first so the expired
+     * ones are always at the end of the deque.
+     */
+
+    private List<D> removeExpiredIdleSessions() {
+        List<D> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            long now = nanoTime.getAsLong();
+            Iterator<IdleSession<D>> iterator = idleSessions.descendingIterator();
+            while (iterator.hasNext()) {
+                IdleSession<D> idle = iterator.next();
+                if (now - idle.idleSince <= maxIdle.toNanos()) {
+                    break;
+                }
+                iterator.remove();
+                expired.add(idle.driver);
+            }
+            size -= expired.size();
+            if (!expired.isEmpty()) {
+                available.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return expired;
+    }
+
+    private static void quitAll(List<? extends WebDriver> drivers) {
+        for (WebDriver driver : drivers) {
+            try {
+                driver.quit();
+            } catch (RuntimeException ignore) {
+                // The session is being thrown away anyway
+            }
+        }
+    }
+
+    /*
+     * The default reset clears the storage of the current origin, which is only
+     * possible before navigating away from it, then the cookies of the session.
+     * Every other window is closed and the implicit wait is set back to the one
+     * the sessions are started with so that the next lease gets a session like a
+     * freshly started one, which is what a patient driver expects.
+     */
+
+    private void resetSession(D driver) {
+        driver.switchTo().defaultContent();
+        Scripts.getExecutor(driver).ifPresent(executor -> executor.executeScript(CLEAR_STORAGE));
+        driver.manage().deleteAllCookies();
+        String current = driver.getWindowHandle();
+        Set<String> windows = driver.getWindowHandles();
+        if (windows.size() > 1) {
+            for (String window : windows) {
+                if (!window.equals(current)) {
+                    driver.switchTo().window(window);
+                    driver.close();
+                }
+            }
+            driver.switchTo().window(current);
+        }
+        driver.manage().timeouts().implicitlyWait(implicitWait.toMillis(), TimeUnit.MILLISECONDS);
+        driver.get(BLANK_PAGE);
+    }
+
+    private static boolean isSessionHealthy(WebDriver driver) {
+        return null != driver.getWindowHandle();
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * A Lease is a {@link Supplier} of a single session of a {@link WebDriverPool}. The session
+     * is taken from the pool the first time {@link #get()} is called and the same session is
+     * returned by every later call. Closing the lease gives the session back to the pool.
+     * A lease is intended to be given to the constructor of a single patient driver and closed
+     * once that patient driver is no longer used.
+     *
+     * @param <D> the type of {@link WebDriver} in the pool.
+     */
+    public static final class Lease<D extends WebDriver>
+                   implements Supplier<D>,
+                              AutoCloseable {
+
+        private final WebDriverPool<D> pool;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private D driver = null;
+        private boolean closed = false;
+        private boolean discarded = false;
+
+        private Lease(WebDriverPool<D> pool) {
+            this.pool = pool;
+        }
+
+        /**
+         * @return the leased session, taking one from the pool, or starting a new one if the
+         * pool isn't full, if this is the first call. If the pool is full this waits for up to
+         * the lease timeout of the pool for a session to be given back.
+         *
+         * @throws IllegalStateException if this lease has been closed, if the pool is closed,
+         *                               or if no session became available within the lease timeout.
+         */
+        @Override
+        public D get() {
+            // Taking a session can block on the pool or on starting a browser, so use a lock rather
+            // than a monitor which would pin the carrier thread of a virtual thread while waiting
+            lock.lock();
+            try {
+                expect().withMessage("Cannot get a session from a closed lease")
+                        .that(closed)
+                        .isFalse();
+                if (null == driver) {
+                    driver = pool.take();
+                }
+                return driver;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Mark the leased session, if any, as broken so that it is quit when this lease is
+         * closed instead of being given back to the pool.
+         */
+        public void discard() {
+            lock.lock();
+            try {
+                discarded = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Give the leased session, if any, back to the pool. Calling this more than once has
+         * no further effect.
+         */
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (null != driver) {
+                    if (discarded) {
+                        pool.discard(driver);
+                    } else {
+                        pool.giveBack(driver);
+                    }
+                    driver = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A Builder of {@link WebDriverPool} instances.
+     *
+     * @param <D> the type of {@link WebDriver} in the pool.
+     */
+    public static final class Builder<D extends WebDriver> {
+
+        private final Supplier<D> webDriverSupplier;
+
+        private int maxSize = 1;
+        private int minIdle = 0;
+        private Duration maxIdle = Duration.ofMinutes(5);
+        private Duration leaseTimeout = Duration.ofMinutes(1);
+        private Duration implicitWait = Duration.ZERO;
+        private Consumer<D> reset = null;
+        private Predicate<D> healthCheck = WebDriverPool::isSessionHealthy;
+        private Executor warmUpExecutor = Runnable::run;
+        private LongSupplier nanoTime = System::nanoTime;
+
+        private Builder(Supplier<D> webDriverSupplier) {
+            this.webDriverSupplier = webDriverSupplier;
+        }
+
+        /**
+         * @param maxSize the max number of sessions, idle or leased, in the pool. Defaults to 1.
+         *                May not be less than 1.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if maxSize is less than 1.
+         */
+        public Builder<D> withMaxSize(int maxSize) {
+            this.maxSize = validate().withMessage("Cannot create a web driver pool with a max size less than 1")
+                                     .that(maxSize)
+                                     .isAtLeast(1);
+            return this;
+        }
+
+        /**
+         * @param minIdle the number of idle sessions {@link WebDriverPool#warmUp()} starts.
+         *                Defaults to 0.
+         *                May not be negative.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if minIdle is negative.
+         */
+        public Builder<D> withMinIdle(int minIdle) {
+            this.minIdle = validate().withMessage("Cannot create a web driver pool with a negative min idle count")
+                                     .that(minIdle)
+                                     .isAtLeast(0);
+            return this;
+        }
+
+        /**
+         * @param maxIdle the {@link Duration} after which an unused idle session is quit.
+         *                Defaults to 5 minutes.
+         *                May not be null or negative.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if maxIdle is null or negative.
+         */
+        public Builder<D> withMaxIdle(Duration maxIdle) {
+            this.maxIdle = validate().withMessage("Cannot create a web driver pool with a null or negative max idle duration")
+                                     .that(maxIdle)
+                                     .isGreaterThanOrEqualToZero();
+            return this;
+        }
+
+        /**
+         * @param leaseTimeout the {@link Duration} to wait for a session to be given back when
+         *                     the pool is full. Defaults to 1 minute.
+         *                     May not be null or negative.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if leaseTimeout is null or negative.
+         */
+        public Builder<D> withLeaseTimeout(Duration leaseTimeout) {
+            this.leaseTimeout = validate().withMessage("Cannot create a web driver pool with a null or negative lease timeout")
+                                          .that(leaseTimeout)
+                                          .isGreaterThanOrEqualToZero();
+            return this;
+        }
+
+        /**
+         * @param implicitWait the {@link Duration} implicit wait the web driver supplier starts sessions
+         *                     with, zero unless it configures one. The default reset sets it back on every
+         *                     given back session, since a patient driver assumes that a new session has
+         *                     its declared implicit wait.
+         *                     May not be null or negative.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if implicitWait is null or negative.
+         */
+        public Builder<D> withImplicitWait(Duration implicitWait) {
+            this.implicitWait = validate().withMessage("Cannot create a web driver pool with a null or negative implicit wait")
+                                          .that(implicitWait)
+                                          .isGreaterThanOrEqualToZero();
+            return this;
+        }
+
+        /**
+         * @param reset the {@link Consumer} that resets a session when it is given back. A session
+         *              is quit if the reset throws an exception.
+         *              May not be null.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if reset is null.
+         */
+        public Builder<D> withReset(Consumer<D> reset) {
+            this.reset = validate().withMessage("Cannot create a web driver pool with a null reset")
+                                   .that(reset)
+                                   .isNotNull();
+            return this;
+        }
+
+        /**
+         * @param healthCheck the {@link Predicate} that checks a session after it has been reset.
+         *                    A session is quit if the check returns false or throws an exception.
+         *                    May not be null.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if healthCheck is null.
+         */
+        public Builder<D> withHealthCheck(Predicate<D> healthCheck) {
+            this.healthCheck = validate().withMessage("Cannot create a web driver pool with a null health check")
+                                         .that(healthCheck)
+                                         .isNotNull();
+            return this;
+        }
+
+        /**
+         * @param warmUpExecutor the {@link Executor} that starts the sessions of
+         *                       {@link WebDriverPool#warmUp()}. Defaults to the calling thread.
+         *                       May not be null.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if warmUpExecutor is null.
+         */
+        public Builder<D> withWarmUpExecutor(Executor warmUpExecutor) {
+            this.warmUpExecutor = validate().withMessage("Cannot create a web driver pool with a null warm up executor")
+                                            .that(warmUpExecutor)
+                                            .isNotNull();
+            return this;
+        }
+
+        /**
+         * @return a new {@link WebDriverPool} with the values of this builder.
+         *
+         * @throws IllegalArgumentException if the min idle count is greater than the max size.
+         */
+        public WebDriverPool<D> build() {
+            validate().withMessage("Cannot create a web driver pool with a min idle count greater than its max size")
+                      .that(minIdle)
+                      .isAtMost(maxSize);
+            return new WebDriverPool<>(this);
+        }
+
+        /*
+         * Only replaced by tests that need to control the passing of time.
+         */
+
+        Builder<D> withNanoTime(LongSupplier nanoTime) {
+            this.nanoTime = nanoTime;
+            return this;
+        }
+    }
+
+    private static final class IdleSession<D> {
+
+        private final D driver;
+        private final long idleSince;
+
+        private IdleSession(D driver,
+                            long idleSince) {
+            this.driver = driver;
+            this.idleSince = idleSince;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.redfin.selenium;
+
+import org.openqa.selenium.WebElement;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static com.redfin.validity.Validity.validate;
+
+/**
+ * A WidgetList is an unmodifiable list of widgets, one for each element matched by a single
+ * {@link AbstractPatientElementLocator}. It is built by an {@link AbstractPageObjectInitializer}
+ * for fields declared as a {@code List} (or {@code WidgetList}) of a widget type.
+ * <p>
+ * The matching elements are looked up once, the first time the size or any widget of the list is
+ * requested, and that single lookup is shared by every widget. Each widget is only built and
+ * initialized the first time its index is requested and the same widget instance is returned for
+ * that index afterwards. Call {@link #refresh()} to have the next access look the elements up again.
+ *
+ * @param <T> the type of widget in this list.
+ */
+public final class WidgetList<T extends AbstractBaseWidgetObject<?, ?, ?, ?>>
+           extends AbstractList<T>
+        implements RandomAccess {
+
+    private final Source<?, ?, T> source;
+
+    /*
+     * Only intended to be created by the page object initializer so make
+     * the visibility package private.
+     */
+
+    <W extends WebElement, E extends AbstractPatientElement<W, ?, ?, ?>> WidgetList(Supplier<List<W>> lookup,
+                                                                                   IntFunction<E> elementGetter,
+                                                                                   Function<E, T> widgetFactory) {
+        this.source = new Source<>(validate().that(lookup).isNotNull(),
+                                   validate().that(elementGetter).isNotNull(),
+                                   validate().that(widgetFactory).isNotNull());
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Public instance methods
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * @param index the int index of the widget to return.
+     *
+     * @return the widget for the given index, building and initializing it if this is
+     * the first time the index was requested.
+     *
+     * @throws IndexOutOfBoundsException if the index is negative or not less than the size.
+     */
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size()));
+        }
+        return source.getWidget(index);
+    }
+
+    /**
+     * @return the number of matching elements found by the shared lookup. The lookup
+     * is performed if this is the first access since the list was built or refreshed.
+     */
+    @Override
+    public int size() {
+        return source.getLocatedCount();
+    }
+
+    /**
+     * Discard the result of the shared element lookup so that the next access performs a
+     * new one. Widgets that were already built are kept and, if their index is still within
+     * the new size, are pointed at the newly located element for their index.
+     */
+    public void refresh() {
+        source.refresh();
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Helper classes
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private static final class Source<W extends WebElement, E extends AbstractPatientElement<W, ?, ?, ?>, T> {
+
+        private final Supplier<List<W>> lookup;
+        private final IntFunction<E> elementGetter;
+        private final Function<E, T> widgetFactory;
+        private final Map<Integer, T> widgets = new HashMap<>();
+
+        private List<W> located = null;
+
+        private Source(Supplier<List<W>> lookup,
+                       IntFunction<E> elementGetter,
+                       Function<E, T> widgetFactory) {
+            this.lookup = lookup;
+            this.elementGetter = elementGetter;
+            this.widgetFactory = widgetFactory;
+        }
+
+        private int getLocatedCount() {
+            return getLocated().size();
+        }
+
+        private T getWidget(int index) {
+            List<W> elements = getLocated();
+            return widgets.computeIfAbsent(index, i -> widgetFactory.apply(getWarmedElement(i, elements)));
+        }
+
+        private void refresh() {
+            located = null;
+        }
+
+        /*
+         * Perform the shared lookup if necessary and point the widget element of
+         * every already built widget at the newly located element for its index.
+         */
+
+        private List<W> getLocated() {
+            if (null == located) {
+                located = lookup.get();
+                widgets.keySet()
+                       .stream()
+                       .filter(index -> index < located.size())
+                       .forEach(index -> getWarmedElement(index, located));
+            }
+            return located;
+        }
+
+        private E getWarmedElement(int index,
+                                   List<W> elements) {
+            E element = elementGetter.apply(index);
+            element.setCachedElement(elements.get(index));
+            return element;
+        }
+    }
+}
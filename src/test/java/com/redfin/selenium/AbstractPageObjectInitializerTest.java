@@ -13,13 +13,30 @@ import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 @DisplayName("An AbstractPageObjectInitializer")
 final class AbstractPageObjectInitializerTest {
@@ -115,7 +132,7 @@ final class AbstractPageObjectInitializerTest {
         void testPropagatesPageObjectException() {
             String message = "whoops";
             Throwable thrown = Assertions.assertThrows(PageObjectInitializationException.class,
-                                                       () -> new ThrowingPageObjectInitializer(mock(TestPatientDriver.class),
+                                                       () -> new ThrowingPageObjectInitializer(getThrowingDriver(),
                                                                                                () -> new PageObjectInitializationException(message)).initializePage(new PageA()),
                                                        "Should propagate a page object exception");
             Assertions.assertNull(thrown.getCause(), "The thrown exception shouldn't have a set cause");
@@ -127,13 +144,176 @@ final class AbstractPageObjectInitializerTest {
         void testWrapsUnexpectedExceptions() {
             RuntimeException cause = new RuntimeException("message");
             Throwable thrown = Assertions.assertThrows(PageObjectInitializationException.class,
-                                                       () -> new ThrowingPageObjectInitializer(mock(TestPatientDriver.class),
+                                                       () -> new ThrowingPageObjectInitializer(getThrowingDriver(),
                                                                                                () -> cause).initializePage(new PageA()),
                                                        "Should throw a page object exception");
             Assertions.assertEquals(cause, thrown.getCause(), "The thrown exception should have the expected cause.");
         }
     }
 
+    @Nested
+    @DisplayName("with a list of widgets field")
+    final class WidgetListTest {
+
+        @Test
+        @DisplayName("builds a widget list without looking up any elements")
+        void testBuildsWidgetListLazily() {
+            WebDriver webDriver = getWebDriverWithCards(500);
+            WidgetBuildingPageObjectInitializer initializer = new WidgetBuildingPageObjectInitializer(getDriver(webDriver));
+            CardsPage page = new CardsPage();
+            initializer.initializePage(page);
+            verify(webDriver, never()).findElements(any());
+            Assertions.assertAll(() -> Assertions.assertTrue(page.cards instanceof WidgetList, "Should have built a widget list"),
+                                 () -> Assertions.assertEquals(0, initializer.builtWidgets.get(), "Should not have built any widgets"));
+        }
+
+        @Test
+        @DisplayName("shares one lookup and only builds the accessed widgets")
+        void testSharesLookupAndBuildsAccessedWidgets() {
+            WebDriver webDriver = getWebDriverWithCards(500);
+            WidgetBuildingPageObjectInitializer initializer = new WidgetBuildingPageObjectInitializer(getDriver(webDriver));
+            CardsPage page = new CardsPage();
+            initializer.initializePage(page);
+            List<CardWidget> firstThree = page.cards.subList(0, 3);
+            for (CardWidget card : firstThree) {
+                Assertions.assertNotNull(card.title, "Should have initialized the widget fields");
+            }
+            verify(webDriver, times(1)).findElements(any());
+            Assertions.assertAll(() -> Assertions.assertEquals(500, page.cards.size(), "Should have a widget per element"),
+                                 () -> Assertions.assertEquals(3, initializer.builtWidgets.get(), "Should have only built the accessed widgets"),
+                                 () -> Assertions.assertSame(firstThree.get(0), page.cards.get(0), "Should return the same widget for an index"),
+                                 () -> Assertions.assertNotNull(page.cards.get(2).getWidgetElement().getCachedElement(), "Should have warmed the widget element"),
+                                 () -> Assertions.assertThrows(IndexOutOfBoundsException.class, () -> page.cards.get(500)));
+        }
+
+        @Test
+        @DisplayName("looks the elements up again after a refresh")
+        void testLooksUpAgainAfterRefresh() {
+            WebDriver webDriver = getWebDriverWithCards(2);
+            CardsPage page = new CardsPage();
+            new WidgetBuildingPageObjectInitializer(getDriver(webDriver)).initializePage(page);
+            Assumptions.assumeTrue(2 == page.cards.size());
+            ((WidgetList<CardWidget>) page.cards).refresh();
+            Assertions.assertEquals(2, page.cards.size(), "Should have the same size after a refresh");
+            verify(webDriver, times(2)).findElements(any());
+        }
+
+        private WebDriver getWebDriverWithCards(int count) {
+            List<WebElement> cards = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                cards.add(mock(WebElement.class));
+            }
+            WebDriver webDriver = mock(WebDriver.class);
+            when(webDriver.findElements(any())).thenReturn(cards);
+            return webDriver;
+        }
+
+        private TestPatientDriver getDriver(WebDriver webDriver) {
+            return new TestPatientDriver(TestPatientConfig.builder().build(),
+                                         "chrome",
+                                         () -> webDriver);
+        }
+    }
+
+    @Nested
+    @DisplayName("when hydrateWidget(widget, properties) is called")
+    final class HydrateWidgetTest {
+
+        @Test
+        @DisplayName("throws an exception for invalid arguments")
+        void testThrowsForInvalidArguments() {
+            TestPageObjectInitializer initializer = getInstance();
+            Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class,
+                                                               () -> initializer.hydrateWidget(null, ElementProperty.text())),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class,
+                                                               () -> initializer.hydrateWidget(new CardWidget())),
+                                 () -> Assertions.assertThrows(PageObjectInitializationException.class,
+                                                               () -> initializer.hydrateWidget(new CardWidget(), ElementProperty.text())));
+        }
+
+        @Test
+        @DisplayName("reads every child element with a single script and warms their caches")
+        void testHydratesWithSingleScript() {
+            WebDriver webDriver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+            WebElement root = mock(WebElement.class);
+            WebElement title = mock(WebElement.class);
+            when(webDriver.findElements(any())).thenReturn(Collections.singletonList(root));
+            when(((JavascriptExecutor) webDriver).executeScript(any(), any(), any(), any()))
+                    .thenReturn(Arrays.asList(Arrays.asList(Collections.emptyList(), Collections.emptyList()),
+                                              Arrays.asList(Collections.singletonList(title),
+                                                            Collections.singletonList(Arrays.asList("Hello", true)))));
+            CardWidget widget = getInitializedWidget(webDriver, ElementFilters.any());
+            Map<String, ElementSnapshot> snapshots = new TestPageObjectInitializer(widget.driver).hydrateWidget(widget, ElementProperty.text());
+            verify((JavascriptExecutor) webDriver, times(1)).executeScript(any(), any(), any(), any());
+            verify(root, never()).findElements(any());
+            Assertions.assertAll(() -> Assertions.assertEquals(Collections.singleton("title"), snapshots.keySet(), "Should only contain the found child"),
+                                 () -> Assertions.assertEquals("Hello", snapshots.get("title").getText(), "Should have read the text"),
+                                 () -> Assertions.assertSame(title, widget.title.getCachedElement(), "Should have warmed the child cache"));
+        }
+
+        @Test
+        @DisplayName("evaluates the displayed filter in the script")
+        void testEvaluatesDisplayedFilterInScript() {
+            WebDriver webDriver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+            WebElement root = mock(WebElement.class);
+            WebElement hidden = mock(WebElement.class);
+            WebElement title = mock(WebElement.class);
+            when(webDriver.findElements(any())).thenReturn(Collections.singletonList(root));
+            when(root.isDisplayed()).thenReturn(true);
+            when(((JavascriptExecutor) webDriver).executeScript(any(), any(), any(), any()))
+                    .thenReturn(Arrays.asList(Arrays.asList(Collections.emptyList(), Collections.emptyList()),
+                                              Arrays.asList(Arrays.asList(hidden, title),
+                                                            Arrays.asList(Arrays.asList("", false), Arrays.asList("Hello", true)))));
+            CardWidget widget = getInitializedWidget(webDriver, ElementFilters.displayed());
+            Map<String, ElementSnapshot> snapshots = new TestPageObjectInitializer(widget.driver).hydrateWidget(widget, ElementProperty.text());
+            verify(hidden, never()).isDisplayed();
+            verify(title, never()).isDisplayed();
+            Assertions.assertAll(() -> Assertions.assertEquals("Hello", snapshots.get("title").getText(), "Should have skipped the hidden match"),
+                                 () -> Assertions.assertSame(title, widget.title.getCachedElement(), "Should have warmed the child cache"));
+        }
+
+        @Test
+        @DisplayName("reads each child element natively when its filter can't be evaluated in the script")
+        void testHydratesOtherFiltersNatively() {
+            WebDriver webDriver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+            WebElement root = mock(WebElement.class);
+            WebElement title = mock(WebElement.class);
+            when(webDriver.findElements(any())).thenReturn(Collections.singletonList(root));
+            when(root.findElements(By.cssSelector("title"))).thenReturn(Collections.singletonList(title));
+            when(title.getText()).thenReturn("Hello");
+            CardWidget widget = getInitializedWidget(webDriver, Objects::nonNull);
+            Map<String, ElementSnapshot> snapshots = new TestPageObjectInitializer(widget.driver).hydrateWidget(widget, ElementProperty.text());
+            verify((JavascriptExecutor) webDriver, never()).executeScript(any(), any(), any(), any());
+            Assertions.assertEquals("Hello", snapshots.get("title").getText(), "Should have read the text");
+        }
+
+        @Test
+        @DisplayName("reads each child element natively when the driver can't execute JavaScript")
+        void testHydratesNatively() {
+            WebDriver webDriver = mock(WebDriver.class);
+            WebElement root = mock(WebElement.class);
+            WebElement title = mock(WebElement.class);
+            when(webDriver.findElements(any())).thenReturn(Collections.singletonList(root));
+            when(root.findElements(By.cssSelector("title"))).thenReturn(Collections.singletonList(title));
+            when(title.getText()).thenReturn("Hello");
+            CardWidget widget = getInitializedWidget(webDriver, ElementFilters.any());
+            Map<String, ElementSnapshot> snapshots = new TestPageObjectInitializer(widget.driver).hydrateWidget(widget, ElementProperty.text());
+            Assertions.assertAll(() -> Assertions.assertEquals(Collections.singleton("title"), snapshots.keySet(), "Should only contain the found child"),
+                                 () -> Assertions.assertEquals("Hello", snapshots.get("title").getText(), "Should have read the text"));
+        }
+
+        private CardWidget getInitializedWidget(WebDriver webDriver,
+                                                Predicate<WebElement> filter) {
+            TestPatientDriver driver = new TestPatientDriver(TestPatientConfig.builder().withFilter(filter).build(),
+                                                             "chrome",
+                                                             () -> webDriver);
+            CardWidget widget = new CardWidget();
+            widget.driver = driver;
+            new TestPageObjectInitializer(driver).initializeWidget(widget, driver.find(By.id("card")).get());
+            return widget;
+        }
+    }
+
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Test Helpers
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -142,6 +322,12 @@ final class AbstractPageObjectInitializerTest {
         return new TestPageObjectInitializer(mock(TestPatientDriver.class));
     }
 
+    private static TestPatientDriver getThrowingDriver() {
+        return new TestPatientDriver(TestPatientConfig.builder().build(),
+                                     "throwing",
+                                     () -> mock(WebDriver.class));
+    }
+
     private static class ThrowingPageObjectInitializer extends AbstractPageObjectInitializer<WebDriver, WebElement, TestPatientConfig, TestPatientDriver, TestPatientElementLocator, TestPatientElement> {
 
         private final Supplier<RuntimeException> exceptionSupplier;
@@ -178,6 +364,53 @@ final class AbstractPageObjectInitializerTest {
         }
     }
 
+    private static final class WidgetBuildingPageObjectInitializer extends AbstractPageObjectInitializer<WebDriver, WebElement, TestPatientConfig, TestPatientDriver, TestPatientElementLocator, TestPatientElement> {
+
+        private final AtomicInteger builtWidgets = new AtomicInteger(0);
+
+        private WidgetBuildingPageObjectInitializer(TestPatientDriver driver) {
+            super(driver);
+        }
+
+        @Override
+        protected <T extends AbstractBaseWidgetObject<WebElement, TestPatientConfig, TestPatientElementLocator, TestPatientElement>> T buildWidget(Class<T> widgetClass) {
+            builtWidgets.incrementAndGet();
+            try {
+                Constructor<T> constructor = widgetClass.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        protected Class<TestPatientElement> getElementClass() {
+            return TestPatientElement.class;
+        }
+
+        @Override
+        protected Class<TestPatientElementLocator> getElementLocatorClass() {
+            return TestPatientElementLocator.class;
+        }
+
+        @Override
+        protected TestPatientElement buildElement(Field field, FindsElements<WebElement, TestPatientConfig, TestPatientElementLocator, TestPatientElement> findsElements) {
+            return buildElementLocator(field, findsElements).get();
+        }
+
+        @Override
+        protected TestPatientElementLocator buildElementLocator(Field field, FindsElements<WebElement, TestPatientConfig, TestPatientElementLocator, TestPatientElement> findsElements) {
+            return findsElements.find(By.cssSelector(field.getAnnotation(FindByCss.class).value()));
+        }
+    }
+
+    private static final class CardsPage extends TestBasePageObject {
+
+        @FindByCss("card")
+        private final List<CardWidget> cards = null;
+    }
+
     private static class SuperPageA extends TestBasePageObject {
 
         @FindByCss("superFoo")
@@ -232,6 +465,17 @@ final class AbstractPageObjectInitializerTest {
 
     private static final class Widget extends TestBaseWidgetObject {}
 
+    private static final class CardWidget extends TestBaseWidgetObject {
+
+        private TestPatientDriver driver;
+
+        @FindByCss("title")
+        private final TestPatientElement title = null;
+
+        @FindByCss("price")
+        private final TestPatientElement price = null;
+    }
+
     private static final class PageD {
 
         // Not a PageObject class so this should stay null
@@ -4,6 +4,8 @@ import com.redfin.selenium.contracts.FindsElementsTestContract;
 import com.redfin.selenium.contracts.WrappedExecutorTestContract;
 import com.redfin.selenium.implementation.TestPatientConfig;
 import com.redfin.selenium.implementation.TestPatientDriver;
+import com.redfin.selenium.implementation.TestPatientElement;
+import com.redfin.selenium.implementation.TestPatientElementLocator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -13,14 +15,38 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.ArgumentsProvider;
 import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static com.redfin.selenium.TestMocks.getMockConfig;
 import static com.redfin.selenium.TestMocks.getMockDriverSupplier;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 @DisplayName("An AbstractPatientDriver")
 final class AbstractPatientDriverTest {
@@ -102,6 +128,626 @@ final class AbstractPatientDriverTest {
             instance.setCachedDriver(driver);
             Assertions.assertSame(driver, instance.getCachedDriver(), "Should return the given value from the cache");
         }
+
+        @Nested
+        @DisplayName("when managing the implicit wait")
+        final class ImplicitWaitTest {
+
+            @Test
+            @DisplayName("defaults to a zero implicit wait")
+            void testDefaultsToZeroImplicitWait() {
+                Assertions.assertEquals(Duration.ZERO,
+                                        getInstance().getImplicitWait(),
+                                        "Should default to a zero implicit wait");
+            }
+
+            @Test
+            @DisplayName("returns the given implicit wait")
+            void testReturnsGivenImplicitWait() {
+                TestPatientDriver instance = getInstance();
+                Duration implicitWait = Duration.ofSeconds(5);
+                instance.setImplicitWait(implicitWait);
+                Assertions.assertSame(implicitWait,
+                                      instance.getImplicitWait(),
+                                      "Should return the given implicit wait");
+            }
+
+            @Test
+            @DisplayName("throws an exception for a null or negative implicit wait")
+            void testThrowsForInvalidImplicitWait() {
+                TestPatientDriver instance = getInstance();
+                Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class,
+                                                                   () -> instance.setImplicitWait(null),
+                                                                   "Should throw for a null implicit wait"),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class,
+                                                                   () -> instance.setImplicitWait(Duration.ofMillis(-1)),
+                                                                   "Should throw for a negative implicit wait"));
+            }
+
+            @Test
+            @DisplayName("does not send timeout commands when no implicit wait is declared")
+            void testDoesNotSendTimeoutCommandsWithoutImplicitWait() {
+                WebDriver driver = getMockDriver(mock(WebDriver.Timeouts.class));
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                instance.find(By.cssSelector(".foo")).get().isPresent();
+                instance.accept(d -> {});
+                verify(driver, never()).manage();
+            }
+
+            @Test
+            @DisplayName("zeroes the implicit wait only once for repeated look-ups")
+            void testZeroesImplicitWaitOnceForLookups() {
+                WebDriver.Timeouts timeouts = mock(WebDriver.Timeouts.class);
+                WebDriver driver = getMockDriver(timeouts);
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                instance.setImplicitWait(Duration.ofSeconds(10));
+                instance.find(By.cssSelector(".foo")).get().isPresent();
+                instance.find(By.cssSelector(".bar")).get().isPresent();
+                verify(timeouts, times(1)).implicitlyWait(anyLong(), any());
+                verify(timeouts).implicitlyWait(0, TimeUnit.MILLISECONDS);
+            }
+
+            @Test
+            @DisplayName("zeroes the implicit wait for child element look-ups")
+            void testZeroesImplicitWaitForChildLookups() {
+                WebDriver.Timeouts timeouts = mock(WebDriver.Timeouts.class);
+                WebDriver driver = getMockDriver(timeouts);
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                TestPatientElement parent = instance.find(By.cssSelector(".foo")).get();
+                parent.isPresent();
+                instance.setImplicitWait(Duration.ofSeconds(10));
+                instance.accept(d -> {});
+                parent.find(By.cssSelector(".bar")).get().isPresent();
+                verify(timeouts).implicitlyWait(10_000, TimeUnit.MILLISECONDS);
+                verify(timeouts).implicitlyWait(0, TimeUnit.MILLISECONDS);
+            }
+
+            @Test
+            @DisplayName("restores the implicit wait before executing with the wrapped driver")
+            void testRestoresImplicitWaitBeforeExecuting() {
+                WebDriver.Timeouts timeouts = mock(WebDriver.Timeouts.class);
+                WebDriver driver = getMockDriver(timeouts);
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                instance.setImplicitWait(Duration.ofSeconds(10));
+                instance.accept(d -> {});
+                verify(timeouts, never()).implicitlyWait(anyLong(), any());
+                instance.find(By.cssSelector(".foo")).get().isPresent();
+                instance.accept(d -> {});
+                instance.accept(d -> {});
+                verify(timeouts, times(1)).implicitlyWait(10_000, TimeUnit.MILLISECONDS);
+            }
+
+            @Test
+            @DisplayName("restores the implicit wait before executing with a wrapped element")
+            void testRestoresImplicitWaitBeforeElementExecuting() {
+                WebDriver.Timeouts timeouts = mock(WebDriver.Timeouts.class);
+                WebDriver driver = getMockDriver(timeouts);
+                WebElement element = mock(WebElement.class);
+                when(driver.findElements(By.cssSelector(".foo"))).thenReturn(Collections.singletonList(element));
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                instance.setImplicitWait(Duration.ofSeconds(10));
+                TestPatientElement patientElement = instance.find(By.cssSelector(".foo")).get();
+                patientElement.accept(e -> verify(timeouts).implicitlyWait(10_000, TimeUnit.MILLISECONDS));
+                patientElement.accept(e -> {});
+                verify(timeouts, times(1)).implicitlyWait(0, TimeUnit.MILLISECONDS);
+                verify(timeouts, times(1)).implicitlyWait(10_000, TimeUnit.MILLISECONDS);
+            }
+
+            @Test
+            @DisplayName("does not restore the implicit wait for a snapshot of a wrapped element")
+            void testKeepsImplicitWaitForSnapshot() {
+                WebDriver.Timeouts timeouts = mock(WebDriver.Timeouts.class);
+                WebDriver driver = getMockDriver(timeouts);
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                instance.setImplicitWait(Duration.ofSeconds(10));
+                TestPatientElement patientElement = instance.find(By.cssSelector(".foo")).get();
+                patientElement.snapshot(ElementProperty.text());
+                patientElement.snapshot(ElementProperty.text());
+                verify(timeouts, times(1)).implicitlyWait(anyLong(), any());
+                verify(timeouts).implicitlyWait(0, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Nested
+        @DisplayName("when scoping element locators to a browsing context")
+        final class BrowsingContextTest {
+
+            private final BrowsingContext frame = BrowsingContext.topLevel().frame(By.id("frame"));
+
+            @Test
+            @DisplayName("starts in the top level context")
+            void testStartsAtTopLevel() {
+                Assertions.assertEquals(Optional.of(BrowsingContext.topLevel()),
+                                        getInstance().getBrowsingContext(),
+                                        "Should start in the top level context");
+            }
+
+            @Test
+            @DisplayName("only switches into a frame once for repeated look-ups and actions")
+            void testSwitchesOnce() {
+                WebDriver driver = mock(WebDriver.class);
+                WebDriver.TargetLocator targetLocator = mockTargetLocator(driver);
+                WebElement frameElement = mock(WebElement.class);
+                when(driver.findElements(By.id("frame"))).thenReturn(Collections.singletonList(frameElement));
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+                when(driver.findElements(By.id("b"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                instance.find(By.id("a")).within(frame).get().accept(WebElement::click);
+                instance.find(By.id("b")).within(frame).get().accept(WebElement::click);
+                instance.find(By.id("a")).within(frame).get().accept(WebElement::click);
+                verify(targetLocator, times(1)).frame(frameElement);
+                verify(targetLocator, never()).defaultContent();
+                Assertions.assertEquals(Optional.of(frame), instance.getBrowsingContext(), "Should track the frame context");
+            }
+
+            @Test
+            @DisplayName("keeps cached elements usable across context switches")
+            void testKeepsCachedElements() {
+                WebDriver driver = mock(WebDriver.class);
+                WebDriver.TargetLocator targetLocator = mockTargetLocator(driver);
+                WebElement frameElement = mock(WebElement.class);
+                when(driver.findElements(By.id("frame"))).thenReturn(Collections.singletonList(frameElement));
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+                when(driver.findElements(By.id("b"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                TestPatientElement inFrame = instance.find(By.id("a")).within(frame).get();
+                TestPatientElement atTopLevel = instance.find(By.id("b")).within(BrowsingContext.topLevel()).get();
+                inFrame.accept(WebElement::click);
+                atTopLevel.accept(WebElement::click);
+                inFrame.accept(WebElement::click);
+                verify(driver, times(1)).findElements(By.id("a"));
+                verify(targetLocator, times(1)).parentFrame();
+                verify(targetLocator, times(2)).frame(frameElement);
+            }
+
+            @Test
+            @DisplayName("switches back to the top level document for an unscoped look-up after a scoped one")
+            void testUnscopedAfterScoped() {
+                WebDriver driver = mock(WebDriver.class);
+                WebDriver.TargetLocator targetLocator = mockTargetLocator(driver);
+                WebElement frameElement = mock(WebElement.class);
+                when(driver.findElements(By.id("frame"))).thenReturn(Collections.singletonList(frameElement));
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+                when(driver.findElements(By.id("b"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                instance.find(By.id("a")).within(frame).get().accept(WebElement::click);
+                TestPatientElement unscoped = instance.find(By.id("b")).get();
+                unscoped.accept(WebElement::click);
+                unscoped.accept(WebElement::click);
+                verify(targetLocator, times(1)).parentFrame();
+                verify(targetLocator, times(1)).frame(frameElement);
+                Assertions.assertEquals(Optional.of(BrowsingContext.topLevel()), instance.getBrowsingContext(), "Should be back at the top level");
+            }
+
+            @Test
+            @DisplayName("leaves an unscoped look-up in the context entered by user code")
+            void testUnscopedAfterApply() {
+                WebDriver driver = mock(WebDriver.class);
+                WebDriver.TargetLocator targetLocator = mockTargetLocator(driver);
+                WebElement frameElement = mock(WebElement.class);
+                when(driver.findElements(By.id("frame"))).thenReturn(Collections.singletonList(frameElement));
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+                when(driver.findElements(By.id("b"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                instance.find(By.id("a")).within(frame).get().accept(WebElement::click);
+                instance.accept(d -> d.switchTo().frame("user"));
+                instance.find(By.id("b")).get().accept(WebElement::click);
+                verify(targetLocator, times(1)).frame("user");
+                verify(targetLocator, never()).defaultContent();
+                verify(targetLocator, never()).parentFrame();
+            }
+
+            @Test
+            @DisplayName("switches from the top level document after the web driver is handed out")
+            void testResetsAfterApply() {
+                WebDriver driver = mock(WebDriver.class);
+                WebDriver.TargetLocator targetLocator = mockTargetLocator(driver);
+                WebElement frameElement = mock(WebElement.class);
+                when(driver.findElements(By.id("frame"))).thenReturn(Collections.singletonList(frameElement));
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                TestPatientElement element = instance.find(By.id("a")).within(frame).get();
+                element.accept(WebElement::click);
+                instance.accept(d -> {});
+                Assertions.assertFalse(instance.getBrowsingContext().isPresent(), "Should not know the context after accept");
+                element.accept(WebElement::click);
+                verify(targetLocator, times(1)).defaultContent();
+                verify(targetLocator, times(2)).frame(frameElement);
+            }
+
+            @Test
+            @DisplayName("treats a missing frame like a missing element")
+            void testMissingFrame() {
+                WebDriver driver = mock(WebDriver.class);
+                mockTargetLocator(driver);
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                TestPatientElementLocator locator = instance.find(By.id("a")).within(frame);
+                Assertions.assertAll(() -> Assertions.assertFalse(locator.get().isPresent(), "Should not find an element in a missing frame"),
+                                     () -> Assertions.assertTrue(locator.getAll().isEmpty(), "Should not find elements in a missing frame"));
+                verify(driver, never()).findElements(By.id("a"));
+            }
+
+            @Test
+            @DisplayName("shares the context with element locators found via a scoped element")
+            void testChildLocatorsShareContext() {
+                TestPatientElementLocator child = getInstance().find(By.id("a")).within(frame).get().find(By.id("b"));
+                Assertions.assertAll(() -> Assertions.assertEquals(Optional.of(frame), child.getBrowsingContext(), "Should share the context"),
+                                     () -> Assertions.assertThrows(IllegalStateException.class, () -> child.within(frame)),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> getInstance().find(By.id("a")).within(null)));
+            }
+
+            private WebDriver.TargetLocator mockTargetLocator(WebDriver driver) {
+                WebDriver.TargetLocator targetLocator = mock(WebDriver.TargetLocator.class);
+                when(driver.switchTo()).thenReturn(targetLocator);
+                return targetLocator;
+            }
+        }
+
+        @Nested
+        @DisplayName("when capturing and restoring session state")
+        final class SessionStateTest {
+
+            @Test
+            @DisplayName("captures the cookies and storage of the current origin")
+            void testCapturesState() {
+                WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+                WebDriver.Options options = mockOptions(driver);
+                when(driver.getCurrentUrl()).thenReturn("https://Example.com:8443/path?query");
+                when(options.getCookies()).thenReturn(Collections.singleton(new Cookie("token", "abc")));
+                when(((JavascriptExecutor) driver).executeScript(Scripts.READ_STORAGE)).thenReturn(Arrays.asList("https://example.com:8443",
+                                                                                                                  Collections.singletonMap("local", "1"),
+                                                                                                                  null));
+                SessionState state = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver).captureSessionState();
+                Assertions.assertAll(() -> Assertions.assertEquals("https://example.com:8443", state.getOrigin()),
+                                     () -> Assertions.assertEquals(Collections.singletonList(new Cookie("token", "abc")), state.getCookies()),
+                                     () -> Assertions.assertEquals(Collections.singletonMap("local", "1"), state.getLocalStorage()),
+                                     () -> Assertions.assertTrue(state.getSessionStorage().isEmpty()));
+            }
+
+            @Test
+            @DisplayName("throws an exception when capturing a document without an origin")
+            void testThrowsWithoutOrigin() {
+                WebDriver driver = mock(WebDriver.class);
+                when(driver.getCurrentUrl()).thenReturn("about:blank");
+                Assertions.assertThrows(IllegalStateException.class,
+                                        () -> getInstance(TestPatientConfig.builder().build(), "hello", () -> driver).captureSessionState());
+            }
+
+            @Test
+            @DisplayName("navigates to the origin and restores unexpired cookies and storage")
+            void testRestoresState() {
+                WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+                WebDriver.Options options = mockOptions(driver);
+                when(driver.getCurrentUrl()).thenReturn("about:blank");
+                Cookie valid = new Cookie("token", "abc");
+                Cookie expired = new Cookie("old", "xyz", "/", new Date(0));
+                SessionState state = new SessionState("https://example.com",
+                                                      Arrays.asList(valid, expired),
+                                                      Collections.singletonMap("local", "1"),
+                                                      Collections.emptyMap());
+                getInstance(TestPatientConfig.builder().build(), "hello", () -> driver).restoreSessionState(state);
+                verify(driver).get("https://example.com");
+                verify(options).deleteAllCookies();
+                verify(options).addCookie(valid);
+                verify(options, never()).addCookie(expired);
+                verify((JavascriptExecutor) driver).executeScript(Scripts.WRITE_STORAGE, state.getLocalStorage(), state.getSessionStorage());
+            }
+
+            @Test
+            @DisplayName("does not navigate when already on the origin of the state")
+            void testDoesNotNavigateOnOrigin() {
+                WebDriver driver = mock(WebDriver.class);
+                mockOptions(driver);
+                when(driver.getCurrentUrl()).thenReturn("https://example.com/account");
+                getInstance(TestPatientConfig.builder().build(), "hello", () -> driver).restoreSessionState(new SessionState("https://example.com",
+                                                                                                                            Collections.emptyList(),
+                                                                                                                            Collections.emptyMap(),
+                                                                                                                            Collections.emptyMap()));
+                verify(driver, never()).get(any());
+            }
+
+            @Test
+            @DisplayName("throws an exception when restoring storage without a JavaScript executor")
+            void testThrowsForStorageWithoutExecutor() {
+                WebDriver driver = mock(WebDriver.class);
+                mockOptions(driver);
+                when(driver.getCurrentUrl()).thenReturn("https://example.com");
+                SessionState state = new SessionState("https://example.com",
+                                                      Collections.emptyList(),
+                                                      Collections.singletonMap("local", "1"),
+                                                      Collections.emptyMap());
+                Assertions.assertThrows(IllegalStateException.class,
+                                        () -> getInstance(TestPatientConfig.builder().build(), "hello", () -> driver).restoreSessionState(state));
+            }
+
+            @Test
+            @DisplayName("saves to and restores from a store by identity")
+            void testUsesStore() {
+                WebDriver driver = mock(WebDriver.class);
+                mockOptions(driver);
+                when(driver.getCurrentUrl()).thenReturn("https://example.com");
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                SessionStateStore store = SessionStateStore.inMemory();
+                Assertions.assertFalse(instance.restoreSessionState(store, "user"), "Should not restore a missing state");
+                SessionState state = instance.saveSessionState(store, "user");
+                Assertions.assertAll(() -> Assertions.assertEquals(Optional.of(state), store.load("user")),
+                                     () -> Assertions.assertTrue(instance.restoreSessionState(store, "user"), "Should restore a saved state"));
+            }
+
+            private WebDriver.Options mockOptions(WebDriver driver) {
+                WebDriver.Options options = mock(WebDriver.Options.class);
+                when(driver.manage()).thenReturn(options);
+                when(driver.switchTo()).thenReturn(mock(WebDriver.TargetLocator.class));
+                return options;
+            }
+        }
+
+        @Nested
+        @DisplayName("when pre-warming the web driver")
+        final class PreWarmTest {
+
+            @Test
+            @DisplayName("throws an exception for a null executor")
+            void testThrowsForNullExecutor() {
+                Assertions.assertThrows(IllegalArgumentException.class,
+                                        () -> new TestPatientDriver(getMockConfig(), "hello", getMockDriverSupplier(), null));
+            }
+
+            @Test
+            @DisplayName("creates the web driver on the executor when constructed")
+            void testCreatesOnExecutor() {
+                WebDriver driver = mock(WebDriver.class);
+                AtomicInteger calls = new AtomicInteger();
+                List<Runnable> tasks = new ArrayList<>();
+                TestPatientDriver instance = new TestPatientDriver(getMockConfig(), "hello", () -> {
+                    calls.incrementAndGet();
+                    return driver;
+                }, tasks::add);
+                Assertions.assertEquals(1, tasks.size(), "Should start creating the driver when constructed");
+                tasks.get(0).run();
+                Assertions.assertAll(() -> Assertions.assertSame(driver, instance.apply(d -> d)),
+                                     () -> Assertions.assertSame(driver, instance.apply(d -> d)),
+                                     () -> Assertions.assertEquals(1, calls.get(), "Should only create the driver once"));
+            }
+
+            @Test
+            @DisplayName("waits for a web driver still being created")
+            void testWaitsForCreation() {
+                WebDriver driver = mock(WebDriver.class);
+                ExecutorService executor = Executors.newSingleThreadExecutor();
+                try {
+                    TestPatientDriver instance = new TestPatientDriver(getMockConfig(), "hello", () -> {
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return driver;
+                    }, executor);
+                    Assertions.assertSame(driver, instance.apply(d -> d));
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+
+            @Test
+            @DisplayName("throws the original exception of a failed creation")
+            void testThrowsOriginalException() {
+                IllegalArgumentException failure = new IllegalArgumentException("whoops");
+                TestPatientDriver instance = new TestPatientDriver(getMockConfig(), "hello", () -> {
+                    throw failure;
+                }, Runnable::run);
+                Assertions.assertSame(failure, Assertions.assertThrows(IllegalArgumentException.class, () -> instance.accept(d -> {})));
+            }
+
+            @Test
+            @DisplayName("quits a web driver that is no longer wanted once created")
+            void testQuitsUnwantedDriver() {
+                WebDriver driver = mock(WebDriver.class);
+                List<Runnable> tasks = new ArrayList<>();
+                TestPatientDriver instance = new TestPatientDriver(getMockConfig(), "hello", () -> driver, tasks::add);
+                instance.clearCachedDriver();
+                tasks.get(0).run();
+                verify(driver).quit();
+            }
+        }
+
+        @Nested
+        @DisplayName("when executing asynchronously")
+        final class AsyncTest {
+
+            @Test
+            @DisplayName("throws an exception for null arguments")
+            void testThrowsForNullArguments() {
+                Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> getInstance().acceptAsync(null)),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> getInstance().applyAsync(null)),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> getInstance().startCommandQueue(null)),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> getInstance().setWaitScheduler(null)));
+            }
+
+            @Test
+            @DisplayName("reports to no-op metrics unless given other metrics")
+            void testMetrics() {
+                TestPatientDriver instance = getInstance();
+                InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+                Assertions.assertSame(PatientMetrics.noOp(), instance.getMetrics());
+                instance.setMetrics(metrics);
+                Assertions.assertAll(() -> Assertions.assertSame(metrics, instance.getMetrics()),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.setMetrics(null)));
+            }
+
+            @Test
+            @DisplayName("opens no-op spans unless given another tracer")
+            void testTracer() {
+                TestPatientDriver instance = getInstance();
+                ChromeTraceRecorder tracer = new ChromeTraceRecorder();
+                Assertions.assertSame(PatientTracer.noOp(), instance.getTracer());
+                instance.setTracer(tracer);
+                Assertions.assertAll(() -> Assertions.assertSame(tracer, instance.getTracer()),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.setTracer(null)));
+            }
+
+            @Test
+            @DisplayName("counts look-ups in every open command scope until it is closed")
+            void testCommandScopes() {
+                WebDriver driver = mock(WebDriver.class);
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.emptyList());
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().withTimeout(Duration.ZERO).build(), "hello", () -> driver);
+                CommandScope outer = instance.openCommandScope("outer");
+                try (CommandScope inner = instance.openCommandScope("inner", 10, CommandScope.fail())) {
+                    instance.find(By.id("a")).getAll();
+                    Assertions.assertAll(() -> Assertions.assertEquals(1, inner.getCommandCount(CommandScope.CommandType.LOOKUP)),
+                                         () -> Assertions.assertEquals(1, inner.getCommandCount("hello.find(By.id: a)")));
+                }
+                instance.find(By.id("a")).getAll();
+                outer.close();
+                instance.find(By.id("a")).getAll();
+                Assertions.assertAll(() -> Assertions.assertEquals(2, outer.getCommandCount()),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.openCommandScope(null)),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.openCommandScope("scope", -1, CommandScope.fail())),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.openCommandScope("scope", 1, null)));
+            }
+
+            @Test
+            @DisplayName("uses the shared wait scheduler unless given one")
+            void testWaitScheduler() {
+                TestPatientDriver instance = getInstance();
+                Assertions.assertSame(WaitScheduler.shared(), instance.getWaitScheduler());
+                try (WaitScheduler scheduler = new WaitScheduler(Duration.ofMillis(1), 8)) {
+                    instance.setWaitScheduler(scheduler);
+                    Assertions.assertSame(scheduler, instance.getWaitScheduler());
+                }
+            }
+
+            @Test
+            @DisplayName("executes on the running command queue")
+            void testExecutesOnCommandQueue() throws Exception {
+                WebDriver driver = mock(WebDriver.class);
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                try (CommandQueue<WebDriver, WebElement> queue = instance.startCommandQueue()) {
+                    Assertions.assertTrue(instance.applyAsync(d -> queue.isOwnerThread()).get(5, TimeUnit.SECONDS));
+                    instance.acceptAsync(WebDriver::quit).get(5, TimeUnit.SECONDS);
+                    verify(driver).quit();
+                }
+            }
+
+            @Test
+            @DisplayName("throws an exception instead of starting a command queue")
+            void testThrowsWithoutCommandQueue() {
+                TestPatientDriver instance = getInstance();
+                TestPatientElement element = instance.find(By.id("a")).get();
+                Assertions.assertAll(() -> Assertions.assertThrows(IllegalStateException.class, () -> instance.applyAsync(d -> d)),
+                                     () -> Assertions.assertThrows(IllegalStateException.class, () -> instance.acceptAsync(d -> {})),
+                                     () -> Assertions.assertThrows(IllegalStateException.class, element::isPresentAsync),
+                                     () -> Assertions.assertThrows(IllegalStateException.class, () -> element.applyAsync(e -> e)));
+                Assertions.assertFalse(instance.getCommandQueue().isPresent(), "Should not have started a command queue");
+            }
+        }
+
+        @Nested
+        @DisplayName("when tracking element identities")
+        final class ElementIdentityTest {
+
+            @Test
+            @DisplayName("is disabled by default")
+            void testDisabledByDefault() {
+                Assertions.assertFalse(getInstance().isElementIdentityTrackingEnabled(), "Should be disabled by default");
+            }
+
+            @Test
+            @DisplayName("drops the cache of elements sharing the remote id of a stale element")
+            void testSharesStaleSignals() {
+                WebElement first = getIdentifiedElement("1");
+                WebElement second = getIdentifiedElement("1");
+                WebElement relocated = getIdentifiedElement("2");
+                doThrow(new StaleElementReferenceException("whoops")).when(first).click();
+                WebDriver driver = mock(WebDriver.class);
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(first), Collections.singletonList(relocated));
+                when(driver.findElements(By.cssSelector("#a"))).thenReturn(Collections.singletonList(second), Collections.singletonList(relocated));
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                instance.setElementIdentityTrackingEnabled(true);
+                TestPatientElement byId = instance.find(By.id("a")).get();
+                TestPatientElement byCss = instance.find(By.cssSelector("#a")).get();
+                byCss.accept(e -> {});
+                byId.accept(WebElement::click);
+                byCss.accept(WebElement::click);
+                verify(second, never()).click();
+                verify(driver, times(2)).findElements(By.cssSelector("#a"));
+            }
+
+            @Test
+            @DisplayName("does not share stale signals when disabled")
+            void testDoesNotShareWhenDisabled() {
+                WebElement first = getIdentifiedElement("1");
+                WebElement second = getIdentifiedElement("1");
+                WebElement relocated = getIdentifiedElement("2");
+                doThrow(new StaleElementReferenceException("whoops")).when(first).click();
+                WebDriver driver = mock(WebDriver.class);
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(first), Collections.singletonList(relocated));
+                when(driver.findElements(By.cssSelector("#a"))).thenReturn(Collections.singletonList(second));
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", () -> driver);
+                TestPatientElement byId = instance.find(By.id("a")).get();
+                TestPatientElement byCss = instance.find(By.cssSelector("#a")).get();
+                byCss.accept(e -> {});
+                byId.accept(WebElement::click);
+                byCss.accept(WebElement::click);
+                verify(second).click();
+            }
+
+            private WebElement getIdentifiedElement(String id) {
+                RemoteElement element = mock(RemoteElement.class);
+                when(element.getId()).thenReturn(id);
+                return element;
+            }
+        }
+
+        @Nested
+        @DisplayName("when interning element locators")
+        final class LocatorInterningTest {
+
+            @Test
+            @DisplayName("is disabled by default")
+            void testDisabledByDefault() {
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", getMockDriverSupplier());
+                Assertions.assertAll(() -> Assertions.assertFalse(instance.isLocatorInterningEnabled(), "Should be disabled by default"),
+                                     () -> Assertions.assertNotSame(instance.find(By.id("foo")), instance.find(By.id("foo")), "Should build a new locator"));
+            }
+
+            @Test
+            @DisplayName("returns the same locator for an equivalent find")
+            void testReturnsSameLocatorForEquivalentFind() {
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", getMockDriverSupplier());
+                instance.setLocatorInterningEnabled(true);
+                TestPatientElementLocator locator = instance.find(By.id("foo"));
+                Assertions.assertAll(() -> Assertions.assertSame(locator, instance.find(By.id("foo")), "Should return the interned locator"),
+                                     () -> Assertions.assertSame(locator.get(), instance.find(By.id("foo")).get(), "Should share the built elements"),
+                                     () -> Assertions.assertNotSame(locator, instance.find(By.id("bar")), "Should not share a locator for a different By"),
+                                     () -> Assertions.assertSame(locator.clone(Duration.ofSeconds(1)), locator.clone(Duration.ofSeconds(1)), "Should intern equivalent clones"),
+                                     () -> Assertions.assertNotSame(locator, locator.clone(Duration.ofSeconds(1)), "Should not share a locator with a different timeout"));
+            }
+
+            @Test
+            @DisplayName("only shares child locators of the same parent element")
+            void testSharesChildLocatorsOfSameParent() {
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", getMockDriverSupplier());
+                instance.setLocatorInterningEnabled(true);
+                TestPatientElement parent = instance.find(By.id("foo")).get();
+                TestPatientElement otherParent = instance.find(By.id("foo")).get(1);
+                Assertions.assertAll(() -> Assertions.assertSame(parent.find(By.id("bar")), parent.find(By.id("bar")), "Should share a child locator"),
+                                     () -> Assertions.assertNotSame(parent.find(By.id("bar")), otherParent.find(By.id("bar")), "Should not share across parents"));
+            }
+
+            @Test
+            @DisplayName("stops interning once disabled")
+            void testStopsInterningOnceDisabled() {
+                TestPatientDriver instance = getInstance(TestPatientConfig.builder().build(), "hello", getMockDriverSupplier());
+                instance.setLocatorInterningEnabled(true);
+                TestPatientElementLocator locator = instance.find(By.id("foo"));
+                instance.setLocatorInterningEnabled(false);
+                Assertions.assertNotSame(locator, instance.find(By.id("foo")), "Should build a new locator");
+            }
+        }
     }
 
     @Nested
@@ -145,6 +791,27 @@ final class AbstractPatientDriverTest {
         return new TestPatientDriver(config, description, webDriverSupplier);
     }
 
+    private static WebDriver getMockDriver(WebDriver.Timeouts timeouts) {
+        WebElement element = mock(WebElement.class);
+        when(element.findElements(any())).thenReturn(Collections.singletonList(mock(WebElement.class)));
+        WebDriver.Options options = mock(WebDriver.Options.class);
+        when(options.timeouts()).thenReturn(timeouts);
+        WebDriver driver = mock(WebDriver.class);
+        when(driver.manage()).thenReturn(options);
+        when(driver.findElements(any())).thenReturn(Collections.singletonList(element));
+        return driver;
+    }
+
+    /*
+     * Stands in for RemoteWebElement, which isn't on the test class path, by exposing
+     * the remote element id the same way.
+     */
+
+    private abstract static class RemoteElement implements WebElement {
+
+        public abstract String getId();
+    }
+
     private static final class InvalidConstructorArguments implements ArgumentsProvider {
 
         @Override
@@ -1,7 +1,9 @@
 package com.redfin.selenium;
 
+import com.redfin.patience.PatientDelaySuppliers;
 import com.redfin.patience.PatientWait;
 import com.redfin.selenium.implementation.TestPatientConfig;
+import com.redfin.selenium.implementation.TestPatientDriver;
 import com.redfin.selenium.implementation.TestPatientElement;
 import com.redfin.selenium.implementation.TestPatientElementLocator;
 import org.junit.jupiter.api.Assertions;
@@ -14,11 +16,19 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.ArgumentsProvider;
 import org.junit.jupiter.params.provider.ArgumentsSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -26,7 +36,13 @@ import java.util.stream.Stream;
 import static com.redfin.selenium.TestMocks.getMockConfig;
 import static com.redfin.selenium.TestMocks.getMockElementListSupplier;
 import static com.redfin.selenium.TestMocks.getMockFilter;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 @DisplayName("An AbstractPatientElementLocator")
 final class AbstractPatientElementLocatorTest {
@@ -144,6 +160,133 @@ final class AbstractPatientElementLocatorTest {
                 Assertions.assertAll(() -> Assertions.assertNotNull(elements, "The returned list from getAll() should never be null"),
                                      () -> Assertions.assertEquals(expectedCount, elements.size(), "The returned list from getAll() should have the expected size"));
             }
+
+            @Test
+            @DisplayName("reports the wait, look-ups and ignored look-up exceptions to the metrics of the patient driver")
+            void testReportsMetrics() {
+                WebDriver driver = mock(WebDriver.class);
+                when(driver.findElements(By.id("a"))).thenThrow(IllegalStateException.class)
+                                                    .thenReturn(Collections.emptyList());
+                TestPatientConfig config = TestPatientConfig.builder()
+                                                            .withIgnoredLookupExceptions(IllegalStateException.class)
+                                                            .withWait(PatientWait.builder()
+                                                                                 .withInitialDelay(Duration.ZERO)
+                                                                                 .withDelaySupplier(PatientDelaySuppliers.fixed(Duration.ofMillis(5)))
+                                                                                 .build())
+                                                            .withTimeout(Duration.ofMillis(50))
+                                                            .build();
+                TestPatientDriver patientDriver = new TestPatientDriver(config, "metrics", () -> driver);
+                InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+                patientDriver.setMetrics(metrics);
+                TestPatientElementLocator instance = patientDriver.find(By.id("a"));
+                List<TestPatientElement> elements = instance.getAll();
+                String description = instance.toString();
+                long lookups = metrics.getCount(InMemoryPatientMetrics.LOOKUPS, description);
+                Assertions.assertAll(() -> Assertions.assertTrue(elements.isEmpty()),
+                                     () -> Assertions.assertTrue(lookups >= 2, "Should have polled more than once"),
+                                     () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.WAITS, description)),
+                                     () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.TIMEOUTS, description)),
+                                     () -> Assertions.assertEquals(lookups, metrics.getPollsPerWait(description).map(InMemoryPatientMetrics.Histogram::getMax).orElse(0L)),
+                                     () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.ignoredLookupException(IllegalStateException.class), description)));
+            }
+        }
+
+        @Nested
+        @DisplayName("when extract(ElementColumn...) is called")
+        final class ExtractTest {
+
+            @Test
+            @DisplayName("throws an exception for null or empty columns")
+            void testThrowsForInvalidColumns() {
+                TestPatientElementLocator instance = getInstanceWithResultCount(1);
+                Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.extract((ElementColumn[]) null)),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, instance::extract),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.extract(ElementColumn.ofStrings(ElementProperty.text()), null)));
+            }
+
+            @Test
+            @DisplayName("returns empty columns when no element is found")
+            void testReturnsEmptyColumnsWhenNoElementIsFound() {
+                ElementColumn column = ElementColumn.ofLongs(ElementProperty.text());
+                ElementColumns columns = getInstanceWithResultCount(0).extract(column);
+                Assertions.assertAll(() -> Assertions.assertEquals(0, columns.size(), "Should have no rows"),
+                                     () -> Assertions.assertEquals(0, columns.getLongs(column).length, "Should have an empty column"));
+            }
+
+            @Test
+            @DisplayName("reads each value from the elements when the driver can't execute JavaScript")
+            void testExtractsNatively() {
+                WebElement first = mock(WebElement.class);
+                WebElement second = mock(WebElement.class);
+                when(first.getText()).thenReturn("1");
+                when(second.getText()).thenReturn("oops");
+                when(first.getAttribute("price")).thenReturn("2.5");
+                ElementColumn text = ElementColumn.ofStrings(ElementProperty.text());
+                ElementColumn count = ElementColumn.ofLongs(ElementProperty.text());
+                ElementColumn price = ElementColumn.ofDoubles(ElementProperty.attribute("price"));
+                ElementColumns columns = getInstance(getMockConfig(),
+                                                     "description",
+                                                     () -> Arrays.asList(first, second),
+                                                     PatientWait.builder().build(),
+                                                     Duration.ZERO,
+                                                     e -> true).extract(text, count, price);
+                Assertions.assertAll(() -> Assertions.assertArrayEquals(new String[]{"1", "oops"}, columns.getStrings(text)),
+                                     () -> Assertions.assertArrayEquals(new long[]{1, 0}, columns.getLongs(count)),
+                                     () -> Assertions.assertArrayEquals(new double[]{2.5, Double.NaN}, columns.getDoubles(price)),
+                                     () -> Assertions.assertThrows(IllegalStateException.class, () -> columns.getLongs(text)),
+                                     () -> Assertions.assertThrows(IllegalStateException.class,
+                                                                   () -> columns.getStrings(ElementColumn.ofStrings(ElementProperty.text()))));
+            }
+
+            @Test
+            @DisplayName("reads the values in bounded chunks when the driver can execute JavaScript")
+            void testExtractsWithChunkedScripts() {
+                WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+                WebElement first = mock(WebElement.class, withSettings().extraInterfaces(WrapsDriver.class));
+                when(((WrapsDriver) first).getWrappedDriver()).thenReturn(driver);
+                List<WebElement> list = new ArrayList<>();
+                list.add(first);
+                WebElement other = mock(WebElement.class);
+                for (int i = 0; i < TestPatientElementLocator.EXTRACTION_CHUNK_SIZE; i++) {
+                    list.add(other);
+                }
+                when(((JavascriptExecutor) driver).executeScript(any(), any(), any())).thenAnswer(invocation -> {
+                    List<?> chunk = invocation.getArgument(1);
+                    return Collections.singletonList(Collections.nCopies(chunk.size(), 7L));
+                });
+                ElementColumn column = ElementColumn.ofLongs(ElementProperty.attribute("count"));
+                ElementColumns columns = getInstance(getMockConfig(),
+                                                     "description",
+                                                     () -> list,
+                                                     PatientWait.builder().build(),
+                                                     Duration.ZERO,
+                                                     e -> true).extract(column);
+                verify((JavascriptExecutor) driver, times(2)).executeScript(any(), any(), any());
+                verify(other, never()).getAttribute(any());
+                Assertions.assertAll(() -> Assertions.assertEquals(list.size(), columns.size(), "Should have a row per element"),
+                                     () -> Assertions.assertTrue(Arrays.stream(columns.getLongs(column)).allMatch(v -> v == 7), "Should have mapped every value"));
+            }
+
+            @Test
+            @DisplayName("looks the elements up again for stale element references")
+            void testRetriesForStaleElements() {
+                WebElement element = mock(WebElement.class);
+                when(element.getTagName()).thenThrow(new StaleElementReferenceException("whoops"))
+                                          .thenReturn("td");
+                AtomicInteger counter = new AtomicInteger(0);
+                ElementColumn column = ElementColumn.ofStrings(ElementProperty.tagName());
+                ElementColumns columns = getInstance(getMockConfig(),
+                                                     "description",
+                                                     () -> {
+                                                         counter.incrementAndGet();
+                                                         return Collections.singletonList(element);
+                                                     },
+                                                     PatientWait.builder().build(),
+                                                     Duration.ZERO,
+                                                     e -> true).extract(column);
+                Assertions.assertAll(() -> Assertions.assertArrayEquals(new String[]{"td"}, columns.getStrings(column)),
+                                     () -> Assertions.assertEquals(2, counter.get(), "Should have looked the elements up again"));
+            }
         }
 
         @Nested
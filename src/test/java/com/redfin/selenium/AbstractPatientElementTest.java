@@ -1,10 +1,13 @@
 package com.redfin.selenium;
 
+import com.redfin.patience.PatientDelaySuppliers;
 import com.redfin.patience.PatientWait;
 import com.redfin.selenium.contracts.FindsElementsTestContract;
 import com.redfin.selenium.contracts.WrappedExecutorTestContract;
 import com.redfin.selenium.implementation.TestPatientConfig;
+import com.redfin.selenium.implementation.TestPatientDriver;
 import com.redfin.selenium.implementation.TestPatientElement;
+import com.redfin.selenium.implementation.TestPatientElementLocator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.DisplayName;
@@ -15,18 +18,44 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.ArgumentsProvider;
 import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.mockito.InOrder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static com.redfin.selenium.TestMocks.getMockConfig;
 import static com.redfin.selenium.TestMocks.getMockElementSupplier;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 @DisplayName("An AbstractPatientElement")
 final class AbstractPatientElementTest {
@@ -144,6 +173,75 @@ final class AbstractPatientElementTest {
                                       instance.getCachedElement(),
                                       "A successful isPresent() check should have set the cache");
             }
+
+            @Test
+            @DisplayName("uses a valid cached element without a look-up when cached element validation is enabled")
+            void testUsesValidCachedElementWhenValidationEnabled() {
+                AtomicInteger counter = new AtomicInteger(0);
+                TestPatientElement instance = getLocatedInstance(true, counter, e -> true);
+                WebElement cached = mock(WebElement.class);
+                instance.setCachedElement(cached);
+                Assertions.assertAll(() -> Assertions.assertTrue(instance.isPresent(), "Should return true for a valid cached element"),
+                                     () -> Assertions.assertEquals(0, counter.get(), "Should not have performed a look-up"),
+                                     () -> Assertions.assertSame(cached, instance.getCachedElement(), "Should have kept the cached element"));
+            }
+
+            @Test
+            @DisplayName("looks up a new element for a stale cached element when cached element validation is enabled")
+            void testLooksUpForStaleCachedElementWhenValidationEnabled() {
+                AtomicInteger counter = new AtomicInteger(0);
+                TestPatientElement instance = getLocatedInstance(true, counter, e -> true);
+                WebElement cached = mock(WebElement.class);
+                when(cached.getTagName()).thenThrow(new StaleElementReferenceException("whoops"));
+                instance.setCachedElement(cached);
+                Assertions.assertAll(() -> Assertions.assertTrue(instance.isPresent(), "Should return true for a newly located element"),
+                                     () -> Assertions.assertEquals(1, counter.get(), "Should have performed a look-up"),
+                                     () -> Assertions.assertNotSame(cached, instance.getCachedElement(), "Should have replaced the stale cached element"));
+            }
+
+            @Test
+            @DisplayName("looks up a new element when the cached element no longer matches the filter")
+            void testLooksUpForFilteredCachedElementWhenValidationEnabled() {
+                AtomicInteger counter = new AtomicInteger(0);
+                WebElement cached = mock(WebElement.class);
+                TestPatientElement instance = getLocatedInstance(true, counter, e -> e != cached);
+                instance.setCachedElement(cached);
+                Assertions.assertAll(() -> Assertions.assertTrue(instance.isPresent(), "Should return true for a newly located element"),
+                                     () -> Assertions.assertEquals(1, counter.get(), "Should have performed a look-up"));
+            }
+
+            @Test
+            @DisplayName("always looks up a new element for an element past the first match of its locator")
+            void testAlwaysLooksUpForIndexedElement() {
+                AtomicInteger counter = new AtomicInteger(0);
+                TestPatientConfig config = TestPatientConfig.builder()
+                                                            .withCachedElementValidation(true)
+                                                            .build();
+                TestPatientElement instance = new TestPatientElementLocator(config,
+                                                                            "DefaultDescription",
+                                                                            () -> {
+                                                                                counter.incrementAndGet();
+                                                                                return Arrays.asList(mock(WebElement.class), mock(WebElement.class));
+                                                                            },
+                                                                            config.getDefaultWait(),
+                                                                            Duration.ZERO,
+                                                                            e -> true).get(1);
+                WebElement cached = mock(WebElement.class);
+                instance.setCachedElement(cached);
+                Assertions.assertAll(() -> Assertions.assertTrue(instance.isPresent(), "Should return true for a newly located element"),
+                                     () -> Assertions.assertEquals(1, counter.get(), "Should have performed a look-up"),
+                                     () -> Assertions.assertNotSame(cached, instance.getCachedElement(), "Should have replaced the cached element"));
+            }
+
+            @Test
+            @DisplayName("always looks up a new element when cached element validation is disabled")
+            void testAlwaysLooksUpWhenValidationDisabled() {
+                AtomicInteger counter = new AtomicInteger(0);
+                TestPatientElement instance = getLocatedInstance(false, counter, e -> true);
+                instance.setCachedElement(mock(WebElement.class));
+                Assertions.assertAll(() -> Assertions.assertTrue(instance.isPresent(), "Should return true for a newly located element"),
+                                     () -> Assertions.assertEquals(1, counter.get(), "Should have performed a look-up"));
+            }
         }
 
         @Nested
@@ -223,6 +321,86 @@ final class AbstractPatientElementTest {
                                       instance.getCachedElement(),
                                       "An unsuccessful isAbsent(Duration) check should have set the cache");
             }
+
+            @Test
+            @DisplayName("performs a single look-up for a zero timeout")
+            void testPerformsSingleLookupForZeroTimeout() {
+                AtomicInteger counter = new AtomicInteger(0);
+                Supplier<Optional<WebElement>> supplier = () -> {
+                    counter.incrementAndGet();
+                    return Optional.of(mock(WebElement.class));
+                };
+                Assertions.assertAll(() -> Assertions.assertFalse(getInstance(supplier, Duration.ZERO).isAbsent(Duration.ZERO),
+                                                                  "Should return false for a present element"),
+                                     () -> Assertions.assertEquals(1, counter.get(), "Should have performed a single look-up"));
+            }
+
+            @Test
+            @DisplayName("performs a single look-up when no element is initially found")
+            void testPerformsSingleLookupForNonPresentElement() {
+                AtomicInteger counter = new AtomicInteger(0);
+                Supplier<Optional<WebElement>> supplier = () -> {
+                    counter.incrementAndGet();
+                    return Optional.empty();
+                };
+                Assertions.assertAll(() -> Assertions.assertTrue(getInstance(supplier, Duration.ZERO).isAbsent(Duration.ofSeconds(5)),
+                                                                 "Should return true for a non-present element"),
+                                     () -> Assertions.assertEquals(1, counter.get(), "Should have performed a single look-up"));
+            }
+
+            @Test
+            @DisplayName("waits in the browser for a located element to be detached")
+            void testWaitsInBrowserForDetachment() {
+                WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+                WebElement element = mock(WebElement.class, withSettings().extraInterfaces(WrapsDriver.class));
+                when(((WrapsDriver) element).getWrappedDriver()).thenReturn(driver);
+                AtomicInteger counter = new AtomicInteger(0);
+                Supplier<Optional<WebElement>> supplier = () -> counter.getAndIncrement() == 0 ? Optional.of(element) : Optional.empty();
+                when(((JavascriptExecutor) driver).executeAsyncScript(any(), eq(element), anyLong())).thenReturn(true);
+                Assertions.assertTrue(getInstance(supplier, Duration.ZERO).isAbsent(Duration.ofSeconds(5)),
+                                      "Should return true once the element is detached");
+                verify((JavascriptExecutor) driver).executeAsyncScript(any(), eq(element), longThat(millis -> millis < 5000L));
+                Assertions.assertEquals(2, counter.get(), "Should have confirmed the result with a single look-up");
+            }
+
+            @Test
+            @DisplayName("waits in the browser one poll interval at a time, checking the locator in between")
+            void testWaitsInBrowserOnePollIntervalAtATime() {
+                WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+                WebElement element = mock(WebElement.class, withSettings().extraInterfaces(WrapsDriver.class));
+                when(((WrapsDriver) element).getWrappedDriver()).thenReturn(driver);
+                when(((JavascriptExecutor) driver).executeAsyncScript(any(), eq(element), anyLong())).thenReturn(false);
+                AtomicInteger counter = new AtomicInteger(0);
+                Supplier<Optional<WebElement>> supplier = () -> counter.getAndIncrement() < 3 ? Optional.of(element) : Optional.empty();
+                TestPatientElement instance = getInstance(getMockConfig(),
+                                                          "DefaultDescription",
+                                                          supplier,
+                                                          PatientWait.builder()
+                                                                     .withInitialDelay(Duration.ZERO)
+                                                                     .withDelaySupplier(PatientDelaySuppliers.fixed(Duration.ofMillis(100)))
+                                                                     .build(),
+                                                          Duration.ZERO);
+                Assertions.assertTrue(instance.isAbsent(Duration.ofSeconds(5)), "Should return true once the element no longer matches");
+                verify((JavascriptExecutor) driver, times(3)).executeAsyncScript(any(), eq(element), eq(100L));
+                Assertions.assertEquals(4, counter.get(), "Should have run the locator after each wait in the browser");
+            }
+
+            @Test
+            @DisplayName("stops waiting in the browser once cancelled")
+            void testStopsWaitingInBrowserOnceCancelled() {
+                WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+                WebElement element = mock(WebElement.class, withSettings().extraInterfaces(WrapsDriver.class));
+                when(((WrapsDriver) element).getWrappedDriver()).thenReturn(driver);
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element));
+                TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().withFilter(e -> true).build(), "hello", () -> driver);
+                when(((JavascriptExecutor) driver).executeAsyncScript(any(), eq(element), anyLong())).thenAnswer(invocation -> {
+                    patientDriver.getCancellationToken().cancel();
+                    return false;
+                });
+                TestPatientElement instance = patientDriver.find(By.id("a")).get();
+                Assertions.assertThrows(WaitCancelledException.class, () -> instance.isAbsent(Duration.ofSeconds(5)));
+                verify((JavascriptExecutor) driver, times(1)).executeAsyncScript(any(), eq(element), anyLong());
+            }
         }
 
         @Test
@@ -319,6 +497,362 @@ final class AbstractPatientElementTest {
                                      () -> Assertions.assertEquals(maxAttempts, executionCounter.get(), "Should have executed the set number of times"));
             }
         }
+
+        @Nested
+        @DisplayName("when snapshot(ElementProperty...) is called")
+        final class SnapshotTest {
+
+            @Test
+            @DisplayName("throws an exception for null or empty properties")
+            void testThrowsForInvalidProperties() {
+                TestPatientElement instance = getInstance();
+                Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.snapshot((ElementProperty[]) null)),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, instance::snapshot),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.snapshot(ElementProperty.text(), null)));
+            }
+
+            @Test
+            @DisplayName("reads every property with a single script when the driver can execute JavaScript")
+            void testReadsPropertiesWithSingleScript() {
+                WebElement element = getScriptElement();
+                JavascriptExecutor executor = (JavascriptExecutor) ((WrapsDriver) element).getWrappedDriver();
+                when(executor.executeScript(any(), any(), any())).thenReturn(Arrays.asList("hello", true, Arrays.asList(1L, 2.4, 30L, 40L)));
+                ElementSnapshot snapshot = getInstance(() -> Optional.of(element), Duration.ZERO).snapshot(ElementProperty.text(),
+                                                                                                           ElementProperty.displayed(),
+                                                                                                           ElementProperty.rect());
+                verify(executor).executeScript(any(), eq(element), any());
+                verify(element, never()).getText();
+                Assertions.assertAll(() -> Assertions.assertEquals("hello", snapshot.getText(), "Should have read the text"),
+                                     () -> Assertions.assertTrue(snapshot.isDisplayed(), "Should have read displayed"),
+                                     () -> Assertions.assertEquals(new Rectangle(1, 2, 40, 30), snapshot.getRect(), "Should have read the rect"));
+            }
+
+            @Test
+            @DisplayName("reads each property from the element when the driver can't execute JavaScript")
+            void testReadsPropertiesNatively() {
+                WebElement element = mock(WebElement.class);
+                when(element.getText()).thenReturn("hello");
+                when(element.getAttribute("foo")).thenReturn("bar");
+                ElementSnapshot snapshot = getInstance(() -> Optional.of(element), Duration.ZERO).snapshot(ElementProperty.text(),
+                                                                                                           ElementProperty.attribute("foo"));
+                Assertions.assertAll(() -> Assertions.assertEquals("hello", snapshot.getText(), "Should have read the text"),
+                                     () -> Assertions.assertEquals("bar", snapshot.getAttribute("foo"), "Should have read the attribute"));
+            }
+
+            @Test
+            @DisplayName("reads each property from the element when the script fails")
+            void testFallsBackWhenScriptFails() {
+                WebElement element = getScriptElement();
+                JavascriptExecutor executor = (JavascriptExecutor) ((WrapsDriver) element).getWrappedDriver();
+                when(executor.executeScript(any(), any(), any())).thenThrow(new JavascriptException("whoops"));
+                when(element.getTagName()).thenReturn("div");
+                ElementSnapshot snapshot = getInstance(() -> Optional.of(element), Duration.ZERO).snapshot(ElementProperty.tagName());
+                Assertions.assertEquals("div", snapshot.getTagName(), "Should have read the tag name from the element");
+            }
+
+            @Test
+            @DisplayName("re-locates the element and retries for stale element references")
+            void testRetriesForStaleElements() {
+                WebElement element = getScriptElement();
+                JavascriptExecutor executor = (JavascriptExecutor) ((WrapsDriver) element).getWrappedDriver();
+                when(executor.executeScript(any(), any(), any())).thenThrow(new StaleElementReferenceException("whoops"))
+                                                                 .thenReturn(Collections.singletonList("div"));
+                AtomicInteger counter = new AtomicInteger(0);
+                ElementSnapshot snapshot = getInstance(() -> {
+                    counter.incrementAndGet();
+                    return Optional.of(element);
+                }, Duration.ZERO).snapshot(ElementProperty.tagName());
+                Assertions.assertAll(() -> Assertions.assertEquals("div", snapshot.getTagName(), "Should have read the tag name"),
+                                     () -> Assertions.assertEquals(2, counter.get(), "Should have re-located the element"));
+            }
+        }
+
+        @Nested
+        @DisplayName("when the config has listeners")
+        final class ListenerTest {
+
+            @Test
+            @DisplayName("calls them for the look-ups, polls, retries and stale element recovery of an action")
+            void testCallsListenersForAction() {
+                WebDriver driver = mock(WebDriver.class);
+                WebElement element = mock(WebElement.class);
+                PatientListener listener = mock(PatientListener.class);
+                doThrow(StaleElementReferenceException.class).doNothing().when(element).click();
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element));
+                TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().withListeners(listener).build(), "listener", () -> driver);
+                TestPatientElementLocator locator = patientDriver.find(By.id("a"));
+                TestPatientElement instance = locator.get();
+                instance.accept(WebElement::click);
+                String description = instance.toString();
+                InOrder inOrder = inOrder(listener);
+                inOrder.verify(listener).beforeAction(description);
+                inOrder.verify(listener).beforeLookup(locator.toString());
+                inOrder.verify(listener).afterLookup(locator.toString(), 1, null);
+                inOrder.verify(listener).onPoll(description, 1, true);
+                inOrder.verify(listener).onRetry(eq(description), eq(2), any(StaleElementReferenceException.class));
+                inOrder.verify(listener).onPoll(description, 1, true);
+                inOrder.verify(listener).onStaleElementRecovered(description, 2);
+                inOrder.verify(listener).afterAction(description, null);
+            }
+
+            @Test
+            @DisplayName("calls them for every probe of a check that an element is absent as a single wait")
+            void testCallsListenersForAbsence() {
+                WebDriver driver = mock(WebDriver.class);
+                PatientListener listener = mock(PatientListener.class);
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(mock(WebElement.class)))
+                                                    .thenReturn(Collections.emptyList());
+                TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().withListeners(listener).build(), "listener", () -> driver);
+                TestPatientElement instance = patientDriver.find(By.id("a")).get();
+                Assertions.assertTrue(instance.isAbsent(Duration.ofSeconds(5)));
+                String description = instance.toString();
+                InOrder inOrder = inOrder(listener);
+                inOrder.verify(listener).beforeWait(description, Duration.ofSeconds(5));
+                inOrder.verify(listener).beforePoll(description, 1);
+                inOrder.verify(listener).onPoll(description, 1, false);
+                inOrder.verify(listener).beforePoll(description, 2);
+                inOrder.verify(listener).onPoll(description, 2, true);
+                inOrder.verify(listener).afterWait(eq(description), eq(2), any(Duration.class), eq(false));
+                verify(listener, times(1)).beforeWait(any(), any());
+            }
+
+            @Test
+            @DisplayName("calls them for the timeout of a check that an element is absent without waiting")
+            void testCallsListenersForAbsenceTimeout() {
+                WebDriver driver = mock(WebDriver.class);
+                PatientListener listener = mock(PatientListener.class);
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+                TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().withListeners(listener).build(), "listener", () -> driver);
+                TestPatientElement instance = patientDriver.find(By.id("a")).get();
+                Assertions.assertFalse(instance.isAbsent(Duration.ZERO));
+                String description = instance.toString();
+                verify(listener).onPoll(description, 1, false);
+                verify(listener).onWaitTimeout(description, 1, Duration.ZERO);
+                verify(listener).afterWait(eq(description), eq(1), any(Duration.class), eq(true));
+            }
+
+            @Test
+            @DisplayName("calls them for the timeout and failure of an action and for ignored exceptions")
+            void testCallsListenersForFailedAction() {
+                WebDriver driver = mock(WebDriver.class);
+                PatientListener listener = mock(PatientListener.class);
+                IllegalStateException ignored = new IllegalStateException("ignored");
+                when(driver.findElements(By.id("a"))).thenThrow(ignored)
+                                                    .thenReturn(Collections.emptyList());
+                TestPatientConfig config = TestPatientConfig.builder()
+                                                            .withIgnoredLookupExceptions(IllegalStateException.class)
+                                                            .withListeners(listener)
+                                                            .build();
+                TestPatientDriver patientDriver = new TestPatientDriver(config, "listener", () -> driver);
+                TestPatientElement instance = patientDriver.find(By.id("a")).get();
+                Assertions.assertThrows(NoSuchElementException.class, () -> instance.accept(WebElement::click));
+                verify(listener).onIgnoredLookupException(patientDriver.find(By.id("a")).toString(), ignored);
+                verify(listener).onWaitTimeout(instance.toString(), 1, Duration.ZERO);
+                verify(listener).afterAction(eq(instance.toString()), any(NoSuchElementException.class));
+            }
+        }
+
+        @Nested
+        @DisplayName("when reporting metrics")
+        final class MetricsTest {
+
+            @Test
+            @DisplayName("reports cache misses, stale elements, retries, waits and look-ups")
+            void testReportsActionMetrics() {
+                WebDriver driver = mock(WebDriver.class);
+                WebElement element = mock(WebElement.class);
+                doThrow(StaleElementReferenceException.class).doNothing().when(element).click();
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element));
+                TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().build(), "metrics", () -> driver);
+                InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+                patientDriver.setMetrics(metrics);
+                TestPatientElementLocator locator = patientDriver.find(By.id("a"));
+                TestPatientElement instance = locator.get();
+                instance.accept(WebElement::click);
+                instance.accept(WebElement::click);
+                String description = instance.toString();
+                Assertions.assertAll(() -> Assertions.assertEquals(2, metrics.getCount(InMemoryPatientMetrics.CACHE_MISSES, description)),
+                                     () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.CACHE_HITS, description)),
+                                     () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.STALE_ELEMENTS, description)),
+                                     () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.RETRIES, description)),
+                                     () -> Assertions.assertEquals(2, metrics.getCount(InMemoryPatientMetrics.WAITS, description)),
+                                     () -> Assertions.assertEquals(2, metrics.getCount(InMemoryPatientMetrics.LOOKUPS, locator.toString())));
+            }
+
+            @Test
+            @DisplayName("reports ignored action exceptions by class")
+            void testReportsIgnoredActionExceptions() {
+                WebDriver driver = mock(WebDriver.class);
+                WebElement element = mock(WebElement.class);
+                doThrow(IllegalStateException.class).doNothing().when(element).click();
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element));
+                TestPatientConfig config = TestPatientConfig.builder()
+                                                            .withIgnoredActionExceptions(IllegalStateException.class)
+                                                            .build();
+                TestPatientDriver patientDriver = new TestPatientDriver(config, "metrics", () -> driver);
+                InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+                patientDriver.setMetrics(metrics);
+                TestPatientElement instance = patientDriver.find(By.id("a")).get();
+                instance.accept(WebElement::click);
+                Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.ignoredActionException(IllegalStateException.class), instance.toString()));
+            }
+
+            @Test
+            @DisplayName("reports ignored look-up exceptions of child elements by class")
+            void testReportsIgnoredChildLookupExceptions() {
+                WebDriver driver = mock(WebDriver.class);
+                WebElement element = mock(WebElement.class);
+                when(element.findElements(By.id("b"))).thenThrow(IllegalStateException.class);
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element));
+                TestPatientConfig config = TestPatientConfig.builder()
+                                                            .withIgnoredLookupExceptions(IllegalStateException.class)
+                                                            .build();
+                TestPatientDriver patientDriver = new TestPatientDriver(config, "metrics", () -> driver);
+                InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+                patientDriver.setMetrics(metrics);
+                TestPatientElement instance = patientDriver.find(By.id("a")).get();
+                Assertions.assertFalse(instance.find(By.id("b")).clone(Duration.ZERO).get().isPresent());
+                Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.ignoredLookupException(IllegalStateException.class), instance.toString()));
+            }
+        }
+
+        @Nested
+        @DisplayName("when the waits of the patient driver are cancelled")
+        final class CancellationTest {
+
+            private TestPatientDriver getDriver(WebDriver driver) {
+                TestPatientConfig config = TestPatientConfig.builder()
+                                                            .withWait(PatientWait.builder()
+                                                                                 .withInitialDelay(Duration.ZERO)
+                                                                                 .withDelaySupplier(PatientDelaySuppliers.fixed(Duration.ofMillis(50)))
+                                                                                 .build())
+                                                            .withTimeout(Duration.ofSeconds(30))
+                                                            .build();
+                return new TestPatientDriver(config, "cancellable", () -> driver);
+            }
+
+            @Test
+            @DisplayName("aborts a wait in progress with a cancelled exception")
+            void testAbortsWaitInProgress() throws Exception {
+                WebDriver driver = mock(WebDriver.class);
+                CountDownLatch polled = new CountDownLatch(1);
+                when(driver.findElements(By.id("a"))).then(invocation -> {
+                    polled.countDown();
+                    return Collections.emptyList();
+                });
+                TestPatientDriver patientDriver = getDriver(driver);
+                TestPatientElement element = patientDriver.find(By.id("a")).get();
+                CompletableFuture<Boolean> present = CompletableFuture.supplyAsync(element::isPresent);
+                Assertions.assertTrue(polled.await(5, TimeUnit.SECONDS), "Should have started polling");
+                patientDriver.getCancellationToken().cancel();
+                ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> present.get(5, TimeUnit.SECONDS));
+                Assertions.assertTrue(exception.getCause() instanceof WaitCancelledException, "Should have been cancelled");
+            }
+
+            @Test
+            @DisplayName("throws a cancelled exception for actions and waits without calling the web driver")
+            void testThrowsOnceCancelled() {
+                WebDriver driver = mock(WebDriver.class);
+                TestPatientDriver patientDriver = getDriver(driver);
+                TestPatientElement element = patientDriver.find(By.id("a")).get();
+                patientDriver.getCancellationToken().cancel();
+                Assertions.assertAll(() -> Assertions.assertThrows(WaitCancelledException.class, () -> element.accept(WebElement::click)),
+                                     () -> Assertions.assertThrows(WaitCancelledException.class, element::isPresent),
+                                     () -> Assertions.assertThrows(WaitCancelledException.class, () -> patientDriver.find(By.id("b")).getAll()));
+                verify(driver, never()).findElements(any(By.class));
+            }
+
+            @Test
+            @DisplayName("completes an asynchronous wait exceptionally")
+            void testCompletesAsyncWaitExceptionally() {
+                WebDriver driver = mock(WebDriver.class);
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.emptyList());
+                TestPatientDriver patientDriver = getDriver(driver);
+                try (CommandQueue<WebDriver, WebElement> ignored = patientDriver.startCommandQueue()) {
+                    CompletableFuture<Boolean> present = patientDriver.find(By.id("a")).get().isPresentAsync();
+                    patientDriver.getCancellationToken().cancel();
+                    ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> present.get(5, TimeUnit.SECONDS));
+                    Assertions.assertTrue(exception.getCause() instanceof WaitCancelledException, "Should have been cancelled");
+                }
+            }
+        }
+
+        @Nested
+        @DisplayName("when executing asynchronously")
+        final class AsyncTest {
+
+            @Test
+            @DisplayName("throws an exception for null arguments")
+            void testThrowsForNullArguments() {
+                TestPatientElement instance = getInstance(getMockElementSupplier(), Duration.ZERO);
+                Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.acceptAsync(null)),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.applyAsync(null)),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> instance.isAbsentAsync(null)));
+            }
+
+            @Test
+            @DisplayName("throws an exception for an element that doesn't descend from a patient driver")
+            void testThrowsWithoutDriver() {
+                Assertions.assertThrows(IllegalStateException.class,
+                                        () -> getInstance(getMockElementSupplier(), Duration.ZERO).applyAsync(e -> e));
+            }
+
+            @Test
+            @DisplayName("executes on the command queue of the patient driver")
+            void testExecutesOnCommandQueue() throws Exception {
+                WebDriver driver = mock(WebDriver.class);
+                WebElement element = mock(WebElement.class);
+                when(element.getText()).thenReturn("hello");
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element));
+                TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().build(), "async", () -> driver);
+                TestPatientElement instance = patientDriver.find(By.id("a")).get();
+                try (CommandQueue<WebDriver, WebElement> queue = patientDriver.startCommandQueue()) {
+                    Assertions.assertAll(() -> Assertions.assertEquals("hello", instance.applyAsync(WebElement::getText).get(5, TimeUnit.SECONDS)),
+                                         () -> Assertions.assertTrue(instance.applyAsync(e -> queue.isOwnerThread()).get(5, TimeUnit.SECONDS)),
+                                         () -> Assertions.assertTrue(instance.isPresentAsync().get(5, TimeUnit.SECONDS)),
+                                         () -> Assertions.assertFalse(instance.isAbsentAsync(Duration.ZERO).get(5, TimeUnit.SECONDS)));
+                    instance.acceptAsync(WebElement::click).get(5, TimeUnit.SECONDS);
+                    verify(element).click();
+                }
+            }
+
+            @Test
+            @DisplayName("polls on the wait scheduler of the patient driver until the element is absent")
+            void testPollsOnWaitScheduler() throws Exception {
+                WebDriver driver = mock(WebDriver.class);
+                WebElement element = mock(WebElement.class);
+                when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element),
+                                                                 Collections.singletonList(element),
+                                                                 Collections.emptyList());
+                TestPatientConfig config = TestPatientConfig.builder()
+                                                            .withWait(PatientWait.builder()
+                                                                                 .withInitialDelay(Duration.ZERO)
+                                                                                 .withDelaySupplier(PatientDelaySuppliers.fixed(Duration.ofMillis(5)))
+                                                                                 .build())
+                                                            .build();
+                TestPatientDriver patientDriver = new TestPatientDriver(config, "async", () -> driver);
+                try (WaitScheduler scheduler = new WaitScheduler(Duration.ofMillis(1), 16);
+                     CommandQueue<WebDriver, WebElement> ignored = patientDriver.startCommandQueue()) {
+                    patientDriver.setWaitScheduler(scheduler);
+                    boolean absent = patientDriver.find(By.id("a")).get().isAbsentAsync(Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+                    Assertions.assertAll(() -> Assertions.assertTrue(absent, "Should have found no element once it was removed"),
+                                         () -> Assertions.assertEquals(0, scheduler.getQueueDepth(), "Should have no pending polls"));
+                    verify(driver, times(3)).findElements(By.id("a"));
+                }
+            }
+
+            @Test
+            @DisplayName("completes exceptionally with the exception thrown while executing")
+            void testCompletesExceptionally() {
+                WebDriver driver = mock(WebDriver.class);
+                TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().build(), "async", () -> driver);
+                try (CommandQueue<WebDriver, WebElement> ignored = patientDriver.startCommandQueue()) {
+                    CompletableFuture<WebElement> future = patientDriver.find(By.id("a")).get().applyAsync(e -> e);
+                    ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+                    Assertions.assertTrue(exception.getCause() instanceof NoSuchElementException, "Should fail with the original exception");
+                }
+            }
+        }
     }
 
     @Nested
@@ -357,6 +891,13 @@ final class AbstractPatientElementTest {
     // Test helpers
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 
+    private static WebElement getScriptElement() {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+        WebElement element = mock(WebElement.class, withSettings().extraInterfaces(WrapsDriver.class));
+        when(((WrapsDriver) element).getWrappedDriver()).thenReturn(driver);
+        return element;
+    }
+
     private static TestPatientElement getInstance() {
         return getInstance(getMockConfig(),
                            "DefaultDescription",
@@ -374,6 +915,23 @@ final class AbstractPatientElementTest {
                            timeout);
     }
 
+    private static TestPatientElement getLocatedInstance(boolean cachedElementValidation,
+                                                         AtomicInteger lookupCounter,
+                                                         Predicate<WebElement> filter) {
+        TestPatientConfig config = TestPatientConfig.builder()
+                                                    .withCachedElementValidation(cachedElementValidation)
+                                                    .build();
+        return new TestPatientElementLocator(config,
+                                             "DefaultDescription",
+                                             () -> {
+                                                 lookupCounter.incrementAndGet();
+                                                 return Collections.singletonList(mock(WebElement.class));
+                                             },
+                                             config.getDefaultWait(),
+                                             Duration.ZERO,
+                                             filter).get();
+    }
+
     private static TestPatientElement getInstance(TestPatientConfig config,
                                                   String description,
                                                   Supplier<Optional<WebElement>> elementSupplier,
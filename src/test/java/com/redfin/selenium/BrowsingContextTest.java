@@ -0,0 +1,68 @@
+package com.redfin.selenium;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+@DisplayName("A BrowsingContext")
+final class BrowsingContextTest {
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Nested
+    @DisplayName("when constructed")
+    final class ConstructorTest {
+
+        @Test
+        @DisplayName("throws an exception for a null or empty window handle")
+        void testThrowsForInvalidWindowHandle() {
+            Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> BrowsingContext.window(null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> BrowsingContext.window("")));
+        }
+
+        @Test
+        @DisplayName("throws an exception for a null frame locator")
+        void testThrowsForNullFrame() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> BrowsingContext.topLevel().frame(null));
+        }
+    }
+
+    @Nested
+    @DisplayName("once instantiated")
+    final class BehaviorTest {
+
+        @Test
+        @DisplayName("returns the given window handle and frames")
+        void testReturnsGivenValues() {
+            BrowsingContext context = BrowsingContext.window("main").frame(By.id("outer")).frame(By.name("inner"));
+            Assertions.assertAll(() -> Assertions.assertEquals(Optional.of("main"), context.getWindowHandle()),
+                                 () -> Assertions.assertEquals(Arrays.asList(By.id("outer"), By.name("inner")), context.getFrames()),
+                                 () -> Assertions.assertFalse(BrowsingContext.topLevel().getWindowHandle().isPresent()),
+                                 () -> Assertions.assertTrue(BrowsingContext.topLevel().getFrames().isEmpty()));
+        }
+
+        @Test
+        @DisplayName("does not modify the context a frame is added to")
+        void testIsImmutable() {
+            BrowsingContext context = BrowsingContext.topLevel();
+            context.frame(By.id("frame"));
+            Assertions.assertTrue(context.getFrames().isEmpty(), "Adding a frame should return a new context");
+        }
+
+        @Test
+        @DisplayName("considers contexts with the same window handle and frames equal")
+        void testEquality() {
+            Assertions.assertAll(() -> Assertions.assertEquals(BrowsingContext.topLevel().frame(By.id("a")), BrowsingContext.topLevel().frame(By.id("a"))),
+                                 () -> Assertions.assertEquals(BrowsingContext.topLevel().frame(By.id("a")).hashCode(), BrowsingContext.topLevel().frame(By.id("a")).hashCode()),
+                                 () -> Assertions.assertNotEquals(BrowsingContext.topLevel().frame(By.id("a")), BrowsingContext.window("main").frame(By.id("a"))),
+                                 () -> Assertions.assertNotEquals(BrowsingContext.topLevel().frame(By.id("a")), BrowsingContext.topLevel().frame(By.id("b"))));
+        }
+    }
+}
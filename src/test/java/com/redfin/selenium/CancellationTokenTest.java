@@ -0,0 +1,132 @@
+package com.redfin.selenium;
+
+import com.redfin.patience.PatientDelaySuppliers;
+import com.redfin.patience.PatientWait;
+import com.redfin.patience.exceptions.PatientTimeoutException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("A CancellationToken")
+final class CancellationTokenTest {
+
+    private static final PatientWait SLOW_WAIT = PatientWait.builder()
+                                                            .withInitialDelay(Duration.ZERO)
+                                                            .withDelaySupplier(PatientDelaySuppliers.fixed(Duration.ofSeconds(10)))
+                                                            .build();
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Test
+    @DisplayName("throws an exception for a null or empty reason")
+    void testThrowsForNullOrEmptyReason() {
+        CancellationToken token = new CancellationToken();
+        Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> token.cancel(null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> token.cancel("")),
+                             () -> Assertions.assertFalse(token.isCancelled()));
+    }
+
+    @Test
+    @DisplayName("throws a cancelled exception with the reason of the first cancellation once cancelled")
+    void testThrowsOnceCancelled() {
+        CancellationToken token = new CancellationToken();
+        token.throwIfCancelled();
+        token.cancel("suite timeout");
+        token.cancel("second");
+        WaitCancelledException exception = Assertions.assertThrows(WaitCancelledException.class, token::throwIfCancelled);
+        Assertions.assertAll(() -> Assertions.assertTrue(token.isCancelled()),
+                             () -> Assertions.assertEquals("suite timeout", exception.getMessage()));
+    }
+
+    @Nested
+    @DisplayName("when wrapping a wait")
+    final class WrapTest {
+
+        @Test
+        @DisplayName("returns a wait that polls as usual until cancelled")
+        void testPollsAsUsual() {
+            CancellationToken token = new CancellationToken();
+            AtomicInteger attempts = new AtomicInteger();
+            PatientWait wait = token.wrap(PatientWait.builder()
+                                                     .withInitialDelay(Duration.ZERO)
+                                                     .withDelaySupplier(PatientDelaySuppliers.fixed(Duration.ofMillis(1)))
+                                                     .build());
+            Assertions.assertAll(() -> Assertions.assertEquals(3, (int) wait.from(attempts::incrementAndGet).withFilter(i -> i >= 3).get(Duration.ofSeconds(5))),
+                                 () -> Assertions.assertThrows(PatientTimeoutException.class, () -> wait.from(() -> false).withFilter(b -> b).get(Duration.ofMillis(5))));
+        }
+
+        @Test
+        @DisplayName("returns a wait that makes no attempt once cancelled")
+        void testNoAttemptOnceCancelled() {
+            CancellationToken token = new CancellationToken();
+            token.cancel();
+            AtomicInteger attempts = new AtomicInteger();
+            Assertions.assertThrows(WaitCancelledException.class, () -> token.wrap(SLOW_WAIT).from(attempts::incrementAndGet).get(Duration.ofSeconds(30)));
+            Assertions.assertEquals(0, attempts.get(), "Should not have made an attempt");
+        }
+
+        @Test
+        @DisplayName("wakes up a thread sleeping between polls immediately and clears its interrupt")
+        void testWakesSleepingThread() throws Exception {
+            CancellationToken token = new CancellationToken();
+            CountDownLatch attempted = new CountDownLatch(1);
+            CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    token.wrap(SLOW_WAIT).from(() -> {
+                        attempted.countDown();
+                        return false;
+                    }).withFilter(b -> b).get(Duration.ofSeconds(30));
+                    interrupted.completeExceptionally(new AssertionError("Should have been cancelled"));
+                } catch (WaitCancelledException e) {
+                    interrupted.complete(Thread.currentThread().isInterrupted());
+                } catch (Throwable t) {
+                    interrupted.completeExceptionally(t);
+                }
+            });
+            thread.start();
+            Assertions.assertTrue(attempted.await(5, TimeUnit.SECONDS), "Should have made an attempt");
+            long start = System.nanoTime();
+            token.cancel();
+            boolean isInterrupted = interrupted.get(5, TimeUnit.SECONDS);
+            Assertions.assertAll(() -> Assertions.assertFalse(isInterrupted, "Should have cleared the interrupt"),
+                                 () -> Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "Should not have slept the whole delay"));
+        }
+    }
+
+    @Nested
+    @DisplayName("when tracking a future")
+    final class TrackTest {
+
+        @Test
+        @DisplayName("completes a pending future exceptionally when cancelled")
+        void testCompletesPendingFuture() {
+            CancellationToken token = new CancellationToken();
+            CompletableFuture<Boolean> pending = token.track(new CompletableFuture<>());
+            CompletableFuture<Boolean> completed = token.track(new CompletableFuture<>());
+            completed.complete(true);
+            token.cancel();
+            ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> pending.get(5, TimeUnit.SECONDS));
+            Assertions.assertAll(() -> Assertions.assertTrue(exception.getCause() instanceof WaitCancelledException),
+                                 () -> Assertions.assertTrue(completed.getNow(false), "Should not change a completed future"));
+        }
+
+        @Test
+        @DisplayName("completes a future exceptionally right away if already cancelled")
+        void testCompletesFutureWhenAlreadyCancelled() {
+            CancellationToken token = new CancellationToken();
+            token.cancel();
+            Assertions.assertTrue(token.track(new CompletableFuture<>()).isCompletedExceptionally());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.redfin.selenium;
+
+import com.redfin.selenium.implementation.TestPatientConfig;
+import com.redfin.selenium.implementation.TestPatientDriver;
+import com.redfin.selenium.implementation.TestPatientElement;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("A ChromeTraceRecorder")
+final class ChromeTraceRecorderTest {
+
+    private static final Pattern SPAN = Pattern.compile("\"name\":\"([a-z]+)\",\"cat\":\"patient-selenium\",\"ph\":\"X\",\"ts\":(\\d+),\"dur\":(\\d+)");
+
+    /*
+     * The name, start and end of an exported span, in the order the spans were closed.
+     */
+
+    private static final class ExportedSpan {
+
+        private final String name;
+        private final long start;
+        private final long end;
+
+        private ExportedSpan(String name,
+                             long start,
+                             long duration) {
+            this.name = name;
+            this.start = start;
+            this.end = start + duration;
+        }
+
+        private boolean contains(ExportedSpan other) {
+            // Allow for the start and duration being truncated to microseconds separately
+            return start <= other.start && other.end <= end + 1;
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Test
+    @DisplayName("throws an exception for invalid arguments")
+    void testThrowsForInvalidArguments() {
+        ChromeTraceRecorder recorder = new ChromeTraceRecorder();
+        PatientTracer.Span span = recorder.startSpan("span", "description");
+        Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> recorder.startSpan(null, "description")),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> recorder.startSpan("", "description")),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> recorder.startSpan("span", null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> span.setAttribute(null, 1)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> recorder.writeTo(null)));
+    }
+
+    @Test
+    @DisplayName("exports a closed span once with its description, attributes and thread")
+    void testExportsClosedSpan() {
+        ChromeTraceRecorder recorder = new ChromeTraceRecorder();
+        PatientTracer.Span open = recorder.startSpan("open", "never closed");
+        PatientTracer.Span span = recorder.startSpan("span", "a \"quoted\"\ndescription")
+                                          .setAttribute("count", 3)
+                                          .setAttribute("flag", true)
+                                          .setAttribute("type", IllegalStateException.class.getName());
+        span.close();
+        span.close();
+        String json = recorder.toJson();
+        Assertions.assertAll(() -> Assertions.assertEquals(1, recorder.getSpanCount()),
+                             () -> Assertions.assertTrue(json.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[")),
+                             () -> Assertions.assertTrue(json.contains("\"args\":{\"description\":\"a \\\"quoted\\\"\\ndescription\",\"count\":3,\"flag\":true,\"type\":\"java.lang.IllegalStateException\"}")),
+                             () -> Assertions.assertTrue(json.contains("\"tid\":" + Thread.currentThread().getId())),
+                             () -> Assertions.assertTrue(json.contains("\"ph\":\"M\"")),
+                             () -> Assertions.assertFalse(json.contains("never closed")));
+        open.close();
+        recorder.clear();
+        Assertions.assertEquals(0, recorder.getSpanCount());
+    }
+
+    @Test
+    @DisplayName("writes the trace to a file")
+    void testWritesTo() throws IOException {
+        ChromeTraceRecorder recorder = new ChromeTraceRecorder();
+        recorder.startSpan("span", "description").close();
+        Path file = Files.createTempFile("patient-trace", ".json");
+        try {
+            recorder.writeTo(file);
+            Assertions.assertEquals(recorder.toJson(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        Assertions.assertThrows(UncheckedIOException.class, () -> recorder.writeTo(file.resolve("missing").resolve("trace.json")));
+    }
+
+    @Nested
+    @DisplayName("when given to a patient driver")
+    final class DriverTest {
+
+        @Test
+        @DisplayName("records element actions as a tree of attempts, waits, polls, look-ups and commands")
+        void testRecordsTree() {
+            WebDriver driver = mock(WebDriver.class);
+            WebElement element = mock(WebElement.class);
+            doThrow(StaleElementReferenceException.class).doNothing().when(element).click();
+            when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element));
+            TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().build(), "trace", () -> driver);
+            ChromeTraceRecorder recorder = new ChromeTraceRecorder();
+            patientDriver.setTracer(recorder);
+            TestPatientElement instance = patientDriver.find(By.id("a")).get();
+            try (PatientTracer.Span ignored = patientDriver.getTracer().startSpan("page", "login")) {
+                instance.accept(WebElement::click);
+            }
+            List<ExportedSpan> spans = getSpans(recorder.toJson());
+            ExportedSpan page = getSpan(spans, "page");
+            ExportedSpan action = getSpan(spans, "action");
+            Assertions.assertAll(() -> Assertions.assertEquals(2, count(spans, "attempt")),
+                                 () -> Assertions.assertEquals(2, count(spans, "wait")),
+                                 () -> Assertions.assertEquals(2, count(spans, "poll")),
+                                 () -> Assertions.assertEquals(2, count(spans, "lookup")),
+                                 () -> Assertions.assertEquals(6, count(spans, "command"), "Should have recorded the look-up, filter and action command of each attempt"),
+                                 () -> Assertions.assertTrue(page.contains(action)),
+                                 () -> Assertions.assertTrue(spans.stream().filter(span -> span != page).allMatch(action::contains)),
+                                 () -> Assertions.assertTrue(recorder.toJson().contains("\"exception\":\"" + StaleElementReferenceException.class.getName() + "\"")),
+                                 () -> Assertions.assertTrue(recorder.toJson().contains("\"type\":\"" + CommandScope.CommandType.ACTION + "\"")),
+                                 () -> Assertions.assertTrue(recorder.toJson().contains("\"attempts\":2")));
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test Helpers
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private static List<ExportedSpan> getSpans(String json) {
+        List<ExportedSpan> spans = new ArrayList<>();
+        Matcher matcher = SPAN.matcher(json);
+        while (matcher.find()) {
+            spans.add(new ExportedSpan(matcher.group(1), Long.parseLong(matcher.group(2)), Long.parseLong(matcher.group(3))));
+        }
+        return spans;
+    }
+
+    private static ExportedSpan getSpan(List<ExportedSpan> spans,
+                                        String name) {
+        return spans.stream()
+                    .filter(span -> span.name.equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("No span named " + name));
+    }
+
+    private static long count(List<ExportedSpan> spans,
+                              String name) {
+        return spans.stream()
+                    .filter(span -> span.name.equals(name))
+                    .count();
+    }
+}
@@ -0,0 +1,137 @@
+package com.redfin.selenium;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+@DisplayName("A CommandProfile")
+final class CommandProfileTest {
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Test
+    @DisplayName("throws an exception for invalid arguments")
+    void testThrowsForInvalidArguments() {
+        CommandProfile profile = getProfile(1, 0, 0);
+        Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> CommandProfile.capture(null, new InMemoryPatientMetrics())),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> CommandProfile.capture(getScope(), null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> CommandProfile.readFrom(null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> profile.writeTo(null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> profile.getEntry(null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> profile.compareTo(null, 0, Duration.ZERO)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> profile.compareTo(profile, -0.1, Duration.ZERO)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> profile.compareTo(profile, 0, null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> profile.compareTo(profile, 0, Duration.ofMillis(-1))));
+    }
+
+    @Test
+    @DisplayName("captures the commands of the scope and the waits and retries of the metrics per description")
+    void testCaptures() {
+        CommandScope scope = getScope();
+        scope.record(CommandScope.CommandType.LOOKUP, "locator");
+        scope.record(CommandScope.CommandType.FILTER, "locator");
+        scope.record(CommandScope.CommandType.ACTION, "element");
+        InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+        metrics.recordWait("locator", 2, Duration.ofMillis(30), false);
+        metrics.recordWait("locator", 1, Duration.ofMillis(20), false);
+        metrics.recordRetry("element");
+        metrics.recordCacheHit("other");
+        CommandProfile profile = CommandProfile.capture(scope, metrics);
+        CommandProfile.Entry locator = profile.getEntry("locator").orElseThrow(AssertionError::new);
+        CommandProfile.Entry element = profile.getEntry("element").orElseThrow(AssertionError::new);
+        Assertions.assertAll(() -> Assertions.assertEquals("test", profile.getName()),
+                             () -> Assertions.assertEquals(3, profile.getEntries().size()),
+                             () -> Assertions.assertEquals(2, locator.getCommands()),
+                             () -> Assertions.assertEquals(50, locator.getWaitMillis()),
+                             () -> Assertions.assertEquals(0, locator.getRetries()),
+                             () -> Assertions.assertEquals(1, element.getCommands()),
+                             () -> Assertions.assertEquals(1, element.getRetries()),
+                             () -> Assertions.assertFalse(profile.getEntry("missing").isPresent()));
+    }
+
+    @Test
+    @DisplayName("writes and reads back a profile, escaping descriptions")
+    void testWritesAndReads() throws IOException {
+        CommandScope scope = new CommandScope("a\ttest", Integer.MAX_VALUE, CommandScope.fail(), null);
+        scope.record(CommandScope.CommandType.LOOKUP, "driver.find(By.cssSelector: a\tb\\c\nd)");
+        CommandProfile profile = CommandProfile.capture(scope, new InMemoryPatientMetrics());
+        Path directory = Files.createTempDirectory("patient-profiles");
+        Path file = directory.resolve("nested").resolve("test.profile");
+        try {
+            Assertions.assertFalse(CommandProfile.readFrom(file).isPresent());
+            profile.writeTo(file);
+            CommandProfile read = CommandProfile.readFrom(file).orElseThrow(AssertionError::new);
+            Assertions.assertAll(() -> Assertions.assertEquals(profile.toString(), read.toString()),
+                                 () -> Assertions.assertEquals("a\ttest", read.getName()),
+                                 () -> Assertions.assertEquals(1, read.getEntry("driver.find(By.cssSelector: a\tb\\c\nd)")
+                                                                      .orElseThrow(AssertionError::new)
+                                                                      .getCommands()));
+            Files.write(file, "not a profile".getBytes(StandardCharsets.UTF_8));
+            Assertions.assertThrows(UncheckedIOException.class, () -> CommandProfile.readFrom(file));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.getParent());
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    @DisplayName("reports the values that grew beyond the tolerance of the baseline")
+    void testCompareTo() {
+        CommandProfile baseline = getProfile(10, 100, 1);
+        Assertions.assertAll(() -> Assertions.assertTrue(getProfile(12, 120, 1).compareTo(baseline, 0.2, Duration.ZERO).isEmpty()),
+                             () -> Assertions.assertTrue(getProfile(5, 500, 0).compareTo(baseline, 0, Duration.ofMillis(400)).isEmpty()));
+        List<CommandProfile.Regression> regressions = getProfile(13, 200, 2).compareTo(baseline, 0.2, Duration.ofMillis(50));
+        Assertions.assertAll(() -> Assertions.assertEquals(3, regressions.size()),
+                             () -> Assertions.assertEquals(CommandProfile.Metric.COMMANDS, regressions.get(0).getMetric()),
+                             () -> Assertions.assertEquals(10, regressions.get(0).getBaseline()),
+                             () -> Assertions.assertEquals(13, regressions.get(0).getActual()),
+                             () -> Assertions.assertEquals(CommandProfile.Metric.WAIT_MILLIS, regressions.get(1).getMetric()),
+                             () -> Assertions.assertEquals(CommandProfile.Metric.RETRIES, regressions.get(2).getMetric()),
+                             () -> Assertions.assertEquals("locator: commands grew from 10 to 13", regressions.get(0).toString()));
+    }
+
+    @Test
+    @DisplayName("compares descriptions missing from the baseline against zero")
+    void testCompareToMissingBaseline() {
+        CommandProfile empty = CommandProfile.capture(getScope(), new InMemoryPatientMetrics());
+        Assertions.assertAll(() -> Assertions.assertEquals(1, getProfile(1, 0, 0).compareTo(empty, 1, Duration.ZERO).size()),
+                             () -> Assertions.assertEquals(Collections.emptyList(), empty.compareTo(getProfile(1, 0, 0), 0, Duration.ZERO)));
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test Helpers
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private static CommandScope getScope() {
+        return new CommandScope("test", Integer.MAX_VALUE, CommandScope.fail(), null);
+    }
+
+    private static CommandProfile getProfile(int commands,
+                                             long waitMillis,
+                                             int retries) {
+        CommandScope scope = getScope();
+        InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+        for (int i = 0; i < commands; i++) {
+            scope.record(CommandScope.CommandType.LOOKUP, "locator");
+        }
+        if (waitMillis > 0) {
+            metrics.recordWait("locator", 1, Duration.ofMillis(waitMillis), false);
+        }
+        for (int i = 0; i < retries; i++) {
+            metrics.recordRetry("locator");
+        }
+        return CommandProfile.capture(scope, metrics);
+    }
+}
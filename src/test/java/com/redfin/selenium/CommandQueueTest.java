@@ -0,0 +1,243 @@
+package com.redfin.selenium;
+
+import com.redfin.selenium.implementation.TestPatientConfig;
+import com.redfin.selenium.implementation.TestPatientDriver;
+import com.redfin.selenium.implementation.TestPatientElement;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("A CommandQueue")
+final class CommandQueueTest {
+
+    private static TestPatientDriver getDriver(WebDriver driver) {
+        return new TestPatientDriver(TestPatientConfig.builder().build(), "shared", () -> driver);
+    }
+
+    /*
+     * Submit a command that keeps the queue busy until the returned latch
+     * is counted down so that later commands are waiting in the queue.
+     */
+
+    private static CountDownLatch block(CommandQueue<WebDriver, WebElement> queue) {
+        CountDownLatch latch = new CountDownLatch(1);
+        queue.submit(d -> {
+            try {
+                return latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return latch;
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Nested
+    @DisplayName("when started")
+    final class StartTest {
+
+        @Test
+        @DisplayName("is returned by the driver until it is closed")
+        void testReturnedUntilClosed() {
+            TestPatientDriver driver = getDriver(mock(WebDriver.class));
+            Assertions.assertFalse(driver.getCommandQueue().isPresent(), "Should not have a queue by default");
+            CommandQueue<WebDriver, WebElement> queue = driver.startCommandQueue();
+            Assertions.assertAll(() -> Assertions.assertSame(queue, driver.startCommandQueue()),
+                                 () -> Assertions.assertSame(queue, driver.getCommandQueue().orElse(null)));
+            queue.close();
+            Assertions.assertAll(() -> Assertions.assertFalse(driver.getCommandQueue().isPresent(), "Should detach a closed queue"),
+                                 () -> Assertions.assertThrows(IllegalStateException.class, () -> queue.submit(d -> d)),
+                                 () -> Assertions.assertThrows(IllegalStateException.class, () -> queue.find(By.id("a"), l -> l)));
+        }
+    }
+
+    @Nested
+    @DisplayName("once started")
+    final class BehaviorTest {
+
+        @Test
+        @DisplayName("executes submitted commands on its own thread")
+        void testExecutesOnOwnThread() throws Exception {
+            WebDriver webDriver = mock(WebDriver.class);
+            TestPatientDriver driver = getDriver(webDriver);
+            try (CommandQueue<WebDriver, WebElement> queue = driver.startCommandQueue()) {
+                Assertions.assertAll(() -> Assertions.assertTrue(queue.submit(d -> queue.isOwnerThread()).get(5, TimeUnit.SECONDS)),
+                                     () -> Assertions.assertSame(webDriver, queue.submit(d -> d).get(5, TimeUnit.SECONDS)),
+                                     () -> Assertions.assertFalse(queue.isOwnerThread()));
+            }
+        }
+
+        @Test
+        @DisplayName("routes accept and apply calls from other threads through the queue")
+        void testRoutesDriverCalls() {
+            TestPatientDriver driver = getDriver(mock(WebDriver.class));
+            try (CommandQueue<WebDriver, WebElement> queue = driver.startCommandQueue()) {
+                boolean appliedByQueue = driver.apply(d -> queue.isOwnerThread());
+                Assertions.assertTrue(appliedByQueue, "Should be applied by the queue thread");
+                IllegalArgumentException failure = new IllegalArgumentException("whoops");
+                Assertions.assertSame(failure, Assertions.assertThrows(IllegalArgumentException.class, () -> driver.accept(d -> {
+                    throw failure;
+                })));
+            }
+        }
+
+        @Test
+        @DisplayName("routes the session state calls of the driver from other threads")
+        void testRoutesSessionStateCalls() {
+            WebDriver webDriver = mock(WebDriver.class);
+            WebDriver.Options options = mock(WebDriver.Options.class);
+            when(webDriver.manage()).thenReturn(options);
+            when(webDriver.getCurrentUrl()).thenReturn("https://example.com/page");
+            TestPatientDriver driver = getDriver(webDriver);
+            try (CommandQueue<WebDriver, WebElement> queue = driver.startCommandQueue()) {
+                AtomicBoolean readByQueue = new AtomicBoolean(false);
+                when(options.getCookies()).thenAnswer(invocation -> {
+                    readByQueue.set(queue.isOwnerThread());
+                    return Collections.emptySet();
+                });
+                Assertions.assertEquals("https://example.com", driver.captureSessionState().getOrigin());
+                Assertions.assertTrue(readByQueue.get(), "Should be captured by the queue thread");
+            }
+        }
+
+        @Test
+        @DisplayName("completes a look-up on an executor that runs it on the calling thread")
+        void testFindsOnCallingThreadExecutor() throws Exception {
+            WebDriver webDriver = mock(WebDriver.class);
+            when(webDriver.findElements(By.id("a"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+            try (CommandQueue<WebDriver, WebElement> queue = getDriver(webDriver).startCommandQueue(Runnable::run)) {
+                Assertions.assertEquals(1, queue.find(By.id("a"), List::size).get(5, TimeUnit.SECONDS).intValue());
+            }
+        }
+
+        @Test
+        @DisplayName("coalesces identical look-ups waiting in the queue")
+        void testCoalescesLookups() throws Exception {
+            WebDriver webDriver = mock(WebDriver.class);
+            WebElement element = mock(WebElement.class);
+            when(element.getText()).thenReturn("hello");
+            when(webDriver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element));
+            TestPatientDriver driver = getDriver(webDriver);
+            try (CommandQueue<WebDriver, WebElement> queue = driver.startCommandQueue()) {
+                CountDownLatch latch = block(queue);
+                CompletableFuture<Integer> size = queue.find(By.id("a"), List::size);
+                // Submitted from another thread, the submission itself is waited for
+                CompletableFuture<String> text = CompletableFuture.supplyAsync(() -> queue.find(By.id("a"), l -> l.get(0).getText()))
+                                                                  .get(5, TimeUnit.SECONDS);
+                CompletableFuture<Integer> other = queue.find(By.id("b"), List::size);
+                latch.countDown();
+                Assertions.assertAll(() -> Assertions.assertEquals(1, size.get(5, TimeUnit.SECONDS).intValue()),
+                                     () -> Assertions.assertEquals("hello", text.get(5, TimeUnit.SECONDS)),
+                                     () -> Assertions.assertEquals(0, other.get(5, TimeUnit.SECONDS).intValue()));
+                verify(webDriver, times(1)).findElements(By.id("a"));
+                verify(webDriver, times(1)).findElements(By.id("b"));
+            }
+        }
+
+        @Test
+        @DisplayName("coalesces identical look-ups relative to the same parent element")
+        void testCoalescesChildLookups() throws Exception {
+            WebDriver webDriver = mock(WebDriver.class);
+            WebElement parent = mock(WebElement.class);
+            when(webDriver.findElements(By.id("parent"))).thenReturn(Collections.singletonList(parent));
+            when(parent.findElements(By.id("child"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+            TestPatientDriver driver = getDriver(webDriver);
+            TestPatientElement parentElement = driver.find(By.id("parent")).get();
+            try (CommandQueue<WebDriver, WebElement> queue = driver.startCommandQueue()) {
+                CountDownLatch latch = block(queue);
+                CompletableFuture<Integer> first = queue.find(parentElement, By.id("child"), List::size);
+                CompletableFuture<Integer> second = queue.find(parentElement, By.id("child"), List::size);
+                latch.countDown();
+                Assertions.assertAll(() -> Assertions.assertEquals(1, first.get(5, TimeUnit.SECONDS).intValue()),
+                                     () -> Assertions.assertEquals(1, second.get(5, TimeUnit.SECONDS).intValue()));
+                verify(parent, times(1)).findElements(By.id("child"));
+            }
+        }
+
+        @Test
+        @DisplayName("only fails the future of a reader that throws")
+        void testReaderFailure() throws Exception {
+            WebDriver webDriver = mock(WebDriver.class);
+            TestPatientDriver driver = getDriver(webDriver);
+            try (CommandQueue<WebDriver, WebElement> queue = driver.startCommandQueue()) {
+                CountDownLatch latch = block(queue);
+                CompletableFuture<Integer> failing = queue.find(By.id("a"), l -> {
+                    throw new IllegalStateException("whoops");
+                });
+                CompletableFuture<Integer> passing = queue.find(By.id("a"), List::size);
+                latch.countDown();
+                Assertions.assertAll(() -> Assertions.assertEquals(0, passing.get(5, TimeUnit.SECONDS).intValue()),
+                                     () -> Assertions.assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS)));
+            }
+        }
+
+        @Test
+        @DisplayName("runs the commands of many queues one at a time per queue on a shared executor")
+        void testSharesExecutor() throws Exception {
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            try {
+                List<CommandQueue<WebDriver, WebElement>> queues = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    queues.add(getDriver(mock(WebDriver.class)).startCommandQueue(pool));
+                }
+                AtomicInteger overlaps = new AtomicInteger();
+                List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+                for (CommandQueue<WebDriver, WebElement> queue : queues) {
+                    AtomicInteger running = new AtomicInteger();
+                    for (int i = 0; i < 10; i++) {
+                        futures.add(queue.submit(d -> {
+                            if (running.incrementAndGet() > 1) {
+                                overlaps.incrementAndGet();
+                            }
+                            Thread.yield();
+                            running.decrementAndGet();
+                            return queue.isOwnerThread();
+                        }));
+                    }
+                }
+                for (CompletableFuture<Boolean> future : futures) {
+                    Assertions.assertTrue(future.get(5, TimeUnit.SECONDS), "Should be the owner while executing");
+                }
+                queues.forEach(CommandQueue::close);
+                Assertions.assertAll(() -> Assertions.assertEquals(0, overlaps.get(), "Commands of a queue should never overlap"),
+                                     () -> Assertions.assertFalse(pool.isShutdown(), "Should not shut down a shared executor"));
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("throws an exception for null arguments")
+        void testThrowsForNullArguments() {
+            try (CommandQueue<WebDriver, WebElement> queue = getDriver(mock(WebDriver.class)).startCommandQueue()) {
+                Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> queue.submit(null)),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> queue.find(null, l -> l)),
+                                     () -> Assertions.assertThrows(IllegalArgumentException.class, () -> queue.find(By.id("a"), null)));
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.redfin.selenium;
+
+import com.redfin.selenium.implementation.TestPatientConfig;
+import com.redfin.selenium.implementation.TestPatientDriver;
+import com.redfin.selenium.implementation.TestPatientElement;
+import com.redfin.selenium.implementation.TestPatientElementLocator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@DisplayName("A CommandScope")
+final class CommandScopeTest {
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Test
+    @DisplayName("throws an exception for invalid arguments")
+    void testThrowsForInvalidArguments() {
+        CommandScope scope = getInstance(1, CommandScope.fail());
+        Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> new CommandScope("", 1, CommandScope.fail(), null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> CommandScope.warn(null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> scope.getCommandCount((String) null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> scope.getCommandCount((CommandScope.CommandType) null)));
+    }
+
+    @Test
+    @DisplayName("counts commands per type and per description")
+    void testCounts() {
+        CommandScope scope = getInstance(Integer.MAX_VALUE, CommandScope.fail());
+        scope.record(CommandScope.CommandType.LOOKUP, "a");
+        scope.record(CommandScope.CommandType.ACTION, "b");
+        scope.record(CommandScope.CommandType.FILTER, "b");
+        scope.record(CommandScope.CommandType.ACTION, "b");
+        Map<String, Map<CommandScope.CommandType, Long>> counts = scope.getCounts();
+        Assertions.assertAll(() -> Assertions.assertEquals(4, scope.getCommandCount()),
+                             () -> Assertions.assertEquals(2, scope.getCommandCount(CommandScope.CommandType.ACTION)),
+                             () -> Assertions.assertEquals(0, scope.getCommandCount(CommandScope.CommandType.SCRIPT)),
+                             () -> Assertions.assertEquals(3, scope.getCommandCount("b")),
+                             () -> Assertions.assertEquals(0, scope.getCommandCount("c")),
+                             () -> Assertions.assertEquals(Arrays.asList("b", "a"), new ArrayList<>(counts.keySet())),
+                             () -> Assertions.assertEquals(Long.valueOf(2), counts.get("b").get(CommandScope.CommandType.ACTION)),
+                             () -> Assertions.assertFalse(counts.get("a").containsKey(CommandScope.CommandType.ACTION)),
+                             () -> Assertions.assertEquals("scope: 4 commands" + System.lineSeparator() + "  b: filter 1, action 2" + System.lineSeparator() + "  a: lookup 1", scope.report()));
+    }
+
+    @Test
+    @DisplayName("stops counting once closed")
+    void testStopsCountingOnceClosed() {
+        List<CommandScope> closed = new ArrayList<>();
+        CommandScope scope = new CommandScope("scope", 10, CommandScope.fail(), closed::add);
+        scope.record(CommandScope.CommandType.LOOKUP, "a");
+        scope.close();
+        scope.close();
+        scope.record(CommandScope.CommandType.LOOKUP, "a");
+        Assertions.assertAll(() -> Assertions.assertTrue(scope.isClosed()),
+                             () -> Assertions.assertEquals(1, scope.getCommandCount()),
+                             () -> Assertions.assertEquals(Collections.singletonList(scope), closed));
+    }
+
+    @Test
+    @DisplayName("throws a command budget exceeded exception with the report when closed over budget with fail")
+    void testFail() {
+        CommandScope scope = getInstance(1, CommandScope.fail());
+        scope.record(CommandScope.CommandType.LOOKUP, "a");
+        Assertions.assertFalse(scope.isOverBudget());
+        scope.record(CommandScope.CommandType.LOOKUP, "a");
+        Assertions.assertTrue(scope.isOverBudget());
+        CommandBudgetExceededException exception = Assertions.assertThrows(CommandBudgetExceededException.class, scope::close);
+        Assertions.assertEquals(scope.report(), exception.getMessage());
+        Assertions.assertTrue(exception.getMessage().startsWith("scope: 2 commands (budget: 1)"));
+    }
+
+    @Test
+    @DisplayName("gives the report to the log when closed over budget with warn")
+    void testWarn() {
+        List<String> reports = new ArrayList<>();
+        Consumer<CommandScope> handler = CommandScope.warn(reports::add);
+        CommandScope within = getInstance(1, handler);
+        within.record(CommandScope.CommandType.LOOKUP, "a");
+        within.close();
+        CommandScope over = getInstance(0, handler);
+        over.record(CommandScope.CommandType.LOOKUP, "a");
+        over.close();
+        Assertions.assertEquals(Collections.singletonList(over.report()), reports);
+    }
+
+    @Nested
+    @DisplayName("when opened on a patient driver")
+    final class DriverTest {
+
+        @Test
+        @DisplayName("counts the look-ups, filters and action attempts of an element")
+        void testCountsElementCommands() {
+            WebDriver driver = mock(WebDriver.class);
+            WebElement element = mock(WebElement.class);
+            doThrow(StaleElementReferenceException.class).doNothing().when(element).click();
+            when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element));
+            TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().withFilter(e -> true).build(), "scope", () -> driver);
+            TestPatientElement instance = patientDriver.find(By.id("a")).get();
+            try (CommandScope scope = patientDriver.openCommandScope("click")) {
+                instance.accept(WebElement::click);
+                Assertions.assertAll(() -> Assertions.assertEquals(2, scope.getCommandCount(CommandScope.CommandType.ACTION)),
+                                     () -> Assertions.assertEquals(2, scope.getCommandCount(CommandScope.CommandType.LOOKUP)),
+                                     () -> Assertions.assertEquals(2, scope.getCommandCount(CommandScope.CommandType.FILTER)),
+                                     () -> Assertions.assertEquals(4, scope.getCommandCount("scope.find(By.id: a)")),
+                                     () -> Assertions.assertEquals(2, scope.getCommandCount(instance.toString())),
+                                     () -> Assertions.assertEquals(6, scope.getCommandCount()));
+            }
+        }
+
+        @Test
+        @DisplayName("counts a snapshot read with a script as a single action")
+        void testCountsSnapshotOnce() {
+            WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+            WebElement element = mock(WebElement.class, withSettings().extraInterfaces(WrapsDriver.class));
+            when(((WrapsDriver) element).getWrappedDriver()).thenReturn(driver);
+            when(((JavascriptExecutor) driver).executeScript(any(), eq(element), any())).thenReturn(Collections.singletonList("hello"));
+            when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element));
+            TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().build(), "scope", () -> driver);
+            TestPatientElement instance = patientDriver.find(By.id("a")).get();
+            try (CommandScope scope = patientDriver.openCommandScope("snapshot")) {
+                Assertions.assertEquals("hello", instance.snapshot(ElementProperty.text()).getText());
+                Assertions.assertAll(() -> Assertions.assertEquals(1, scope.getCommandCount(CommandScope.CommandType.ACTION)),
+                                     () -> Assertions.assertEquals(0, scope.getCommandCount(CommandScope.CommandType.SCRIPT)),
+                                     () -> Assertions.assertEquals(1, scope.getCommandCount(instance.toString())));
+            }
+        }
+
+        @Test
+        @DisplayName("counts the driver actions, context switches, frame look-ups and implicit wait updates")
+        void testCountsDriverCommands() {
+            WebDriver driver = mock(WebDriver.class, RETURNS_DEEP_STUBS);
+            when(driver.findElements(By.id("frame"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+            when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(mock(WebElement.class)));
+            TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().build(), "scope", () -> driver);
+            patientDriver.setImplicitWait(Duration.ofSeconds(10));
+            TestPatientElementLocator locator = patientDriver.find(By.id("a")).within(BrowsingContext.topLevel().frame(By.id("frame")));
+            try (CommandScope scope = patientDriver.openCommandScope("driver")) {
+                patientDriver.accept(d -> {});
+                locator.get().accept(WebElement::click);
+                Assertions.assertAll(() -> Assertions.assertEquals(2, scope.getCommandCount(CommandScope.CommandType.ACTION)),
+                                     () -> Assertions.assertEquals(2, scope.getCommandCount(CommandScope.CommandType.SWITCH)),
+                                     () -> Assertions.assertEquals(2, scope.getCommandCount(CommandScope.CommandType.LOOKUP)),
+                                     () -> Assertions.assertEquals(2, scope.getCommandCount(CommandScope.CommandType.TIMEOUT)),
+                                     () -> Assertions.assertEquals(3, scope.getCommandCount("scope")),
+                                     () -> Assertions.assertEquals(5, scope.getCommandCount(locator.toString())));
+            }
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test Helpers
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private static CommandScope getInstance(int budget,
+                                            Consumer<CommandScope> exceededHandler) {
+        return new CommandScope("scope", budget, exceededHandler, null);
+    }
+}
@@ -0,0 +1,268 @@
+package com.redfin.selenium;
+
+import com.redfin.selenium.implementation.TestPatientConfig;
+import com.redfin.selenium.implementation.TestPatientDriver;
+import com.redfin.selenium.implementation.TestPatientElement;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@DisplayName("An ElementActionBatch")
+final class ElementActionBatchTest {
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Nested
+    @DisplayName("when queueing actions")
+    final class QueueTest {
+
+        @Test
+        @DisplayName("throws an exception for invalid arguments")
+        void testThrowsForInvalidArguments() {
+            TestPatientDriver driver = getDriver(mock(WebDriver.class), mock(WebElement.class));
+            ElementActionBatch<WebElement> batch = driver.batch();
+            TestPatientElement element = driver.find(By.id("foo")).get();
+            Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> batch.click(null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> batch.setValue(element, null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> batch.getAttribute(element, null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> batch.getAttribute(element, "")),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> driver.batch(null)));
+        }
+
+        @Test
+        @DisplayName("returns results that can't be read before the batch is flushed")
+        void testResultsThrowBeforeFlush() {
+            TestPatientDriver driver = getDriver(mock(WebDriver.class), mock(WebElement.class));
+            ElementActionBatch<WebElement> batch = driver.batch();
+            ElementActionBatch.Result<Void> result = batch.click(driver.find(By.id("foo")).get());
+            Assertions.assertAll(() -> Assertions.assertFalse(result.isDone(), "Should not be done before a flush"),
+                                 () -> Assertions.assertThrows(IllegalStateException.class, result::get),
+                                 () -> Assertions.assertEquals(1, batch.size(), "Should have queued the action"));
+        }
+    }
+
+    @Nested
+    @DisplayName("when flushed")
+    final class FlushTest {
+
+        @Test
+        @DisplayName("executes every action with a single script when the driver can execute JavaScript")
+        void testExecutesSingleScript() {
+            WebDriver webDriver = getScriptDriver();
+            when(((JavascriptExecutor) webDriver).executeScript(any(), any())).thenReturn(Arrays.asList(null, "bar"));
+            WebElement webElement = mock(WebElement.class);
+            TestPatientDriver driver = getDriver(webDriver, webElement);
+            TestPatientElement element = driver.find(By.id("foo")).get();
+            ElementActionBatch<WebElement> batch = driver.batch(ElementActionBatch.Mode.SCRIPT);
+            ElementActionBatch.Result<Void> click = batch.click(element);
+            ElementActionBatch.Result<String> attribute = batch.getAttribute(element, "foo");
+            batch.flush();
+            verify((JavascriptExecutor) webDriver, times(1)).executeScript(any(), any());
+            verify(webElement, never()).click();
+            Assertions.assertAll(() -> Assertions.assertTrue(click.isDone(), "Should have completed the click"),
+                                 () -> Assertions.assertNull(click.get(), "Should have a null click result"),
+                                 () -> Assertions.assertEquals("bar", attribute.get(), "Should have mapped the attribute result"),
+                                 () -> Assertions.assertEquals(0, batch.size(), "Should have emptied the batch"));
+        }
+
+        @Test
+        @DisplayName("executes the actions after a failed script action natively")
+        void testExecutesRemainingActionsNatively() {
+            WebDriver webDriver = getScriptDriver();
+            when(((JavascriptExecutor) webDriver).executeScript(any(), any())).thenReturn(Collections.singletonList("bar"))
+                                                                              .thenReturn(Collections.emptyList());
+            WebElement webElement = mock(WebElement.class);
+            when(webElement.getAttribute("baz")).thenReturn("native");
+            TestPatientDriver driver = getDriver(webDriver, webElement);
+            TestPatientElement element = driver.find(By.id("foo")).get();
+            ElementActionBatch<WebElement> batch = driver.batch(ElementActionBatch.Mode.SCRIPT);
+            ElementActionBatch.Result<String> first = batch.getAttribute(element, "foo");
+            ElementActionBatch.Result<Void> click = batch.click(element);
+            ElementActionBatch.Result<String> last = batch.getAttribute(element, "baz");
+            batch.flush();
+            verify(webElement, times(1)).click();
+            Assertions.assertAll(() -> Assertions.assertEquals("bar", first.get(), "Should have mapped the script result"),
+                                 () -> Assertions.assertTrue(click.isDone(), "Should have completed the click natively"),
+                                 () -> Assertions.assertEquals("native", last.get(), "Should have mapped the native result"));
+        }
+
+        @Test
+        @DisplayName("executes every action natively by default even if the driver can execute JavaScript")
+        void testExecutesNativelyByDefault() {
+            WebDriver webDriver = getScriptDriver();
+            WebElement webElement = mock(WebElement.class);
+            when(webElement.getAttribute("foo")).thenReturn("native");
+            TestPatientDriver driver = getDriver(webDriver, webElement);
+            TestPatientElement element = driver.find(By.id("foo")).get();
+            ElementActionBatch<WebElement> batch = driver.batch();
+            batch.click(element);
+            batch.setValue(element, "hello");
+            ElementActionBatch.Result<String> attribute = batch.getAttribute(element, "foo");
+            batch.flush();
+            verify((JavascriptExecutor) webDriver, never()).executeScript(any(), any());
+            verify(webElement).click();
+            verify(webElement).sendKeys("hello");
+            Assertions.assertAll(() -> Assertions.assertEquals(ElementActionBatch.Mode.WEB_DRIVER, batch.getMode()),
+                                 () -> Assertions.assertEquals("native", attribute.get(), "Should have read the attribute natively"));
+        }
+
+        @Test
+        @DisplayName("ends a script at a click and sends the actions after it as a new script")
+        void testEndsScriptAtClick() {
+            WebDriver webDriver = getScriptDriver();
+            when(((JavascriptExecutor) webDriver).executeScript(any(), any())).thenReturn(Collections.singletonList(null))
+                                                                              .thenReturn(Collections.singletonList("bar"));
+            WebElement webElement = mock(WebElement.class);
+            TestPatientDriver driver = getDriver(webDriver, webElement);
+            TestPatientElement element = driver.find(By.id("foo")).get();
+            ElementActionBatch<WebElement> batch = driver.batch(ElementActionBatch.Mode.SCRIPT);
+            ElementActionBatch.Result<Void> click = batch.click(element);
+            ElementActionBatch.Result<String> attribute = batch.getAttribute(element, "foo");
+            batch.flush();
+            verify((JavascriptExecutor) webDriver, times(2)).executeScript(any(), any());
+            verify(webElement, never()).click();
+            Assertions.assertAll(() -> Assertions.assertTrue(click.isDone(), "Should have completed the click"),
+                                 () -> Assertions.assertEquals("bar", attribute.get(), "Should have mapped the second script result"));
+        }
+
+        @Test
+        @DisplayName("fails an action whose element isn't found without a script and continues after it")
+        void testContinuesAfterMissingElement() {
+            WebDriver webDriver = getScriptDriver();
+            when(((JavascriptExecutor) webDriver).executeScript(any(), any())).thenReturn(Collections.singletonList("bar"));
+            TestPatientDriver driver = getDriver(webDriver, mock(WebElement.class));
+            when(webDriver.findElements(By.id("missing"))).thenReturn(Collections.emptyList());
+            ElementActionBatch<WebElement> batch = driver.batch(ElementActionBatch.Mode.SCRIPT);
+            ElementActionBatch.Result<String> missing = batch.getAttribute(driver.find(By.id("missing")).get(), "foo");
+            ElementActionBatch.Result<String> found = batch.getAttribute(driver.find(By.id("foo")).get(), "foo");
+            batch.flush();
+            verify((JavascriptExecutor) webDriver, times(1)).executeScript(any(), any());
+            Assertions.assertAll(() -> Assertions.assertThrows(NoSuchElementException.class, missing::get),
+                                 () -> Assertions.assertEquals("bar", found.get(), "Should have sent the action after the failed one as a script"));
+        }
+
+        @Test
+        @DisplayName("starts a new script where the browsing context of the elements changes")
+        void testSplitsScriptsAtBrowsingContexts() {
+            WebDriver webDriver = getScriptDriver();
+            when(((JavascriptExecutor) webDriver).executeScript(any(), any())).thenReturn(Collections.singletonList("bar"))
+                                                                              .thenReturn(Collections.singletonList("baz"));
+            when(webDriver.switchTo()).thenReturn(mock(WebDriver.TargetLocator.class));
+            TestPatientDriver driver = getDriver(webDriver, mock(WebElement.class));
+            BrowsingContext frame = BrowsingContext.topLevel().frame(By.id("frame"));
+            ElementActionBatch<WebElement> batch = driver.batch(ElementActionBatch.Mode.SCRIPT);
+            ElementActionBatch.Result<String> framed = batch.getAttribute(driver.find(By.id("foo")).within(frame).get(), "foo");
+            ElementActionBatch.Result<String> unscoped = batch.getAttribute(driver.find(By.id("foo")).get(), "foo");
+            batch.flush();
+            verify((JavascriptExecutor) webDriver, times(2)).executeScript(any(), argThat((List<?> actions) -> 1 == actions.size()));
+            Assertions.assertAll(() -> Assertions.assertEquals("bar", framed.get(), "Should have mapped the first script result"),
+                                 () -> Assertions.assertEquals("baz", unscoped.get(), "Should have mapped the second script result"));
+        }
+
+        @Test
+        @DisplayName("doesn't report resolving the elements of a script as element actions")
+        void testDoesNotReportResolvingAsActions() {
+            WebDriver webDriver = getScriptDriver();
+            when(((JavascriptExecutor) webDriver).executeScript(any(), any())).thenReturn(Collections.singletonList("bar"));
+            PatientListener listener = mock(PatientListener.class);
+            TestPatientDriver driver = new TestPatientDriver(TestPatientConfig.builder().withListeners(listener).build(),
+                                                             "driverDescription",
+                                                             () -> webDriver);
+            when(webDriver.findElements(any())).thenReturn(Collections.singletonList(mock(WebElement.class)));
+            ElementActionBatch<WebElement> batch = driver.batch(ElementActionBatch.Mode.SCRIPT);
+            batch.getAttribute(driver.find(By.id("foo")).get(), "foo");
+            try (CommandScope scope = driver.openCommandScope("batch")) {
+                batch.flush();
+                Assertions.assertEquals(0, scope.getCommandCount(CommandScope.CommandType.ACTION));
+            }
+            verify(listener, never()).beforeAction(any());
+        }
+
+        @Test
+        @DisplayName("executes every action natively when the driver can't execute JavaScript")
+        void testExecutesNativelyWithoutJavaScript() {
+            WebElement webElement = mock(WebElement.class);
+            TestPatientDriver driver = getDriver(mock(WebDriver.class), webElement);
+            TestPatientElement element = driver.find(By.id("foo")).get();
+            ElementActionBatch<WebElement> batch = driver.batch(ElementActionBatch.Mode.SCRIPT);
+            batch.click(element);
+            batch.setValue(element, "hello");
+            batch.flush();
+            verify(webElement).click();
+            verify(webElement).clear();
+            verify(webElement).sendKeys("hello");
+        }
+
+        @Test
+        @DisplayName("makes the exception of a failed action available from its result")
+        void testMapsExceptionsToResults() {
+            WebElement webElement = mock(WebElement.class);
+            IllegalStateException exception = new IllegalStateException("whoops");
+            when(webElement.getAttribute("foo")).thenThrow(exception);
+            when(webElement.getAttribute("bar")).thenReturn("bar");
+            TestPatientDriver driver = getDriver(mock(WebDriver.class), webElement);
+            TestPatientElement element = driver.find(By.id("foo")).get();
+            ElementActionBatch<WebElement> batch = driver.batch();
+            ElementActionBatch.Result<String> failed = batch.getAttribute(element, "foo");
+            ElementActionBatch.Result<String> succeeded = batch.getAttribute(element, "bar");
+            batch.flush();
+            Assertions.assertAll(() -> Assertions.assertSame(exception,
+                                                             Assertions.assertThrows(IllegalStateException.class, failed::get),
+                                                             "Should throw the exception of the failed action"),
+                                 () -> Assertions.assertEquals("bar", succeeded.get(), "Should have continued after a failed action"));
+        }
+
+        @Test
+        @DisplayName("re-locates the elements and retries the script for stale element references")
+        void testRetriesScriptForStaleElements() {
+            WebDriver webDriver = getScriptDriver();
+            when(((JavascriptExecutor) webDriver).executeScript(any(), any())).thenThrow(new StaleElementReferenceException("whoops"))
+                                                                              .thenReturn(Collections.singletonList(null));
+            TestPatientDriver driver = getDriver(webDriver, mock(WebElement.class));
+            ElementActionBatch<WebElement> batch = driver.batch(ElementActionBatch.Mode.SCRIPT);
+            ElementActionBatch.Result<Void> click = batch.click(driver.find(By.id("foo")).get());
+            batch.flush();
+            verify((JavascriptExecutor) webDriver, times(2)).executeScript(any(), any());
+            verify(webDriver, times(2)).findElements(any());
+            Assertions.assertTrue(click.isDone(), "Should have completed the click");
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test helpers
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private static WebDriver getScriptDriver() {
+        return mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+    }
+
+    private static TestPatientDriver getDriver(WebDriver webDriver,
+                                               WebElement webElement) {
+        when(webDriver.findElements(any())).thenReturn(Collections.singletonList(webElement));
+        return new TestPatientDriver(TestPatientConfig.builder().build(),
+                                     "driverDescription",
+                                     () -> webDriver);
+    }
+}
@@ -0,0 +1,86 @@
+package com.redfin.selenium;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.Rectangle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@DisplayName("An ElementSnapshot")
+final class ElementSnapshotTest {
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Nested
+    @DisplayName("with an ElementProperty")
+    final class PropertyTest {
+
+        @Test
+        @DisplayName("throws an exception for a null or empty attribute name")
+        void testThrowsForInvalidAttributeName() {
+            Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> ElementProperty.attribute(null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> ElementProperty.attribute("")));
+        }
+
+        @Test
+        @DisplayName("considers attribute properties with the same name equal")
+        void testAttributeEquality() {
+            Assertions.assertAll(() -> Assertions.assertEquals(ElementProperty.attribute("foo"), ElementProperty.attribute("foo")),
+                                 () -> Assertions.assertEquals(ElementProperty.attribute("foo").hashCode(), ElementProperty.attribute("foo").hashCode()),
+                                 () -> Assertions.assertNotEquals(ElementProperty.attribute("foo"), ElementProperty.attribute("bar")));
+        }
+
+        @Test
+        @DisplayName("converts script values to the web driver types")
+        void testConvertsScriptValues() {
+            Assertions.assertAll(() -> Assertions.assertEquals(Boolean.FALSE, ElementProperty.enabled().fromScriptValue(null)),
+                                 () -> Assertions.assertEquals("1", ElementProperty.attribute("foo").fromScriptValue(1L)),
+                                 () -> Assertions.assertNull(ElementProperty.attribute("foo").fromScriptValue(null)));
+        }
+    }
+
+    @Nested
+    @DisplayName("once instantiated")
+    final class BehaviorTest {
+
+        @Test
+        @DisplayName("returns the values of the read properties")
+        void testReturnsReadValues() {
+            Map<ElementProperty, Object> values = new LinkedHashMap<>();
+            values.put(ElementProperty.text(), "hello");
+            values.put(ElementProperty.tagName(), "div");
+            values.put(ElementProperty.attribute("foo"), "bar");
+            values.put(ElementProperty.displayed(), true);
+            values.put(ElementProperty.enabled(), false);
+            values.put(ElementProperty.selected(), true);
+            values.put(ElementProperty.rect(), new Rectangle(1, 2, 3, 4));
+            ElementSnapshot snapshot = new ElementSnapshot(values);
+            Assertions.assertAll(() -> Assertions.assertEquals("hello", snapshot.getText()),
+                                 () -> Assertions.assertEquals("div", snapshot.getTagName()),
+                                 () -> Assertions.assertEquals("bar", snapshot.getAttribute("foo")),
+                                 () -> Assertions.assertTrue(snapshot.isDisplayed()),
+                                 () -> Assertions.assertFalse(snapshot.isEnabled()),
+                                 () -> Assertions.assertTrue(snapshot.isSelected()),
+                                 () -> Assertions.assertEquals(new Rectangle(1, 2, 3, 4), snapshot.getRect()),
+                                 () -> Assertions.assertEquals(values.keySet(), snapshot.getProperties()));
+        }
+
+        @Test
+        @DisplayName("throws an exception for properties that weren't read")
+        void testThrowsForUnreadProperties() {
+            Map<ElementProperty, Object> values = new LinkedHashMap<>();
+            values.put(ElementProperty.attribute("foo"), null);
+            ElementSnapshot snapshot = new ElementSnapshot(values);
+            Assertions.assertAll(() -> Assertions.assertTrue(snapshot.contains(ElementProperty.attribute("foo"))),
+                                 () -> Assertions.assertNull(snapshot.getAttribute("foo")),
+                                 () -> Assertions.assertThrows(IllegalStateException.class, () -> snapshot.getAttribute("bar")),
+                                 () -> Assertions.assertThrows(IllegalStateException.class, snapshot::getText),
+                                 () -> Assertions.assertThrows(IllegalStateException.class, snapshot::isDisplayed));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.redfin.selenium;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.StaleElementReferenceException;
+
+import java.time.Duration;
+import java.util.Map;
+
+@DisplayName("An InMemoryPatientMetrics")
+final class InMemoryPatientMetricsTest {
+
+    private static final String DESCRIPTION = "element";
+    private static final String OTHER_DESCRIPTION = "other element";
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Test
+    @DisplayName("throws an exception for null arguments")
+    void testThrowsForNullArguments() {
+        InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+        Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> metrics.getCount(null, DESCRIPTION)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> metrics.getCount(InMemoryPatientMetrics.LOOKUPS, null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> metrics.getTotalCount(null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> metrics.getWaitDurations(null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> metrics.getPollsPerWait(null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> InMemoryPatientMetrics.ignoredLookupException(null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> InMemoryPatientMetrics.ignoredActionException(null)));
+    }
+
+    @Test
+    @DisplayName("counts every event per description")
+    void testCountsEvents() {
+        InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+        metrics.recordLookup(DESCRIPTION);
+        metrics.recordLookup(DESCRIPTION);
+        metrics.recordLookup(OTHER_DESCRIPTION);
+        metrics.recordStaleElement(DESCRIPTION);
+        metrics.recordRetry(DESCRIPTION);
+        metrics.recordCacheHit(DESCRIPTION);
+        metrics.recordCacheMiss(DESCRIPTION);
+        metrics.recordIgnoredLookupException(DESCRIPTION, StaleElementReferenceException.class);
+        metrics.recordIgnoredActionException(DESCRIPTION, IllegalStateException.class);
+        Assertions.assertAll(() -> Assertions.assertEquals(2, metrics.getCount(InMemoryPatientMetrics.LOOKUPS, DESCRIPTION)),
+                             () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.LOOKUPS, OTHER_DESCRIPTION)),
+                             () -> Assertions.assertEquals(3, metrics.getTotalCount(InMemoryPatientMetrics.LOOKUPS)),
+                             () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.STALE_ELEMENTS, DESCRIPTION)),
+                             () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.RETRIES, DESCRIPTION)),
+                             () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.CACHE_HITS, DESCRIPTION)),
+                             () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.CACHE_MISSES, DESCRIPTION)),
+                             () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.ignoredLookupException(StaleElementReferenceException.class), DESCRIPTION)),
+                             () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.ignoredActionException(IllegalStateException.class), DESCRIPTION)),
+                             () -> Assertions.assertEquals(0, metrics.getCount(InMemoryPatientMetrics.RETRIES, "unknown")));
+    }
+
+    @Test
+    @DisplayName("keeps histograms of wait durations and polls and counts timeouts")
+    void testRecordsWaits() {
+        InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+        metrics.recordWait(DESCRIPTION, 1, Duration.ofMillis(3), false);
+        metrics.recordWait(DESCRIPTION, 4, Duration.ofMillis(40), false);
+        metrics.recordWait(DESCRIPTION, 10, Duration.ofMillis(900), true);
+        InMemoryPatientMetrics.Histogram durations = metrics.getWaitDurations(DESCRIPTION).orElseThrow(AssertionError::new);
+        InMemoryPatientMetrics.Histogram polls = metrics.getPollsPerWait(DESCRIPTION).orElseThrow(AssertionError::new);
+        Assertions.assertAll(() -> Assertions.assertEquals(3, metrics.getCount(InMemoryPatientMetrics.WAITS, DESCRIPTION)),
+                             () -> Assertions.assertEquals(1, metrics.getCount(InMemoryPatientMetrics.TIMEOUTS, DESCRIPTION)),
+                             () -> Assertions.assertEquals(3, durations.getCount()),
+                             () -> Assertions.assertEquals(943, durations.getSum()),
+                             () -> Assertions.assertEquals(900, durations.getMax()),
+                             () -> Assertions.assertEquals(5, durations.getPercentile(0)),
+                             () -> Assertions.assertEquals(50, durations.getPercentile(0.5)),
+                             () -> Assertions.assertEquals(900, durations.getPercentile(1)),
+                             () -> Assertions.assertEquals(5.0, polls.getMean()),
+                             () -> Assertions.assertFalse(metrics.getWaitDurations(OTHER_DESCRIPTION).isPresent()),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> durations.getPercentile(1.5)));
+    }
+
+    @Nested
+    @DisplayName("when reporting")
+    final class ReportTest {
+
+        @Test
+        @DisplayName("returns a sorted snapshot of the counts")
+        void testGetCounts() {
+            InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+            metrics.recordRetry(OTHER_DESCRIPTION);
+            metrics.recordLookup(DESCRIPTION);
+            Map<String, Map<String, Long>> counts = metrics.getCounts();
+            metrics.recordLookup(DESCRIPTION);
+            Assertions.assertAll(() -> Assertions.assertEquals(DESCRIPTION, counts.keySet().iterator().next()),
+                                 () -> Assertions.assertEquals(1L, (long) counts.get(DESCRIPTION).get(InMemoryPatientMetrics.LOOKUPS)),
+                                 () -> Assertions.assertEquals(1L, (long) counts.get(OTHER_DESCRIPTION).get(InMemoryPatientMetrics.RETRIES)));
+        }
+
+        @Test
+        @DisplayName("dumps every description with its counts and histograms")
+        void testDump() {
+            InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+            metrics.recordLookup(DESCRIPTION);
+            metrics.recordWait(DESCRIPTION, 2, Duration.ofMillis(12), false);
+            String dump = metrics.dump();
+            Assertions.assertAll(() -> Assertions.assertTrue(dump.startsWith(DESCRIPTION)),
+                                 () -> Assertions.assertTrue(dump.contains("lookups: 1")),
+                                 () -> Assertions.assertTrue(dump.contains("wait duration (ms): count: 1")),
+                                 () -> Assertions.assertTrue(dump.contains("polls per wait: count: 1")));
+        }
+
+        @Test
+        @DisplayName("forgets every event when reset")
+        void testReset() {
+            InMemoryPatientMetrics metrics = new InMemoryPatientMetrics();
+            metrics.recordLookup(DESCRIPTION);
+            metrics.reset();
+            Assertions.assertAll(() -> Assertions.assertEquals(0, metrics.getTotalCount(InMemoryPatientMetrics.LOOKUPS)),
+                                 () -> Assertions.assertTrue(metrics.getCounts().isEmpty()),
+                                 () -> Assertions.assertEquals("", metrics.dump()));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.redfin.selenium;
+
+import com.redfin.patience.PatientDelaySuppliers;
+import com.redfin.patience.PatientWait;
+import com.redfin.selenium.implementation.TestBasePageObject;
+import com.redfin.selenium.implementation.TestPageObjectInitializer;
+import com.redfin.selenium.implementation.TestPatientConfig;
+import com.redfin.selenium.implementation.TestPatientDriver;
+import com.redfin.selenium.implementation.TestPatientElement;
+import com.redfin.selenium.implementation.TestPatientElementLocator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("The PatientEvents")
+final class PatientEventsTest {
+
+    private static final String PREFIX = "com.redfin.selenium.";
+
+    public static final class EventPage
+                        extends TestBasePageObject {}
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Test
+    @DisplayName("are available on a runtime with the flight recorder")
+    void testAvailable() {
+        Assertions.assertTrue(PatientEvents.isAvailable());
+    }
+
+    @Test
+    @DisplayName("don't allocate events while no recording is running")
+    void testDoesNotAllocateWithoutRecording() {
+        PatientListener listener = PatientEvents.listener();
+        listener.beforeLookup("element");
+        listener.beforeWait("element", Duration.ZERO);
+        listener.beforePoll("element", 1);
+        listener.onPoll("element", 1, true);
+        listener.afterWait("element", 1, Duration.ZERO, false);
+        listener.afterLookup("element", 1, null);
+        Assertions.assertAll(() -> Assertions.assertNull(FlightRecorderEvents.beginLookup()),
+                             () -> Assertions.assertNull(FlightRecorderEvents.beginPoll()),
+                             () -> Assertions.assertNull(FlightRecorderEvents.beginWait(0)),
+                             () -> Assertions.assertNull(FlightRecorderEvents.beginPageObjectInitialization()));
+    }
+
+    @Test
+    @DisplayName("record the look-ups, polls, waits, retries and stale element recoveries of elements and element locators")
+    void testRecordsElementEvents() throws IOException {
+        WebDriver driver = mock(WebDriver.class);
+        WebElement element = mock(WebElement.class);
+        doThrow(StaleElementReferenceException.class).doNothing().when(element).click();
+        when(driver.findElements(By.id("a"))).thenReturn(Collections.singletonList(element));
+        TestPatientConfig config = TestPatientConfig.builder()
+                                                    .withWait(PatientWait.builder()
+                                                                         .withInitialDelay(Duration.ZERO)
+                                                                         .withDelaySupplier(PatientDelaySuppliers.fixed(Duration.ofMillis(5)))
+                                                                         .build())
+                                                    .withTimeout(Duration.ofMillis(20))
+                                                    .build();
+        TestPatientDriver patientDriver = new TestPatientDriver(config, "events", () -> driver);
+        TestPatientElementLocator locator = patientDriver.find(By.id("a"));
+        TestPatientElement instance = locator.get();
+        List<RecordedEvent> events = record(() -> {
+            instance.accept(WebElement::click);
+            patientDriver.find(By.id("b")).getAll();
+        });
+        Assertions.assertAll(() -> Assertions.assertEquals(instance.toString(), getEvent(events, "Retry").getString("description")),
+                             () -> Assertions.assertEquals(2, getEvent(events, "Retry").getInt("attempt")),
+                             () -> Assertions.assertEquals(2, getEvent(events, "StaleElementRecovery").getInt("attempts")),
+                             () -> Assertions.assertEquals(2, getEvents(events, "Lookup").stream()
+                                                                                     .filter(event -> locator.toString().equals(event.getString("description")))
+                                                                                     .filter(event -> 1 == event.getInt("found"))
+                                                                                     .count()),
+                             () -> Assertions.assertTrue(getEvents(events, "Poll").size() >= 3, "Should have recorded every poll"),
+                             () -> Assertions.assertEquals(3, getEvents(events, "Wait").size()),
+                             () -> Assertions.assertEquals("events.find(By.id: b)", getEvent(events, "Timeout").getString("description")),
+                             () -> Assertions.assertEquals(Duration.ofMillis(20), getEvent(events, "Timeout").getDuration("timeout")));
+    }
+
+    @Test
+    @DisplayName("record the initialization of page objects")
+    void testRecordsPageObjectInitialization() throws IOException {
+        TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().build(), "events", () -> mock(WebDriver.class));
+        List<RecordedEvent> events = record(() -> new TestPageObjectInitializer(patientDriver).initializePage(new EventPage()));
+        RecordedEvent event = getEvent(events, "PageObjectInitialization");
+        Assertions.assertAll(() -> Assertions.assertEquals(EventPage.class.getName(), event.getClass("pageObjectClass").getName()),
+                             () -> Assertions.assertTrue(event.getBoolean("successful")));
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test Helpers
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    private static List<RecordedEvent> record(Runnable runnable) throws IOException {
+        Path file = Files.createTempFile("patient-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{"Lookup", "Poll", "Wait", "Timeout", "Retry", "StaleElementRecovery", "PageObjectInitialization"}) {
+                recording.enable(PREFIX + name).withoutThreshold();
+            }
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> getEvents(List<RecordedEvent> events,
+                                                 String name) {
+        return events.stream()
+                     .filter(event -> event.getEventType().getName().equals(PREFIX + name))
+                     .collect(Collectors.toList());
+    }
+
+    private static RecordedEvent getEvent(List<RecordedEvent> events,
+                                          String name) {
+        List<RecordedEvent> matching = getEvents(events, name);
+        Assertions.assertEquals(1, matching.size(), "Should have recorded exactly one event named " + name);
+        return matching.get(0);
+    }
+}
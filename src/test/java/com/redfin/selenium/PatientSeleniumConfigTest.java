@@ -11,6 +11,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.ArgumentsProvider;
 import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.mockito.InOrder;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriverException;
@@ -22,7 +23,10 @@ import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import static com.redfin.selenium.TestMocks.getMockFilter;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 @DisplayName("A PatientSeleniumConfig")
 final class PatientSeleniumConfigTest {
@@ -108,6 +112,57 @@ final class PatientSeleniumConfigTest {
                                  () -> Assertions.assertEquals(maxElementActionAttempts, config.getMaxElementActionAttempts(), "Should return the given max action attempts int"));
         }
 
+        @Test
+        @DisplayName("returns the expected response to isCachedElementValidationEnabled()")
+        void testReturnsExpectedValueForCachedElementValidation() {
+            Assertions.assertAll(() -> Assertions.assertFalse(TestPatientConfig.builder().build().isCachedElementValidationEnabled(),
+                                                              "Cached element validation should be disabled by default"),
+                                 () -> Assertions.assertTrue(TestPatientConfig.builder().withCachedElementValidation(true).build().isCachedElementValidationEnabled(),
+                                                             "Should return the given cached element validation value"));
+        }
+
+        @Test
+        @DisplayName("throws an exception for a null listener list or a null listener")
+        void testThrowsForNullListeners() {
+            Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> TestPatientConfig.builder().withListeners((PatientListener[]) null).build()),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> TestPatientConfig.builder().withListeners(new PatientListener() { }, null).build()));
+        }
+
+        @Test
+        @DisplayName("dispatches to the no-op listener, the only listener or every listener in order")
+        void testReturnsExpectedListener() {
+            PatientListener first = mock(PatientListener.class);
+            PatientListener second = mock(PatientListener.class);
+            TestPatientConfig config = TestPatientConfig.builder().withListeners(first, second).build();
+            config.getListener().beforeLookup("locator");
+            InOrder inOrder = inOrder(first, second);
+            inOrder.verify(first).beforeLookup("locator");
+            inOrder.verify(second).beforeLookup("locator");
+            Assertions.assertAll(() -> Assertions.assertSame(PatientListener.noOp(), TestPatientConfig.builder().build().getListener()),
+                                 () -> Assertions.assertSame(first, TestPatientConfig.builder().withListeners(first).build().getListener()),
+                                 () -> Assertions.assertEquals(Arrays.asList(first, second), config.getListeners()),
+                                 () -> Assertions.assertThrows(UnsupportedOperationException.class, () -> config.getListeners().clear()));
+        }
+
+        @Test
+        @DisplayName("gives an after callback to every listener and rethrows the first exception")
+        void testCallsEveryListenerForAfterCallbacks() {
+            PatientListener firstListener = mock(PatientListener.class);
+            PatientListener second = mock(PatientListener.class);
+            PatientListener thirdListener = mock(PatientListener.class);
+            IllegalStateException first = new IllegalStateException("first");
+            IllegalStateException third = new IllegalStateException("third");
+            doThrow(first).when(firstListener).afterLookup("locator", 1, null);
+            doThrow(third).when(thirdListener).afterLookup("locator", 1, null);
+            TestPatientConfig config = TestPatientConfig.builder()
+                                                        .withListeners(firstListener, second, thirdListener)
+                                                        .build();
+            IllegalStateException thrown = Assertions.assertThrows(IllegalStateException.class, () -> config.getListener().afterLookup("locator", 1, null));
+            verify(second).afterLookup("locator", 1, null);
+            Assertions.assertAll(() -> Assertions.assertSame(first, thrown),
+                                 () -> Assertions.assertArrayEquals(new Throwable[]{third}, thrown.getSuppressed()));
+        }
+
         @Test
         @DisplayName("returns the expected response to isIgnoredLookupException(Class)")
         void testReturnsExpectedValueForIgnoredLookupClasses() {
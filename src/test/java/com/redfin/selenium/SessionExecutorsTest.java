@@ -0,0 +1,148 @@
+package com.redfin.selenium;
+
+import com.redfin.patience.PatientDelaySuppliers;
+import com.redfin.patience.PatientWait;
+import com.redfin.selenium.implementation.TestPatientConfig;
+import com.redfin.selenium.implementation.TestPatientDriver;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("SessionExecutors")
+final class SessionExecutorsTest {
+
+    private static final String NAME = "session-";
+    private static final int SESSIONS = 5_000;
+    private static final int MISSES = 3;
+    private static final long REMOTE_CALL_MILLIS = 10;
+
+    @Test
+    @DisplayName("throws an exception for a null or empty thread name")
+    void testThrowsForNullOrEmptyName() {
+        Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> SessionExecutors.newSessionExecutor(null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> SessionExecutors.newSessionExecutor("")),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> SessionExecutors.newVirtualThreadExecutor(null)),
+                             () -> Assertions.assertThrows(IllegalArgumentException.class, () -> SessionExecutors.newVirtualThreadExecutor("")));
+    }
+
+    @Test
+    @DisplayName("returns a session executor that runs tasks on named threads")
+    void testSessionExecutorRunsTasks() throws Exception {
+        ExecutorService executor = SessionExecutors.newSessionExecutor(NAME);
+        try {
+            String threadName = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+            Assertions.assertTrue(threadName.startsWith(NAME), "Should name the threads with the given prefix");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("throws an exception for a virtual thread executor on a runtime without virtual threads")
+    void testThrowsWithoutVirtualThreads() {
+        Assumptions.assumeFalse(SessionExecutors.isVirtualThreadSupported());
+        Assertions.assertThrows(IllegalStateException.class, () -> SessionExecutors.newVirtualThreadExecutor(NAME));
+    }
+
+    @Test
+    @DisplayName("returns a virtual thread executor on a runtime with virtual threads")
+    void testReturnsVirtualThreadExecutor() throws Exception {
+        Assumptions.assumeTrue(SessionExecutors.isVirtualThreadSupported());
+        ExecutorService executor = SessionExecutors.newVirtualThreadExecutor(NAME);
+        try {
+            boolean isVirtual = executor.submit(() -> (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()))
+                                        .get(5, TimeUnit.SECONDS);
+            Assertions.assertTrue(isVirtual, "Should run tasks on virtual threads");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Nested
+    @Tag("benchmark")
+    @DisplayName("as a benchmark")
+    final class BenchmarkTest {
+
+        @Test
+        @DisplayName("drives thousands of concurrent stubbed sessions through patient waits on virtual threads")
+        void testDrivesThousandsOfSessions() throws Exception {
+            Assumptions.assumeTrue(SessionExecutors.isVirtualThreadSupported());
+            TestPatientConfig config = TestPatientConfig.builder()
+                                                        .withWait(PatientWait.builder()
+                                                                             .withInitialDelay(Duration.ZERO)
+                                                                             .withDelaySupplier(PatientDelaySuppliers.fixed(Duration.ofMillis(20)))
+                                                                             .build())
+                                                        .withTimeout(Duration.ofSeconds(30))
+                                                        .build();
+            AtomicInteger active = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            List<CompletableFuture<Boolean>> sessions = new ArrayList<>(SESSIONS);
+            ExecutorService executor = SessionExecutors.newVirtualThreadExecutor(NAME);
+            long start = System.nanoTime();
+            try {
+                for (int i = 0; i < SESSIONS; i++) {
+                    TestPatientDriver driver = new TestPatientDriver(config, "session " + i, SessionExecutorsTest::getStubDriver);
+                    sessions.add(CompletableFuture.supplyAsync(() -> {
+                        peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        try {
+                            return driver.find(By.id("a")).get().isPresent();
+                        } finally {
+                            active.decrementAndGet();
+                        }
+                    }, executor));
+                }
+                for (CompletableFuture<Boolean> session : sessions) {
+                    Assertions.assertTrue(session.get(60, TimeUnit.SECONDS), "Should have found the element after polling");
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            // Run sequentially the sessions would take SESSIONS * (MISSES + 1) * (REMOTE_CALL_MILLIS + delay)
+            Assertions.assertAll(() -> Assertions.assertTrue(peak.get() >= 1_000, "Should have had at least a thousand concurrent sessions but had " + peak.get()),
+                                 () -> Assertions.assertTrue(elapsed < 60_000, "Should have finished within a minute but took " + elapsed + "ms"));
+        }
+    }
+
+    /*
+     * Returns a web driver whose remote calls block for a while, like a call to a grid does,
+     * and that only finds an element after a few polls.
+     */
+
+    private static WebDriver getStubDriver() {
+        WebElement element = (WebElement) Proxy.newProxyInstance(SessionExecutorsTest.class.getClassLoader(),
+                                                                 new Class<?>[]{WebElement.class},
+                                                                 (proxy, method, args) -> {
+                                                                     if ("isDisplayed".equals(method.getName())) {
+                                                                         return true;
+                                                                     }
+                                                                     return null;
+                                                                 });
+        AtomicInteger calls = new AtomicInteger();
+        return (WebDriver) Proxy.newProxyInstance(SessionExecutorsTest.class.getClassLoader(),
+                                                  new Class<?>[]{WebDriver.class},
+                                                  (proxy, method, args) -> {
+                                                      if ("findElements".equals(method.getName())) {
+                                                          Thread.sleep(REMOTE_CALL_MILLIS);
+                                                          return calls.incrementAndGet() > MISSES ? Collections.singletonList(element) : Collections.emptyList();
+                                                      }
+                                                      return null;
+                                                  });
+    }
+}
@@ -0,0 +1,162 @@
+package com.redfin.selenium;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.Cookie;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+
+@DisplayName("A SessionState")
+final class SessionStateTest {
+
+    private static SessionState getState() {
+        return new SessionState("https://example.com",
+                                Arrays.asList(new Cookie("token", "abc"), new Cookie("old", "xyz", "/", new Date(0))),
+                                Collections.singletonMap("local", "1"),
+                                Collections.singletonMap("session", "2"));
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Nested
+    @DisplayName("when constructed")
+    final class ConstructorTest {
+
+        @Test
+        @DisplayName("throws an exception for invalid arguments")
+        void testThrowsForInvalidArguments() {
+            Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> new SessionState(null, Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap())),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> new SessionState("", Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap())),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> new SessionState("https://example.com", null, Collections.emptyMap(), Collections.emptyMap())),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> new SessionState("https://example.com", Collections.singletonList(null), Collections.emptyMap(), Collections.emptyMap())),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> new SessionState("https://example.com", Collections.emptyList(), null, Collections.emptyMap())),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> new SessionState("https://example.com", Collections.emptyList(), Collections.emptyMap(), null)));
+        }
+    }
+
+    @Nested
+    @DisplayName("once instantiated")
+    final class BehaviorTest {
+
+        @Test
+        @DisplayName("only returns unexpired cookies for a date")
+        void testFiltersExpiredCookies() {
+            Assertions.assertEquals(Collections.singletonList(new Cookie("token", "abc")), getState().getCookies(new Date()));
+        }
+
+        @Test
+        @DisplayName("does not include cookie or storage values in the string")
+        void testToStringHidesValues() {
+            String description = getState().toString();
+            Assertions.assertAll(() -> Assertions.assertFalse(description.contains("abc"), "Should not contain cookie values"),
+                                 () -> Assertions.assertTrue(description.contains("https://example.com"), "Should contain the origin"));
+        }
+    }
+
+    @Nested
+    @DisplayName("when kept in a store")
+    final class StoreTest {
+
+        @Test
+        @DisplayName("returns the state saved in memory until it is removed")
+        void testInMemoryStore() {
+            SessionStateStore store = SessionStateStore.inMemory();
+            store.save("user", getState());
+            Assertions.assertEquals(Optional.of(getState()), store.load("user"));
+            store.remove("user");
+            Assertions.assertFalse(store.load("user").isPresent(), "Should not return a removed state");
+        }
+
+        @Test
+        @DisplayName("returns the state saved in a file until it is removed")
+        void testDirectoryStore(@TempDir Path directory) {
+            SessionStateStore store = SessionStateStore.directory(directory.resolve("states"));
+            Assertions.assertFalse(store.load("user/one").isPresent(), "Should not return a missing state");
+            store.save("user/one", getState());
+            SessionState loaded = SessionStateStore.directory(directory.resolve("states")).load("user/one").orElse(null);
+            Assertions.assertAll(() -> Assertions.assertEquals(getState(), loaded),
+                                 () -> Assertions.assertEquals(getState().getCookies().get(1).getExpiry(), loaded.getCookies().get(1).getExpiry()));
+            store.remove("user/one");
+            Assertions.assertFalse(store.load("user/one").isPresent(), "Should not return a removed state");
+        }
+
+        @Test
+        @DisplayName("keeps every cookie field and escaped values in a file")
+        void testDirectoryStoreFields(@TempDir Path directory) {
+            Cookie cookie = new Cookie("tab\tname", "line\nvalue\\", ".example.com", "/account", new Date(1000L), true, true);
+            SessionState state = new SessionState("https://example.com",
+                                                  Collections.singletonList(cookie),
+                                                  Collections.singletonMap("key\t", "value\r\n"),
+                                                  Collections.emptyMap());
+            SessionStateStore store = SessionStateStore.directory(directory);
+            store.save("user", state);
+            SessionState loaded = store.load("user").orElse(null);
+            Cookie loadedCookie = loaded.getCookies().get(0);
+            Assertions.assertAll(() -> Assertions.assertEquals(state, loaded),
+                                 () -> Assertions.assertEquals(".example.com", loadedCookie.getDomain()),
+                                 () -> Assertions.assertEquals("/account", loadedCookie.getPath()),
+                                 () -> Assertions.assertEquals(new Date(1000L), loadedCookie.getExpiry()),
+                                 () -> Assertions.assertTrue(loadedCookie.isSecure(), "Should keep the secure flag"),
+                                 () -> Assertions.assertTrue(loadedCookie.isHttpOnly(), "Should keep the http only flag"));
+        }
+
+        @Test
+        @DisplayName("throws an exception for an unreadable state file")
+        void testThrowsForCorruptFile(@TempDir Path directory) throws Exception {
+            Files.write(directory.resolve("user.session"), new byte[]{1, 2, 3});
+            Assertions.assertThrows(UncheckedIOException.class, () -> SessionStateStore.directory(directory).load("user"));
+        }
+
+        @Test
+        @DisplayName("throws an exception for a state file with malformed lines")
+        void testThrowsForMalformedFile(@TempDir Path directory) throws Exception {
+            String header = "# patient-selenium session state v1\n";
+            Files.write(directory.resolve("cookie.session"), (header + "origin\thttps://example.com\ncookie\ttoken\n").getBytes(StandardCharsets.UTF_8));
+            Files.write(directory.resolve("expiry.session"), (header + "origin\thttps://example.com\ncookie\ta\tb\t\t\tsoon\tfalse\tfalse\n").getBytes(StandardCharsets.UTF_8));
+            Files.write(directory.resolve("origin.session"), (header + "local\ta\tb\n").getBytes(StandardCharsets.UTF_8));
+            SessionStateStore store = SessionStateStore.directory(directory);
+            Assertions.assertAll(() -> Assertions.assertThrows(UncheckedIOException.class, () -> store.load("cookie")),
+                                 () -> Assertions.assertThrows(UncheckedIOException.class, () -> store.load("expiry")),
+                                 () -> Assertions.assertThrows(UncheckedIOException.class, () -> store.load("origin")));
+        }
+
+        @Test
+        @DisplayName("throws an exception for a file that isn't a state file without deserializing it")
+        void testThrowsForForeignFile(@TempDir Path directory) throws Exception {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(new ArrayList<>(Collections.singletonList("foreign")));
+            }
+            Files.write(directory.resolve("serialized.session"), bytes.toByteArray());
+            Files.write(directory.resolve("text.session"), "origin\thttps://example.com\n".getBytes(StandardCharsets.UTF_8));
+            SessionStateStore store = SessionStateStore.directory(directory);
+            Assertions.assertAll(() -> Assertions.assertThrows(UncheckedIOException.class, () -> store.load("serialized")),
+                                 () -> Assertions.assertThrows(UncheckedIOException.class, () -> store.load("text")));
+        }
+
+        @Test
+        @DisplayName("throws an exception for invalid arguments")
+        void testThrowsForInvalidArguments() {
+            SessionStateStore store = SessionStateStore.inMemory();
+            Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> SessionStateStore.directory(null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> store.load("")),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> store.save("user", null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> store.remove(null)));
+        }
+    }
+}
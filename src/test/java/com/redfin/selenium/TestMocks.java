@@ -28,6 +28,7 @@ final class TestMocks {
         when(config.getMaxElementActionAttempts()).thenReturn(3);
         when(config.isIgnoredLookupException(any())).thenReturn(false);
         when(config.isIgnoredActionException(any())).thenReturn(false);
+        when(config.getListener()).thenReturn(PatientListener.noOp());
         return config;
     }
 
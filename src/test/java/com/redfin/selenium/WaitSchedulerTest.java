@@ -0,0 +1,225 @@
+package com.redfin.selenium;
+
+import com.redfin.patience.PatientDelaySuppliers;
+import com.redfin.patience.PatientWait;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@DisplayName("A WaitScheduler")
+final class WaitSchedulerTest {
+
+    private static final Duration TICK = Duration.ofMillis(10);
+
+    private static final PatientWait WAIT = PatientWait.builder()
+                                                       .withInitialDelay(Duration.ZERO)
+                                                       .withDelaySupplier(PatientDelaySuppliers.fixed(TICK))
+                                                       .build();
+
+    /*
+     * A scheduler without a thread of its own that is driven by the test
+     * through its fake clock.
+     */
+
+    private static final class ManualScheduler {
+
+        private final AtomicLong nanos = new AtomicLong();
+        private final WaitScheduler scheduler;
+
+        private ManualScheduler(int wheelSize) {
+            this.scheduler = new WaitScheduler(TICK, wheelSize, nanos::get, false);
+        }
+
+        private void advanceTo(long millis) {
+            nanos.set(TimeUnit.MILLISECONDS.toNanos(millis));
+            scheduler.advance();
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Nested
+    @DisplayName("when constructed")
+    final class ConstructorTest {
+
+        @Test
+        @DisplayName("throws an exception for invalid arguments")
+        void testThrowsForInvalidArguments() {
+            Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> new WaitScheduler(null, 8)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> new WaitScheduler(Duration.ZERO, 8)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> new WaitScheduler(TICK, 0)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> new WaitScheduler(TICK, 8, null, false)));
+        }
+
+        @Test
+        @DisplayName("returns the same shared scheduler which can't be closed")
+        void testSharedScheduler() {
+            Assertions.assertAll(() -> Assertions.assertSame(WaitScheduler.shared(), WaitScheduler.shared()),
+                                 () -> Assertions.assertThrows(IllegalStateException.class, () -> WaitScheduler.shared().close()));
+        }
+    }
+
+    @Nested
+    @DisplayName("once constructed")
+    final class BehaviorTest {
+
+        @Test
+        @DisplayName("throws an exception for invalid arguments")
+        void testThrowsForInvalidArguments() {
+            WaitScheduler scheduler = new ManualScheduler(8).scheduler;
+            Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(null, TICK)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(() -> { }, null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(() -> { }, Duration.ofMillis(-1))),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> scheduler.poll(null, TICK, Runnable::run, () -> true)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> scheduler.poll(WAIT, null, Runnable::run, () -> true)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> scheduler.poll(WAIT, TICK, null, () -> true)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> scheduler.poll(WAIT, TICK, Runnable::run, null)));
+        }
+
+        @Test
+        @DisplayName("runs a task once the tick its delay ends on has passed and records the lag")
+        void testRunsTaskAfterDelay() {
+            ManualScheduler manual = new ManualScheduler(8);
+            AtomicInteger runs = new AtomicInteger();
+            manual.scheduler.schedule(runs::incrementAndGet, Duration.ofMillis(25));
+            manual.advanceTo(20);
+            Assertions.assertAll(() -> Assertions.assertEquals(0, runs.get(), "Should not have run the task early"),
+                                 () -> Assertions.assertEquals(1, manual.scheduler.getQueueDepth()));
+            manual.advanceTo(30);
+            Assertions.assertAll(() -> Assertions.assertEquals(1, runs.get(), "Should have run the task"),
+                                 () -> Assertions.assertEquals(0, manual.scheduler.getQueueDepth()),
+                                 () -> Assertions.assertEquals(Duration.ofMillis(5), manual.scheduler.getLastLag()),
+                                 () -> Assertions.assertEquals(Duration.ofMillis(5), manual.scheduler.getMaxLag()));
+        }
+
+        @Test
+        @DisplayName("runs a task with a delay longer than a turn of the wheel after the right number of turns")
+        void testRunsTaskAfterSeveralTurns() {
+            ManualScheduler manual = new ManualScheduler(4);
+            AtomicInteger runs = new AtomicInteger();
+            manual.scheduler.schedule(runs::incrementAndGet, Duration.ofMillis(100));
+            manual.advanceTo(90);
+            Assertions.assertEquals(0, runs.get(), "Should not have run the task early");
+            manual.advanceTo(100);
+            Assertions.assertEquals(1, runs.get(), "Should have run the task");
+        }
+
+        @Test
+        @DisplayName("never runs a cancelled task")
+        void testCancelledTaskNeverRuns() {
+            ManualScheduler manual = new ManualScheduler(8);
+            AtomicInteger runs = new AtomicInteger();
+            WaitScheduler.Timeout timeout = manual.scheduler.schedule(runs::incrementAndGet, TICK);
+            boolean cancelled = timeout.cancel();
+            manual.advanceTo(50);
+            Assertions.assertAll(() -> Assertions.assertTrue(cancelled, "Should have cancelled the task"),
+                                 () -> Assertions.assertTrue(timeout.isCancelled()),
+                                 () -> Assertions.assertFalse(timeout.cancel(), "Should only cancel once"),
+                                 () -> Assertions.assertEquals(0, runs.get(), "Should not have run the task"),
+                                 () -> Assertions.assertEquals(0, manual.scheduler.getQueueDepth()));
+        }
+
+        @Test
+        @DisplayName("keeps running tasks after a task throws an exception")
+        void testSurvivesFailingTask() {
+            ManualScheduler manual = new ManualScheduler(8);
+            AtomicInteger runs = new AtomicInteger();
+            manual.scheduler.schedule(() -> {
+                throw new IllegalStateException("whoops");
+            }, TICK);
+            manual.scheduler.schedule(runs::incrementAndGet, TICK);
+            manual.advanceTo(30);
+            Assertions.assertEquals(1, runs.get(), "Should have run the second task");
+        }
+
+        @Test
+        @DisplayName("throws an exception for scheduling on a closed scheduler")
+        void testThrowsWhenClosed() {
+            WaitScheduler scheduler = new ManualScheduler(8).scheduler;
+            scheduler.close();
+            Assertions.assertThrows(IllegalStateException.class, () -> scheduler.schedule(() -> { }, TICK));
+        }
+
+        @Test
+        @DisplayName("runs tasks on its own thread")
+        void testRunsOnOwnThread() throws Exception {
+            try (WaitScheduler scheduler = new WaitScheduler(Duration.ofMillis(1), 8)) {
+                CountDownLatch latch = new CountDownLatch(1);
+                scheduler.schedule(latch::countDown, Duration.ofMillis(5));
+                Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS), "Should have run the task");
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("when polling")
+    final class PollTest {
+
+        @Test
+        @DisplayName("completes with true once an attempt succeeds, waiting on the wheel between attempts")
+        void testCompletesOnSuccess() {
+            ManualScheduler manual = new ManualScheduler(8);
+            AtomicInteger attempts = new AtomicInteger();
+            CompletableFuture<Boolean> future = manual.scheduler.poll(WAIT, Duration.ofSeconds(1), Runnable::run, () -> attempts.incrementAndGet() >= 3);
+            manual.advanceTo(10);
+            Assertions.assertAll(() -> Assertions.assertEquals(1, attempts.get()),
+                                 () -> Assertions.assertFalse(future.isDone()),
+                                 () -> Assertions.assertEquals(1, manual.scheduler.getQueueDepth(), "Should have scheduled the next attempt"));
+            manual.advanceTo(20);
+            manual.advanceTo(30);
+            Assertions.assertAll(() -> Assertions.assertEquals(3, attempts.get()),
+                                 () -> Assertions.assertTrue(future.getNow(false)),
+                                 () -> Assertions.assertEquals(0, manual.scheduler.getQueueDepth()));
+        }
+
+        @Test
+        @DisplayName("completes with false once the timeout is reached")
+        void testCompletesWithFalseOnTimeout() {
+            ManualScheduler manual = new ManualScheduler(8);
+            AtomicInteger attempts = new AtomicInteger();
+            CompletableFuture<Boolean> future = manual.scheduler.poll(WAIT, Duration.ofMillis(25), Runnable::run, () -> attempts.incrementAndGet() < 0);
+            for (long millis = 10; millis <= 60; millis += 10) {
+                manual.advanceTo(millis);
+            }
+            Assertions.assertAll(() -> Assertions.assertFalse(future.getNow(true)),
+                                 () -> Assertions.assertTrue(attempts.get() >= 2, "Should have attempted more than once"));
+        }
+
+        @Test
+        @DisplayName("makes a single attempt with a zero timeout")
+        void testSingleAttemptWithZeroTimeout() {
+            ManualScheduler manual = new ManualScheduler(8);
+            AtomicInteger attempts = new AtomicInteger();
+            CompletableFuture<Boolean> future = manual.scheduler.poll(WAIT, Duration.ZERO, Runnable::run, () -> attempts.incrementAndGet() < 0);
+            manual.advanceTo(50);
+            Assertions.assertAll(() -> Assertions.assertFalse(future.getNow(true)),
+                                 () -> Assertions.assertEquals(1, attempts.get()));
+        }
+
+        @Test
+        @DisplayName("completes exceptionally if an attempt throws an exception or the executor rejects it")
+        void testCompletesExceptionally() {
+            ManualScheduler manual = new ManualScheduler(8);
+            CompletableFuture<Boolean> throwing = manual.scheduler.poll(WAIT, Duration.ofSeconds(1), Runnable::run, () -> {
+                throw new IllegalStateException("whoops");
+            });
+            CompletableFuture<Boolean> rejected = manual.scheduler.poll(WAIT, Duration.ofSeconds(1), command -> {
+                throw new RejectedExecutionException("closed");
+            }, () -> true);
+            manual.advanceTo(10);
+            Assertions.assertAll(() -> Assertions.assertTrue(throwing.isCompletedExceptionally()),
+                                 () -> Assertions.assertTrue(rejected.isCompletedExceptionally()));
+        }
+    }
+}
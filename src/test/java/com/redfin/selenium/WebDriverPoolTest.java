@@ -0,0 +1,249 @@
+package com.redfin.selenium;
+
+import com.redfin.selenium.implementation.TestPatientConfig;
+import com.redfin.selenium.implementation.TestPatientDriver;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("A WebDriverPool")
+final class WebDriverPoolTest {
+
+    private static final class CountingSupplier
+                    implements Supplier<WebDriver> {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public WebDriver get() {
+            count.incrementAndGet();
+            WebDriver driver = mock(WebDriver.class);
+            WebDriver.Options options = mock(WebDriver.Options.class);
+            when(options.timeouts()).thenReturn(mock(WebDriver.Timeouts.class));
+            when(driver.manage()).thenReturn(options);
+            when(driver.switchTo()).thenReturn(mock(WebDriver.TargetLocator.class));
+            when(driver.getWindowHandle()).thenReturn("window");
+            return driver;
+        }
+    }
+
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test cases
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Nested
+    @DisplayName("when built")
+    final class BuilderTest {
+
+        @Test
+        @DisplayName("throws an exception for invalid arguments")
+        void testThrowsForInvalidArguments() {
+            Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class, () -> WebDriverPool.builder(null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> WebDriverPool.builder(new CountingSupplier()).withMaxSize(0)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> WebDriverPool.builder(new CountingSupplier()).withMinIdle(-1)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> WebDriverPool.builder(new CountingSupplier()).withMaxIdle(Duration.ofSeconds(-1))),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> WebDriverPool.builder(new CountingSupplier()).withLeaseTimeout(null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> WebDriverPool.builder(new CountingSupplier()).withImplicitWait(Duration.ofMillis(-1))),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> WebDriverPool.builder(new CountingSupplier()).withReset(null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> WebDriverPool.builder(new CountingSupplier()).withHealthCheck(null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> WebDriverPool.builder(new CountingSupplier()).withWarmUpExecutor(null)),
+                                 () -> Assertions.assertThrows(IllegalArgumentException.class, () -> WebDriverPool.builder(new CountingSupplier()).withMinIdle(2).build()));
+        }
+    }
+
+    @Nested
+    @DisplayName("once built")
+    final class BehaviorTest {
+
+        @Test
+        @DisplayName("does not start a session until a lease is used")
+        void testLeasesAreLazy() {
+            CountingSupplier supplier = new CountingSupplier();
+            WebDriverPool<WebDriver> pool = WebDriverPool.builder(supplier).build();
+            pool.newLease();
+            Assertions.assertAll(() -> Assertions.assertEquals(0, supplier.count.get()),
+                                 () -> Assertions.assertEquals(0, pool.getSize()));
+        }
+
+        @Test
+        @DisplayName("resets given back sessions and reuses them")
+        void testReusesSessions() {
+            CountingSupplier supplier = new CountingSupplier();
+            WebDriverPool<WebDriver> pool = WebDriverPool.builder(supplier).build();
+            WebDriverPool.Lease<WebDriver> first = pool.newLease();
+            WebDriver driver = first.get();
+            Assertions.assertSame(driver, first.get(), "A lease should return the same session");
+            first.close();
+            verify(driver).get("about:blank");
+            verify(driver.manage()).deleteAllCookies();
+            try (WebDriverPool.Lease<WebDriver> second = pool.newLease()) {
+                Assertions.assertSame(driver, second.get(), "Should reuse the given back session");
+            }
+            Assertions.assertAll(() -> Assertions.assertEquals(1, supplier.count.get()),
+                                 () -> Assertions.assertEquals(1, pool.getIdleCount()),
+                                 () -> Assertions.assertThrows(IllegalStateException.class, first::get));
+        }
+
+        @Test
+        @DisplayName("closes the other windows and restores the implicit wait of a given back session")
+        void testResetsWindowsAndTimeouts() {
+            WebDriverPool<WebDriver> pool = WebDriverPool.builder(new CountingSupplier())
+                                                         .withImplicitWait(Duration.ofSeconds(2))
+                                                         .build();
+            WebDriverPool.Lease<WebDriver> lease = pool.newLease();
+            WebDriver driver = lease.get();
+            when(driver.getWindowHandles()).thenReturn(new LinkedHashSet<>(Arrays.asList("popup", "window")));
+            lease.close();
+            InOrder inOrder = inOrder(driver.switchTo(), driver);
+            inOrder.verify(driver.switchTo()).window("popup");
+            inOrder.verify(driver).close();
+            inOrder.verify(driver.switchTo()).window("window");
+            verify(driver, times(1)).close();
+            verify(driver.manage().timeouts()).implicitlyWait(2000, TimeUnit.MILLISECONDS);
+        }
+
+        @Test
+        @DisplayName("quits sessions that fail the health check or are discarded")
+        void testQuitsBrokenSessions() {
+            WebDriverPool<WebDriver> pool = WebDriverPool.builder(new CountingSupplier())
+                                                         .withMaxSize(2)
+                                                         .withHealthCheck(d -> false)
+                                                         .build();
+            WebDriverPool.Lease<WebDriver> unhealthy = pool.newLease();
+            WebDriver unhealthyDriver = unhealthy.get();
+            unhealthy.close();
+            WebDriverPool.Lease<WebDriver> discarded = pool.newLease();
+            WebDriver discardedDriver = discarded.get();
+            discarded.discard();
+            discarded.close();
+            verify(unhealthyDriver).quit();
+            verify(discardedDriver).quit();
+            verify(discardedDriver, never()).get("about:blank");
+            Assertions.assertEquals(0, pool.getSize());
+        }
+
+        @Test
+        @DisplayName("throws an exception if the pool stays full for the lease timeout")
+        void testThrowsWhenFull() {
+            WebDriverPool<WebDriver> pool = WebDriverPool.builder(new CountingSupplier())
+                                                         .withLeaseTimeout(Duration.ZERO)
+                                                         .build();
+            pool.newLease().get();
+            Assertions.assertThrows(IllegalStateException.class, () -> pool.newLease().get());
+        }
+
+        @Test
+        @DisplayName("waits for a session to be given back when full")
+        void testWaitsWhenFull() throws Exception {
+            CountingSupplier supplier = new CountingSupplier();
+            WebDriverPool<WebDriver> pool = WebDriverPool.builder(supplier)
+                                                         .withLeaseTimeout(Duration.ofSeconds(10))
+                                                         .build();
+            WebDriverPool.Lease<WebDriver> first = pool.newLease();
+            WebDriver driver = first.get();
+            CompletableFuture<WebDriver> waiting = CompletableFuture.supplyAsync(() -> pool.newLease().get());
+            Thread.sleep(50);
+            first.close();
+            Assertions.assertAll(() -> Assertions.assertSame(driver, waiting.get(5, TimeUnit.SECONDS)),
+                                 () -> Assertions.assertEquals(1, supplier.count.get()));
+        }
+
+        @Test
+        @DisplayName("quits idle sessions after the max idle duration")
+        void testEvictsIdleSessions() {
+            AtomicLong now = new AtomicLong();
+            WebDriverPool<WebDriver> pool = WebDriverPool.builder(new CountingSupplier())
+                                                         .withMaxIdle(Duration.ofSeconds(1))
+                                                         .withNanoTime(now::get)
+                                                         .build();
+            WebDriverPool.Lease<WebDriver> lease = pool.newLease();
+            WebDriver driver = lease.get();
+            lease.close();
+            pool.evictIdleSessions();
+            Assertions.assertEquals(1, pool.getIdleCount());
+            now.addAndGet(Duration.ofSeconds(2).toNanos());
+            pool.evictIdleSessions();
+            verify(driver).quit();
+            Assertions.assertEquals(0, pool.getSize());
+        }
+
+        @Test
+        @DisplayName("starts the min idle sessions when warmed up")
+        void testWarmsUp() {
+            CountingSupplier supplier = new CountingSupplier();
+            WebDriverPool<WebDriver> pool = WebDriverPool.builder(supplier)
+                                                         .withMaxSize(3)
+                                                         .withMinIdle(2)
+                                                         .build();
+            pool.warmUp();
+            pool.warmUp();
+            Assertions.assertAll(() -> Assertions.assertEquals(2, supplier.count.get()),
+                                 () -> Assertions.assertEquals(2, pool.getIdleCount()));
+        }
+
+        @Test
+        @DisplayName("counts the sessions still being started when warmed up again")
+        void testWarmsUpOnceWhileStarting() {
+            CountingSupplier supplier = new CountingSupplier();
+            List<Runnable> deferred = new ArrayList<>();
+            WebDriverPool<WebDriver> pool = WebDriverPool.builder(supplier)
+                                                         .withMaxSize(3)
+                                                         .withMinIdle(2)
+                                                         .withWarmUpExecutor(deferred::add)
+                                                         .build();
+            pool.warmUp();
+            pool.warmUp();
+            Assertions.assertAll(() -> Assertions.assertEquals(2, deferred.size()),
+                                 () -> Assertions.assertEquals(2, pool.getSize()));
+            deferred.forEach(Runnable::run);
+            pool.warmUp();
+            Assertions.assertAll(() -> Assertions.assertEquals(2, supplier.count.get()),
+                                 () -> Assertions.assertEquals(2, pool.getIdleCount()),
+                                 () -> Assertions.assertEquals(2, deferred.size()));
+        }
+
+        @Test
+        @DisplayName("quits idle sessions and refuses leases once closed")
+        void testClose() {
+            WebDriverPool<WebDriver> pool = WebDriverPool.builder(new CountingSupplier()).build();
+            WebDriverPool.Lease<WebDriver> lease = pool.newLease();
+            WebDriver driver = lease.get();
+            lease.close();
+            pool.close();
+            verify(driver).quit();
+            Assertions.assertThrows(IllegalStateException.class, () -> pool.newLease().get());
+        }
+
+        @Test
+        @DisplayName("can be used as the web driver supplier of a patient driver")
+        void testSuppliesPatientDriver() {
+            WebDriverPool<WebDriver> pool = WebDriverPool.builder(new CountingSupplier()).build();
+            try (WebDriverPool.Lease<WebDriver> lease = pool.newLease()) {
+                TestPatientDriver patientDriver = new TestPatientDriver(TestPatientConfig.builder().build(), "pooled", lease);
+                Assertions.assertSame(lease.get(), patientDriver.apply(d -> d));
+            }
+            Assertions.assertEquals(1, pool.getIdleCount());
+        }
+    }
+}
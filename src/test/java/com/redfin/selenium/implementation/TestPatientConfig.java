@@ -2,12 +2,14 @@ package com.redfin.selenium.implementation;
 
 import com.redfin.patience.PatientWait;
 import com.redfin.selenium.AbstractPatientConfig;
+import com.redfin.selenium.PatientListener;
 import org.openqa.selenium.WebElement;
 
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -21,7 +23,9 @@ public final class TestPatientConfig extends AbstractPatientConfig<WebElement> {
              builder.timeout,
              builder.maxElementActionAttempts,
              builder.actionIgnoredExceptions,
-             builder.lookupIgnoredExceptions);
+             builder.lookupIgnoredExceptions,
+             builder.cachedElementValidation,
+             builder.listeners);
     }
 
     public TestPatientConfig(Predicate<WebElement> defaultFilter,
@@ -33,6 +37,27 @@ public final class TestPatientConfig extends AbstractPatientConfig<WebElement> {
         super(defaultFilter, defaultWait, defaultTimeout, maxElementActionAttempts, actionIgnoredExceptions, lookupIgnoredExceptions);
     }
 
+    public TestPatientConfig(Predicate<WebElement> defaultFilter,
+                             PatientWait defaultWait,
+                             Duration defaultTimeout,
+                             int maxElementActionAttempts,
+                             Set<Class<? extends RuntimeException>> actionIgnoredExceptions,
+                             Set<Class<? extends RuntimeException>> lookupIgnoredExceptions,
+                             boolean cachedElementValidation) {
+        super(defaultFilter, defaultWait, defaultTimeout, maxElementActionAttempts, actionIgnoredExceptions, lookupIgnoredExceptions, cachedElementValidation);
+    }
+
+    public TestPatientConfig(Predicate<WebElement> defaultFilter,
+                             PatientWait defaultWait,
+                             Duration defaultTimeout,
+                             int maxElementActionAttempts,
+                             Set<Class<? extends RuntimeException>> actionIgnoredExceptions,
+                             Set<Class<? extends RuntimeException>> lookupIgnoredExceptions,
+                             boolean cachedElementValidation,
+                             List<PatientListener> listeners) {
+        super(defaultFilter, defaultWait, defaultTimeout, maxElementActionAttempts, actionIgnoredExceptions, lookupIgnoredExceptions, cachedElementValidation, listeners);
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -45,6 +70,8 @@ public final class TestPatientConfig extends AbstractPatientConfig<WebElement> {
         private int maxElementActionAttempts = 3;
         private Set<Class<? extends RuntimeException>> actionIgnoredExceptions = new HashSet<>();
         private Set<Class<? extends RuntimeException>> lookupIgnoredExceptions = new HashSet<>();
+        private boolean cachedElementValidation = false;
+        private List<PatientListener> listeners = Collections.emptyList();
 
         public final Builder withFilter(Predicate<WebElement> filter) {
             this.filter = filter;
@@ -86,6 +113,16 @@ public final class TestPatientConfig extends AbstractPatientConfig<WebElement> {
             return this;
         }
 
+        public final Builder withCachedElementValidation(boolean newValue) {
+            this.cachedElementValidation = newValue;
+            return this;
+        }
+
+        public final Builder withListeners(PatientListener... listeners) {
+            this.listeners = null == listeners ? null : Arrays.asList(listeners);
+            return this;
+        }
+
         public final TestPatientConfig build() {
             return new TestPatientConfig(this);
         }
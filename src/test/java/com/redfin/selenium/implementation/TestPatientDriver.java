@@ -6,6 +6,7 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 public final class TestPatientDriver
@@ -17,6 +18,17 @@ public final class TestPatientDriver
         super(config, description, webDriverSupplier);
     }
 
+    public TestPatientDriver(TestPatientConfig config,
+                             String description,
+                             Supplier<WebDriver> webDriverSupplier,
+                             Executor executor) {
+        super(config, description, webDriverSupplier, executor);
+    }
+
+    public void clearCachedDriver() {
+        setCachedDriver(null);
+    }
+
     @Override
     protected String getLocatorDescription(By by) {
         return String.format("%s.find(%s)", this, by);